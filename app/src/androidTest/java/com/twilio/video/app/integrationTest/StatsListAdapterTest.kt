@@ -0,0 +1,148 @@
+package com.twilio.video.app.integrationTest
+
+import android.view.View.MeasureSpec
+import android.view.View.MeasureSpec.EXACTLY
+import androidx.appcompat.view.ContextThemeWrapper
+import androidx.recyclerview.widget.LinearLayoutManager
+import androidx.recyclerview.widget.RecyclerView
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.filters.MediumTest
+import androidx.test.platform.app.InstrumentationRegistry.getInstrumentation
+import com.twilio.video.RemoteAudioTrackStats
+import com.twilio.video.StatsReport
+import com.twilio.video.app.R
+import com.twilio.video.app.adapter.StatsListAdapter
+import com.twilio.video.app.model.StatsRow
+import com.twilio.video.app.model.FrameTimingRegistry
+import com.twilio.video.app.model.StatsRowStore
+import com.twilio.video.app.sdk.TrackOwnerIndex
+import com.twilio.video.app.sdk.TrackStatsEngine
+import com.twilio.video.app.util.getTargetContext
+import org.hamcrest.CoreMatchers.equalTo
+import org.junit.Assert.assertThat
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+@MediumTest
+@IntegrationTest
+class StatsListAdapterTest {
+
+    private val context = ContextThemeWrapper(getTargetContext(), R.style.AppTheme)
+    private val statsListAdapter = StatsListAdapter(context)
+    private val statsRowStore = StatsRowStore(TrackStatsEngine(), "", "", "Audio Track", "")
+    private val trackOwners = TrackOwnerIndex().apply {
+        for (track in 0 until TRACK_COUNT) add("MT$track", "Participant $track")
+    }
+
+    @Test
+    fun it_should_not_inflate_rows_again_across_stats_ticks() {
+        lateinit var recyclerView: RecyclerView
+        getInstrumentation().runOnMainSync {
+            recyclerView = RecyclerView(context).apply {
+                layoutManager = LinearLayoutManager(context)
+                adapter = statsListAdapter
+            }
+        }
+        updateAndLayout(recyclerView, statsTick(0))
+        val inflationCount = statsListAdapter.inflationCount
+
+        for (tick in 1..10) {
+            updateAndLayout(recyclerView, statsTick(tick))
+        }
+
+        assertThat(recyclerView.childCount, equalTo(TRACK_COUNT))
+        assertThat(statsListAdapter.inflationCount, equalTo(inflationCount))
+    }
+
+    @Test
+    fun it_should_rebind_changed_fields_of_rows_updated_in_place() {
+        lateinit var recyclerView: RecyclerView
+        getInstrumentation().runOnMainSync {
+            recyclerView = RecyclerView(context).apply {
+                layoutManager = LinearLayoutManager(context)
+                adapter = statsListAdapter
+            }
+        }
+        updateAndLayout(recyclerView, statsTick(0))
+
+        updateAndLayout(recyclerView, statsTick(1))
+
+        val binding = (recyclerView.findViewHolderForAdapterPosition(0)
+                as StatsListAdapter.ViewHolder).binding
+        assertThat(binding.bytes.text.toString(), equalTo("1000"))
+        assertThat(binding.jitter.text.toString(), equalTo("1"))
+    }
+
+    private fun updateAndLayout(recyclerView: RecyclerView, statsRows: List<StatsRow>) {
+        getInstrumentation().runOnMainSync {
+            statsListAdapter.updateStatsRows(statsRows)
+            layout(recyclerView)
+        }
+    }
+
+    private fun layout(recyclerView: RecyclerView) {
+        recyclerView.measure(
+                MeasureSpec.makeMeasureSpec(1080, EXACTLY),
+                MeasureSpec.makeMeasureSpec(10_000, EXACTLY))
+        recyclerView.layout(0, 0, 1080, 10_000)
+    }
+
+    private fun statsTick(tick: Int): List<StatsRow> {
+        val statsReport = newInstance<StatsReport>()
+        val addRemoteAudioTrackStats = StatsReport::class.java.declaredMethods
+                .single { it.parameterTypes.singleOrNull() == RemoteAudioTrackStats::class.java }
+                .apply { isAccessible = true }
+        for (track in 0 until TRACK_COUNT) {
+            val stats = newInstance<RemoteAudioTrackStats>().apply {
+                setField("trackSid", "MT$track")
+                setField("codec", "opus")
+                setField("bytesReceived", tick * 1_000L + track)
+                setField("jitter", tick)
+                setField("audioLevel", tick)
+            }
+            addRemoteAudioTrackStats.invoke(statsReport, stats)
+        }
+        return statsRowStore.update(listOf(statsReport), trackOwners, emptyMap(),
+                FrameTimingRegistry())
+    }
+
+    /*
+     * The SDK only creates its stats natively, so they are created through their package private
+     * constructors and their public fields set reflectively.
+     */
+    private inline fun <reified T : Any> newInstance(): T {
+        val constructor = T::class.java.declaredConstructors.first()
+        constructor.isAccessible = true
+        val arguments = constructor.parameterTypes.map { type ->
+            when (type) {
+                Int::class.javaPrimitiveType -> 0
+                Long::class.javaPrimitiveType -> 0L
+                Float::class.javaPrimitiveType -> 0f
+                Double::class.javaPrimitiveType -> 0.0
+                Boolean::class.javaPrimitiveType -> false
+                String::class.java -> ""
+                else -> null
+            }
+        }
+        return constructor.newInstance(*arguments.toTypedArray()) as T
+    }
+
+    private fun Any.setField(name: String, value: Any) {
+        var type: Class<*>? = javaClass
+        while (type != null) {
+            val field = type.declaredFields.find { it.name == name }
+            if (field != null) {
+                field.isAccessible = true
+                field.set(this, value)
+                return
+            }
+            type = type.superclass
+        }
+        throw IllegalArgumentException("${javaClass.name} has no field $name")
+    }
+
+    companion object {
+        private const val TRACK_COUNT = 4
+    }
+}
@@ -20,9 +20,14 @@ class CommunityVideoSdkModule {
     fun providesConnectOptionsFactory(
         application: Application,
         sharedPreferences: SharedPreferences,
-        tokenService: TokenService
+        tokenService: TokenService,
+        renderDimensionHints: RenderDimensionHints
     ): ConnectOptionsFactory =
-            ConnectOptionsFactory(application, sharedPreferences, tokenService)
+            ConnectOptionsFactory(application, sharedPreferences, tokenService, renderDimensionHints)
+
+    @Provides
+    @ApplicationScope
+    fun providesRenderDimensionHints(): RenderDimensionHints = RenderDimensionHints()
 
     @Provides
     fun providesRoomFactory(
@@ -36,7 +41,9 @@ class CommunityVideoSdkModule {
     fun providesRoomManager(
         application: Application,
         videoClient: VideoClient,
-        sharedPreferences: SharedPreferences
+        sharedPreferences: SharedPreferences,
+        renderDimensionHints: RenderDimensionHints
     ): RoomManager =
-            RoomManager(application, videoClient, sharedPreferences)
+            RoomManager(application, videoClient, sharedPreferences,
+                    renderDimensionHints = renderDimensionHints)
 }
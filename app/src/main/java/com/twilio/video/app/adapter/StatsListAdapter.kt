@@ -17,205 +17,187 @@
 package com.twilio.video.app.adapter
 
 import android.content.Context
-import android.os.Handler
-import android.os.Looper
 import android.view.LayoutInflater
 import android.view.View
 import android.view.ViewGroup
+import androidx.annotation.VisibleForTesting
+import androidx.annotation.VisibleForTesting.PRIVATE
+import androidx.recyclerview.widget.DiffUtil
+import androidx.recyclerview.widget.ListAdapter
 import androidx.recyclerview.widget.RecyclerView
-import com.twilio.video.RemoteAudioTrack
-import com.twilio.video.RemoteParticipant
-import com.twilio.video.RemoteVideoTrack
+import androidx.recyclerview.widget.SimpleItemAnimator
 import com.twilio.video.app.R
 import com.twilio.video.app.databinding.StatsViewBinding
-import com.twilio.video.app.model.StatsListItem
+import com.twilio.video.app.model.StatsRow
+import com.twilio.video.app.model.StatsRow.Companion.ALL_FIELDS
+import com.twilio.video.app.model.StatsRow.Companion.AUDIO_LEVEL
+import com.twilio.video.app.model.StatsRow.Companion.BITRATE
+import com.twilio.video.app.model.StatsRow.Companion.BYTES
+import com.twilio.video.app.model.StatsRow.Companion.CODEC
+import com.twilio.video.app.model.StatsRow.Companion.DIMENSIONS
+import com.twilio.video.app.model.StatsRow.Companion.FRAMERATE
+import com.twilio.video.app.model.StatsRow.Companion.JITTER
+import com.twilio.video.app.model.StatsRow.Companion.PACKETS_LOST
+import com.twilio.video.app.model.StatsRow.Companion.PACKET_LOSS
+import com.twilio.video.app.model.StatsRow.Companion.RENDER_TIMINGS
+import com.twilio.video.app.model.StatsRow.Companion.RTT
+import com.twilio.video.app.model.StatsRow.Companion.TRACK_NAME
 import com.twilio.video.app.sdk.RoomStats
+import java.util.Locale
 
-class StatsListAdapter(private val context: Context) : RecyclerView.Adapter<StatsListAdapter.ViewHolder>() {
-
-    private val statsListItems = ArrayList<StatsListItem>()
-    private val handler: Handler = Handler(Looper.getMainLooper())
+/**
+ * Adapter for the stats panel. It is meant to live as long as the panel and shows the pooled
+ * [StatsRow]s that the stats thread updates in place. Rows coming and going are diffed by track
+ * sid on a background thread, while a row that stays is only rebound for the fields that changed,
+ * so a value is only formatted again when it differs.
+ */
+class StatsListAdapter(context: Context) :
+        ListAdapter<StatsRow, StatsListAdapter.ViewHolder>(StatsDiffCallback()) {
+
+    private var statsRows: List<StatsRow> = emptyList()
+    private val itemIds = HashMap<String, Long>()
+    private val bytesSentTitle = context.getString(R.string.stats_bytes_sent)
+    private val bytesReceivedTitle = context.getString(R.string.stats_bytes_received)
+    private val renderValue = context.getString(R.string.stats_render_value)
+    private val notRendered = context.getString(R.string.stats_not_rendered)
+    @VisibleForTesting(otherwise = PRIVATE)
+    internal var inflationCount = 0
+        private set
+
+    init {
+        setHasStableIds(true)
+    }
 
     class ViewHolder(internal val binding: StatsViewBinding) : RecyclerView.ViewHolder(binding.root)
 
+    /*
+     * Rows are pooled by track, so the diff only finds the rows that came, went or moved. A row
+     * replaced because its track changed kind is rebound as a whole, the fields of the others are
+     * rebound from their change bits instead.
+     */
+    private class StatsDiffCallback : DiffUtil.ItemCallback<StatsRow>() {
+        override fun areItemsTheSame(oldItem: StatsRow, newItem: StatsRow): Boolean =
+                oldItem.trackSid == newItem.trackSid
+
+        override fun areContentsTheSame(oldItem: StatsRow, newItem: StatsRow): Boolean =
+                oldItem === newItem
+    }
+
+    override fun onAttachedToRecyclerView(recyclerView: RecyclerView) {
+        // Change animations would inflate a second view holder for every updated row
+        (recyclerView.itemAnimator as? SimpleItemAnimator)?.supportsChangeAnimations = false
+    }
+
     override fun onCreateViewHolder(parent: ViewGroup, viewType: Int): ViewHolder {
         val layoutInflater = LayoutInflater.from(parent.context)
         val binding = StatsViewBinding.inflate(layoutInflater, parent, false)
+        inflationCount++
         return ViewHolder(binding)
     }
 
+    override fun onBindViewHolder(holder: ViewHolder, position: Int, payloads: MutableList<Any>) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position)
+        } else {
+            var changedFields = 0
+            payloads.forEach { changedFields = changedFields or it as Int }
+            bindFields(holder.binding, getItem(position), changedFields)
+        }
+    }
+
     override fun onBindViewHolder(holder: ViewHolder, position: Int) {
-        val item = statsListItems[position]
+        val row = getItem(position)
+        // Every field is bound, so the fields that changed since the last take do not matter
+        row.takeChangedFields()
         val binding = holder.binding
-        binding.trackName.text = item.trackName
-        binding.trackSid.text = item.trackSid
-        binding.codec.text = item.codec
-        binding.packetsLost.text = item.packetsLost.toString()
-        binding.bytes.text = item.bytes.toString()
-        if (item.isLocalTrack) {
-            binding.bytesTitle.text = context.getString(R.string.stats_bytes_sent)
-            binding.rtt.text = item.rtt.toString()
+        binding.trackSid.text = row.trackSid
+        if (row.isLocalTrack) {
+            binding.bytesTitle.text = bytesSentTitle
             binding.rttRow.visibility = View.VISIBLE
         } else {
             binding.rttRow.visibility = View.GONE
-            binding.bytesTitle.text = context.getString(R.string.stats_bytes_received)
+            binding.bytesTitle.text = bytesReceivedTitle
         }
-        if (item.isAudioTrack) {
-            binding.jitter.text = item.jitter.toString()
-            binding.audioLevel.text = item.audioLevel.toString()
+        if (row.isAudioTrack) {
             binding.dimensionsRow.visibility = View.GONE
             binding.framerateRow.visibility = View.GONE
             binding.jitterRow.visibility = View.VISIBLE
             binding.audioLevelRow.visibility = View.VISIBLE
         } else {
-            binding.dimensions.text = item.dimensions
-            binding.framerate.text = item.framerate.toString()
             binding.dimensionsRow.visibility = View.VISIBLE
             binding.framerateRow.visibility = View.VISIBLE
             binding.jitterRow.visibility = View.GONE
             binding.audioLevelRow.visibility = View.GONE
         }
+        binding.renderRow.visibility =
+                if (row.isLocalTrack || row.isAudioTrack) View.GONE else View.VISIBLE
+        bindFields(binding, row, ALL_FIELDS)
     }
 
-    override fun getItemCount(): Int {
-        return statsListItems.size
-    }
-
-    fun updateStatsData(roomStats: RoomStats?) {
-        /*
-         * Generate new items on a separate list to ensure statsListItems changes are only
-         * performed on the UI thread to meet the threading requirement of RecyclerView.Adapter.
-         */
-        val statsItemList = mutableListOf<StatsListItem>()
-
-        // Generate stats items list from reports
-        var localTracksAdded = false
-        roomStats?.statsReports?.let { statsReports ->
-            for (report in statsReports) {
-                if (!localTracksAdded) {
-                    // go trough local tracks
-                    for (localAudioTrackStats in report.localAudioTrackStats) {
-                        val item = StatsListItem.Builder()
-                                .baseTrackInfo(localAudioTrackStats)
-                                .bytes(localAudioTrackStats.bytesSent)
-                                .rtt(localAudioTrackStats.roundTripTime)
-                                .jitter(localAudioTrackStats.jitter)
-                                .audioLevel(localAudioTrackStats.audioLevel)
-                                .trackName(context.getString(R.string.local_audio_track))
-                                .isAudioTrack(true)
-                                .isLocalTrack(true)
-                                .build()
-                        statsItemList.add(item)
-                    }
-                    for (localVideoTrackStats in report.localVideoTrackStats) {
-                        var localVideoTrackName = roomStats.localVideoTrackNames[localVideoTrackStats.trackSid]
-                        if (localVideoTrackName == null) {
-                            localVideoTrackName = context.getString(R.string.local_video_track)
-                        }
-                        val item = StatsListItem.Builder()
-                                .baseTrackInfo(localVideoTrackStats)
-                                .bytes(localVideoTrackStats.bytesSent)
-                                .rtt(localVideoTrackStats.roundTripTime)
-                                .dimensions(localVideoTrackStats.dimensions.toString())
-                                .framerate(localVideoTrackStats.frameRate)
-                                .trackName(localVideoTrackName)
-                                .isAudioTrack(false)
-                                .isLocalTrack(true)
-                                .build()
-                        statsItemList.add(item)
-                    }
-                    localTracksAdded = true
-                }
-                var trackCount = 0
-                for (remoteAudioTrackStats in report.remoteAudioTrackStats) {
-                    val trackName = (getParticipantName(remoteAudioTrackStats.trackSid, true, roomStats.remoteParticipants) +
-                            " " +
-                            context.getString(R.string.audio_track) +
-                            " " +
-                            trackCount)
-                    val item = StatsListItem.Builder()
-                            .baseTrackInfo(remoteAudioTrackStats)
-                            .bytes(remoteAudioTrackStats.bytesReceived)
-                            .jitter(remoteAudioTrackStats.jitter)
-                            .audioLevel(remoteAudioTrackStats.audioLevel)
-                            .trackName(trackName)
-                            .isAudioTrack(true)
-                            .isLocalTrack(false)
-                            .build()
-                    statsItemList.add(item)
-                    trackCount++
-                }
-                trackCount = 0
-                for (remoteVideoTrackStats in report.remoteVideoTrackStats) {
-                    val trackName = (getParticipantName(
-                            remoteVideoTrackStats.trackSid, false, roomStats.remoteParticipants) +
-                            " " +
-                            context.getString(R.string.video_track) +
-                            " " +
-                            trackCount)
-                    val item = StatsListItem.Builder()
-                            .baseTrackInfo(remoteVideoTrackStats)
-                            .bytes(remoteVideoTrackStats.bytesReceived)
-                            .dimensions(remoteVideoTrackStats.dimensions.toString())
-                            .framerate(remoteVideoTrackStats.frameRate)
-                            .trackName(trackName)
-                            .isAudioTrack(false)
-                            .isLocalTrack(false)
-                            .build()
-                    statsItemList.add(item)
-                    trackCount++
-                }
-            }
+    private fun bindFields(binding: StatsViewBinding, row: StatsRow, fields: Int) {
+        val values = row.values
+        if (fields and TRACK_NAME != 0) binding.trackName.text = values.trackName
+        if (fields and CODEC != 0) binding.codec.text = values.codec
+        if (fields and PACKETS_LOST != 0) binding.packetsLost.text = values.packetsLost.toString()
+        if (fields and BYTES != 0) binding.bytes.text = values.bytes.toString()
+        if (fields and BITRATE != 0) {
+            binding.bitrate.text = (values.bitrate / 1_000).toString()
+            binding.bitrateSparkline.setValues(values.bitrateHistory, values.bitrateHistorySize)
         }
-
-        handler.post {
-            statsListItems.clear()
-            statsListItems.addAll(statsItemList.toList())
-            notifyDataSetChanged()
+        if (fields and PACKET_LOSS != 0) {
+            binding.packetLoss.text = String.format(Locale.US, "%.1f", values.packetLossPercent)
         }
-    }
-
-    private fun getParticipantName(
-        trackSid: String,
-        isAudioTrack: Boolean,
-        remoteParticipants: List<RemoteParticipant>
-    ): String {
-        for (remoteParticipant in remoteParticipants) {
-            if (isAudioTrack) {
-                val remoteAudioTrack = getAudioTrack(remoteParticipant, trackSid)
-                if (remoteAudioTrack != null) {
-                    return remoteParticipant.identity
-                }
-            } else {
-                val remoteVideoTrack = getRemoteVideoTrack(remoteParticipant, trackSid)
-                if (remoteVideoTrack != null) {
-                    return remoteParticipant.identity
+        if (row.isLocalTrack) {
+            if (fields and RTT != 0) binding.rtt.text = values.rtt.toString()
+        }
+        if (row.isAudioTrack) {
+            if (fields and JITTER != 0) binding.jitter.text = values.jitter.toString()
+            if (fields and AUDIO_LEVEL != 0) binding.audioLevel.text = values.audioLevel.toString()
+        } else {
+            if (fields and DIMENSIONS != 0) {
+                binding.dimensions.text = "${values.width}x${values.height}"
+            }
+            if (fields and FRAMERATE != 0) binding.framerate.text = values.framerate.toString()
+            if (!row.isLocalTrack && fields and RENDER_TIMINGS != 0) {
+                binding.render.text = if (values.isRendered) {
+                    String.format(Locale.US, renderValue, values.renderFramerate,
+                            values.renderLatencyMillis, values.renderJankPercent)
+                } else {
+                    notRendered
                 }
             }
         }
-        return ""
     }
 
-    private fun getAudioTrack(remoteParticipant: RemoteParticipant, trackSid: String): RemoteAudioTrack? {
-        for (remoteAudioTrackPublication in remoteParticipant.remoteAudioTracks) {
-            if (remoteAudioTrackPublication.trackSid == trackSid) {
-                return remoteAudioTrackPublication.remoteAudioTrack
+    override fun getItemId(position: Int): Long =
+            getItem(position).trackSid.let { trackSid ->
+                itemIds.getOrPut(trackSid) { itemIds.size.toLong() }
             }
-        }
 
-        return null
+    fun updateStatsData(roomStats: RoomStats?) {
+        updateStatsRows(roomStats?.statsRows ?: emptyList())
     }
 
-    private fun getRemoteVideoTrack(
-        remoteParticipant: RemoteParticipant,
-        trackSid: String
-    ): RemoteVideoTrack? {
-        for (remoteVideoTrackPublication in remoteParticipant.remoteVideoTracks) {
-            if (remoteVideoTrackPublication.trackSid == trackSid) {
-                return remoteVideoTrackPublication.remoteVideoTrack
-            }
+    /**
+     * Shows the given rows. A new list means rows came or went and is diffed against the current
+     * one, and the rows with changed fields are rebound once the diff is applied. Otherwise only
+     * the rows with changed fields are rebound. Must be called on the main thread.
+     */
+    @VisibleForTesting(otherwise = PRIVATE)
+    internal fun updateStatsRows(newStatsRows: List<StatsRow>) {
+        if (newStatsRows !== statsRows) {
+            statsRows = newStatsRows
+            if (newStatsRows.isEmpty()) itemIds.clear()
+            submitList(newStatsRows) { rebindChangedFields() }
         }
+        rebindChangedFields()
+    }
 
-        return null
+    private fun rebindChangedFields() {
+        val rows = currentList
+        for (index in rows.indices) {
+            val changedFields = rows[index].takeChangedFields()
+            if (changedFields != 0) notifyItemChanged(index, changedFields)
+        }
     }
 }
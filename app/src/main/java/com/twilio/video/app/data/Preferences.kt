@@ -32,6 +32,11 @@ object Preferences {
     const val ENVIRONMENT_DEFAULT = BuildConfig.ENVIRONMENT_DEFAULT
     const val TOPOLOGY = "pref_topology"
     val TOPOLOGY_DEFAULT: String = Topology.GROUP.value
+    const val RENDER_TIMING_OVERLAY = "pref_render_timing_overlay"
+    const val RENDER_TIMING_OVERLAY_DEFAULT = false
+    /** Columns of the participant grid, 0 shows the primary participant and the thumbnails. */
+    const val ROOM_LAYOUT = "pref_room_layout"
+    const val ROOM_LAYOUT_DEFAULT = "0"
     val VIDEO_DIMENSIONS = arrayOf(
             VideoDimensions.CIF_VIDEO_DIMENSIONS,
             VideoDimensions.VGA_VIDEO_DIMENSIONS,
@@ -44,11 +49,18 @@ object Preferences {
     )
     const val VIDEO_CAPTURE_RESOLUTION = "pref_video_capture_resolution"
     const val VIDEO_CAPTURE_RESOLUTION_DEFAULT = "1"
+    const val ADAPTIVE_PUBLISH_QUALITY = "pref_adaptive_publish_quality"
+    const val ADAPTIVE_PUBLISH_QUALITY_DEFAULT = false
+    const val CAPTURE_DEGRADATION = "pref_capture_degradation"
+    const val CAPTURE_DEGRADATION_DEFAULT = true
     const val VERSION_NAME = "pref_version_name"
     const val VIDEO_LIBRARY_VERSION = "pref_video_library_version"
     const val LOGOUT = "pref_logout"
     const val ENABLE_STATS = "pref_enable_stats"
     const val ENABLE_STATS_DEFAULT = true
+    const val CALL_QUALITY_LOG_BUDGET = "pref_call_quality_log_budget"
+    const val CALL_QUALITY_LOG_BUDGET_DEFAULT = 0
+    const val CALL_QUALITY_EXPORT = "pref_call_quality_export"
     const val ENABLE_INSIGHTS = "pref_enable_insights"
     const val ENABLE_NETWORK_QUALITY_LEVEL = "pref_enable_network_quality_level"
     const val ENABLE_NETWORK_QUALITY_LEVEL_DEFAULT = true
@@ -0,0 +1,133 @@
+package com.twilio.video.app.model
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * Upper bounds, in milliseconds, of the frame interval histogram buckets. The last bucket of the
+ * histogram holds every longer interval.
+ */
+val FRAME_INTERVAL_BUCKET_BOUNDS_MILLIS = intArrayOf(20, 40, 70, 100, 200, 500)
+val FRAME_INTERVAL_BUCKET_COUNT = FRAME_INTERVAL_BUCKET_BOUNDS_MILLIS.size + 1
+
+/** Intervals longer than this count as janky frames. */
+const val JANK_INTERVAL_MILLIS = 70
+
+/**
+ * Records the frames that reach a video sink. [onFrame] runs on the thread that delivers the
+ * frames and only updates atomic counters, so it never blocks or allocates. Any thread may read
+ * the counters through a [FrameTimingWindow].
+ *
+ * The latency is the time from the frame timestamp to its arrival at the sink. WebRTC stamps
+ * decoded frames with their render time on the monotonic clock, so it covers the time spent in
+ * the decoder and on the way to the view.
+ */
+class FrameTimingRecorder {
+
+    private val frameCount = AtomicLong()
+    private val lastFrameNanos = AtomicLong(NO_FRAME)
+    private val intervalHistogram = AtomicLongArray(FRAME_INTERVAL_BUCKET_COUNT)
+    private val latencyCount = AtomicLong()
+    private val latencySumNanos = AtomicLong()
+
+    fun onFrame(timestampNanos: Long, nowNanos: Long) {
+        frameCount.incrementAndGet()
+        val lastFrameNanos = lastFrameNanos.getAndSet(nowNanos)
+        if (lastFrameNanos != NO_FRAME) {
+            intervalHistogram.incrementAndGet(bucket((nowNanos - lastFrameNanos) / NANOS_PER_MILLI))
+        }
+        val latencyNanos = nowNanos - timestampNanos
+        if (latencyNanos >= 0) {
+            latencySumNanos.addAndGet(latencyNanos)
+            latencyCount.incrementAndGet()
+        }
+    }
+
+    /** Starts over without a previous frame, e.g. when the view renders another track. */
+    fun reset() {
+        lastFrameNanos.set(NO_FRAME)
+    }
+
+    internal fun copyInto(snapshot: Snapshot) {
+        snapshot.frameCount = frameCount.get()
+        for (bucket in 0 until FRAME_INTERVAL_BUCKET_COUNT) {
+            snapshot.intervalHistogram[bucket] = intervalHistogram.get(bucket)
+        }
+        snapshot.latencyCount = latencyCount.get()
+        snapshot.latencySumNanos = latencySumNanos.get()
+    }
+
+    private fun bucket(intervalMillis: Long): Int {
+        for (bucket in FRAME_INTERVAL_BUCKET_BOUNDS_MILLIS.indices) {
+            if (intervalMillis <= FRAME_INTERVAL_BUCKET_BOUNDS_MILLIS[bucket]) return bucket
+        }
+        return FRAME_INTERVAL_BUCKET_BOUNDS_MILLIS.size
+    }
+
+    internal class Snapshot {
+        var timestampNanos = NO_FRAME
+        var frameCount = 0L
+        val intervalHistogram = LongArray(FRAME_INTERVAL_BUCKET_COUNT)
+        var latencyCount = 0L
+        var latencySumNanos = 0L
+    }
+
+    private companion object {
+        const val NO_FRAME = Long.MIN_VALUE
+        const val NANOS_PER_MILLI = 1_000_000L
+    }
+}
+
+/**
+ * Frame timings of a [FrameTimingRecorder] over the time between two calls to [update]. Every
+ * reader keeps its own window, updating it does not allocate.
+ */
+class FrameTimingWindow {
+
+    private var previous = FrameTimingRecorder.Snapshot()
+    private var current = FrameTimingRecorder.Snapshot()
+
+    /** Frames per second that reached the sink. */
+    var framesPerSecond = 0f
+        private set
+    /** Average latency from the frame timestamp to the sink, in milliseconds. */
+    var averageLatencyMillis = 0f
+        private set
+    /** Share of frame intervals longer than [JANK_INTERVAL_MILLIS], in percent. */
+    var jankPercent = 0f
+        private set
+    /** Frame intervals per [FRAME_INTERVAL_BUCKET_BOUNDS_MILLIS] bucket. */
+    val intervalHistogram = LongArray(FRAME_INTERVAL_BUCKET_COUNT)
+
+    fun update(recorder: FrameTimingRecorder, nowNanos: Long) {
+        val snapshot = previous
+        previous = current
+        current = snapshot
+        recorder.copyInto(current)
+        current.timestampNanos = nowNanos
+
+        var intervalCount = 0L
+        var jankCount = 0L
+        for (bucket in 0 until FRAME_INTERVAL_BUCKET_COUNT) {
+            val count = current.intervalHistogram[bucket] - previous.intervalHistogram[bucket]
+            intervalHistogram[bucket] = count
+            intervalCount += count
+            if (bucket > 0 && FRAME_INTERVAL_BUCKET_BOUNDS_MILLIS[bucket - 1] >= JANK_INTERVAL_MILLIS) {
+                jankCount += count
+            }
+        }
+        val elapsedNanos = current.timestampNanos - previous.timestampNanos
+        framesPerSecond = if (previous.timestampNanos != Long.MIN_VALUE && elapsedNanos > 0) {
+            (current.frameCount - previous.frameCount) * 1_000_000_000f / elapsedNanos
+        } else {
+            0f
+        }
+        val latencyCount = current.latencyCount - previous.latencyCount
+        averageLatencyMillis = if (latencyCount > 0) {
+            (current.latencySumNanos - previous.latencySumNanos) / latencyCount / 1_000_000f
+        } else {
+            0f
+        }
+        jankPercent = if (intervalCount > 0) jankCount * 100f / intervalCount else 0f
+    }
+}
@@ -0,0 +1,27 @@
+package com.twilio.video.app.model
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * The [FrameTimingRecorder]s of the views that currently render a remote video track, keyed by
+ * track sid. The views register on the main thread, the stats thread looks them up.
+ */
+class FrameTimingRegistry {
+
+    private val recorders = ConcurrentHashMap<String, FrameTimingRecorder>()
+
+    operator fun get(trackSid: String): FrameTimingRecorder? = recorders[trackSid]
+
+    fun register(trackSid: String, recorder: FrameTimingRecorder) {
+        recorders[trackSid] = recorder
+    }
+
+    /** Only removes the recorder if another view did not take over the track in the meantime. */
+    fun unregister(trackSid: String, recorder: FrameTimingRecorder) {
+        recorders.remove(trackSid, recorder)
+    }
+
+    fun clear() {
+        recorders.clear()
+    }
+}
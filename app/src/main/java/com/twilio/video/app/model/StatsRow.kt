@@ -0,0 +1,288 @@
+package com.twilio.video.app.model
+
+import com.twilio.video.app.sdk.TRACK_RATES_SPARKLINE_SIZE
+import com.twilio.video.app.sdk.TrackStats
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Stats panel row of a single track. Rows are pooled by track sid in a [StatsRowStore] and
+ * updated in place on the stats thread, where a setter only records a change when the value
+ * differs. The store publishes the values of every updated row at the end of a tick, and the main
+ * thread takes the latest published values along with the fields that changed since it last took
+ * them, so it only formats the fields that changed.
+ *
+ * The published values are triple buffered: the stats thread copies its values into a back
+ * buffer and swaps it with the shared one, and the main thread swaps its front buffer with the
+ * shared one when it holds values it has not taken yet. A buffer is only ever owned by one of the
+ * two threads, so the main thread never sees the values of a tick half written, and publishing
+ * allocates nothing.
+ */
+class StatsRow internal constructor(
+    val trackSid: String,
+    val isLocalTrack: Boolean,
+    val isAudioTrack: Boolean
+) {
+
+    internal var lastUpdate = -1L
+    internal var trackNameOwner: String? = null
+    internal var trackNameIndex = -1
+    private var bitrateHistoryTimestamp = NO_HISTORY
+    private var frameTimingWindow: FrameTimingWindow? = null
+
+    // Only used on the stats thread: the latest values and the fields changed since publishing
+    private val current = StatsRowValues()
+    private var changedFields = ALL_FIELDS
+
+    private val buffers = arrayOf(StatsRowValues(), StatsRowValues(), StatsRowValues())
+    private var backIndex = 0
+    private var frontIndex = 1
+    // Index of the shared buffer, flagged with PUBLISHED until the main thread takes it
+    private val shared = AtomicInteger(2)
+
+    /** The values last taken by [takeChangedFields]. Must only be read on the main thread. */
+    val values: StatsRowValues get() = buffers[frontIndex]
+
+    /**
+     * Takes the values published since the last call, if any, and returns the fields that
+     * changed since then. Must only be called on the main thread.
+     */
+    fun takeChangedFields(): Int {
+        while (true) {
+            val state = shared.get()
+            if (state and PUBLISHED == 0) return 0
+            if (shared.compareAndSet(state, frontIndex)) {
+                frontIndex = state and BUFFER_INDEX
+                return buffers[frontIndex].changedFields
+            }
+        }
+    }
+
+    /** Publishes the values of this tick if any changed. Must only be used on the stats thread. */
+    internal fun publish() {
+        if (changedFields == 0) return
+        val back = buffers[backIndex]
+        back.copyFrom(current)
+        while (true) {
+            val state = shared.get()
+            val sharedIndex = state and BUFFER_INDEX
+            // Values the main thread has not taken are replaced, so their changes carry over
+            back.changedFields = if (state and PUBLISHED != 0) {
+                changedFields or buffers[sharedIndex].changedFields
+            } else {
+                changedFields
+            }
+            if (shared.compareAndSet(state, backIndex or PUBLISHED)) {
+                backIndex = sharedIndex
+                break
+            }
+        }
+        changedFields = 0
+    }
+
+    internal fun setTrackName(trackName: String) {
+        if (current.trackName != trackName) {
+            current.trackName = trackName
+            changed(TRACK_NAME)
+        }
+    }
+
+    internal fun setCodec(codec: String?) {
+        val value = codec ?: ""
+        if (current.codec != value) {
+            current.codec = value
+            changed(CODEC)
+        }
+    }
+
+    internal fun setPacketsLost(packetsLost: Int) {
+        if (current.packetsLost != packetsLost) {
+            current.packetsLost = packetsLost
+            changed(PACKETS_LOST)
+        }
+    }
+
+    internal fun setBytes(bytes: Long) {
+        if (current.bytes != bytes) {
+            current.bytes = bytes
+            changed(BYTES)
+        }
+    }
+
+    internal fun setRtt(rtt: Long) {
+        if (current.rtt != rtt) {
+            current.rtt = rtt
+            changed(RTT)
+        }
+    }
+
+    internal fun setDimensions(width: Int, height: Int) {
+        if (current.width != width || current.height != height) {
+            current.width = width
+            current.height = height
+            changed(DIMENSIONS)
+        }
+    }
+
+    internal fun setFramerate(framerate: Int) {
+        if (current.framerate != framerate) {
+            current.framerate = framerate
+            changed(FRAMERATE)
+        }
+    }
+
+    internal fun setJitter(jitter: Int) {
+        if (current.jitter != jitter) {
+            current.jitter = jitter
+            changed(JITTER)
+        }
+    }
+
+    internal fun setAudioLevel(audioLevel: Int) {
+        if (current.audioLevel != audioLevel) {
+            current.audioLevel = audioLevel
+            changed(AUDIO_LEVEL)
+        }
+    }
+
+    /**
+     * Updates the render timings from the recorder of the view that renders the track, or clears
+     * them if no view does. The window is reused for as long as the row lives.
+     */
+    internal fun setRenderTimings(recorder: FrameTimingRecorder?, nowNanos: Long) {
+        if (recorder == null) {
+            if (current.isRendered) {
+                current.isRendered = false
+                frameTimingWindow = null
+                changed(RENDER_TIMINGS)
+            }
+            return
+        }
+        val window = frameTimingWindow ?: FrameTimingWindow().also { frameTimingWindow = it }
+        window.update(recorder, nowNanos)
+        // Rounded to the precision the panel shows, so noise does not rebind the row
+        val framerate = Math.round(window.framesPerSecond * 10) / 10f
+        val latencyMillis = Math.round(window.averageLatencyMillis)
+        val jankPercent = Math.round(window.jankPercent)
+        if (!current.isRendered || current.renderFramerate != framerate ||
+                current.renderLatencyMillis != latencyMillis ||
+                current.renderJankPercent != jankPercent) {
+            current.isRendered = true
+            current.renderFramerate = framerate
+            current.renderLatencyMillis = latencyMillis
+            current.renderJankPercent = jankPercent
+            changed(RENDER_TIMINGS)
+        }
+    }
+
+    private fun setPacketLossPercent(packetLossPercent: Float) {
+        if (current.packetLossPercent != packetLossPercent) {
+            current.packetLossPercent = packetLossPercent
+            changed(PACKET_LOSS)
+        }
+    }
+
+    /**
+     * Updates the rates of the row. The sparkline is only copied again when an interval was
+     * appended to the bitrate history since the last update.
+     */
+    internal fun setRates(trackStats: TrackStats) {
+        setPacketLossPercent(trackStats.packetLossPercent)
+        val timestamps = trackStats.timestamps
+        val historyTimestamp = if (timestamps.size > 0) timestamps.last else NO_HISTORY
+        if (current.bitrate != trackStats.bitrate || bitrateHistoryTimestamp != historyTimestamp) {
+            current.bitrate = trackStats.bitrate
+            bitrateHistoryTimestamp = historyTimestamp
+            current.bitrateHistorySize = trackStats.bitrateHistory.copyInto(current.bitrateHistory)
+            changed(BITRATE)
+        }
+    }
+
+    private fun changed(field: Int) {
+        changedFields = changedFields or field
+    }
+
+    companion object {
+        const val TRACK_NAME = 1
+        const val CODEC = 1 shl 1
+        const val PACKETS_LOST = 1 shl 2
+        const val BYTES = 1 shl 3
+        const val RTT = 1 shl 4
+        const val DIMENSIONS = 1 shl 5
+        const val FRAMERATE = 1 shl 6
+        const val JITTER = 1 shl 7
+        const val AUDIO_LEVEL = 1 shl 8
+        const val BITRATE = 1 shl 9
+        const val PACKET_LOSS = 1 shl 10
+        const val RENDER_TIMINGS = 1 shl 11
+        const val ALL_FIELDS = (1 shl 12) - 1
+        private const val NO_HISTORY = -1L
+        private const val BUFFER_INDEX = 3
+        private const val PUBLISHED = 4
+    }
+}
+
+/** The values of a [StatsRow] as of one stats tick. */
+class StatsRowValues internal constructor() {
+
+    internal var changedFields = 0
+
+    var trackName = ""
+        internal set
+    var codec = ""
+        internal set
+    var packetsLost = 0
+        internal set
+    var bytes = 0L
+        internal set
+    var bitrate = 0L
+        internal set
+    var packetLossPercent = 0f
+        internal set
+    var rtt = 0L
+        internal set
+    var width = 0
+        internal set
+    var height = 0
+        internal set
+    var framerate = 0
+        internal set
+    var jitter = 0
+        internal set
+    var audioLevel = 0
+        internal set
+    /** Whether a view renders the track, the render fields are only valid if it does. */
+    var isRendered = false
+        internal set
+    var renderFramerate = 0f
+        internal set
+    var renderLatencyMillis = 0
+        internal set
+    var renderJankPercent = 0
+        internal set
+
+    /** The most recent bitrates, oldest first, for the sparkline. */
+    val bitrateHistory = LongArray(TRACK_RATES_SPARKLINE_SIZE)
+    var bitrateHistorySize = 0
+        internal set
+
+    internal fun copyFrom(values: StatsRowValues) {
+        trackName = values.trackName
+        codec = values.codec
+        packetsLost = values.packetsLost
+        bytes = values.bytes
+        bitrate = values.bitrate
+        packetLossPercent = values.packetLossPercent
+        rtt = values.rtt
+        width = values.width
+        height = values.height
+        framerate = values.framerate
+        jitter = values.jitter
+        audioLevel = values.audioLevel
+        isRendered = values.isRendered
+        renderFramerate = values.renderFramerate
+        renderLatencyMillis = values.renderLatencyMillis
+        renderJankPercent = values.renderJankPercent
+        System.arraycopy(values.bitrateHistory, 0, bitrateHistory, 0, values.bitrateHistorySize)
+        bitrateHistorySize = values.bitrateHistorySize
+    }
+}
@@ -0,0 +1,215 @@
+package com.twilio.video.app.model
+
+import com.twilio.video.StatsReport
+import com.twilio.video.app.sdk.TrackOwnerIndex
+import com.twilio.video.app.sdk.TrackStatsEngine
+
+/**
+ * Pool of [StatsRow]s keyed by track sid, updated in place from the stats reports on the stats
+ * thread. Once every track has a row, an update allocates nothing: track names are only
+ * concatenated again when the owner or position of a track changes, the values of a row are
+ * published into preallocated buffers, and a new row list is only published when rows were added,
+ * removed or reordered.
+ */
+class StatsRowStore(
+    private val trackStatsEngine: TrackStatsEngine,
+    private val localAudioTrackName: String,
+    private val localVideoTrackName: String,
+    private val audioTrackLabel: String,
+    private val videoTrackLabel: String
+) {
+
+    private val rowsByTrackSid = HashMap<String, StatsRow>()
+    private val updatedRows = ArrayList<StatsRow>()
+    private var update = 0L
+
+    /** Rows in display order. The list is replaced, never modified, when rows come and go. */
+    var rows: List<StatsRow> = emptyList()
+        private set
+
+    fun update(
+        statsReports: List<StatsReport>,
+        trackOwners: TrackOwnerIndex,
+        localVideoTrackNames: Map<String, String>,
+        frameTimings: FrameTimingRegistry,
+        nowNanos: Long = System.nanoTime()
+    ): List<StatsRow> {
+        beginUpdate()
+        for (reportIndex in statsReports.indices) {
+            val report = statsReports[reportIndex]
+            // Local tracks are reported by every peer connection, so only take the first report
+            if (reportIndex == 0) {
+                val localAudioTrackStats = report.localAudioTrackStats
+                for (index in localAudioTrackStats.indices) {
+                    val stats = localAudioTrackStats[index]
+                    updateLocalAudioTrack(stats.trackSid, stats.codec, stats.packetsLost,
+                            stats.bytesSent, stats.roundTripTime, stats.jitter, stats.audioLevel)
+                }
+                val localVideoTrackStats = report.localVideoTrackStats
+                for (index in localVideoTrackStats.indices) {
+                    val stats = localVideoTrackStats[index]
+                    updateLocalVideoTrack(stats.trackSid, localVideoTrackNames[stats.trackSid],
+                            stats.codec, stats.packetsLost, stats.bytesSent, stats.roundTripTime,
+                            stats.dimensions.width, stats.dimensions.height, stats.frameRate)
+                }
+            }
+            val remoteAudioTrackStats = report.remoteAudioTrackStats
+            for (index in remoteAudioTrackStats.indices) {
+                val stats = remoteAudioTrackStats[index]
+                updateRemoteAudioTrack(stats.trackSid, trackOwners[stats.trackSid], index,
+                        stats.codec, stats.packetsLost, stats.bytesReceived, stats.jitter,
+                        stats.audioLevel)
+            }
+            val remoteVideoTrackStats = report.remoteVideoTrackStats
+            for (index in remoteVideoTrackStats.indices) {
+                val stats = remoteVideoTrackStats[index]
+                updateRemoteVideoTrack(stats.trackSid, trackOwners[stats.trackSid], index,
+                        stats.codec, stats.packetsLost, stats.bytesReceived,
+                        stats.dimensions.width, stats.dimensions.height, stats.frameRate)
+            }
+        }
+        updateRenderTimings(frameTimings, nowNanos)
+        return endUpdate()
+    }
+
+    private fun beginUpdate() {
+        update++
+        updatedRows.clear()
+    }
+
+    private fun updateLocalAudioTrack(
+        trackSid: String,
+        codec: String?,
+        packetsLost: Int,
+        bytesSent: Long,
+        rtt: Long,
+        jitter: Int,
+        audioLevel: Int
+    ) {
+        val row = row(trackSid, isLocalTrack = true, isAudioTrack = true) ?: return
+        row.setTrackName(localAudioTrackName)
+        updateBaseTrackInfo(row, codec, packetsLost, bytesSent)
+        row.setRtt(rtt)
+        row.setJitter(jitter)
+        row.setAudioLevel(audioLevel)
+    }
+
+    private fun updateLocalVideoTrack(
+        trackSid: String,
+        trackName: String?,
+        codec: String?,
+        packetsLost: Int,
+        bytesSent: Long,
+        rtt: Long,
+        width: Int,
+        height: Int,
+        framerate: Int
+    ) {
+        val row = row(trackSid, isLocalTrack = true, isAudioTrack = false) ?: return
+        row.setTrackName(trackName ?: localVideoTrackName)
+        updateBaseTrackInfo(row, codec, packetsLost, bytesSent)
+        row.setRtt(rtt)
+        row.setDimensions(width, height)
+        row.setFramerate(framerate)
+    }
+
+    private fun updateRemoteAudioTrack(
+        trackSid: String,
+        owner: String?,
+        index: Int,
+        codec: String?,
+        packetsLost: Int,
+        bytesReceived: Long,
+        jitter: Int,
+        audioLevel: Int
+    ) {
+        val row = row(trackSid, isLocalTrack = false, isAudioTrack = true) ?: return
+        updateRemoteTrackName(row, owner, audioTrackLabel, index)
+        updateBaseTrackInfo(row, codec, packetsLost, bytesReceived)
+        row.setJitter(jitter)
+        row.setAudioLevel(audioLevel)
+    }
+
+    private fun updateRemoteVideoTrack(
+        trackSid: String,
+        owner: String?,
+        index: Int,
+        codec: String?,
+        packetsLost: Int,
+        bytesReceived: Long,
+        width: Int,
+        height: Int,
+        framerate: Int
+    ) {
+        val row = row(trackSid, isLocalTrack = false, isAudioTrack = false) ?: return
+        updateRemoteTrackName(row, owner, videoTrackLabel, index)
+        updateBaseTrackInfo(row, codec, packetsLost, bytesReceived)
+        row.setDimensions(width, height)
+        row.setFramerate(framerate)
+    }
+
+    /** Takes the render timings of the remote video tracks from the views that render them. */
+    private fun updateRenderTimings(frameTimings: FrameTimingRegistry, nowNanos: Long) {
+        for (index in updatedRows.indices) {
+            val row = updatedRows[index]
+            if (!row.isLocalTrack && !row.isAudioTrack) {
+                row.setRenderTimings(frameTimings[row.trackSid], nowNanos)
+            }
+        }
+    }
+
+    private fun endUpdate(): List<StatsRow> {
+        for (index in updatedRows.indices) updatedRows[index].publish()
+        if (rowsByTrackSid.size > updatedRows.size) {
+            rowsByTrackSid.values.retainAll { it.lastUpdate == update }
+        }
+        if (!hasSameRows(updatedRows)) {
+            rows = ArrayList(updatedRows)
+        }
+        return rows
+    }
+
+    /* Returns null for a track that was already updated by a previous report of this update. */
+    private fun row(trackSid: String, isLocalTrack: Boolean, isAudioTrack: Boolean): StatsRow? {
+        var row = rowsByTrackSid[trackSid]
+        if (row == null || row.isAudioTrack != isAudioTrack || row.isLocalTrack != isLocalTrack) {
+            row = StatsRow(trackSid, isLocalTrack, isAudioTrack)
+            rowsByTrackSid[trackSid] = row
+        } else if (row.lastUpdate == update) {
+            return null
+        }
+        row.lastUpdate = update
+        updatedRows.add(row)
+        return row
+    }
+
+    private fun updateBaseTrackInfo(row: StatsRow, codec: String?, packetsLost: Int, bytes: Long) {
+        row.setCodec(codec)
+        row.setPacketsLost(packetsLost)
+        row.setBytes(bytes)
+        trackStatsEngine[row.trackSid]?.let { row.setRates(it) }
+    }
+
+    private fun updateRemoteTrackName(row: StatsRow, owner: String?, label: String, index: Int) {
+        val trackOwner = owner ?: ""
+        if (row.trackNameOwner != trackOwner || row.trackNameIndex != index) {
+            row.trackNameOwner = trackOwner
+            row.trackNameIndex = index
+            row.setTrackName("$trackOwner $label $index")
+        }
+    }
+
+    private fun hasSameRows(updatedRows: List<StatsRow>): Boolean {
+        if (rows.size != updatedRows.size) return false
+        for (index in updatedRows.indices) {
+            if (rows[index] !== updatedRows[index]) return false
+        }
+        return true
+    }
+
+    fun clear() {
+        rowsByTrackSid.clear()
+        updatedRows.clear()
+        rows = emptyList()
+    }
+}
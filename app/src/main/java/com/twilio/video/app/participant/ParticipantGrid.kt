@@ -0,0 +1,140 @@
+package com.twilio.video.app.participant
+
+import com.twilio.video.TrackPriority
+import com.twilio.video.TrackPriority.HIGH
+import com.twilio.video.TrackPriority.LOW
+
+/** The participants of the grid page on screen. */
+data class ParticipantGridPage(
+    val columns: Int,
+    val page: Int,
+    val pageCount: Int,
+    val participants: List<ParticipantViewState>
+)
+
+/**
+ * Lays the participants out on pages of [columns] x [columns] cells. The cells keep their order
+ * across updates, so every change only touches the cells it concerns:
+ *
+ * - A new participant takes the next free cell on the last page.
+ * - A leaving participant's cell is taken over by the participant in the last cell.
+ * - A dominant speaker outside the current page swaps cells with the participant of the current
+ *   page that spoke the longest time ago.
+ *
+ * Each of these moves at most two cells, however many participants there are, so the views of a
+ * page are rebound one at a time instead of shifting along. The grid is told about every change
+ * on its own, so none of them goes over all participants, and only the cells of the current page
+ * are resolved into a [ParticipantGridPage].
+ */
+internal class ParticipantGrid(val columns: Int) {
+
+    private val pageSize = columns * columns
+    private val cells = ArrayList<String>()
+    private val cellIndexes = HashMap<String, Int>()
+    private val lastSpoke = HashMap<String, Long>()
+    private var speakCount = 0L
+    private var dominantSpeakerKey: String? = null
+
+    var page = 0
+        private set
+
+    val pageCount: Int get() = maxOf(1, (cells.size + pageSize - 1) / pageSize)
+
+    /** Lays out [participants] in thumbnail order, e.g. once the grid is shown. */
+    fun reset(participants: List<ParticipantViewState>) {
+        cells.clear()
+        cellIndexes.clear()
+        lastSpoke.clear()
+        dominantSpeakerKey = null
+        page = 0
+        participants.forEach { add(it) }
+        setDominantSpeaker(participants.firstOrNull { it.isDominantSpeaker }?.key)
+    }
+
+    /** Puts a new participant in the next free cell. */
+    fun add(participant: ParticipantViewState) {
+        val key = participant.key
+        if (key in cellIndexes) return
+        cellIndexes[key] = cells.size
+        cells.add(key)
+    }
+
+    /** Moves the participant in the last cell into the cell of the leaving participant. */
+    fun remove(participantSid: String) {
+        val index = cellIndexes.remove(participantSid) ?: return
+        val last = cells.removeAt(cells.lastIndex)
+        if (index < cells.size) {
+            cells[index] = last
+            cellIndexes[last] = index
+        }
+        lastSpoke.remove(participantSid)
+        if (participantSid == dominantSpeakerKey) dominantSpeakerKey = null
+        page = page.coerceAtMost(pageCount - 1)
+    }
+
+    fun setDominantSpeaker(participantSid: String?) {
+        if (participantSid == dominantSpeakerKey) return
+        dominantSpeakerKey = participantSid
+        participantSid?.let { lastSpoke[it] = ++speakCount }
+        promoteDominantSpeaker()
+    }
+
+    fun changePage(page: Int) {
+        this.page = page.coerceIn(0, pageCount - 1)
+        promoteDominantSpeaker()
+    }
+
+    fun pageOf(participantSid: String): Int = cellIndexes[participantSid]?.let { it / pageSize } ?: -1
+
+    /** HIGH on the current page, LOW everywhere else so those are switched off first. */
+    fun priorityOf(participantSid: String?): TrackPriority =
+            if (participantSid != null && pageOf(participantSid) == page) HIGH else LOW
+
+    /** Calls [action] with the sid of every participant on the current page. */
+    fun forEachOnPage(action: (participantSid: String) -> Unit) {
+        val start = page * pageSize
+        for (cellIndex in start until minOf(start + pageSize, cells.size)) action(cells[cellIndex])
+    }
+
+    /** The participants of the current page, resolved against [participantStore]. */
+    fun currentPage(participantStore: ParticipantStore): ParticipantGridPage {
+        val start = page * pageSize
+        val pageParticipants = (start until minOf(start + pageSize, cells.size)).mapNotNull {
+            val key = cells[it]
+            if (key == LOCAL_PARTICIPANT_KEY) {
+                participantStore.localParticipantIndex.let { index ->
+                    if (index > -1) participantStore[index] else null
+                }
+            } else {
+                participantStore[key]
+            }
+        }
+        return ParticipantGridPage(columns, page, pageCount, pageParticipants)
+    }
+
+    private fun promoteDominantSpeaker() {
+        val key = dominantSpeakerKey ?: return
+        val index = cellIndexes[key] ?: return
+        if (index / pageSize == page) return
+        val start = page * pageSize
+        var target = start
+        for (cellIndex in start until minOf(start + pageSize, cells.size)) {
+            if (lastSpokeOf(cells[cellIndex]) < lastSpokeOf(cells[target])) target = cellIndex
+        }
+        val swapped = cells[target]
+        cells[target] = key
+        cells[index] = swapped
+        cellIndexes[key] = target
+        cellIndexes[swapped] = index
+    }
+
+    private fun lastSpokeOf(key: String) = lastSpoke[key] ?: 0L
+
+    private val ParticipantViewState.key: String
+        get() = sid.takeUnless { isLocalParticipant } ?: LOCAL_PARTICIPANT_KEY
+
+    private companion object {
+        // The local participant keeps its cell when it gets its sid once the room is connected
+        const val LOCAL_PARTICIPANT_KEY = ""
+    }
+}
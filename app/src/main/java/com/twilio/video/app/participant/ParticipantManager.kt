@@ -1,59 +1,58 @@
 package com.twilio.video.app.participant
 
 import com.twilio.video.NetworkQualityLevel
-import com.twilio.video.TrackPriority.HIGH
+import com.twilio.video.TrackPriority
 import com.twilio.video.app.sdk.VideoTrackViewState
 import timber.log.Timber
 
 class ParticipantManager {
 
-    private val mutableParticipants = mutableListOf<ParticipantViewState>()
-    val participantThumbnails: List<ParticipantViewState> get() = mutableParticipants.toList()
+    private val participantStore = ParticipantStore()
+    private val viewportTrackPriorities = ViewportTrackPriorities(participantStore)
+    private val primaryParticipantSelector =
+            PrimaryParticipantSelector(participantStore, viewportTrackPriorities)
+    private var participantGrid: ParticipantGrid? = null
+    val participantThumbnails: ParticipantSnapshot get() = participantStore.snapshot
+    /** The page of participants on screen while they are shown on a grid, null otherwise. */
+    var participantGridPage: ParticipantGridPage? = null
+        private set
     var primaryParticipant: ParticipantViewState
         private set
 
     init {
         val localParticipant = ParticipantViewState(isLocalParticipant = true)
-        mutableParticipants.add(localParticipant)
+        participantStore.add(localParticipant)
         primaryParticipant = localParticipant
     }
 
     fun addParticipant(participantViewState: ParticipantViewState) {
         Timber.d("Adding participant: %s", participantViewState)
-        mutableParticipants.add(participantViewState)
-        updatePrimaryParticipant()
+        participantStore.add(participantViewState)
+        participantGrid?.add(participantViewState)
+        updatePrimaryParticipant(participantViewState.sid)
     }
 
     fun updateLocalParticipantVideoTrack(videoTrack: VideoTrackViewState?) =
-            mutableParticipants.find { it.isLocalParticipant }?.copy(
-                    videoTrack = videoTrack)?.let { updateLocalParticipant(it) }
+            getLocalParticipant()?.copy(videoTrack = videoTrack)?.let { updateLocalParticipant(it) }
 
     fun updateLocalParticipantSid(sid: String) =
-            mutableParticipants.find { it.isLocalParticipant }?.copy(
-                    sid = sid)?.let { updateLocalParticipant(it) }
-
-    fun updateParticipant(
-        participantViewState: ParticipantViewState,
-        participantMatchPredicate: (ParticipantViewState) -> Boolean = {
-            it.sid == participantViewState.sid }
-    ) {
+            getLocalParticipant()?.copy(sid = sid)?.let { updateLocalParticipant(it) }
 
-        mutableParticipants.indexOfFirst(participantMatchPredicate).let { index ->
-            if (index > -1) {
-                Timber.d("Updating participant: %s", participantViewState)
-                mutableParticipants[index] = participantViewState
-                updatePrimaryParticipant()
-            }
+    fun updateParticipant(participantViewState: ParticipantViewState) {
+        participantViewState.sid?.let { sid ->
+            updateParticipantAt(participantStore.indexOf(sid), participantViewState)
         }
     }
 
     fun removeParticipant(sid: String) {
         Timber.d("Removing participant: %s", sid)
-        mutableParticipants.removeAll { it.sid == sid }
+        participantStore.remove(sid)
+        participantGrid?.remove(sid)
+        viewportTrackPriorities.removeParticipant(sid)
         updatePrimaryParticipant()
     }
 
-    fun getParticipant(sid: String): ParticipantViewState? = mutableParticipants.find { it.sid == sid }
+    fun getParticipant(sid: String): ParticipantViewState? = participantStore[sid]
 
     fun updateNetworkQuality(sid: String, networkQualityLevel: NetworkQualityLevel) {
         getParticipant(sid)?.copy(networkQualityLevel = networkQualityLevel)?.let {
@@ -62,13 +61,11 @@ class ParticipantManager {
     }
 
     fun updateParticipantVideoTrack(sid: String, videoTrack: VideoTrackViewState?) {
-        mutableParticipants.find { it.sid == sid }?.copy(
-                videoTrack = videoTrack)?.let { updateParticipant(it) }
+        getParticipant(sid)?.copy(videoTrack = videoTrack)?.let { updateParticipant(it) }
     }
 
     fun updateParticipantScreenTrack(sid: String, screenTrack: VideoTrackViewState?) {
-        mutableParticipants.find { it.sid == sid }?.copy(
-                screenTrack = screenTrack)?.let { updateParticipant(it) }
+        getParticipant(sid)?.copy(screenTrack = screenTrack)?.let { updateParticipant(it) }
     }
 
     fun muteParticipant(sid: String, mute: Boolean) {
@@ -77,9 +74,32 @@ class ParticipantManager {
         }
     }
 
+    /**
+     * Applies the given updates and re-selects the primary participant once. Participants whose
+     * state is unchanged by their update are left untouched so the published snapshot is only
+     * replaced when something actually changed.
+     */
+    fun applyUpdates(updates: Collection<ParticipantUpdate>) {
+        var isUpdated = false
+        updates.forEach { update ->
+            val index = participantStore.indexOf(update.sid)
+            if (index > -1) {
+                val participant = participantStore[index]
+                val updatedParticipant = update.applyTo(participant)
+                if (updatedParticipant != participant) {
+                    participantStore[index] = updatedParticipant
+                    isUpdated = true
+                }
+            }
+        }
+        if (isUpdated) {
+            updatePrimaryParticipant()
+            updates.forEach { viewportTrackPriorities.updateParticipant(it.sid) }
+        }
+    }
+
     fun changePinnedParticipant(sid: String) {
-        val existingPin = mutableParticipants.find { it.isPinned }?.copy(
-            isPinned = false)
+        val existingPin = participantStore.pinnedParticipant?.copy(isPinned = false)
         existingPin?.let { updateParticipant(it) }
 
         getParticipant(sid)?.let { newPin ->
@@ -102,78 +122,96 @@ class ParticipantManager {
     }
 
     internal fun updateLocalParticipant(participantViewState: ParticipantViewState) =
-            updateParticipant(participantViewState) { it.isLocalParticipant }
+            updateParticipantAt(participantStore.localParticipantIndex, participantViewState)
+
+    private fun getLocalParticipant(): ParticipantViewState? =
+            participantStore.localParticipantIndex.let { index ->
+                if (index > -1) participantStore[index] else null
+            }
+
+    private fun updateParticipantAt(index: Int, participantViewState: ParticipantViewState) {
+        if (index > -1) {
+            Timber.d("Updating participant: %s", participantViewState)
+            participantStore[index] = participantViewState
+            updatePrimaryParticipant(participantViewState.sid)
+        }
+    }
 
     private fun moveDominantSpeakerToTop(newDominantSpeaker: ParticipantViewState) {
-        if (mutableParticipants.size > 1) {
-            mutableParticipants.removeAll { it.sid == newDominantSpeaker.sid }
-            mutableParticipants.add(1, newDominantSpeaker)
-            updatePrimaryParticipant()
+        if (participantStore.size > 1) {
+            participantStore.move(newDominantSpeaker.sid!!, 1, newDominantSpeaker)
+            updatePrimaryParticipant(newDominantSpeaker.sid)
         }
     }
 
     private fun clearDominantSpeaker() {
-        mutableParticipants.find { it.isDominantSpeaker }?.copy(
+        participantStore.dominantSpeaker?.copy(
                 isDominantSpeaker = false)?.let { updateParticipant(it) }
     }
 
-    fun clearRemoteParticipants() {
-        mutableParticipants.removeAll { !it.isLocalParticipant }
+    /**
+     * Lowers the track priority of the participants whose thumbnails are not among [sids] and
+     * restores it for the ones that are.
+     */
+    fun setVisibleParticipants(sids: Set<String>) =
+            viewportTrackPriorities.setVisibleParticipants(sids)
+
+    /**
+     * Sets the track priority matching the rendered size of the thumbnail of a participant, null
+     * leaves it to the publisher.
+     */
+    fun setRenderPriority(sid: String, priority: TrackPriority?) =
+            viewportTrackPriorities.setRenderPriority(sid, priority)
+
+    /**
+     * Shows the participants on pages of [columns] x [columns] cells, where only the current page
+     * gets a high track priority, or on the primary view and the thumbnails for 0.
+     */
+    fun setGridColumns(columns: Int) {
+        if (columns == (participantGrid?.columns ?: 0)) return
+        Timber.d("Grid columns: %d", columns)
+        participantGrid = if (columns > 0) {
+            ParticipantGrid(columns).apply { reset(participantStore.snapshot) }
+        } else {
+            null
+        }
+        viewportTrackPriorities.grid = participantGrid
         updatePrimaryParticipant()
+        viewportTrackPriorities.updateAll()
     }
 
-    private fun updatePrimaryParticipant() {
-        primaryParticipant = retrievePrimaryParticipant()
-        Timber.d("Participant Cache: $mutableParticipants")
-        Timber.d("Primary Participant: $primaryParticipant")
-    }
-
-    private fun retrievePrimaryParticipant(): ParticipantViewState =
-            determinePrimaryParticipant().apply { setTrackPriority(this) }
-
-    private fun determinePrimaryParticipant(): ParticipantViewState {
-        return mutableParticipants.find { it.isPinned }
-                ?: mutableParticipants.find { it.isScreenSharing }
-                ?: mutableParticipants.find { it.isDominantSpeaker }
-                ?: mutableParticipants.find { !it.isLocalParticipant }
-                ?: mutableParticipants[0] // local participant
-    }
-
-    private fun setTrackPriority(participant: ParticipantViewState) {
-        if (participant.sid != primaryParticipant.sid) {
-            when {
-                participant.isScreenSharing -> {
-                    participant.getRemoteScreenTrack()?.let {
-                        it.priority = HIGH
-                        clearOldTrackPriorities()
-                        Timber.d("Setting screen track priority to high for participant with sid: ${participant.sid}")
-                    }
-                }
-                participant.isDominantSpeaker -> {
-                    participant.getRemoteVideoTrack()?.let {
-                        it.priority = null
-                        clearOldTrackPriorities()
-                        Timber.d("Clearing dominant speaker priority for participant with sid: ${participant.sid}")
-                    }
-                }
-                else -> {
-                    participant.getRemoteVideoTrack()?.let {
-                        it.priority = HIGH
-                        clearOldTrackPriorities()
-                        Timber.d("Setting video track priority to high for participant with sid: ${participant.sid}")
-                    }
-                }
-            }
+    fun changeGridPage(page: Int) {
+        participantGrid?.let { grid ->
+            grid.changePage(page)
+            viewportTrackPriorities.updateGridPage()
+            updateParticipantGridPage(grid)
         }
+    }
 
-        if (participant.isLocalParticipant) clearOldTrackPriorities()
+    fun clearRemoteParticipants() {
+        participantStore.removeRemoteParticipants()
+        participantGrid?.reset(participantStore.snapshot)
+        viewportTrackPriorities.clear()
+        updatePrimaryParticipant()
     }
 
-    private fun clearOldTrackPriorities() {
-        primaryParticipant.run {
-            getRemoteVideoTrack()?.priority = null
-            getRemoteScreenTrack()?.priority = null
-            Timber.d("Clearing video and screen track priorities for participant with sid: $sid")
-        }
+    /*
+     * Re-selects the primary participant and writes the track priorities the change affects: the
+     * ones of the participant with [changedSid], whose track may have changed, and the ones of the
+     * participants that entered or left the grid page.
+     */
+    private fun updatePrimaryParticipant(changedSid: String? = null) {
+        participantGrid?.setDominantSpeaker(participantStore.dominantSpeaker?.sid)
+        primaryParticipant = primaryParticipantSelector.select()
+        viewportTrackPriorities.updateGridPage()
+        changedSid?.let { viewportTrackPriorities.updateParticipant(it) }
+        updateParticipantGridPage(participantGrid)
+        Timber.d("Primary Participant: %s", primaryParticipant)
+    }
+
+    // An unchanged page keeps its instance, so the view state only changes along with the page
+    private fun updateParticipantGridPage(grid: ParticipantGrid?) {
+        val gridPage = grid?.currentPage(participantStore)
+        if (gridPage != participantGridPage) participantGridPage = gridPage
     }
 }
@@ -0,0 +1,179 @@
+package com.twilio.video.app.participant
+
+import kotlin.math.max
+
+/**
+ * Immutable, version stamped list of participants.
+ *
+ * Snapshots are persistent: every modification returns a new snapshot that shares all untouched
+ * nodes with the previous one, so publishing the thumbnail list after an event costs O(log n)
+ * instead of a full copy. Since a snapshot never changes after creation, consumers can detect an
+ * unchanged participant list by comparing [version] (or the snapshot reference itself).
+ *
+ * The backing structure is an AVL tree ordered by position, with every node caching the size of
+ * its subtree to support positional lookups.
+ */
+class ParticipantSnapshot private constructor(
+    private val root: Node?,
+    val version: Long
+) : AbstractList<ParticipantViewState>() {
+
+    override val size: Int get() = size(root)
+
+    override fun get(index: Int): ParticipantViewState {
+        if (index < 0 || index >= size) {
+            throw IndexOutOfBoundsException("Index: $index, Size: $size")
+        }
+        var node = root!!
+        var position = index
+        while (true) {
+            val leftSize = size(node.left)
+            node = when {
+                position < leftSize -> node.left!!
+                position == leftSize -> return node.value
+                else -> {
+                    position -= leftSize + 1
+                    node.right!!
+                }
+            }
+        }
+    }
+
+    override fun iterator(): Iterator<ParticipantViewState> = object : Iterator<ParticipantViewState> {
+        private val stack = ArrayList<Node>(height(root))
+
+        init {
+            pushLeft(root)
+        }
+
+        override fun hasNext(): Boolean = stack.isNotEmpty()
+
+        override fun next(): ParticipantViewState {
+            if (stack.isEmpty()) throw NoSuchElementException()
+            val node = stack.removeAt(stack.lastIndex)
+            pushLeft(node.right)
+            return node.value
+        }
+
+        private fun pushLeft(node: Node?) {
+            var current = node
+            while (current != null) {
+                stack.add(current)
+                current = current.left
+            }
+        }
+    }
+
+    internal fun appended(value: ParticipantViewState) = inserted(size, value)
+
+    internal fun inserted(index: Int, value: ParticipantViewState): ParticipantSnapshot {
+        if (index < 0 || index > size) {
+            throw IndexOutOfBoundsException("Index: $index, Size: $size")
+        }
+        return ParticipantSnapshot(insert(root, index, value), version + 1)
+    }
+
+    internal fun replaced(index: Int, value: ParticipantViewState): ParticipantSnapshot =
+            ParticipantSnapshot(replace(checkedRoot(index), index, value), version + 1)
+
+    internal fun removed(index: Int): ParticipantSnapshot =
+            ParticipantSnapshot(remove(checkedRoot(index), index), version + 1)
+
+    internal fun filtered(predicate: (ParticipantViewState) -> Boolean): ParticipantSnapshot =
+            ParticipantSnapshot(build(filter(predicate)), version + 1)
+
+    private fun checkedRoot(index: Int): Node {
+        if (index < 0 || index >= size) {
+            throw IndexOutOfBoundsException("Index: $index, Size: $size")
+        }
+        return root!!
+    }
+
+    private class Node(
+        val value: ParticipantViewState,
+        val left: Node?,
+        val right: Node?
+    ) {
+        val size: Int = 1 + size(left) + size(right)
+        val height: Int = 1 + max(height(left), height(right))
+    }
+
+    companion object {
+        val EMPTY = ParticipantSnapshot(null, 0)
+
+        private fun size(node: Node?) = node?.size ?: 0
+
+        private fun height(node: Node?) = node?.height ?: 0
+
+        private fun insert(node: Node?, index: Int, value: ParticipantViewState): Node {
+            if (node == null) return Node(value, null, null)
+            val leftSize = size(node.left)
+            return if (index <= leftSize) {
+                balance(node.value, insert(node.left, index, value), node.right)
+            } else {
+                balance(node.value, node.left, insert(node.right, index - leftSize - 1, value))
+            }
+        }
+
+        private fun replace(node: Node, index: Int, value: ParticipantViewState): Node {
+            val leftSize = size(node.left)
+            return when {
+                index < leftSize -> Node(node.value, replace(node.left!!, index, value), node.right)
+                index == leftSize -> Node(value, node.left, node.right)
+                else -> Node(node.value, node.left, replace(node.right!!, index - leftSize - 1, value))
+            }
+        }
+
+        private fun remove(node: Node, index: Int): Node? {
+            val leftSize = size(node.left)
+            return when {
+                index < leftSize -> balance(node.value, remove(node.left!!, index), node.right)
+                index > leftSize -> balance(node.value, node.left,
+                        remove(node.right!!, index - leftSize - 1))
+                node.left == null -> node.right
+                node.right == null -> node.left
+                else -> balance(first(node.right), node.left, remove(node.right, 0))
+            }
+        }
+
+        private fun first(node: Node): ParticipantViewState {
+            var current = node
+            while (true) current = current.left ?: return current.value
+        }
+
+        private fun build(values: List<ParticipantViewState>, from: Int = 0, to: Int = values.size): Node? {
+            if (from >= to) return null
+            val middle = (from + to) ushr 1
+            return Node(values[middle], build(values, from, middle), build(values, middle + 1, to))
+        }
+
+        private fun balance(value: ParticipantViewState, left: Node?, right: Node?): Node {
+            val heightDifference = height(left) - height(right)
+            return when {
+                heightDifference > 1 -> {
+                    val pivot = left!!
+                    if (height(pivot.left) >= height(pivot.right)) {
+                        Node(pivot.value, pivot.left, Node(value, pivot.right, right))
+                    } else {
+                        val newRoot = pivot.right!!
+                        Node(newRoot.value,
+                                Node(pivot.value, pivot.left, newRoot.left),
+                                Node(value, newRoot.right, right))
+                    }
+                }
+                heightDifference < -1 -> {
+                    val pivot = right!!
+                    if (height(pivot.right) >= height(pivot.left)) {
+                        Node(pivot.value, Node(value, left, pivot.left), pivot.right)
+                    } else {
+                        val newRoot = pivot.left!!
+                        Node(newRoot.value,
+                                Node(value, left, newRoot.left),
+                                Node(pivot.value, newRoot.right, pivot.right))
+                    }
+                }
+                else -> Node(value, left, right)
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.twilio.video.app.participant
+
+/**
+ * Ordered participant storage backing [ParticipantManager].
+ *
+ * The thumbnail order is kept in a persistent [ParticipantSnapshot] while a sid to slot index map
+ * and the sids of the pinned, screen sharing and dominant speaker participants are maintained
+ * alongside it. Sid lookups and primary participant candidate queries are O(1), in place updates
+ * are O(log n), and only structural changes (insertions, removals and moves) reindex the slots
+ * that shifted.
+ *
+ * Participants without a sid (the local participant before the room is connected) are kept in
+ * order but cannot be looked up by sid.
+ */
+internal class ParticipantStore {
+
+    private var participants = ParticipantSnapshot.EMPTY
+    private val slots = HashMap<String, Int>()
+    private val pinnedSids = HashSet<String>()
+    private val screenSharingSids = HashSet<String>()
+    private val dominantSpeakerSids = HashSet<String>()
+    private var remoteParticipantCount = 0
+
+    val size: Int get() = participants.size
+
+    val pinnedParticipant: ParticipantViewState? get() = firstOf(pinnedSids)
+
+    val screenSharingParticipant: ParticipantViewState? get() = firstOf(screenSharingSids)
+
+    val dominantSpeaker: ParticipantViewState? get() = firstOf(dominantSpeakerSids)
+
+    val firstRemoteParticipant: ParticipantViewState?
+        get() = if (remoteParticipantCount > 0) participants.first { !it.isLocalParticipant } else null
+
+    /*
+     * The local participant is added first and nothing is ever inserted ahead of it, so this scan
+     * terminates on the first slot.
+     */
+    val localParticipantIndex: Int get() = participants.indexOfFirst { it.isLocalParticipant }
+
+    operator fun get(index: Int): ParticipantViewState = participants[index]
+
+    operator fun get(sid: String): ParticipantViewState? = slots[sid]?.let { participants[it] }
+
+    fun indexOf(sid: String): Int = slots[sid] ?: -1
+
+    val snapshot: ParticipantSnapshot get() = participants
+
+    /**
+     * Appends a participant to the end of the thumbnail order. A participant whose sid is
+     * already stored is replaced in its existing slot instead of being duplicated.
+     */
+    fun add(participantViewState: ParticipantViewState) {
+        val existingIndex = participantViewState.sid?.let { indexOf(it) } ?: -1
+        if (existingIndex > -1) {
+            set(existingIndex, participantViewState)
+        } else {
+            participants = participants.appended(participantViewState)
+            track(participantViewState, participants.lastIndex)
+        }
+    }
+
+    operator fun set(index: Int, participantViewState: ParticipantViewState) {
+        untrack(participants[index])
+        participants = participants.replaced(index, participantViewState)
+        track(participantViewState, index)
+    }
+
+    fun remove(sid: String): ParticipantViewState? {
+        val index = indexOf(sid)
+        if (index < 0) return null
+        val removed = participants[index]
+        participants = participants.removed(index)
+        untrack(removed)
+        reindex(index, participants.lastIndex)
+        return removed
+    }
+
+    /**
+     * Moves the participant with the given sid to [toIndex], replacing it with
+     * [participantViewState]. Only the slots between the old and new position are reindexed.
+     */
+    fun move(sid: String, toIndex: Int, participantViewState: ParticipantViewState) {
+        val fromIndex = indexOf(sid)
+        if (fromIndex < 0) return
+        untrack(participants[fromIndex])
+        participants = participants.removed(fromIndex)
+        val index = toIndex.coerceAtMost(participants.size)
+        participants = participants.inserted(index, participantViewState)
+        track(participantViewState, index)
+        reindex(minOf(fromIndex, index), maxOf(fromIndex, index))
+    }
+
+    fun removeRemoteParticipants() {
+        participants = participants.filtered { it.isLocalParticipant }
+        slots.clear()
+        pinnedSids.clear()
+        screenSharingSids.clear()
+        dominantSpeakerSids.clear()
+        remoteParticipantCount = 0
+        participants.forEachIndexed { index, participant -> track(participant, index) }
+    }
+
+    override fun toString(): String = participants.toString()
+
+    private fun track(participantViewState: ParticipantViewState, index: Int) {
+        participantViewState.run {
+            if (!isLocalParticipant) remoteParticipantCount++
+            sid?.let { sid ->
+                slots[sid] = index
+                if (isPinned) pinnedSids.add(sid)
+                if (isScreenSharing) screenSharingSids.add(sid)
+                if (isDominantSpeaker) dominantSpeakerSids.add(sid)
+            }
+        }
+    }
+
+    private fun untrack(participantViewState: ParticipantViewState) {
+        participantViewState.run {
+            if (!isLocalParticipant) remoteParticipantCount--
+            sid?.let { sid ->
+                slots.remove(sid)
+                pinnedSids.remove(sid)
+                screenSharingSids.remove(sid)
+                dominantSpeakerSids.remove(sid)
+            }
+        }
+    }
+
+    private fun reindex(fromIndex: Int, toIndex: Int) {
+        for (index in fromIndex..minOf(toIndex, participants.lastIndex)) {
+            participants[index].sid?.let { slots[it] = index }
+        }
+    }
+
+    /*
+     * Candidate sets hold a single sid in practice, so resolving the first participant in
+     * thumbnail order only falls back to comparing slots when more than one is flagged.
+     */
+    private fun firstOf(sids: Set<String>): ParticipantViewState? {
+        val index = when (sids.size) {
+            0 -> return null
+            1 -> slots[sids.first()]
+            else -> sids.mapNotNull { slots[it] }.minOrNull()
+        }
+        return index?.let { participants[it] }
+    }
+}
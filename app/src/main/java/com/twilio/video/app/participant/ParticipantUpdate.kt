@@ -0,0 +1,44 @@
+package com.twilio.video.app.participant
+
+import com.twilio.video.NetworkQualityLevel
+import com.twilio.video.app.sdk.VideoTrackViewState
+
+/**
+ * Pending property changes for a single participant, folded from consecutive participant events.
+ * Properties that no event touched keep their current value when the update is applied.
+ */
+class ParticipantUpdate(val sid: String) {
+
+    private var isMuted: Boolean? = null
+    private var networkQualityLevel: NetworkQualityLevel? = null
+    private var isVideoTrackUpdated = false
+    private var videoTrack: VideoTrackViewState? = null
+    private var isScreenTrackUpdated = false
+    private var screenTrack: VideoTrackViewState? = null
+
+    fun mute(mute: Boolean) {
+        isMuted = mute
+    }
+
+    fun updateNetworkQuality(networkQualityLevel: NetworkQualityLevel) {
+        this.networkQualityLevel = networkQualityLevel
+    }
+
+    fun updateVideoTrack(videoTrack: VideoTrackViewState?) {
+        isVideoTrackUpdated = true
+        this.videoTrack = videoTrack
+    }
+
+    fun updateScreenTrack(screenTrack: VideoTrackViewState?) {
+        isScreenTrackUpdated = true
+        this.screenTrack = screenTrack
+    }
+
+    fun applyTo(participant: ParticipantViewState): ParticipantViewState =
+            participant.copy(
+                    isMuted = isMuted ?: participant.isMuted,
+                    networkQualityLevel = networkQualityLevel ?: participant.networkQualityLevel,
+                    videoTrack = if (isVideoTrackUpdated) videoTrack else participant.videoTrack,
+                    screenTrack = if (isScreenTrackUpdated) screenTrack else participant.screenTrack
+            )
+}
@@ -0,0 +1,73 @@
+package com.twilio.video.app.participant
+
+import com.twilio.video.RemoteVideoTrack
+import com.twilio.video.TrackPriority
+import com.twilio.video.TrackPriority.HIGH
+import timber.log.Timber
+
+/**
+ * Selects the primary participant from the candidates maintained by [ParticipantStore] and keeps
+ * the subscriber track priorities in sync with the selection.
+ *
+ * Track priorities are only written when the prioritized track or its priority actually changes,
+ * so updates that leave the winning candidate untouched (mute and network quality changes for
+ * example) never call into the SDK. A track that is no longer prioritized falls back to the
+ * priority [ViewportTrackPriorities] gives it for the visibility of its thumbnail. While the
+ * participants are shown on a grid, [ViewportTrackPriorities] writes all of them instead.
+ */
+internal class PrimaryParticipantSelector(
+    private val participantStore: ParticipantStore,
+    private val viewportTrackPriorities: ViewportTrackPriorities
+) {
+
+    private var prioritizedTrack: RemoteVideoTrack? = null
+    private var prioritizedTrackPriority: TrackPriority? = null
+    private var prioritizedParticipantSid: String? = null
+
+    fun select(): ParticipantViewState {
+        val primaryParticipant = participantStore.pinnedParticipant
+                ?: participantStore.screenSharingParticipant
+                ?: participantStore.dominantSpeaker
+                ?: participantStore.firstRemoteParticipant
+                ?: participantStore[0] // local participant
+        updateTrackPriority(primaryParticipant)
+        return primaryParticipant
+    }
+
+    private fun updateTrackPriority(participant: ParticipantViewState) {
+        if (viewportTrackPriorities.grid != null) {
+            // The grid decides every priority, the next selection outside of it starts over
+            viewportTrackPriorities.adoptPrimaryTrack(prioritizedTrackPriority)
+            prioritizedTrack = null
+            prioritizedTrackPriority = null
+            prioritizedParticipantSid = null
+            return
+        }
+        val (track, priority) = when {
+            participant.isLocalParticipant -> null to null
+            participant.isScreenSharing -> participant.getRemoteScreenTrack() to HIGH
+            participant.isDominantSpeaker -> participant.getRemoteVideoTrack() to null
+            else -> participant.getRemoteVideoTrack() to HIGH
+        }
+        if (track === prioritizedTrack && priority == prioritizedTrackPriority) return
+
+        track?.let {
+            it.priority = priority
+            Timber.d("Setting track priority to %s for participant with sid: %s",
+                    priority, participant.sid)
+        }
+        viewportTrackPriorities.primaryTrack = track
+        prioritizedTrack?.let { oldTrack ->
+            if (oldTrack !== track) {
+                val releasedPriority = viewportTrackPriorities.releasedPriority(oldTrack,
+                        prioritizedParticipantSid)
+                oldTrack.priority = releasedPriority
+                Timber.d("Resetting track priority to %s for the previous primary participant",
+                        releasedPriority)
+            }
+        }
+        prioritizedTrack = track
+        prioritizedTrackPriority = priority
+        prioritizedParticipantSid = participant.sid
+    }
+}
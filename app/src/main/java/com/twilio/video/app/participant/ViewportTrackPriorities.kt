@@ -0,0 +1,152 @@
+package com.twilio.video.app.participant
+
+import com.twilio.video.RemoteVideoTrack
+import com.twilio.video.TrackPriority
+import com.twilio.video.TrackPriority.LOW
+import java.util.IdentityHashMap
+import timber.log.Timber
+
+/**
+ * Lowers the subscriber priority of the remote video tracks whose thumbnails are out of view, so
+ * the media server switches them off first when the downlink runs short, and restores it once
+ * they scroll back in. A visible thumbnail gets the priority matching its rendered size, or none
+ * if its size was not reported. The track of the primary participant is left to
+ * [PrimaryParticipantSelector], unless the participants are shown on a [grid].
+ *
+ * Nothing is lowered until the thumbnail list reported what it shows, and a priority is only
+ * written when it actually changed. Every change only re-evaluates the participants it concerns:
+ * the ones whose thumbnail entered or left the view, whose render size or video track changed, or
+ * that entered or left the grid page. Only reporting the view for the first time and switching
+ * the layout go over every participant.
+ */
+internal class ViewportTrackPriorities(private val participantStore: ParticipantStore) {
+
+    private var visibleParticipantSids: Set<String>? = null
+    private val renderPriorities = HashMap<String, TrackPriority>()
+    private val appliedPriorities = IdentityHashMap<RemoteVideoTrack, TrackPriority>()
+    // The video track of every participant as of its last evaluation
+    private val participantTracks = HashMap<String, RemoteVideoTrack>()
+    // The participants of the grid page as of its last evaluation
+    private val gridPageSids = HashSet<String>()
+
+    /** The track prioritized by [PrimaryParticipantSelector], which is never written here. */
+    var primaryTrack: RemoteVideoTrack? = null
+        set(value) {
+            field = value
+            value?.let { appliedPriorities.remove(it) }
+        }
+
+    /**
+     * Decides the priority of every track, the primary one included, while it is shown. Call
+     * [updateAll] once the primary participant was selected for the new layout.
+     */
+    var grid: ParticipantGrid? = null
+        set(value) {
+            field = value
+            gridPageSids.clear()
+        }
+
+    /** Takes over the primary track along with the [priority] it was last given. */
+    fun adoptPrimaryTrack(priority: TrackPriority?) {
+        val track = primaryTrack ?: return
+        primaryTrack = null
+        if (priority != null) appliedPriorities[track] = priority
+    }
+
+    fun setVisibleParticipants(sids: Set<String>) {
+        val previousSids = visibleParticipantSids
+        if (sids == previousSids) return
+        visibleParticipantSids = sids
+        // The grid page decides the priorities regardless of the thumbnails
+        if (grid != null) return
+        if (previousSids == null) {
+            updateAll()
+            return
+        }
+        for (sid in previousSids) if (sid !in sids) updateParticipant(sid)
+        for (sid in sids) if (sid !in previousSids) updateParticipant(sid)
+    }
+
+    /** Sets the priority matching the rendered size of the thumbnail of a participant. */
+    fun setRenderPriority(participantSid: String, priority: TrackPriority?) {
+        if (renderPriorities[participantSid] == priority) return
+        if (priority == null) renderPriorities.remove(participantSid)
+        else renderPriorities[participantSid] = priority
+        updateParticipant(participantSid)
+    }
+
+    fun removeParticipant(participantSid: String) {
+        renderPriorities.remove(participantSid)
+        gridPageSids.remove(participantSid)
+        participantTracks.remove(participantSid)?.let { appliedPriorities.remove(it) }
+    }
+
+    /** The priority a track falls back to once it is no longer the primary track. */
+    fun releasedPriority(track: RemoteVideoTrack, participantSid: String?): TrackPriority? {
+        val participant = participantSid?.let { participantStore[it] }
+        // Only thumbnail tracks are written, screen tracks are never shown in a thumbnail
+        if (participant?.getRemoteVideoTrack() !== track) return null
+        return priorityOf(participantSid)?.also { appliedPriorities[track] = it }
+    }
+
+    /** Writes the priority of a participant whose track or thumbnail may have changed. */
+    fun updateParticipant(participantSid: String) {
+        val participant = participantStore[participantSid]
+        val track = participant?.getRemoteVideoTrack()
+        val previousTrack = participantTracks[participantSid]
+        if (track !== previousTrack) {
+            previousTrack?.let { appliedPriorities.remove(it) }
+            if (track == null) participantTracks.remove(participantSid)
+            else participantTracks[participantSid] = track
+        }
+        if (track == null || (track === primaryTrack && grid == null)) return
+        val priority = priorityOf(participantSid)
+        if (appliedPriorities[track] != priority) {
+            if (priority == null) appliedPriorities.remove(track)
+            else appliedPriorities[track] = priority
+            track.priority = priority
+            Timber.d("Setting track priority of participant %s to %s", participantSid, priority)
+        }
+    }
+
+    /** Writes the priorities of the participants that entered or left the current grid page. */
+    fun updateGridPage() {
+        val grid = grid ?: return
+        val iterator = gridPageSids.iterator()
+        while (iterator.hasNext()) {
+            val sid = iterator.next()
+            if (grid.pageOf(sid) != grid.page) {
+                iterator.remove()
+                updateParticipant(sid)
+            }
+        }
+        grid.forEachOnPage { sid -> if (gridPageSids.add(sid)) updateParticipant(sid) }
+    }
+
+    /** Writes the priority of every participant, e.g. once the layout changed. */
+    fun updateAll() {
+        for (index in 0 until participantStore.size) {
+            participantStore[index].sid?.let { updateParticipant(it) }
+        }
+        updateGridPage()
+    }
+
+    fun clear() {
+        visibleParticipantSids = null
+        renderPriorities.clear()
+        appliedPriorities.clear()
+        participantTracks.clear()
+        gridPageSids.clear()
+    }
+
+    private fun priorityOf(participantSid: String?): TrackPriority? = when {
+        grid != null -> grid?.priorityOf(participantSid)
+        isHidden(participantSid) -> LOW
+        else -> participantSid?.let { renderPriorities[it] }
+    }
+
+    private fun isHidden(participantSid: String?): Boolean {
+        val visibleSids = visibleParticipantSids ?: return false
+        return participantSid == null || participantSid !in visibleSids
+    }
+}
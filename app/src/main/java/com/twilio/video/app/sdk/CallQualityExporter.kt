@@ -0,0 +1,107 @@
+package com.twilio.video.app.sdk
+
+import java.io.File
+import java.util.Locale
+
+/**
+ * Writes [CallQualitySummary]s as CSV, one row per track, or as JSON for offline analysis. Bitrates
+ * are in bits per second, packet loss in percent, round trip times in milliseconds and frame
+ * rates in frames per second.
+ */
+object CallQualityExporter {
+
+    private val METRICS = listOf("bitrate_bps", "packet_loss_percent", "rtt_ms", "frame_rate_fps")
+    private val PERCENTILES = listOf("min", "p10", "p50", "p90", "max")
+
+    /** Writes `<session id>.csv` and `<session id>.json` to [directory] and returns them. */
+    fun export(summary: CallQualitySummary, directory: File): List<File> {
+        directory.mkdirs()
+        val csvFile = File(directory, "${summary.sessionId}.csv")
+        csvFile.bufferedWriter().use { writeCsv(summary, it) }
+        val jsonFile = File(directory, "${summary.sessionId}.json")
+        jsonFile.bufferedWriter().use { writeJson(summary, it) }
+        return listOf(csvFile, jsonFile)
+    }
+
+    /**
+     * Summarizes every session [CallQualityRecorder] stored in [logDirectory] and exports each one
+     * to [directory], replacing a previous export. Returns the written files, oldest session first.
+     */
+    fun exportAll(logDirectory: File, directory: File): List<File> {
+        directory.deleteRecursively()
+        val reader = CallQualityLogReader(logDirectory)
+        return reader.sessionIds().flatMap { sessionId ->
+            reader.read(sessionId)?.let { export(CallQualitySummary.of(it), directory) }
+                    ?: emptyList()
+        }
+    }
+
+    fun writeCsv(summary: CallQualitySummary, out: Appendable) {
+        out.append("session_id,room_sid,track_sid,local,kind,intervals,duration_ms")
+        METRICS.forEach { metric -> PERCENTILES.forEach { out.append(",${metric}_$it") } }
+        out.append('\n')
+        summary.tracks.forEach { track ->
+            out.append(summary.sessionId).append(',')
+                    .append(summary.roomSid).append(',')
+                    .append(track.trackSid).append(',')
+                    .append(track.isLocalTrack.toString()).append(',')
+                    .append(kind(track)).append(',')
+                    .append(track.intervalCount.toString()).append(',')
+                    .append(track.durationMillis.toString())
+            metrics(track).forEachIndexed { index, percentiles ->
+                values(percentiles, index == PACKET_LOSS).forEach { out.append(',').append(it) }
+            }
+            out.append('\n')
+        }
+    }
+
+    fun writeJson(summary: CallQualitySummary, out: Appendable) {
+        out.append("{\"sessionId\":").append(quote(summary.sessionId))
+                .append(",\"roomSid\":").append(quote(summary.roomSid))
+                .append(",\"startMillis\":").append(summary.startMillis.toString())
+                .append(",\"tracks\":[")
+        summary.tracks.forEachIndexed { trackIndex, track ->
+            if (trackIndex > 0) out.append(',')
+            out.append("{\"trackSid\":").append(quote(track.trackSid))
+                    .append(",\"local\":").append(track.isLocalTrack.toString())
+                    .append(",\"kind\":").append(quote(kind(track)))
+                    .append(",\"intervals\":").append(track.intervalCount.toString())
+                    .append(",\"durationMillis\":").append(track.durationMillis.toString())
+            metrics(track).forEachIndexed { index, percentiles ->
+                out.append(",\"").append(METRICS[index]).append("\":")
+                if (percentiles == null) {
+                    out.append("null")
+                } else {
+                    out.append('{')
+                    values(percentiles, index == PACKET_LOSS).forEachIndexed { valueIndex, value ->
+                        if (valueIndex > 0) out.append(',')
+                        out.append('"').append(PERCENTILES[valueIndex]).append("\":").append(value)
+                    }
+                    out.append('}')
+                }
+            }
+            out.append('}')
+        }
+        out.append("]}\n")
+    }
+
+    private fun kind(track: CallQualityTrackSummary) = if (track.isAudioTrack) "audio" else "video"
+
+    private fun metrics(track: CallQualityTrackSummary) =
+            listOf(track.bitrate, track.packetLoss, track.rtt, track.frameRate)
+
+    /* Formats the percentiles of a metric, or empty values when the track does not report it. */
+    private fun values(percentiles: CallQualityPercentiles?, isPacketLoss: Boolean): List<String> {
+        percentiles ?: return PERCENTILES.map { "" }
+        return listOf(percentiles.min, percentiles.p10, percentiles.p50, percentiles.p90,
+                percentiles.max).map { value ->
+            // Packet loss is summarized in hundredths of a percent
+            if (isPacketLoss) String.format(Locale.US, "%.2f", value / 100.0) else value.toString()
+        }
+    }
+
+    private fun quote(value: String) =
+            "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\""
+
+    private const val PACKET_LOSS = 1
+}
@@ -0,0 +1,49 @@
+package com.twilio.video.app.sdk
+
+import java.util.Locale
+
+/**
+ * Layout of the call quality log files. A room session is stored in one or more segment files
+ * named `<session id>.<segment>.cql`, where the session id is the zero padded start time of the
+ * session followed by the room sid so that file names sort chronologically.
+ *
+ * Every segment starts with a [HEADER_SIZE] byte header followed by [RECORD_SIZE] byte records.
+ * A track record assigns a session wide index to a track sid and is repeated at the start of
+ * every segment, so segments can be read on their own once older ones were deleted. A sample
+ * record holds the cumulative counters of one track at one point in time. All values are big
+ * endian.
+ *
+ * Header: magic (4), version (2), record size (2), session start millis (8), segment (4),
+ * room sid length (1), room sid (43).
+ *
+ * Track record: type (1), flags (1), track index (2), track sid length (1), track sid (43).
+ *
+ * Sample record: type (1), flags (1), track index (2), packets lost (4), timestamp millis (8),
+ * bytes (8), packets (4), round trip time (4), jitter (4), audio level (4), frame rate (2),
+ * width (2), height (2), reserved (2).
+ */
+internal object CallQualityLog {
+    const val MAGIC = 0x43514C31 // CQL1
+    const val VERSION: Short = 1
+    const val HEADER_SIZE = 64
+    const val RECORD_SIZE = 48
+    const val MAX_SID_LENGTH = 43
+    const val TYPE_TRACK: Byte = 1
+    const val TYPE_SAMPLE: Byte = 2
+    const val FLAG_LOCAL_TRACK = 1
+    const val FLAG_AUDIO_TRACK = 1 shl 1
+    const val FILE_EXTENSION = ".cql"
+
+    fun sessionId(roomSid: String, startMillis: Long) =
+            "%013d-%s".format(Locale.US, startMillis, roomSid)
+
+    fun fileName(sessionId: String, segment: Int) =
+            "%s.%04d%s".format(Locale.US, sessionId, segment, FILE_EXTENSION)
+
+    fun sessionId(fileName: String): String? =
+            if (fileName.endsWith(FILE_EXTENSION)) {
+                fileName.substringBefore('.').takeIf { it.isNotEmpty() }
+            } else {
+                null
+            }
+}
@@ -0,0 +1,118 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.sdk.CallQualityLog.FLAG_AUDIO_TRACK
+import com.twilio.video.app.sdk.CallQualityLog.FLAG_LOCAL_TRACK
+import com.twilio.video.app.sdk.CallQualityLog.HEADER_SIZE
+import com.twilio.video.app.sdk.CallQualityLog.MAGIC
+import com.twilio.video.app.sdk.CallQualityLog.MAX_SID_LENGTH
+import com.twilio.video.app.sdk.CallQualityLog.RECORD_SIZE
+import com.twilio.video.app.sdk.CallQualityLog.TYPE_SAMPLE
+import com.twilio.video.app.sdk.CallQualityLog.TYPE_TRACK
+import com.twilio.video.app.sdk.CallQualityLog.VERSION
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import timber.log.Timber
+
+/**
+ * Reads the room sessions that [CallQualityRecorder] stored in [directory] back into time series.
+ * Segments that are missing because the disk budget deleted them are skipped, as is a partially
+ * written record at the end of a segment.
+ */
+class CallQualityLogReader(private val directory: File) {
+
+    /** The ids of the stored sessions, oldest first. */
+    fun sessionIds(): List<String> =
+            segmentFiles().mapNotNull { CallQualityLog.sessionId(it.name) }.distinct()
+
+    fun read(sessionId: String): CallQualitySession? {
+        val segments = segmentFiles().filter { CallQualityLog.sessionId(it.name) == sessionId }
+        var roomSid: String? = null
+        var startMillis = 0L
+        val tracks = LinkedHashMap<Int, TrackBuilder>()
+        segments.forEach { segment ->
+            val buffer = try {
+                readFully(segment)
+            } catch (e: IOException) {
+                Timber.w(e, "Failed to read %s", segment)
+                return@forEach
+            }
+            if (!readHeader(buffer)) {
+                Timber.w("Skipping %s, it is not a call quality log segment", segment)
+                return@forEach
+            }
+            startMillis = buffer.getLong(8)
+            roomSid = readSid(buffer, 20)
+            var position = HEADER_SIZE
+            while (position + RECORD_SIZE <= buffer.limit()) {
+                readRecord(buffer, position, tracks)
+                position += RECORD_SIZE
+            }
+        }
+        return roomSid?.let { roomSid ->
+            CallQualitySession(sessionId, roomSid, startMillis, tracks.values.map { it.build() })
+        }
+    }
+
+    private fun segmentFiles(): List<File> =
+            directory.listFiles { _, name -> CallQualityLog.sessionId(name) != null }
+                    ?.sortedBy { it.name }
+                    ?: emptyList()
+
+    private fun readFully(file: File): ByteBuffer =
+            RandomAccessFile(file, "r").use { randomAccessFile ->
+                val channel = randomAccessFile.channel
+                val buffer = ByteBuffer.allocate(channel.size().toInt())
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) Unit
+                buffer.flip()
+                buffer
+            }
+
+    private fun readHeader(buffer: ByteBuffer) =
+            buffer.limit() >= HEADER_SIZE &&
+                    buffer.getInt(0) == MAGIC &&
+                    buffer.getShort(4) == VERSION &&
+                    buffer.getShort(6).toInt() == RECORD_SIZE
+
+    private fun readRecord(buffer: ByteBuffer, position: Int, tracks: MutableMap<Int, TrackBuilder>) {
+        val flags = buffer.get(position + 1).toInt()
+        val trackIndex = buffer.getShort(position + 2).toInt()
+        when (buffer.get(position)) {
+            TYPE_TRACK -> if (trackIndex !in tracks) {
+                tracks[trackIndex] = TrackBuilder(readSid(buffer, position + 4),
+                        flags and FLAG_LOCAL_TRACK != 0, flags and FLAG_AUDIO_TRACK != 0)
+            }
+            TYPE_SAMPLE -> tracks[trackIndex]?.samples?.add(CallQualitySample(
+                    timestampMillis = buffer.getLong(position + 8),
+                    bytes = buffer.getLong(position + 16),
+                    packets = buffer.getInt(position + 24),
+                    packetsLost = buffer.getInt(position + 4),
+                    rtt = buffer.getInt(position + 28).toLong(),
+                    jitter = buffer.getInt(position + 32),
+                    audioLevel = buffer.getInt(position + 36),
+                    frameRate = buffer.getShort(position + 40).toInt(),
+                    width = buffer.getShort(position + 42).toInt(),
+                    height = buffer.getShort(position + 44).toInt()))
+            else -> Timber.w("Skipping unknown call quality record type %d", buffer.get(position))
+        }
+    }
+
+    /* Reads a sid stored as a length byte followed by MAX_SID_LENGTH bytes. */
+    private fun readSid(buffer: ByteBuffer, position: Int): String {
+        val length = minOf(buffer.get(position).toInt(), MAX_SID_LENGTH)
+        val sid = StringBuilder(length)
+        for (index in 0 until length) sid.append(buffer.get(position + 1 + index).toChar())
+        return sid.toString()
+    }
+
+    private class TrackBuilder(
+        val trackSid: String,
+        val isLocalTrack: Boolean,
+        val isAudioTrack: Boolean
+    ) {
+        val samples = ArrayList<CallQualitySample>()
+
+        fun build() = CallQualityTrack(trackSid, isLocalTrack, isAudioTrack, samples)
+    }
+}
@@ -0,0 +1,332 @@
+package com.twilio.video.app.sdk
+
+import androidx.annotation.VisibleForTesting
+import androidx.annotation.VisibleForTesting.PRIVATE
+import com.twilio.video.StatsReport
+import com.twilio.video.app.sdk.CallQualityLog.FLAG_AUDIO_TRACK
+import com.twilio.video.app.sdk.CallQualityLog.FLAG_LOCAL_TRACK
+import com.twilio.video.app.sdk.CallQualityLog.HEADER_SIZE
+import com.twilio.video.app.sdk.CallQualityLog.MAGIC
+import com.twilio.video.app.sdk.CallQualityLog.MAX_SID_LENGTH
+import com.twilio.video.app.sdk.CallQualityLog.RECORD_SIZE
+import com.twilio.video.app.sdk.CallQualityLog.TYPE_SAMPLE
+import com.twilio.video.app.sdk.CallQualityLog.TYPE_TRACK
+import com.twilio.video.app.sdk.CallQualityLog.VERSION
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.util.concurrent.ArrayBlockingQueue
+import timber.log.Timber
+
+const val CALL_QUALITY_LOG_DIRECTORY = "call_quality"
+const val CALL_QUALITY_SEGMENT_BYTES = 256 * 1024L
+private const val BUFFER_SIZE = 4 * 1024
+private const val BUFFER_COUNT = 8
+
+/**
+ * Appends the per track stats samples of a room session to the call quality log, see
+ * [CallQualityLog] for the format.
+ *
+ * Samples are encoded on the stats thread into a small pool of preallocated buffers that a
+ * writer thread drains to disk, so recording never blocks on IO and does not allocate. When the
+ * writer falls behind and no buffer is free, samples are dropped and counted instead. The writer
+ * starts a new segment once the current one reaches the segment size, and deletes the oldest
+ * segments of any session to keep the log directory within [diskBudgetBytes].
+ *
+ * Recording, flushing and stopping are synchronized, so [stop] can be called from any thread:
+ * it waits for a tick being recorded, hands its samples to the writer before the end of the
+ * session, and any sample recorded afterwards is ignored.
+ */
+class CallQualityRecorder(
+    private val directory: File,
+    private val diskBudgetBytes: Long,
+    segmentBytes: Long = CALL_QUALITY_SEGMENT_BYTES
+) {
+
+    private val segmentBytes = minOf(segmentBytes, diskBudgetBytes)
+    private val freeBuffers = ArrayBlockingQueue<ByteBuffer>(BUFFER_COUNT)
+    private val filledBuffers = ArrayBlockingQueue<ByteBuffer>(BUFFER_COUNT + 1)
+    private val trackIndexes = HashMap<String, Int>()
+    private var buffer: ByteBuffer? = null
+    private var isStopped = false
+    private var writerThread: Thread? = null
+
+    /** Number of samples dropped because the writer fell behind. */
+    @Volatile var droppedSamples = 0L
+        private set
+
+    init {
+        require(this.segmentBytes >= HEADER_SIZE + 2 * RECORD_SIZE) {
+            "The disk budget of $diskBudgetBytes bytes cannot hold a segment"
+        }
+        repeat(BUFFER_COUNT) { freeBuffers.add(ByteBuffer.allocate(BUFFER_SIZE)) }
+    }
+
+    fun start(roomSid: String, startMillis: Long = System.currentTimeMillis()) {
+        check(writerThread == null) { "The recorder was already started" }
+        writerThread = Thread(Writer(roomSid, startMillis), "CallQualityRecorder").apply { start() }
+    }
+
+    /** Records the samples of every track in the reports. */
+    @Synchronized
+    fun record(statsReports: List<StatsReport>) {
+        for (reportIndex in statsReports.indices) {
+            val report = statsReports[reportIndex]
+            // Local tracks are reported by every peer connection, so only take the first report
+            if (reportIndex == 0) {
+                val localAudioTrackStats = report.localAudioTrackStats
+                for (index in localAudioTrackStats.indices) {
+                    val stats = localAudioTrackStats[index]
+                    recordSample(stats.trackSid, true, true, stats.timestamp.toLong(),
+                            stats.bytesSent, stats.packetsSent, stats.packetsLost,
+                            stats.roundTripTime, stats.jitter, stats.audioLevel, 0, 0, 0)
+                }
+                val localVideoTrackStats = report.localVideoTrackStats
+                for (index in localVideoTrackStats.indices) {
+                    val stats = localVideoTrackStats[index]
+                    recordSample(stats.trackSid, true, false, stats.timestamp.toLong(),
+                            stats.bytesSent, stats.packetsSent, stats.packetsLost,
+                            stats.roundTripTime, 0, 0, stats.frameRate,
+                            stats.dimensions.width, stats.dimensions.height)
+                }
+            }
+            val remoteAudioTrackStats = report.remoteAudioTrackStats
+            for (index in remoteAudioTrackStats.indices) {
+                val stats = remoteAudioTrackStats[index]
+                recordSample(stats.trackSid, false, true, stats.timestamp.toLong(),
+                        stats.bytesReceived, stats.packetsReceived, stats.packetsLost, 0,
+                        stats.jitter, stats.audioLevel, 0, 0, 0)
+            }
+            val remoteVideoTrackStats = report.remoteVideoTrackStats
+            for (index in remoteVideoTrackStats.indices) {
+                val stats = remoteVideoTrackStats[index]
+                recordSample(stats.trackSid, false, false, stats.timestamp.toLong(),
+                        stats.bytesReceived, stats.packetsReceived, stats.packetsLost, 0, 0, 0,
+                        stats.frameRate, stats.dimensions.width, stats.dimensions.height)
+            }
+        }
+        flush()
+    }
+
+    @Synchronized
+    fun recordSample(
+        trackSid: String,
+        isLocalTrack: Boolean,
+        isAudioTrack: Boolean,
+        timestampMillis: Long,
+        bytes: Long,
+        packets: Int,
+        packetsLost: Int,
+        rtt: Long,
+        jitter: Int,
+        audioLevel: Int,
+        frameRate: Int,
+        width: Int,
+        height: Int
+    ) {
+        if (isStopped) return
+        // Leave room for a track record, so a new track and its first sample share a buffer
+        val buffer = bufferWithRoom(2 * RECORD_SIZE) ?: run {
+            droppedSamples++
+            return
+        }
+        val flags = (if (isLocalTrack) FLAG_LOCAL_TRACK else 0) or
+                (if (isAudioTrack) FLAG_AUDIO_TRACK else 0)
+        val trackIndex = trackIndexes[trackSid] ?: trackIndexes.size.also { trackIndex ->
+            trackIndexes[trackSid] = trackIndex
+            putTrackRecord(buffer, flags, trackIndex, trackSid)
+        }
+        buffer.put(TYPE_SAMPLE)
+                .put(flags.toByte())
+                .putShort(trackIndex.toShort())
+                .putInt(packetsLost)
+                .putLong(timestampMillis)
+                .putLong(bytes)
+                .putInt(packets)
+                .putInt(rtt.coerceAtMost(Int.MAX_VALUE.toLong()).toInt())
+                .putInt(jitter)
+                .putInt(audioLevel)
+                .putShort(frameRate.toShort())
+                .putShort(width.toShort())
+                .putShort(height.toShort())
+                .putShort(0)
+    }
+
+    /** Hands the samples recorded so far to the writer. */
+    @Synchronized
+    fun flush() {
+        buffer?.let { buffer ->
+            this.buffer = null
+            if (buffer.position() > 0) filledBuffers.add(buffer) else freeBuffers.add(buffer)
+        }
+    }
+
+    /** Stops the writer once it wrote every sample recorded before. */
+    @Synchronized
+    fun stop() {
+        if (!isStopped) {
+            isStopped = true
+            flush()
+            filledBuffers.add(END_OF_SESSION)
+        }
+    }
+
+    /* Waits until the writer wrote every flushed buffer. */
+    @VisibleForTesting(otherwise = PRIVATE)
+    internal fun awaitWritten(timeoutMillis: Long): Boolean {
+        val deadline = System.currentTimeMillis() + timeoutMillis
+        while (freeBuffers.size < BUFFER_COUNT) {
+            if (System.currentTimeMillis() > deadline) return false
+            Thread.sleep(1)
+        }
+        return true
+    }
+
+    @VisibleForTesting(otherwise = PRIVATE)
+    internal fun awaitStopped(timeoutMillis: Long): Boolean {
+        val writerThread = writerThread ?: return true
+        writerThread.join(timeoutMillis)
+        return !writerThread.isAlive
+    }
+
+    private fun bufferWithRoom(bytes: Int): ByteBuffer? {
+        val buffer = buffer
+        if (buffer != null && buffer.remaining() >= bytes) return buffer
+        flush()
+        return freeBuffers.poll()?.also { this.buffer = it }
+    }
+
+    private fun putTrackRecord(buffer: ByteBuffer, flags: Int, trackIndex: Int, trackSid: String) {
+        val sidLength = minOf(trackSid.length, MAX_SID_LENGTH)
+        buffer.put(TYPE_TRACK)
+                .put(flags.toByte())
+                .putShort(trackIndex.toShort())
+                .put(sidLength.toByte())
+        for (index in 0 until MAX_SID_LENGTH) {
+            buffer.put(if (index < sidLength) trackSid[index].toByte() else ZERO)
+        }
+    }
+
+    private inner class Writer(roomSid: String, startMillis: Long) : Runnable {
+        private val sessionId = CallQualityLog.sessionId(roomSid, startMillis)
+        private val header = ByteBuffer.allocate(HEADER_SIZE)
+        private val trackRecords = ArrayList<ByteBuffer>()
+        private var channel: FileChannel? = null
+        private var file: File? = null
+        private var segment = -1
+        private var segmentSize = 0L
+
+        init {
+            val sidLength = minOf(roomSid.length, MAX_SID_LENGTH)
+            header.putInt(MAGIC)
+                    .putShort(VERSION)
+                    .putShort(RECORD_SIZE.toShort())
+                    .putLong(startMillis)
+                    .putInt(0)
+                    .put(sidLength.toByte())
+            for (index in 0 until MAX_SID_LENGTH) {
+                header.put(if (index < sidLength) roomSid[index].toByte() else ZERO)
+            }
+        }
+
+        override fun run() {
+            var isWriting = true
+            while (true) {
+                val buffer = filledBuffers.take()
+                if (buffer === END_OF_SESSION) break
+                buffer.flip()
+                if (isWriting) {
+                    try {
+                        write(buffer)
+                    } catch (e: IOException) {
+                        Timber.e(e, "Failed to write the call quality log, dropping the session")
+                        isWriting = false
+                    }
+                }
+                buffer.clear()
+                freeBuffers.add(buffer)
+            }
+            closeSegment()
+            Timber.d("Call quality log %s closed after %d segments, %d samples dropped",
+                    sessionId, segment + 1, droppedSamples)
+        }
+
+        private fun write(buffer: ByteBuffer) {
+            for (position in 0 until buffer.limit() step RECORD_SIZE) {
+                if (buffer.get(position) == TYPE_TRACK) {
+                    val trackRecord = ByteBuffer.allocate(RECORD_SIZE)
+                    for (offset in 0 until RECORD_SIZE) trackRecord.put(buffer.get(position + offset))
+                    trackRecords.add(trackRecord)
+                }
+            }
+            val limit = buffer.limit()
+            while (buffer.hasRemaining()) {
+                var room = (segmentBytes - segmentSize) / RECORD_SIZE * RECORD_SIZE
+                if (channel == null || room <= 0) {
+                    openSegment()
+                    // A segment always takes at least one record, even if the track records fill it
+                    room = maxOf((segmentBytes - segmentSize) / RECORD_SIZE * RECORD_SIZE,
+                            RECORD_SIZE.toLong())
+                }
+                buffer.limit(minOf(limit.toLong(), buffer.position() + room).toInt())
+                segmentSize += writeFully(buffer)
+                buffer.limit(limit)
+            }
+        }
+
+        private fun openSegment() {
+            closeSegment()
+            segment++
+            val file = File(directory, CallQualityLog.fileName(sessionId, segment))
+            this.file = file
+            directory.mkdirs()
+            enforceDiskBudget(file)
+            channel = FileOutputStream(file).channel
+            header.putInt(HEADER_SEGMENT_OFFSET, segment)
+            header.rewind()
+            segmentSize = writeFully(header).toLong()
+            trackRecords.forEach { trackRecord ->
+                trackRecord.rewind()
+                segmentSize += writeFully(trackRecord)
+            }
+        }
+
+        private fun writeFully(buffer: ByteBuffer): Int {
+            val channel = channel ?: return 0
+            var written = 0
+            while (buffer.hasRemaining()) written += channel.write(buffer)
+            return written
+        }
+
+        private fun closeSegment() {
+            try {
+                channel?.close()
+            } catch (e: IOException) {
+                Timber.w(e, "Failed to close the call quality log")
+            }
+            channel = null
+        }
+
+        /* Deletes the oldest segments until the new one fits in the budget at its full size. */
+        private fun enforceDiskBudget(newSegment: File) {
+            val segments = directory.listFiles { _, name -> CallQualityLog.sessionId(name) != null }
+                    ?.filter { it != newSegment }
+                    ?.sortedBy { it.name }
+                    ?: return
+            var size = segments.sumOf { it.length() } + segmentBytes
+            for (oldSegment in segments) {
+                if (size <= diskBudgetBytes) break
+                size -= oldSegment.length()
+                if (!oldSegment.delete()) Timber.w("Failed to delete %s", oldSegment)
+            }
+        }
+    }
+
+    companion object {
+        private const val HEADER_SEGMENT_OFFSET = 16
+        private const val ZERO: Byte = 0
+        private val END_OF_SESSION = ByteBuffer.allocate(0)
+    }
+}
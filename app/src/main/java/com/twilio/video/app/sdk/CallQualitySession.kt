@@ -0,0 +1,30 @@
+package com.twilio.video.app.sdk
+
+/** A room session read back from the call quality log, see [CallQualityLogReader]. */
+data class CallQualitySession(
+    val sessionId: String,
+    val roomSid: String,
+    val startMillis: Long,
+    val tracks: List<CallQualityTrack>
+)
+
+data class CallQualityTrack(
+    val trackSid: String,
+    val isLocalTrack: Boolean,
+    val isAudioTrack: Boolean,
+    val samples: List<CallQualitySample>
+)
+
+/** The cumulative counters of a track at one point in time, as reported by the SDK. */
+data class CallQualitySample(
+    val timestampMillis: Long,
+    val bytes: Long,
+    val packets: Int,
+    val packetsLost: Int,
+    val rtt: Long,
+    val jitter: Int,
+    val audioLevel: Int,
+    val frameRate: Int,
+    val width: Int,
+    val height: Int
+)
@@ -0,0 +1,90 @@
+package com.twilio.video.app.sdk
+
+/**
+ * Distribution of a per interval metric over a whole track. Packet loss is in hundredths of a
+ * percent, like [TrackStats.packetLossHistory].
+ */
+data class CallQualityPercentiles(
+    val min: Long,
+    val p10: Long,
+    val p50: Long,
+    val p90: Long,
+    val max: Long
+)
+
+/**
+ * Per interval summary of a recorded track. The round trip time is only reported for local
+ * tracks and the frame rate only for video tracks, the other is null.
+ */
+data class CallQualityTrackSummary(
+    val trackSid: String,
+    val isLocalTrack: Boolean,
+    val isAudioTrack: Boolean,
+    val intervalCount: Int,
+    val durationMillis: Long,
+    val bitrate: CallQualityPercentiles?,
+    val packetLoss: CallQualityPercentiles?,
+    val rtt: CallQualityPercentiles?,
+    val frameRate: CallQualityPercentiles?
+)
+
+data class CallQualitySummary(
+    val sessionId: String,
+    val roomSid: String,
+    val startMillis: Long,
+    val tracks: List<CallQualityTrackSummary>
+) {
+    companion object {
+
+        /**
+         * Summarizes a recorded session. The samples of every track are replayed through
+         * [TrackStats], so the intervals are derived exactly like the ones shown during the call.
+         */
+        fun of(session: CallQualitySession) = CallQualitySummary(
+                session.sessionId,
+                session.roomSid,
+                session.startMillis,
+                session.tracks.map { summarize(it) })
+
+        private fun summarize(track: CallQualityTrack): CallQualityTrackSummary {
+            val samples = track.samples
+            val historySize = maxOf(samples.size, 1)
+            val trackStats = TrackStats(track.trackSid, track.isLocalTrack,
+                    TRACK_STATS_WINDOW_SIZE, historySize)
+            val rttHistory = LongRingBuffer(historySize)
+            samples.forEach { sample ->
+                trackStats.record(sample.timestampMillis.toDouble(), sample.bytes, sample.packets,
+                        sample.packetsLost, sample.frameRate, sample.jitter)
+                rttHistory.add(sample.rtt)
+            }
+            // A restarted track only keeps the intervals since the restart
+            val intervalCount = trackStats.timestamps.size
+            val isVideoTrack = !track.isAudioTrack
+            return CallQualityTrackSummary(
+                    track.trackSid,
+                    track.isLocalTrack,
+                    track.isAudioTrack,
+                    intervalCount,
+                    if (samples.isEmpty()) 0 else samples.last().timestampMillis - samples[0].timestampMillis,
+                    trackStats.bitrateHistory.percentiles(),
+                    trackStats.packetLossHistory.percentiles(),
+                    if (track.isLocalTrack) rttHistory.percentiles() else null,
+                    if (isVideoTrack) trackStats.frameRateHistory.percentiles() else null)
+        }
+
+        private fun LongRingBuffer.percentiles() =
+                if (size == 0) {
+                    null
+                } else {
+                    CallQualityPercentiles(min(), percentile(10), percentile(50), percentile(90), max())
+                }
+
+        private fun IntRingBuffer.percentiles() =
+                if (size == 0) {
+                    null
+                } else {
+                    CallQualityPercentiles(min().toLong(), percentile(10).toLong(),
+                            percentile(50).toLong(), percentile(90).toLong(), max().toLong())
+                }
+    }
+}
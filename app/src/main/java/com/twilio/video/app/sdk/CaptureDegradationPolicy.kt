@@ -0,0 +1,101 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.sdk.CaptureDegradationReason.BATTERY
+import com.twilio.video.app.sdk.CaptureDegradationReason.THERMAL
+
+enum class CaptureDegradationReason { NONE, THERMAL, BATTERY }
+
+/**
+ * How many [PublishQualityLevel] steps the camera track is lowered to spare the device, and why.
+ */
+data class CaptureDegradation(val steps: Int, val reason: CaptureDegradationReason) {
+
+    companion object {
+        val NONE = CaptureDegradation(0, CaptureDegradationReason.NONE)
+    }
+}
+
+/**
+ * Thresholds of the [CaptureDegradationPolicy]. The thermal statuses use the values of the
+ * PowerManager THERMAL_STATUS constants. The battery steps are only taken while the device is
+ * not charging and are kept until the level recovered by [batteryRecoveryPercent].
+ */
+data class CaptureDegradationThresholds(
+    val moderateThermalStatus: Int = 2,
+    val severeThermalStatus: Int = 3,
+    val criticalThermalStatus: Int = 4,
+    val lowBatteryPercent: Int = 20,
+    val criticalBatteryPercent: Int = 10,
+    val batteryRecoveryPercent: Int = 5,
+    val restoreMillis: Long = 30_000
+)
+
+/**
+ * Decides how far the camera capture format is lowered for the thermal status and battery level
+ * of the device. A worse condition lowers the format at once, a better one only restores it after
+ * it lasted for [CaptureDegradationThresholds.restoreMillis], so a device that cools down for a
+ * moment does not heat right back up at full resolution. The policy only sees plain values, the
+ * caller feeds it from the platform.
+ */
+class CaptureDegradationPolicy(
+    private val thresholds: CaptureDegradationThresholds = CaptureDegradationThresholds(),
+    private val onDegradationChanged: (CaptureDegradation) -> Unit
+) {
+
+    var degradation = CaptureDegradation.NONE
+        private set
+    private var batterySteps = 0
+    private var restoreSince = NOT_SINCE
+
+    /**
+     * Evaluates the current conditions and returns how many milliseconds later the policy wants
+     * to be evaluated again to restore the capture format, or 0 if it does not.
+     */
+    fun update(thermalStatus: Int, batteryPercent: Int, isCharging: Boolean, nowMillis: Long): Long {
+        val thermalSteps = when {
+            thermalStatus >= thresholds.criticalThermalStatus -> 3
+            thermalStatus >= thresholds.severeThermalStatus -> 2
+            thermalStatus >= thresholds.moderateThermalStatus -> 1
+            else -> 0
+        }
+        batterySteps = if (isCharging) {
+            0
+        } else {
+            // Readings hover around a threshold, so only step up once the level recovered
+            val recoveredSteps = batterySteps(batteryPercent - thresholds.batteryRecoveryPercent)
+            maxOf(batterySteps(batteryPercent), minOf(batterySteps, recoveredSteps))
+        }
+        val target = when {
+            thermalSteps == 0 && batterySteps == 0 -> CaptureDegradation.NONE
+            thermalSteps >= batterySteps -> CaptureDegradation(thermalSteps, THERMAL)
+            else -> CaptureDegradation(batterySteps, BATTERY)
+        }
+
+        if (target.steps >= degradation.steps) {
+            restoreSince = NOT_SINCE
+            if (target != degradation) changeDegradation(target)
+            return 0
+        }
+        if (restoreSince == NOT_SINCE) restoreSince = nowMillis
+        val remainingMillis = thresholds.restoreMillis - (nowMillis - restoreSince)
+        if (remainingMillis > 0) return remainingMillis
+        restoreSince = NOT_SINCE
+        changeDegradation(target)
+        return 0
+    }
+
+    private fun batterySteps(batteryPercent: Int) = when {
+        batteryPercent <= thresholds.criticalBatteryPercent -> 2
+        batteryPercent <= thresholds.lowBatteryPercent -> 1
+        else -> 0
+    }
+
+    private fun changeDegradation(degradation: CaptureDegradation) {
+        this.degradation = degradation
+        onDegradationChanged(degradation)
+    }
+
+    private companion object {
+        const val NOT_SINCE = Long.MIN_VALUE
+    }
+}
@@ -31,7 +31,8 @@ import com.twilio.video.ktx.createConnectOptions
 class ConnectOptionsFactory(
     private val context: Context,
     private val sharedPreferences: SharedPreferences,
-    private val tokenService: TokenService
+    private val tokenService: TokenService,
+    private val renderDimensionHints: RenderDimensionHints
 ) {
 
     suspend fun newInstance(identity: String, roomName: String): ConnectOptions {
@@ -88,6 +89,7 @@ class ConnectOptionsFactory(
                 TrackPriority.HIGH,
                 Preferences.BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS,
                 Preferences.BANDWIDTH_PROFILE_HIGH_TRACK_PRIORITY_RENDER_DIMENSIONS_DEFAULT)
+        setMeasuredRenderDimensions(renderDimensions)
         val bandwidthProfileOptions = createBandwidthProfileOptions {
             mode(mode)
             maxSubscriptionBitrate(maxSubscriptionBitrate)
@@ -143,6 +145,24 @@ class ConnectOptionsFactory(
         }
     }
 
+    /*
+     * Sets the render dimensions the participant views were last measured at for the track
+     * priorities left to the server default, so the server never sends a thumbnail more pixels
+     * than it shows. The resulting tiers let the room map the view sizes to track priorities.
+     */
+    private fun setMeasuredRenderDimensions(
+        renderDimensions: MutableMap<TrackPriority, VideoDimensions>
+    ) {
+        for ((trackPriority, dimensions) in renderDimensionHints.measuredTiers()) {
+            if (trackPriority !in renderDimensions) {
+                renderDimensions[trackPriority] = VideoDimensions(dimensions.width, dimensions.height)
+            }
+        }
+        renderDimensionHints.tiers = renderDimensions.mapValues { (_, dimensions) ->
+            RenderDimensions.landscape(dimensions.width, dimensions.height)
+        }
+    }
+
     private fun getTrackSwitchOffMode(trackSwitchOffModeString: String): TrackSwitchOffMode? {
         return when (trackSwitchOffModeString) {
             TrackSwitchOffMode.PREDICTED.name -> TrackSwitchOffMode.PREDICTED
@@ -0,0 +1,95 @@
+package com.twilio.video.app.sdk
+
+import android.annotation.TargetApi
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+import android.os.BatteryManager
+import android.os.Build
+import android.os.Handler
+import android.os.Looper
+import android.os.PowerManager
+import android.os.SystemClock
+import timber.log.Timber
+
+/**
+ * Feeds the thermal status and battery level of the device into a [CaptureDegradationPolicy].
+ * Everything runs on the main thread. The thermal status is only available from Android 10, older
+ * devices are degraded by battery level alone.
+ */
+class DevicePowerMonitor(
+    private val context: Context,
+    private val policy: CaptureDegradationPolicy
+) {
+
+    private val handler = Handler(Looper.getMainLooper())
+    private val powerManager = context.getSystemService(Context.POWER_SERVICE) as PowerManager
+    private var thermalStatus = THERMAL_STATUS_NONE
+    private var batteryPercent = 100
+    private var isCharging = true
+    private var isStarted = false
+    private val evaluateRunnable = Runnable { evaluate() }
+    private val batteryReceiver = object : BroadcastReceiver() {
+        override fun onReceive(context: Context, intent: Intent) {
+            updateBattery(intent)
+            evaluate()
+        }
+    }
+    private val thermalStatusListener: Any? =
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) createThermalStatusListener() else null
+
+    fun start() {
+        if (isStarted) return
+        isStarted = true
+        context.registerReceiver(batteryReceiver, IntentFilter(Intent.ACTION_BATTERY_CHANGED))
+                ?.let { updateBattery(it) }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            thermalStatus = powerManager.currentThermalStatus
+            powerManager.addThermalStatusListener(
+                    thermalStatusListener as PowerManager.OnThermalStatusChangedListener)
+        }
+        evaluate()
+    }
+
+    fun stop() {
+        if (!isStarted) return
+        isStarted = false
+        context.unregisterReceiver(batteryReceiver)
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            powerManager.removeThermalStatusListener(
+                    thermalStatusListener as PowerManager.OnThermalStatusChangedListener)
+        }
+        handler.removeCallbacks(evaluateRunnable)
+    }
+
+    private fun evaluate() {
+        if (!isStarted) return
+        handler.removeCallbacks(evaluateRunnable)
+        val restoreDelayMillis = policy.update(thermalStatus, batteryPercent, isCharging,
+                SystemClock.elapsedRealtime())
+        if (restoreDelayMillis > 0) handler.postDelayed(evaluateRunnable, restoreDelayMillis)
+    }
+
+    private fun updateBattery(intent: Intent) {
+        val level = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1)
+        val scale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1)
+        if (level >= 0 && scale > 0) batteryPercent = level * 100 / scale
+        val status = intent.getIntExtra(BatteryManager.EXTRA_STATUS, -1)
+        isCharging = status == BatteryManager.BATTERY_STATUS_CHARGING ||
+                status == BatteryManager.BATTERY_STATUS_FULL
+    }
+
+    @TargetApi(Build.VERSION_CODES.Q)
+    private fun createThermalStatusListener() =
+            PowerManager.OnThermalStatusChangedListener { status ->
+                Timber.d("Thermal status changed to %d", status)
+                thermalStatus = status
+                evaluate()
+            }
+
+    private companion object {
+        // PowerManager.THERMAL_STATUS_NONE, which needs Android 10
+        const val THERMAL_STATUS_NONE = 0
+    }
+}
@@ -8,6 +8,12 @@ import com.twilio.video.LocalParticipant
 import com.twilio.video.LocalVideoTrack
 import com.twilio.video.LocalVideoTrackPublication
 import com.twilio.video.NetworkQualityLevel
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_FIVE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_FOUR
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ONE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_THREE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_TWO
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ZERO
 import com.twilio.video.TwilioException
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.NetworkQualityLevelChange
 import timber.log.Timber
@@ -18,10 +24,15 @@ class LocalParticipantListener(private val roomManager: RoomManager) : LocalPart
         Timber.i("LocalParticipant NetworkQualityLevel changed for LocalParticipant sid: %s, NetworkQualityLevel: %s",
                 localParticipant.sid, networkQualityLevel)
 
+        roomManager.publishQualityController?.networkQualityLevel = networkQualityLevel.toInt()
         roomManager.sendRoomEvent(NetworkQualityLevelChange(localParticipant.sid, networkQualityLevel))
     }
 
-    override fun onVideoTrackPublished(localParticipant: LocalParticipant, localVideoTrackPublication: LocalVideoTrackPublication) {}
+    override fun onVideoTrackPublished(localParticipant: LocalParticipant, localVideoTrackPublication: LocalVideoTrackPublication) {
+        if (localVideoTrackPublication.trackName == CAMERA_TRACK_NAME) {
+            roomManager.setCameraTrackSid(localVideoTrackPublication.trackSid)
+        }
+    }
 
     override fun onVideoTrackPublicationFailed(localParticipant: LocalParticipant, localVideoTrack: LocalVideoTrack, twilioException: TwilioException) {}
 
@@ -32,4 +43,14 @@ class LocalParticipantListener(private val roomManager: RoomManager) : LocalPart
     override fun onAudioTrackPublished(localParticipant: LocalParticipant, localAudioTrackPublication: LocalAudioTrackPublication) {}
 
     override fun onAudioTrackPublicationFailed(localParticipant: LocalParticipant, localAudioTrack: LocalAudioTrack, twilioException: TwilioException) {}
+
+    private fun NetworkQualityLevel.toInt() = when (this) {
+        NETWORK_QUALITY_LEVEL_ZERO -> 0
+        NETWORK_QUALITY_LEVEL_ONE -> 1
+        NETWORK_QUALITY_LEVEL_TWO -> 2
+        NETWORK_QUALITY_LEVEL_THREE -> 3
+        NETWORK_QUALITY_LEVEL_FOUR -> 4
+        NETWORK_QUALITY_LEVEL_FIVE -> 5
+        else -> NETWORK_QUALITY_UNKNOWN
+    }
 }
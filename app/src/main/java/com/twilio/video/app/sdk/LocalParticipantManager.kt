@@ -3,14 +3,22 @@ package com.twilio.video.app.sdk
 import android.content.Context
 import android.content.Intent
 import android.content.SharedPreferences
+import android.os.Handler
+import android.os.Looper
+import com.twilio.video.EncodingParameters
 import com.twilio.video.LocalAudioTrack
 import com.twilio.video.LocalParticipant
 import com.twilio.video.LocalTrackPublicationOptions
 import com.twilio.video.LocalVideoTrack
 import com.twilio.video.ScreenCapturer
 import com.twilio.video.TrackPriority
+import com.twilio.video.VideoDimensions
 import com.twilio.video.VideoFormat
 import com.twilio.video.app.R
+import com.twilio.video.app.data.Preferences.MAX_AUDIO_BITRATE
+import com.twilio.video.app.data.Preferences.MAX_AUDIO_BITRATE_DEFAULT
+import com.twilio.video.app.data.Preferences.MAX_VIDEO_BITRATE
+import com.twilio.video.app.data.Preferences.MAX_VIDEO_BITRATE_DEFAULT
 import com.twilio.video.app.data.Preferences.VIDEO_CAPTURE_RESOLUTION
 import com.twilio.video.app.data.Preferences.VIDEO_CAPTURE_RESOLUTION_DEFAULT
 import com.twilio.video.app.data.Preferences.VIDEO_DIMENSIONS
@@ -29,6 +37,8 @@ import com.twilio.video.ktx.createLocalAudioTrack
 import com.twilio.video.ktx.createLocalVideoTrack
 import timber.log.Timber
 
+private const val CAPTURE_FRAME_RATE = 30
+
 class LocalParticipantManager(
     private val context: Context,
     private val roomManager: RoomManager,
@@ -41,6 +51,8 @@ class LocalParticipantManager(
             roomManager.sendRoomEvent(if (value == null) AudioOff else AudioOn)
         }
     internal var localParticipant: LocalParticipant? = null
+    // The camera track and the participant are only touched on the main thread
+    private val mainHandler by lazy { Handler(Looper.getMainLooper()) }
     private var cameraVideoTrack: LocalVideoTrack? = null
         set(value) {
             field = value
@@ -64,6 +76,22 @@ class LocalParticipantManager(
     private var isAudioMuted = false
     private var isVideoMuted = false
     internal val localVideoTrackNames: MutableMap<String, String> = HashMap()
+    /** Whether the published microphone track is expected to carry audio, read by the stats thread. */
+    @Volatile internal var isLocalAudioEnabled = true
+        private set
+    /** Whether the camera track is expected to send frames, read by the stats thread. */
+    @Volatile internal var isLocalVideoEnabled = true
+        private set
+    /** Sid of the published camera track, read by the stats thread. */
+    @Volatile internal var cameraTrackSid: String? = null
+    /** Level picked by the [PublishQualityController], or null for the settings. */
+    private var networkPublishQuality: PublishQualityLevel? = null
+    /** Steps the [CaptureDegradationPolicy] lowered the camera track by. */
+    private var captureDegradationSteps = 0
+    /** Capture format applied to the camera track, or null for the settings. */
+    @Volatile private var publishQuality: PublishQualityLevel? = null
+    /** Frame rate the camera captures at with the applied format, read by the stats thread. */
+    internal val cameraFrameRate: Int get() = publishQuality?.frameRate ?: CAPTURE_FRAME_RATE
 
     fun onResume() {
         if (!isAudioMuted) setupLocalAudioTrack()
@@ -86,21 +114,25 @@ class LocalParticipantManager(
 
     fun enableLocalVideo() {
         cameraVideoTrack?.enable(true)
+        isLocalVideoEnabled = true
         roomManager.sendRoomEvent(VideoEnabled)
     }
 
     fun disableLocalVideo() {
         cameraVideoTrack?.enable(false)
+        isLocalVideoEnabled = false
         roomManager.sendRoomEvent(VideoDisabled)
     }
 
     fun enableLocalAudio() {
         localAudioTrack?.enable(true)
+        isLocalAudioEnabled = true
         roomManager.sendRoomEvent(AudioEnabled)
     }
 
     fun disableLocalAudio() {
         localAudioTrack?.enable(false)
+        isLocalAudioEnabled = false
         roomManager.sendRoomEvent(AudioDisabled)
     }
 
@@ -145,6 +177,48 @@ class LocalParticipantManager(
 
     fun switchCamera() = cameraCapturer?.switchCamera()
 
+    /** Levels the camera track may step through, starting with the format from the settings. */
+    internal fun publishQualityLadder(): List<PublishQualityLevel> {
+        val dimensions = captureDimensions()
+        return PublishQualityLevel.ladder(dimensions.width, dimensions.height, CAPTURE_FRAME_RATE,
+                sharedPreferences.get(MAX_VIDEO_BITRATE, MAX_VIDEO_BITRATE_DEFAULT))
+    }
+
+    /**
+     * Lowers the camera track to [level] for the uplink, or restores the settings for null.
+     * Called from the stats thread, the level is applied on the main thread where the camera track
+     * and the participant are set up and released.
+     */
+    internal fun setPublishQuality(level: PublishQualityLevel?) {
+        mainHandler.post {
+            networkPublishQuality = level
+            applyPublishQuality()
+        }
+    }
+
+    /** Lowers the camera track by [steps] levels to spare the device. Called on the main thread. */
+    internal fun setCaptureDegradation(steps: Int) {
+        captureDegradationSteps = steps
+        applyPublishQuality()
+    }
+
+    /*
+     * Applies the lower of the network and device levels to the camera track. The capturer and
+     * the participant hand the change over to their own threads. The network level was picked from
+     * the ladder of the settings at the time, so it is mapped onto the current one.
+     */
+    private fun applyPublishQuality() {
+        val ladder = publishQualityLadder()
+        val networkIndex = networkPublishQuality?.indexIn(ladder) ?: 0
+        val level = ladder[maxOf(networkIndex, captureDegradationSteps).coerceIn(0, ladder.lastIndex)]
+        if (level == (publishQuality ?: ladder[0])) return
+        publishQuality = level
+        cameraCapturer?.changeCaptureFormat(level.width, level.height, level.frameRate)
+        localParticipant?.setEncodingParameters(EncodingParameters(
+                sharedPreferences.get(MAX_AUDIO_BITRATE, MAX_AUDIO_BITRATE_DEFAULT),
+                level.maxVideoBitrate))
+    }
+
     private fun setupLocalAudioTrack() {
         if (localAudioTrack == null && !isAudioMuted) {
             localAudioTrack = createLocalAudioTrack(context, true, MICROPHONE_TRACK_NAME)
@@ -175,9 +249,10 @@ class LocalParticipantManager(
             localAudioTrack?.let { localParticipant?.unpublishTrack(it) }
 
     private fun setupLocalVideoTrack() {
-        val dimensionsIndex = sharedPreferences.get(VIDEO_CAPTURE_RESOLUTION,
-                VIDEO_CAPTURE_RESOLUTION_DEFAULT).toInt()
-        val videoFormat = VideoFormat(VIDEO_DIMENSIONS[dimensionsIndex], 30)
+        val videoFormat = publishQuality?.let { publishQuality ->
+            VideoFormat(VideoDimensions(publishQuality.width, publishQuality.height),
+                    publishQuality.frameRate)
+        } ?: VideoFormat(captureDimensions(), CAPTURE_FRAME_RATE)
 
         cameraCapturer = CameraCapturerCompat.newInstance(context)
         cameraVideoTrack = cameraCapturer?.let { cameraCapturer ->
@@ -196,10 +271,17 @@ class LocalParticipantManager(
         }
     }
 
+    private fun captureDimensions(): VideoDimensions {
+        val dimensionsIndex = sharedPreferences.get(VIDEO_CAPTURE_RESOLUTION,
+                VIDEO_CAPTURE_RESOLUTION_DEFAULT).toInt()
+        return VIDEO_DIMENSIONS[dimensionsIndex]
+    }
+
     private fun removeCameraTrack() {
         cameraVideoTrack?.let { cameraVideoTrack ->
             unpublishTrack(cameraVideoTrack)
             localVideoTrackNames.remove(cameraVideoTrack.name)
+            cameraTrackSid = null
             cameraVideoTrack.release()
             this.cameraVideoTrack = null
         }
@@ -0,0 +1,39 @@
+package com.twilio.video.app.sdk
+
+/**
+ * Sids of the subscribed remote tracks that are not expected to carry media, because their
+ * publisher disabled them or the bandwidth profile switched them off. A track stays paused until
+ * every reason it was paused for is gone. Written from the participant callbacks and read from
+ * the stats thread.
+ */
+class PausedTrackIndex {
+
+    private val reasons = HashMap<String, Int>()
+
+    @Synchronized
+    fun isPaused(trackSid: String) = reasons.containsKey(trackSid)
+
+    @Synchronized
+    fun pause(trackSid: String, reason: Int) {
+        reasons[trackSid] = (reasons[trackSid] ?: 0) or reason
+    }
+
+    @Synchronized
+    fun resume(trackSid: String, reason: Int) {
+        val remainingReasons = (reasons[trackSid] ?: return) and reason.inv()
+        if (remainingReasons == 0) reasons.remove(trackSid) else reasons[trackSid] = remainingReasons
+    }
+
+    @Synchronized
+    fun remove(trackSid: String) {
+        reasons.remove(trackSid)
+    }
+
+    @Synchronized
+    fun clear() = reasons.clear()
+
+    companion object {
+        const val DISABLED = 1
+        const val SWITCHED_OFF = 1 shl 1
+    }
+}
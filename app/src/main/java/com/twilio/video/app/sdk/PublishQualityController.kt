@@ -0,0 +1,162 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.StatsReport
+import timber.log.Timber
+
+/** Network quality level that the SDK has not reported yet. */
+const val NETWORK_QUALITY_UNKNOWN = -1
+
+/**
+ * Thresholds of the [PublishQualityController]. The camera track steps down once the link stayed
+ * congested for [downgradeMillis] and back up once it stayed healthy for [upgradeMillis]. The gap
+ * between the congested and healthy thresholds keeps a link that hovers around one of them from
+ * stepping back and forth. Every upgrade that is followed by a downgrade within
+ * [upgradeProbeMillis] doubles the time to the next upgrade, up to [maxUpgradeMillis]. The
+ * windows assume the one second samples of [StatsPollingMode.FOREGROUND], which the controller
+ * registers for while it runs.
+ */
+data class PublishQualityThresholds(
+    val congestedRttMillis: Long = 400,
+    val healthyRttMillis: Long = 250,
+    val congestedPacketLossPercent: Float = 5f,
+    val healthyPacketLossPercent: Float = 2f,
+    val congestedFrameRateRatio: Float = 0.6f,
+    val healthyFrameRateRatio: Float = 0.85f,
+    val congestedNetworkQualityLevel: Int = 2,
+    val healthyNetworkQualityLevel: Int = 4,
+    val downgradeMillis: Long = 3_000,
+    val upgradeMillis: Long = 10_000,
+    val maxUpgradeMillis: Long = 120_000,
+    val upgradeProbeMillis: Long = 15_000,
+    val settleMillis: Long = 4_000
+)
+
+/**
+ * Steps the capture format and send bitrate of the camera track through a [ladder] of
+ * [PublishQualityLevel]s, best first, based on the outbound stats of the camera track and the
+ * network quality level of the local participant. After every step the encoder gets
+ * [PublishQualityThresholds.settleMillis] to adapt before the stats are trusted again. Only the
+ * stats thread may call [update], the network quality level may be set from any thread.
+ */
+class PublishQualityController(
+    private val ladder: List<PublishQualityLevel>,
+    private val thresholds: PublishQualityThresholds = PublishQualityThresholds(),
+    private val onLevelChanged: (PublishQualityLevel) -> Unit
+) {
+
+    @Volatile var networkQualityLevel = NETWORK_QUALITY_UNKNOWN
+    var levelIndex = 0
+        private set
+    val level: PublishQualityLevel get() = ladder[levelIndex]
+    private var congestedSince = NOT_SINCE
+    private var healthySince = NOT_SINCE
+    private var lastChangeMillis = NOT_SINCE
+    private var lastUpgradeMillis = NOT_SINCE
+    private var upgradeMillis = thresholds.upgradeMillis
+
+    init {
+        require(ladder.isNotEmpty()) { "The ladder needs at least one level" }
+    }
+
+    fun update(
+        statsReports: List<StatsReport>,
+        trackStatsEngine: TrackStatsEngine,
+        cameraTrackSid: String?,
+        isCameraEnabled: Boolean,
+        captureFrameRate: Int
+    ) {
+        if (!isCameraEnabled) {
+            // A disabled camera sends no frames, which says nothing about the link
+            congestedSince = NOT_SINCE
+            healthySince = NOT_SINCE
+            return
+        }
+        if (cameraTrackSid == null || statsReports.isEmpty()) return
+        // Local tracks are reported by every peer connection, so only take the first report
+        val localVideoTrackStats = statsReports[0].localVideoTrackStats
+        for (index in localVideoTrackStats.indices) {
+            val stats = localVideoTrackStats[index]
+            if (stats.trackSid != cameraTrackSid) continue
+            val trackStats = trackStatsEngine[stats.trackSid]
+            val packetLossPercent = if (trackStats != null && trackStats.intervalCount > 0) {
+                trackStats.packetLossPercent
+            } else {
+                Float.NaN
+            }
+            updateSample(stats.timestamp.toLong(), stats.roundTripTime, packetLossPercent,
+                    stats.frameRate, captureFrameRate)
+            return
+        }
+    }
+
+    /**
+     * Evaluates one sample of the camera track. Pass NaN as packet loss while it is unknown. The
+     * sent frame rate is compared to the frame rate the camera captures at, which a device
+     * degradation may have lowered below the current level, so an encoder that cannot keep up,
+     * e.g. on a throttled CPU, also steps the track down.
+     */
+    internal fun updateSample(
+        timestampMillis: Long,
+        rtt: Long,
+        packetLossPercent: Float,
+        frameRate: Int,
+        captureFrameRate: Int
+    ) {
+        if (lastChangeMillis != NOT_SINCE &&
+                timestampMillis - lastChangeMillis < thresholds.settleMillis) {
+            return
+        }
+        if (lastUpgradeMillis != NOT_SINCE &&
+                timestampMillis - lastUpgradeMillis >= thresholds.upgradeProbeMillis) {
+            // The last upgrade held, so the link may be probed at the regular pace again
+            lastUpgradeMillis = NOT_SINCE
+            upgradeMillis = thresholds.upgradeMillis
+        }
+
+        val networkQualityLevel = networkQualityLevel
+        val isCongested = rtt > thresholds.congestedRttMillis ||
+                (!packetLossPercent.isNaN() &&
+                        packetLossPercent > thresholds.congestedPacketLossPercent) ||
+                frameRate < captureFrameRate * thresholds.congestedFrameRateRatio ||
+                (networkQualityLevel != NETWORK_QUALITY_UNKNOWN &&
+                        networkQualityLevel <= thresholds.congestedNetworkQualityLevel)
+        val isHealthy = rtt < thresholds.healthyRttMillis &&
+                (packetLossPercent.isNaN() ||
+                        packetLossPercent < thresholds.healthyPacketLossPercent) &&
+                frameRate >= captureFrameRate * thresholds.healthyFrameRateRatio &&
+                (networkQualityLevel == NETWORK_QUALITY_UNKNOWN ||
+                        networkQualityLevel >= thresholds.healthyNetworkQualityLevel)
+
+        congestedSince = if (isCongested) congestedSince.orNow(timestampMillis) else NOT_SINCE
+        healthySince = if (isHealthy) healthySince.orNow(timestampMillis) else NOT_SINCE
+
+        if (isCongested && levelIndex < ladder.lastIndex &&
+                timestampMillis - congestedSince >= thresholds.downgradeMillis) {
+            if (lastUpgradeMillis != NOT_SINCE) {
+                // The link could not sustain the last upgrade, back off before probing again
+                upgradeMillis = minOf(upgradeMillis * 2, thresholds.maxUpgradeMillis)
+                lastUpgradeMillis = NOT_SINCE
+            }
+            changeLevel(levelIndex + 1, timestampMillis)
+        } else if (isHealthy && levelIndex > 0 &&
+                timestampMillis - healthySince >= upgradeMillis) {
+            lastUpgradeMillis = timestampMillis
+            changeLevel(levelIndex - 1, timestampMillis)
+        }
+    }
+
+    private fun changeLevel(levelIndex: Int, timestampMillis: Long) {
+        Timber.i("Publish quality changed from %s to %s", level, ladder[levelIndex])
+        this.levelIndex = levelIndex
+        lastChangeMillis = timestampMillis
+        congestedSince = NOT_SINCE
+        healthySince = NOT_SINCE
+        onLevelChanged(level)
+    }
+
+    private fun Long.orNow(timestampMillis: Long) = if (this == NOT_SINCE) timestampMillis else this
+
+    private companion object {
+        const val NOT_SINCE = Long.MIN_VALUE
+    }
+}
@@ -0,0 +1,64 @@
+package com.twilio.video.app.sdk
+
+/**
+ * Capture format and video send bitrate cap of the camera track. A [maxVideoBitrate] of 0 leaves
+ * the bitrate to the SDK bandwidth estimation.
+ */
+data class PublishQualityLevel(
+    val width: Int,
+    val height: Int,
+    val frameRate: Int,
+    val maxVideoBitrate: Int
+) {
+
+    /**
+     * Index of this level in [ladder], or of the best level of it that captures no more pixels at
+     * no higher frame rate, e.g. once the settings rebuilt the ladder. Falls back to the last
+     * level.
+     */
+    fun indexIn(ladder: List<PublishQualityLevel>): Int {
+        val index = ladder.indexOf(this)
+        if (index > -1) return index
+        val pixels = width * height
+        val lowerIndex = ladder.indexOfFirst {
+            it.width * it.height <= pixels && it.frameRate <= frameRate
+        }
+        return if (lowerIndex > -1) lowerIndex else ladder.lastIndex
+    }
+
+    companion object {
+        private val STEPS = arrayOf(
+                PublishQualityLevel(1280, 720, 30, 1_500_000),
+                PublishQualityLevel(960, 540, 30, 1_000_000),
+                PublishQualityLevel(640, 480, 24, 600_000),
+                PublishQualityLevel(352, 288, 15, 250_000),
+                PublishQualityLevel(352, 288, 10, 150_000))
+
+        /**
+         * Builds the levels the camera track steps through, best first. The first level is the
+         * format picked in the settings, followed by every step with fewer pixels than it. A
+         * bitrate cap from the settings is never raised by a step.
+         */
+        fun ladder(
+            width: Int,
+            height: Int,
+            frameRate: Int,
+            maxVideoBitrate: Int
+        ): List<PublishQualityLevel> {
+            val ladder = mutableListOf(PublishQualityLevel(width, height, frameRate, maxVideoBitrate))
+            val pixels = width * height
+            for (step in STEPS) {
+                val stepPixels = step.width * step.height
+                if (stepPixels > pixels || (stepPixels == pixels && step.frameRate >= frameRate)) {
+                    continue
+                }
+                ladder += if (maxVideoBitrate > 0 && maxVideoBitrate < step.maxVideoBitrate) {
+                    step.copy(maxVideoBitrate = maxVideoBitrate)
+                } else {
+                    step
+                }
+            }
+            return ladder
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.twilio.video.app.sdk
+
+enum class QualityAlertType {
+    HIGH_RTT,
+    HIGH_PACKET_LOSS,
+    LOW_FRAME_RATE,
+    SILENT_AUDIO
+}
+
+/**
+ * A sustained quality problem of a track, raised and cleared by [QualityAlertEngine]. The value
+ * is the metric that raised the alert: milliseconds for [QualityAlertType.HIGH_RTT], percent for
+ * [QualityAlertType.HIGH_PACKET_LOSS], frames per second for [QualityAlertType.LOW_FRAME_RATE]
+ * and the audio level of the local microphone for [QualityAlertType.SILENT_AUDIO]. The
+ * participant identity is null for local tracks.
+ */
+data class QualityAlert(
+    val trackSid: String,
+    val participantIdentity: String?,
+    val type: QualityAlertType,
+    val value: Float
+)
@@ -0,0 +1,244 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.StatsReport
+import com.twilio.video.app.sdk.QualityAlertType.HIGH_PACKET_LOSS
+import com.twilio.video.app.sdk.QualityAlertType.HIGH_RTT
+import com.twilio.video.app.sdk.QualityAlertType.LOW_FRAME_RATE
+import com.twilio.video.app.sdk.QualityAlertType.SILENT_AUDIO
+
+/**
+ * Thresholds of the [QualityAlertEngine]. An alert is raised once its metric stayed past the
+ * raise threshold for [raiseMillis] and cleared once it stayed past the clear threshold for
+ * [clearMillis]. The gap between both thresholds keeps a metric that hovers around one of them
+ * from raising and clearing the alert over and over.
+ *
+ * A run past a threshold must also span [minSustainedSamples] stats samples, so the windows
+ * stretch with the polling interval: at one sample a second they take their nominal time, while
+ * in the background, where a sample covers ten seconds, two samples are not enough to raise.
+ */
+data class QualityAlertThresholds(
+    val raiseRttMillis: Long = 400,
+    val clearRttMillis: Long = 250,
+    val raisePacketLossPercent: Float = 5f,
+    val clearPacketLossPercent: Float = 2f,
+    val raiseFrameRate: Int = 10,
+    val clearFrameRate: Int = 15,
+    val raiseMillis: Long = 3_000,
+    val clearMillis: Long = 5_000,
+    val silentAudioMillis: Long = 5_000,
+    val minSustainedSamples: Int = 4
+)
+
+/**
+ * Watches the stats of every track for sustained quality problems and reports alerts when they
+ * are raised and cleared. Each track keeps a fixed size state per [QualityAlertType], so a tick
+ * takes constant time per track and only allocates when an alert changes. Alerts of a track that
+ * is no longer reported are cleared. Only the stats thread may use the engine.
+ */
+class QualityAlertEngine(
+    private val thresholds: QualityAlertThresholds = QualityAlertThresholds(),
+    private val onAlertChanged: (alert: QualityAlert, isRaised: Boolean) -> Unit
+) {
+
+    private val tracks = HashMap<String, TrackAlerts>()
+    private var update = 0L
+    private var updatedTrackCount = 0
+
+    fun update(
+        statsReports: List<StatsReport>,
+        trackStatsEngine: TrackStatsEngine,
+        trackOwners: TrackOwnerIndex,
+        pausedTracks: PausedTrackIndex,
+        isLocalAudioEnabled: Boolean
+    ) {
+        beginUpdate()
+        for (reportIndex in statsReports.indices) {
+            val report = statsReports[reportIndex]
+            // Local tracks are reported by every peer connection, so only take the first report
+            if (reportIndex == 0) {
+                val localAudioTrackStats = report.localAudioTrackStats
+                for (index in localAudioTrackStats.indices) {
+                    val stats = localAudioTrackStats[index]
+                    updateTrack(stats.trackSid, null, true, true, stats.timestamp.toLong(),
+                            stats.roundTripTime, packetLossPercent(trackStatsEngine, stats.trackSid),
+                            0, stats.audioLevel, !isLocalAudioEnabled)
+                }
+                val localVideoTrackStats = report.localVideoTrackStats
+                for (index in localVideoTrackStats.indices) {
+                    val stats = localVideoTrackStats[index]
+                    updateTrack(stats.trackSid, null, true, false, stats.timestamp.toLong(),
+                            stats.roundTripTime, packetLossPercent(trackStatsEngine, stats.trackSid),
+                            stats.frameRate, 0, false)
+                }
+            }
+            val remoteAudioTrackStats = report.remoteAudioTrackStats
+            for (index in remoteAudioTrackStats.indices) {
+                val stats = remoteAudioTrackStats[index]
+                updateTrack(stats.trackSid, trackOwners[stats.trackSid], false, true,
+                        stats.timestamp.toLong(), 0,
+                        packetLossPercent(trackStatsEngine, stats.trackSid), 0, stats.audioLevel,
+                        pausedTracks.isPaused(stats.trackSid))
+            }
+            val remoteVideoTrackStats = report.remoteVideoTrackStats
+            for (index in remoteVideoTrackStats.indices) {
+                val stats = remoteVideoTrackStats[index]
+                updateTrack(stats.trackSid, trackOwners[stats.trackSid], false, false,
+                        stats.timestamp.toLong(), 0,
+                        packetLossPercent(trackStatsEngine, stats.trackSid), stats.frameRate, 0,
+                        pausedTracks.isPaused(stats.trackSid))
+            }
+        }
+        endUpdate()
+    }
+
+    internal fun beginUpdate() {
+        update++
+        updatedTrackCount = 0
+    }
+
+    /**
+     * Evaluates every alert that applies to the track. The round trip time is only known for
+     * local tracks and the inbound frame rate only matters for remote video. Silent audio is only
+     * raised for the local microphone, since remote participants who just listen are silent. A
+     * paused track is expected to be silent or frozen, so its silent audio and frame rate alerts
+     * are cleared. Pass NaN as packet loss while it is unknown.
+     */
+    internal fun updateTrack(
+        trackSid: String,
+        participantIdentity: String?,
+        isLocalTrack: Boolean,
+        isAudioTrack: Boolean,
+        timestampMillis: Long,
+        rtt: Long,
+        packetLossPercent: Float,
+        frameRate: Int,
+        audioLevel: Int,
+        isPaused: Boolean
+    ) {
+        var trackAlerts = tracks[trackSid]
+        if (trackAlerts == null) {
+            trackAlerts = TrackAlerts(trackSid)
+            tracks[trackSid] = trackAlerts
+        } else if (trackAlerts.lastUpdate == update) {
+            return
+        }
+        trackAlerts.lastUpdate = update
+        trackAlerts.participantIdentity = participantIdentity
+        updatedTrackCount++
+
+        if (isLocalTrack) {
+            trackAlerts.evaluate(HIGH_RTT, timestampMillis, rtt.toFloat(),
+                    (rtt > thresholds.raiseRttMillis), (rtt < thresholds.clearRttMillis),
+                    thresholds.raiseMillis)
+        }
+        if (!packetLossPercent.isNaN()) {
+            trackAlerts.evaluate(HIGH_PACKET_LOSS, timestampMillis, packetLossPercent,
+                    (packetLossPercent > thresholds.raisePacketLossPercent),
+                    (packetLossPercent < thresholds.clearPacketLossPercent),
+                    thresholds.raiseMillis)
+        }
+        if (!isLocalTrack && !isAudioTrack) {
+            if (isPaused) {
+                trackAlerts.reset(LOW_FRAME_RATE)
+            } else {
+                trackAlerts.evaluate(LOW_FRAME_RATE, timestampMillis, frameRate.toFloat(),
+                        (frameRate < thresholds.raiseFrameRate),
+                        (frameRate > thresholds.clearFrameRate),
+                        thresholds.raiseMillis)
+            }
+        }
+        if (isLocalTrack && isAudioTrack) {
+            if (isPaused) {
+                trackAlerts.reset(SILENT_AUDIO)
+            } else {
+                trackAlerts.evaluate(SILENT_AUDIO, timestampMillis, audioLevel.toFloat(),
+                        audioLevel <= 0, audioLevel > 0, thresholds.silentAudioMillis)
+            }
+        }
+    }
+
+    internal fun endUpdate() {
+        if (tracks.size > updatedTrackCount) {
+            val iterator = tracks.values.iterator()
+            while (iterator.hasNext()) {
+                val trackAlerts = iterator.next()
+                if (trackAlerts.lastUpdate != update) {
+                    trackAlerts.resetAll()
+                    iterator.remove()
+                }
+            }
+        }
+    }
+
+    /** Forgets every track without clearing their alerts, e.g. for a new room. */
+    fun clear() = tracks.clear()
+
+    private fun packetLossPercent(trackStatsEngine: TrackStatsEngine, trackSid: String): Float {
+        val trackStats = trackStatsEngine[trackSid] ?: return Float.NaN
+        return if (trackStats.intervalCount > 0) trackStats.packetLossPercent else Float.NaN
+    }
+
+    private inner class TrackAlerts(private val trackSid: String) {
+        var lastUpdate = -1L
+        var participantIdentity: String? = null
+        private val activeAlerts = arrayOfNulls<QualityAlert>(ALERT_TYPES.size)
+        // Start and length of the current run of samples past the raise or clear threshold
+        private val since = LongArray(ALERT_TYPES.size) { NOT_PAST_THRESHOLD }
+        private val sampleCounts = IntArray(ALERT_TYPES.size)
+
+        fun evaluate(
+            type: QualityAlertType,
+            timestampMillis: Long,
+            value: Float,
+            isPastRaiseThreshold: Boolean,
+            isPastClearThreshold: Boolean,
+            sustainMillis: Long
+        ) {
+            val index = type.ordinal
+            val activeAlert = activeAlerts[index]
+            val isPastThreshold =
+                    if (activeAlert == null) isPastRaiseThreshold else isPastClearThreshold
+            if (!isPastThreshold) {
+                since[index] = NOT_PAST_THRESHOLD
+                return
+            }
+            if (since[index] == NOT_PAST_THRESHOLD) {
+                since[index] = timestampMillis
+                sampleCounts[index] = 0
+            }
+            sampleCounts[index]++
+            val holdMillis = if (activeAlert == null) sustainMillis else thresholds.clearMillis
+            if (timestampMillis - since[index] < holdMillis ||
+                    sampleCounts[index] < thresholds.minSustainedSamples) {
+                return
+            }
+            since[index] = NOT_PAST_THRESHOLD
+            if (activeAlert == null) {
+                val alert = QualityAlert(trackSid, participantIdentity, type, value)
+                activeAlerts[index] = alert
+                onAlertChanged(alert, true)
+            } else {
+                activeAlerts[index] = null
+                onAlertChanged(activeAlert, false)
+            }
+        }
+
+        fun reset(type: QualityAlertType) {
+            val index = type.ordinal
+            since[index] = NOT_PAST_THRESHOLD
+            activeAlerts[index]?.let { activeAlert ->
+                activeAlerts[index] = null
+                onAlertChanged(activeAlert, false)
+            }
+        }
+
+        fun resetAll() {
+            for (type in ALERT_TYPES) reset(type)
+        }
+    }
+
+    private companion object {
+        val ALERT_TYPES = QualityAlertType.values()
+        const val NOT_PAST_THRESHOLD = Long.MIN_VALUE
+    }
+}
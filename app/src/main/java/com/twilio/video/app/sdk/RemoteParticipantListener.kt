@@ -9,6 +9,8 @@ import com.twilio.video.RemoteParticipant
 import com.twilio.video.RemoteVideoTrack
 import com.twilio.video.RemoteVideoTrackPublication
 import com.twilio.video.TwilioException
+import com.twilio.video.app.sdk.PausedTrackIndex.Companion.DISABLED
+import com.twilio.video.app.sdk.PausedTrackIndex.Companion.SWITCHED_OFF
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.MuteRemoteParticipant
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.NetworkQualityLevelChange
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.ScreenTrackUpdated
@@ -22,6 +24,7 @@ class RemoteParticipantListener(private val roomManager: RoomManager) : RemotePa
         Timber.i("RemoteVideoTrack switched off for RemoteParticipant sid: %s, RemoteVideoTrack sid: %s",
                 remoteParticipant.sid, remoteVideoTrack.sid)
 
+        roomManager.pausedTracks.pause(remoteVideoTrack.sid, SWITCHED_OFF)
         roomManager.sendRoomEvent(TrackSwitchOff(remoteParticipant.sid, remoteVideoTrack,
                 true))
     }
@@ -30,6 +33,7 @@ class RemoteParticipantListener(private val roomManager: RoomManager) : RemotePa
         Timber.i("RemoteVideoTrack switched on for RemoteParticipant sid: %s, RemoteVideoTrack sid: %s",
                 remoteParticipant.sid, remoteVideoTrack.sid)
 
+        roomManager.pausedTracks.resume(remoteVideoTrack.sid, SWITCHED_OFF)
         roomManager.sendRoomEvent(TrackSwitchOff(remoteParticipant.sid, remoteVideoTrack,
                 false))
     }
@@ -38,6 +42,8 @@ class RemoteParticipantListener(private val roomManager: RoomManager) : RemotePa
         Timber.i("RemoteVideoTrack subscribed for RemoteParticipant sid: %s, RemoteVideoTrack sid: %s",
                 remoteParticipant.sid, remoteVideoTrack.sid)
 
+        roomManager.trackOwners.add(remoteVideoTrack.sid, remoteParticipant.identity)
+        if (!remoteVideoTrack.isEnabled) roomManager.pausedTracks.pause(remoteVideoTrack.sid, DISABLED)
         if (remoteVideoTrack.name.contains(SCREEN_TRACK_NAME))
             roomManager.sendRoomEvent(ScreenTrackUpdated(remoteParticipant.sid, remoteVideoTrack))
         else
@@ -48,6 +54,9 @@ class RemoteParticipantListener(private val roomManager: RoomManager) : RemotePa
         Timber.i("RemoteVideoTrack unsubscribed for RemoteParticipant sid: %s, RemoteVideoTrack sid: %s",
                 remoteParticipant.sid, remoteVideoTrack.sid)
 
+        roomManager.trackOwners.remove(remoteVideoTrack.sid)
+        roomManager.trackStatsEngine.evict(remoteVideoTrack.sid)
+        roomManager.pausedTracks.remove(remoteVideoTrack.sid)
         if (remoteVideoTrack.name.contains(SCREEN_TRACK_NAME))
             roomManager.sendRoomEvent(ScreenTrackUpdated(remoteParticipant.sid, null))
         else
@@ -66,6 +75,8 @@ class RemoteParticipantListener(private val roomManager: RoomManager) : RemotePa
         Timber.i("RemoteParticipant AudioTrack subscribed for RemoteParticipant sid: %s, RemoteAudioTrack sid: %s",
                 remoteParticipant.sid, remoteAudioTrack.sid)
 
+        roomManager.trackOwners.add(remoteAudioTrack.sid, remoteParticipant.identity)
+        if (!remoteAudioTrack.isEnabled) roomManager.pausedTracks.pause(remoteAudioTrack.sid, DISABLED)
         roomManager.sendRoomEvent(MuteRemoteParticipant(remoteParticipant.sid, false))
     }
 
@@ -73,6 +84,9 @@ class RemoteParticipantListener(private val roomManager: RoomManager) : RemotePa
         Timber.i("RemoteParticipant AudioTrack unsubscribed for RemoteParticipant sid: %s, RemoteAudioTrack sid: %s",
                 remoteParticipant.sid, remoteAudioTrack.sid)
 
+        roomManager.trackOwners.remove(remoteAudioTrack.sid)
+        roomManager.trackStatsEngine.evict(remoteAudioTrack.sid)
+        roomManager.pausedTracks.remove(remoteAudioTrack.sid)
         roomManager.sendRoomEvent(MuteRemoteParticipant(remoteParticipant.sid, true))
     }
 
@@ -94,6 +108,7 @@ class RemoteParticipantListener(private val roomManager: RoomManager) : RemotePa
         Timber.i("RemoteParticipant AudioTrack enabled for RemoteParticipant sid: %s, RemoteAudioTrack sid: %s",
                 remoteParticipant.sid, remoteParticipant.sid)
 
+        roomManager.pausedTracks.resume(remoteAudioTrackPublication.trackSid, DISABLED)
         roomManager.sendRoomEvent(MuteRemoteParticipant(remoteParticipant.sid, false))
     }
 
@@ -101,6 +116,7 @@ class RemoteParticipantListener(private val roomManager: RoomManager) : RemotePa
         Timber.i("RemoteParticipant AudioTrack disabled for RemoteParticipant sid: %s, RemoteAudioTrack sid: %s",
                 remoteParticipant.sid, remoteParticipant.sid)
 
+        roomManager.pausedTracks.pause(remoteAudioTrackPublication.trackSid, DISABLED)
         roomManager.sendRoomEvent(MuteRemoteParticipant(remoteParticipant.sid, true))
     }
 
@@ -108,9 +124,13 @@ class RemoteParticipantListener(private val roomManager: RoomManager) : RemotePa
 
     override fun onVideoTrackPublished(remoteParticipant: RemoteParticipant, remoteVideoTrackPublication: RemoteVideoTrackPublication) {}
 
-    override fun onVideoTrackEnabled(remoteParticipant: RemoteParticipant, remoteVideoTrackPublication: RemoteVideoTrackPublication) {}
+    override fun onVideoTrackEnabled(remoteParticipant: RemoteParticipant, remoteVideoTrackPublication: RemoteVideoTrackPublication) {
+        roomManager.pausedTracks.resume(remoteVideoTrackPublication.trackSid, DISABLED)
+    }
 
-    override fun onVideoTrackDisabled(remoteParticipant: RemoteParticipant, remoteVideoTrackPublication: RemoteVideoTrackPublication) {}
+    override fun onVideoTrackDisabled(remoteParticipant: RemoteParticipant, remoteVideoTrackPublication: RemoteVideoTrackPublication) {
+        roomManager.pausedTracks.pause(remoteVideoTrackPublication.trackSid, DISABLED)
+    }
 
     override fun onDataTrackSubscriptionFailed(remoteParticipant: RemoteParticipant, remoteDataTrackPublication: RemoteDataTrackPublication, twilioException: TwilioException) {}
 
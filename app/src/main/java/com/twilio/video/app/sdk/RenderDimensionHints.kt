@@ -0,0 +1,61 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.TrackPriority
+import com.twilio.video.TrackPriority.HIGH
+import com.twilio.video.TrackPriority.LOW
+import com.twilio.video.TrackPriority.STANDARD
+
+/**
+ * The render dimensions the participant views are measured at. The views report their size on
+ * the main thread, [ConnectOptionsFactory] reads the measured sizes when it builds the bandwidth
+ * profile of the next connection and hands back the render dimensions it settled on per priority.
+ */
+class RenderDimensionHints(private val policy: RenderDimensionPolicy = RenderDimensionPolicy()) {
+
+    private val participantDimensions = HashMap<String, RenderDimensions>()
+
+    @Volatile var primaryDimensions: RenderDimensions? = null
+        private set
+    @Volatile var thumbnailDimensions: RenderDimensions? = null
+        private set
+    /** Render dimensions per priority of the current connection. */
+    @Volatile var tiers: Map<TrackPriority, RenderDimensions> = emptyMap()
+
+    fun updatePrimary(width: Int, height: Int) {
+        if (width <= 0 || height <= 0) return
+        primaryDimensions = policy.quantize(width, height, primaryDimensions)
+    }
+
+    /**
+     * Quantizes the size of the thumbnail of a participant and returns the priority whose render
+     * dimensions cover it, or null if the view is not laid out or the tiers are unknown.
+     */
+    fun updateThumbnail(participantSid: String, width: Int, height: Int): TrackPriority? {
+        if (width <= 0 || height <= 0) return null
+        val dimensions = policy.quantize(width, height, participantDimensions[participantSid])
+        participantDimensions[participantSid] = dimensions
+        thumbnailDimensions = dimensions
+        return policy.priorityFor(dimensions, tiers)
+    }
+
+    fun removeParticipant(participantSid: String) {
+        participantDimensions.remove(participantSid)
+    }
+
+    /**
+     * Render dimensions per priority derived from the views: LOW for the thumbnails out of view,
+     * STANDARD for the visible thumbnails and HIGH for the primary view. Sizes that were not
+     * measured yet are left out.
+     */
+    fun measuredTiers(): Map<TrackPriority, RenderDimensions> {
+        val measuredTiers = mutableMapOf(LOW to policy.smallest)
+        thumbnailDimensions?.let { measuredTiers[STANDARD] = it }
+        primaryDimensions?.let { measuredTiers[HIGH] = it }
+        return measuredTiers
+    }
+
+    fun clear() {
+        participantDimensions.clear()
+        tiers = emptyMap()
+    }
+}
@@ -0,0 +1,70 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.TrackPriority
+import com.twilio.video.TrackPriority.HIGH
+import com.twilio.video.TrackPriority.STANDARD
+
+/** Size a video is rendered at, in landscape orientation so [width] is never below [height]. */
+data class RenderDimensions(val width: Int, val height: Int) {
+
+    fun covers(width: Int, height: Int) = this.width >= width && this.height >= height
+
+    companion object {
+        fun landscape(width: Int, height: Int) =
+                RenderDimensions(maxOf(width, height), minOf(width, height))
+    }
+}
+
+/**
+ * Maps the pixel size of a participant view to render dimensions from a fixed ladder, and those
+ * to the track priority whose render dimensions cover them. A view that grows past its rung steps
+ * up at once, a view that shrinks only steps down once it would fit the lower rung even if it
+ * grew by [stepDownMarginPercent], so sizes hovering around a rung do not flap between two.
+ */
+class RenderDimensionPolicy(
+    private val ladder: List<RenderDimensions> = DEFAULT_LADDER,
+    private val stepDownMarginPercent: Int = 20
+) {
+
+    val smallest: RenderDimensions get() = ladder.first()
+
+    fun quantize(viewWidth: Int, viewHeight: Int, current: RenderDimensions? = null): RenderDimensions {
+        val longSide = maxOf(viewWidth, viewHeight)
+        val shortSide = minOf(viewWidth, viewHeight)
+        val targetIndex = rungIndex(longSide, shortSide)
+        val currentIndex = current?.let { ladder.indexOf(it) } ?: -1
+        if (currentIndex < 0 || targetIndex >= currentIndex) return ladder[targetIndex]
+        val stableIndex = rungIndex(longSide * (100 + stepDownMarginPercent) / 100,
+                shortSide * (100 + stepDownMarginPercent) / 100)
+        return ladder[minOf(stableIndex, currentIndex)]
+    }
+
+    /**
+     * Returns STANDARD if its render dimensions in [tiers] cover [dimensions], HIGH if they do
+     * not, or null if they are unknown. LOW is left to the tracks that are out of view.
+     */
+    fun priorityFor(
+        dimensions: RenderDimensions,
+        tiers: Map<TrackPriority, RenderDimensions>
+    ): TrackPriority? {
+        val standard = tiers[STANDARD] ?: return null
+        return if (standard.covers(dimensions.width, dimensions.height)) STANDARD else HIGH
+    }
+
+    private fun rungIndex(longSide: Int, shortSide: Int): Int {
+        for (index in ladder.indices) {
+            if (ladder[index].covers(longSide, shortSide)) return index
+        }
+        return ladder.lastIndex
+    }
+
+    companion object {
+        val DEFAULT_LADDER = listOf(
+                RenderDimensions(320, 180),
+                RenderDimensions(480, 270),
+                RenderDimensions(640, 360),
+                RenderDimensions(960, 540),
+                RenderDimensions(1280, 720),
+                RenderDimensions(1920, 1080))
+    }
+}
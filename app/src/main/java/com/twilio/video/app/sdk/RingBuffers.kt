@@ -0,0 +1,186 @@
+package com.twilio.video.app.sdk
+
+import kotlin.math.ceil
+
+/**
+ * Fixed capacity ring buffer. Once full, adding a value overwrites the oldest one, so appending
+ * is O(1) and never allocates. Index 0 is the oldest value.
+ *
+ * This class only keeps track of where the values are, the subclasses store them in a primitive
+ * array. Their window queries look at the most recent values only and do not allocate either, the
+ * percentile selects in a scratch array that is preallocated with the buffer.
+ */
+abstract class RingBuffer(val capacity: Int) {
+
+    private var head = 0
+
+    var size = 0
+        private set
+
+    init {
+        require(capacity > 0) { "Capacity must be positive, was $capacity" }
+    }
+
+    fun removeOldest() {
+        if (size == 0) throw NoSuchElementException("Ring buffer is empty")
+        head = (head + 1) % capacity
+        size--
+    }
+
+    fun clear() {
+        head = 0
+        size = 0
+    }
+
+    /** Position of the value at [index] in the storage array. */
+    protected fun slot(index: Int): Int {
+        if (index < 0 || index >= size) throw IndexOutOfBoundsException("Index $index, size $size")
+        return (head + index) % capacity
+    }
+
+    /** Position in the storage array of the value being added, which may be the oldest one. */
+    protected fun addSlot(): Int {
+        if (size < capacity) return (head + size++) % capacity
+        val slot = head
+        head = (head + 1) % capacity
+        return slot
+    }
+
+    /** Index of the first of the last [window] values. */
+    protected fun windowStart(window: Int): Int {
+        if (window < 1 || window > size) {
+            throw IllegalArgumentException("Window $window outside of 1..$size")
+        }
+        return size - window
+    }
+
+    /** Index of the first value copied to a destination of [destinationSize]. */
+    protected fun copyStart(destinationSize: Int) = size - minOf(size, destinationSize)
+}
+
+/** [RingBuffer] of primitive longs. */
+class LongRingBuffer(capacity: Int) : RingBuffer(capacity) {
+
+    private val values = LongArray(capacity)
+    private val scratch = LongArray(capacity)
+
+    val last: Long get() = get(size - 1)
+
+    operator fun get(index: Int): Long = values[slot(index)]
+
+    fun add(value: Long) {
+        values[addSlot()] = value
+    }
+
+    /** Smallest of the last [window] values. */
+    fun min(window: Int = size): Long {
+        var min = Long.MAX_VALUE
+        for (index in windowStart(window) until size) min = minOf(min, get(index))
+        return min
+    }
+
+    /** Largest of the last [window] values. */
+    fun max(window: Int = size): Long {
+        var max = Long.MIN_VALUE
+        for (index in windowStart(window) until size) max = maxOf(max, get(index))
+        return max
+    }
+
+    /** Nearest rank [percentile], from 0 to 100, of the last [window] values. */
+    fun percentile(percentile: Int, window: Int = size): Long {
+        val start = windowStart(window)
+        for (index in 0 until window) scratch[index] = get(start + index)
+        return select(scratch, window, rank(percentile, window))
+    }
+
+    /**
+     * Copies the last values, oldest first, to the start of [destination] and returns how many
+     * were copied.
+     */
+    fun copyInto(destination: LongArray): Int {
+        val start = copyStart(destination.size)
+        for (index in start until size) destination[index - start] = get(index)
+        return size - start
+    }
+}
+
+/** [RingBuffer] of primitive ints. */
+class IntRingBuffer(capacity: Int) : RingBuffer(capacity) {
+
+    private val values = IntArray(capacity)
+    private val scratch = LongArray(capacity)
+
+    val last: Int get() = get(size - 1)
+
+    operator fun get(index: Int): Int = values[slot(index)]
+
+    fun add(value: Int) {
+        values[addSlot()] = value
+    }
+
+    /** Smallest of the last [window] values. */
+    fun min(window: Int = size): Int {
+        var min = Int.MAX_VALUE
+        for (index in windowStart(window) until size) min = minOf(min, get(index))
+        return min
+    }
+
+    /** Largest of the last [window] values. */
+    fun max(window: Int = size): Int {
+        var max = Int.MIN_VALUE
+        for (index in windowStart(window) until size) max = maxOf(max, get(index))
+        return max
+    }
+
+    /** Nearest rank [percentile], from 0 to 100, of the last [window] values. */
+    fun percentile(percentile: Int, window: Int = size): Int {
+        val start = windowStart(window)
+        for (index in 0 until window) scratch[index] = get(start + index).toLong()
+        return select(scratch, window, rank(percentile, window)).toInt()
+    }
+
+    /**
+     * Copies the last values, oldest first, to the start of [destination] and returns how many
+     * were copied.
+     */
+    fun copyInto(destination: IntArray): Int {
+        val start = copyStart(destination.size)
+        for (index in start until size) destination[index - start] = get(index)
+        return size - start
+    }
+}
+
+private fun rank(percentile: Int, window: Int): Int {
+    if (percentile < 0 || percentile > 100) {
+        throw IllegalArgumentException("Percentile $percentile outside of 0..100")
+    }
+    return (ceil(percentile * window / 100.0).toInt() - 1).coerceAtLeast(0)
+}
+
+/* Quickselect of the value of [rank] among the first [count] [values], reordering them. */
+private fun select(values: LongArray, count: Int, rank: Int): Long {
+    var left = 0
+    var right = count - 1
+    while (left < right) {
+        val pivot = values[(left + right) ushr 1]
+        var low = left
+        var high = right
+        while (low <= high) {
+            while (values[low] < pivot) low++
+            while (values[high] > pivot) high--
+            if (low <= high) {
+                val value = values[low]
+                values[low] = values[high]
+                values[high] = value
+                low++
+                high--
+            }
+        }
+        when {
+            rank <= high -> right = high
+            rank >= low -> left = low
+            else -> break
+        }
+    }
+    return values[rank]
+}
@@ -0,0 +1,201 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.ui.room.ParticipantProperty
+import com.twilio.video.app.ui.room.RoomEvent
+import com.twilio.video.app.ui.room.RoomEvent.ConnectFailure
+import com.twilio.video.app.ui.room.RoomEvent.Connected
+import com.twilio.video.app.ui.room.RoomEvent.Disconnected
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParticipantConnected
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParticipantDisconnected
+import com.twilio.video.app.ui.room.RoomEvent.StatsUpdate
+import com.twilio.video.app.ui.room.updatedProperty
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.channels.ClosedSendChannelException
+import kotlinx.coroutines.launch
+
+const val ROOM_EVENT_QUEUE_CAPACITY = 512
+
+/**
+ * Delivers [RoomEvent]s to a single consumer in the order they were dispatched.
+ *
+ * SDK callbacks enqueue their events without suspending, and one coroutine launched in [scope]
+ * hands them to [handleRoomEvent] one at a time. The queue is unbounded: lifecycle and membership
+ * events are always queued, since dropping one would leave the room or a participant in a stale
+ * state. Once [capacity] events are waiting, an event that only updates a property, such as a
+ * mute, a network quality level or a stats tick, takes the slot of that property instead: the
+ * first one queues a placeholder and later ones replace the value it will deliver, so the
+ * consumer still ends up with the latest value and property updates stop growing the queue.
+ *
+ * A participant joining or leaving closes the pending slots of its properties, and the room
+ * connecting or disconnecting closes all of them. Values dispatched after such an event take a new
+ * slot behind it, so a property is never delivered ahead of a membership change that preceded it.
+ *
+ * A [previous] dispatcher is drained before this one delivers anything, so a closed dispatcher
+ * can be replaced without reordering the events.
+ */
+class RoomEventDispatcher(
+    scope: CoroutineScope,
+    private val capacity: Int = ROOM_EVENT_QUEUE_CAPACITY,
+    previous: RoomEventDispatcher? = null,
+    private val nanoTime: () -> Long = System::nanoTime,
+    private val handleRoomEvent: suspend (RoomEvent) -> Unit
+) {
+
+    private val queue = Channel<QueuedRoomEvent>(Channel.UNLIMITED)
+    private val coalescedEvents = ConcurrentHashMap<Any, CoalescedSlot>()
+    private val queueDepth = AtomicInteger()
+    private val maxQueueDepth = AtomicInteger()
+    private val coalescedEventCount = AtomicLong()
+    private val handledEvents = AtomicLong()
+    private val lastLatencyNanos = AtomicLong()
+    private val maxLatencyNanos = AtomicLong()
+    private val totalLatencyNanos = AtomicLong()
+    private val consumer: Job
+
+    val metrics: Metrics
+        get() {
+            val handledEvents = handledEvents.get()
+            return Metrics(
+                    queueDepth.get(),
+                    maxQueueDepth.get(),
+                    coalescedEventCount.get(),
+                    handledEvents,
+                    lastLatencyNanos.get(),
+                    maxLatencyNanos.get(),
+                    if (handledEvents > 0) totalLatencyNanos.get() / handledEvents else 0)
+        }
+
+    init {
+        require(capacity > 0) { "Capacity must be positive but was $capacity" }
+
+        consumer = scope.launch {
+            previous?.consumer?.join()
+            for (queuedRoomEvent in queue) {
+                queueDepth.decrementAndGet()
+                recordLatency(nanoTime() - queuedRoomEvent.enqueuedAtNanos)
+                val roomEvent = queuedRoomEvent.roomEvent
+                        ?: queuedRoomEvent.slot?.let { slot ->
+                            coalescedEvents.remove(slot.key, slot)
+                            slot.getAndSet(null)
+                        }
+                        ?: continue
+                handleRoomEvent(roomEvent)
+                handledEvents.incrementAndGet()
+            }
+        }
+    }
+
+    /** Queues [roomEvent], or returns false if the dispatcher was closed. */
+    fun dispatch(roomEvent: RoomEvent): Boolean {
+        // A property with a pending slot keeps using it, so its values are never reordered
+        val coalescingKey = roomEvent.coalescingKey()?.takeIf {
+            queueDepth.get() >= capacity || coalescedEvents.containsKey(it)
+        }
+        val slot = coalescingKey?.let { key ->
+            // A pending placeholder delivers the replaced value, only the first one is queued
+            if (replacePendingValue(key, roomEvent)) {
+                coalescedEventCount.incrementAndGet()
+                return true
+            }
+            CoalescedSlot(key, roomEvent).also { coalescedEvents[key] = it }
+        }
+        val queuedRoomEvent = if (slot != null) {
+            QueuedRoomEvent(null, slot, nanoTime())
+        } else {
+            closeCoalescedSlotsBefore(roomEvent)
+            QueuedRoomEvent(roomEvent, null, nanoTime())
+        }
+        // Count the event before offering it so the consumer never observes a negative depth
+        updateMaxQueueDepth(queueDepth.incrementAndGet())
+        return try {
+            queue.offer(queuedRoomEvent)
+        } catch (e: ClosedSendChannelException) {
+            queueDepth.decrementAndGet()
+            slot?.let { coalescedEvents.remove(it.key, it) }
+            false
+        }
+    }
+
+    /** Delivers the events queued so far and then stops the consumer. */
+    fun close() {
+        queue.close()
+    }
+
+    private fun RoomEvent.coalescingKey(): Any? =
+            if (this is StatsUpdate) StatsUpdate::class else updatedProperty()
+
+    /* Fails once the consumer took the value of the pending slot, which then needs a new one. */
+    private fun replacePendingValue(coalescingKey: Any, roomEvent: RoomEvent): Boolean {
+        val slot = coalescedEvents[coalescingKey] ?: return false
+        while (true) {
+            val pendingEvent = slot.get() ?: return false
+            if (slot.compareAndSet(pendingEvent, roomEvent)) return true
+        }
+    }
+
+    /*
+     * A closed slot still delivers its value at its position in the queue, it just no longer
+     * takes values dispatched after [roomEvent].
+     */
+    private fun closeCoalescedSlotsBefore(roomEvent: RoomEvent) {
+        if (coalescedEvents.isEmpty()) return
+        when (roomEvent) {
+            is RemoteParticipantConnected -> closeCoalescedSlotsOf(roomEvent.participant.sid)
+            is RemoteParticipantDisconnected -> closeCoalescedSlotsOf(roomEvent.sid)
+            is Connected, Disconnected, ConnectFailure -> coalescedEvents.clear()
+        }
+    }
+
+    private fun closeCoalescedSlotsOf(participantSid: String) {
+        coalescedEvents.keys.removeAll { it is ParticipantProperty && it.sid == participantSid }
+    }
+
+    private fun updateMaxQueueDepth(depth: Int) {
+        while (true) {
+            val max = maxQueueDepth.get()
+            if (depth <= max || maxQueueDepth.compareAndSet(max, depth)) return
+        }
+    }
+
+    private fun recordLatency(latencyNanos: Long) {
+        lastLatencyNanos.set(latencyNanos)
+        totalLatencyNanos.addAndGet(latencyNanos)
+        while (true) {
+            val max = maxLatencyNanos.get()
+            if (latencyNanos <= max || maxLatencyNanos.compareAndSet(max, latencyNanos)) return
+        }
+    }
+
+    private class QueuedRoomEvent(
+        val roomEvent: RoomEvent?,
+        val slot: CoalescedSlot?,
+        val enqueuedAtNanos: Long
+    )
+
+    // Holds the latest value of a coalesced property until the consumer reaches its placeholder
+    private class CoalescedSlot(
+        val key: Any,
+        roomEvent: RoomEvent
+    ) : AtomicReference<RoomEvent?>(roomEvent)
+
+    /**
+     * Point in time view of the dispatcher queue. Latencies are measured from the moment an event
+     * is dispatched until its handling starts. Coalesced events were replaced by a later value of
+     * the same property before they were delivered.
+     */
+    data class Metrics(
+        val queueDepth: Int,
+        val maxQueueDepth: Int,
+        val coalescedEvents: Long,
+        val handledEvents: Long,
+        val lastLatencyNanos: Long,
+        val maxLatencyNanos: Long,
+        val averageLatencyNanos: Long
+    )
+}
@@ -11,15 +11,29 @@ import com.twilio.video.Room
 import com.twilio.video.StatsReport
 import com.twilio.video.TwilioException
 import com.twilio.video.TwilioException.ROOM_MAX_PARTICIPANTS_EXCEEDED_EXCEPTION
+import com.twilio.video.app.R
+import com.twilio.video.app.data.Preferences.ADAPTIVE_PUBLISH_QUALITY
+import com.twilio.video.app.data.Preferences.ADAPTIVE_PUBLISH_QUALITY_DEFAULT
+import com.twilio.video.app.data.Preferences.CALL_QUALITY_LOG_BUDGET
+import com.twilio.video.app.data.Preferences.CALL_QUALITY_LOG_BUDGET_DEFAULT
+import com.twilio.video.app.data.Preferences.CAPTURE_DEGRADATION
+import com.twilio.video.app.data.Preferences.CAPTURE_DEGRADATION_DEFAULT
+import com.twilio.video.app.data.Preferences.ENABLE_STATS
+import com.twilio.video.app.data.Preferences.ENABLE_STATS_DEFAULT
 import com.twilio.video.app.data.api.AuthServiceError
 import com.twilio.video.app.data.api.AuthServiceException
+import com.twilio.video.app.model.FrameTimingRegistry
+import com.twilio.video.app.model.StatsRowStore
 import com.twilio.video.app.ui.room.RoomEvent
+import com.twilio.video.app.ui.room.RoomEvent.CaptureDegradationChanged
 import com.twilio.video.app.ui.room.RoomEvent.ConnectFailure
 import com.twilio.video.app.ui.room.RoomEvent.Connected
 import com.twilio.video.app.ui.room.RoomEvent.Connecting
 import com.twilio.video.app.ui.room.RoomEvent.Disconnected
 import com.twilio.video.app.ui.room.RoomEvent.DominantSpeakerChanged
 import com.twilio.video.app.ui.room.RoomEvent.MaxParticipantFailure
+import com.twilio.video.app.ui.room.RoomEvent.QualityAlertCleared
+import com.twilio.video.app.ui.room.RoomEvent.QualityAlertRaised
 import com.twilio.video.app.ui.room.RoomEvent.RecordingStarted
 import com.twilio.video.app.ui.room.RoomEvent.RecordingStopped
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParticipantConnected
@@ -27,6 +41,8 @@ import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParti
 import com.twilio.video.app.ui.room.RoomEvent.StatsUpdate
 import com.twilio.video.app.ui.room.VideoService.Companion.startService
 import com.twilio.video.app.ui.room.VideoService.Companion.stopService
+import com.twilio.video.app.util.get
+import java.io.File
 import kotlinx.coroutines.CoroutineDispatcher
 import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Dispatchers
@@ -42,8 +58,10 @@ const val SCREEN_TRACK_NAME = "screen"
 class RoomManager(
     private val context: Context,
     private val videoClient: VideoClient,
-    sharedPreferences: SharedPreferences,
-    coroutineDispatcher: CoroutineDispatcher = Dispatchers.IO
+    private val sharedPreferences: SharedPreferences,
+    coroutineDispatcher: CoroutineDispatcher = Dispatchers.IO,
+    /** Measured sizes of the participant views, mapped to track priorities of remote videos. */
+    val renderDimensionHints: RenderDimensionHints = RenderDimensionHints()
 ) {
 
     private var statsScheduler: StatsScheduler? = null
@@ -52,10 +70,38 @@ class RoomManager(
     internal var roomScope = CoroutineScope(coroutineDispatcher)
     private val mutableRoomEvents: MutableSharedFlow<RoomEvent> = MutableSharedFlow()
     val roomEvents: SharedFlow<RoomEvent> = mutableRoomEvents
+    @Volatile private var roomEventDispatcher = newRoomEventDispatcher(null)
+    val roomEventMetrics: RoomEventDispatcher.Metrics get() = roomEventDispatcher.metrics
     @VisibleForTesting(otherwise = PRIVATE)
     internal var localParticipantManager: LocalParticipantManager =
             LocalParticipantManager(context, this, sharedPreferences)
     var room: Room? = null
+    internal val trackOwners = TrackOwnerIndex()
+    internal val trackStatsEngine = TrackStatsEngine()
+    internal val pausedTracks = PausedTrackIndex()
+    /** Render timings of the views that show remote video tracks, for the stats panel. */
+    val frameTimings = FrameTimingRegistry()
+    private val qualityAlertEngine = QualityAlertEngine { alert, isRaised ->
+        sendRoomEvent(if (isRaised) QualityAlertRaised(alert) else QualityAlertCleared(alert))
+    }
+    private val statsRowStore by lazy {
+        StatsRowStore(
+                trackStatsEngine,
+                context.getString(R.string.local_audio_track),
+                context.getString(R.string.local_video_track),
+                context.getString(R.string.audio_track),
+                context.getString(R.string.video_track))
+    }
+    private var statsSequence = 0L
+    @Volatile private var callQualityRecorder: CallQualityRecorder? = null
+    @Volatile internal var publishQualityController: PublishQualityController? = null
+        private set
+    private var devicePowerMonitor: DevicePowerMonitor? = null
+    private var isStatsVisible = false
+    private var isInForeground = true
+    private var backgroundConsumerCount = 0
+    private var foregroundConsumerCount = 0
+    private var isQualityAlertConsumer = false
 
     fun disconnect() {
         room?.disconnect()
@@ -79,8 +125,23 @@ class RoomManager(
     }
 
     fun sendRoomEvent(roomEvent: RoomEvent) {
-        Timber.d("sendRoomEvent: $roomEvent")
-        roomScope.launch { mutableRoomEvents.emit(roomEvent) }
+        Timber.d("sendRoomEvent: %s", roomEvent)
+        // A dispatcher closed in the meantime has already been replaced
+        if (!roomEventDispatcher.dispatch(roomEvent)) roomEventDispatcher.dispatch(roomEvent)
+    }
+
+    private fun newRoomEventDispatcher(previous: RoomEventDispatcher?) =
+            RoomEventDispatcher(roomScope, previous = previous) { mutableRoomEvents.emit(it) }
+
+    /*
+     * Closes the dispatcher of a room that was torn down once its events are delivered. The next
+     * one waits for it to drain, so the events of the next room stay in order.
+     */
+    private fun closeRoomEventDispatcher() {
+        val roomEventDispatcher = roomEventDispatcher
+        this.roomEventDispatcher = newRoomEventDispatcher(roomEventDispatcher)
+        roomEventDispatcher.close()
+        Timber.d("Room event metrics: %s", roomEventDispatcher.metrics)
     }
 
     private fun handleTokenException(e: Exception, error: AuthServiceError? = null): Room? {
@@ -91,10 +152,138 @@ class RoomManager(
 
     fun onResume() {
         localParticipantManager.onResume()
+        updateDevicePowerMonitor()
+        isInForeground = true
+        updateQualityAlertConsumer()
+        updateStatsPollingMode()
     }
 
     fun onPause() {
         localParticipantManager.onPause()
+        devicePowerMonitor?.stop()
+        isInForeground = false
+        updateQualityAlertConsumer()
+        updateStatsPollingMode()
+    }
+
+    fun setStatsVisible(isStatsVisible: Boolean) {
+        this.isStatsVisible = isStatsVisible
+        updateStatsPollingMode()
+    }
+
+    /**
+     * Registers a consumer that collects stats even while they are not on screen. A
+     * [StatsPollingMode.BACKGROUND] consumer is served at the slow cadence, a
+     * [StatsPollingMode.FOREGROUND] one every second while the app is in the foreground. Every
+     * call must be balanced with [removeStatsConsumer] with the same mode.
+     */
+    fun addStatsConsumer(pollingMode: StatsPollingMode = StatsPollingMode.BACKGROUND) {
+        if (pollingMode == StatsPollingMode.FOREGROUND) {
+            foregroundConsumerCount++
+        } else {
+            backgroundConsumerCount++
+        }
+        updateStatsPollingMode()
+    }
+
+    fun removeStatsConsumer(pollingMode: StatsPollingMode = StatsPollingMode.BACKGROUND) {
+        if (pollingMode == StatsPollingMode.FOREGROUND) {
+            foregroundConsumerCount = (foregroundConsumerCount - 1).coerceAtLeast(0)
+        } else {
+            backgroundConsumerCount = (backgroundConsumerCount - 1).coerceAtLeast(0)
+        }
+        updateStatsPollingMode()
+    }
+
+    private fun updateStatsPollingMode() {
+        statsScheduler?.mode = StatsPollingMode.from(
+                sharedPreferences.getBoolean(ENABLE_STATS, ENABLE_STATS_DEFAULT),
+                isStatsVisible,
+                isInForeground,
+                backgroundConsumerCount,
+                foregroundConsumerCount)
+    }
+
+    /*
+     * The quality alerts are shown on the room screen, so the engine keeps the stats polled while
+     * the app is in the foreground during a call, even with the stats panel closed.
+     */
+    private fun updateQualityAlertConsumer() {
+        val isQualityAlertConsumer = statsScheduler != null && isInForeground
+        if (this.isQualityAlertConsumer == isQualityAlertConsumer) return
+        this.isQualityAlertConsumer = isQualityAlertConsumer
+        if (isQualityAlertConsumer) addStatsConsumer() else removeStatsConsumer()
+    }
+
+    private fun startCallQualityRecorder(room: Room) {
+        val diskBudgetMegabytes =
+                sharedPreferences.get(CALL_QUALITY_LOG_BUDGET, CALL_QUALITY_LOG_BUDGET_DEFAULT)
+        if (diskBudgetMegabytes <= 0) return
+        callQualityRecorder = CallQualityRecorder(
+                File(context.filesDir, CALL_QUALITY_LOG_DIRECTORY),
+                diskBudgetMegabytes * 1024L * 1024L
+        ).apply { start(room.sid) }
+        // Keep polling while the stats are hidden so the log covers the whole session
+        addStatsConsumer()
+    }
+
+    private fun stopCallQualityRecorder() {
+        callQualityRecorder?.let { callQualityRecorder ->
+            this.callQualityRecorder = null
+            callQualityRecorder.stop()
+            removeStatsConsumer()
+        }
+    }
+
+    /*
+     * The camera only captures while the app is resumed, so the device conditions are watched
+     * from resume to pause and the degradation carries over to the next camera track.
+     */
+    private fun updateDevicePowerMonitor() {
+        if (sharedPreferences.get(CAPTURE_DEGRADATION, CAPTURE_DEGRADATION_DEFAULT)) {
+            val devicePowerMonitor = devicePowerMonitor ?: DevicePowerMonitor(context,
+                    CaptureDegradationPolicy { degradation ->
+                        Timber.i("Capture degradation changed to %s", degradation)
+                        localParticipantManager.setCaptureDegradation(degradation.steps)
+                        sendRoomEvent(CaptureDegradationChanged(degradation))
+                    }).also { devicePowerMonitor = it }
+            devicePowerMonitor.start()
+        } else {
+            devicePowerMonitor?.let { devicePowerMonitor ->
+                this.devicePowerMonitor = null
+                devicePowerMonitor.stop()
+                localParticipantManager.setCaptureDegradation(0)
+                sendRoomEvent(CaptureDegradationChanged(CaptureDegradation.NONE))
+            }
+        }
+    }
+
+    private fun startPublishQualityController() {
+        if (!sharedPreferences.get(ADAPTIVE_PUBLISH_QUALITY, ADAPTIVE_PUBLISH_QUALITY_DEFAULT)) {
+            return
+        }
+        publishQualityController = PublishQualityController(
+                localParticipantManager.publishQualityLadder()
+        ) { level -> localParticipantManager.setPublishQuality(level) }
+        /*
+         * The controller steps within seconds of congestion, which the slow background cadence
+         * cannot resolve. The camera only captures in the foreground, so that is when it polls.
+         */
+        addStatsConsumer(StatsPollingMode.FOREGROUND)
+    }
+
+    private fun stopPublishQualityController() {
+        publishQualityController?.let { publishQualityController ->
+            this.publishQualityController = null
+            if (publishQualityController.levelIndex > 0) {
+                localParticipantManager.setPublishQuality(null)
+            }
+            removeStatsConsumer(StatsPollingMode.FOREGROUND)
+        }
+    }
+
+    internal fun setCameraTrackSid(trackSid: String?) {
+        localParticipantManager.cameraTrackSid = trackSid
     }
 
     fun toggleLocalVideo() {
@@ -117,11 +306,29 @@ class RoomManager(
 
     fun sendStatsUpdate(statsReports: List<StatsReport>) {
         room?.let { room ->
-            val roomStats = RoomStats(
-                    room.remoteParticipants,
+            trackStatsEngine.update(statsReports)
+            callQualityRecorder?.record(statsReports)
+            qualityAlertEngine.update(
+                    statsReports,
+                    trackStatsEngine,
+                    trackOwners,
+                    pausedTracks,
+                    localParticipantManager.isLocalAudioEnabled
+            )
+            publishQualityController?.update(
+                    statsReports,
+                    trackStatsEngine,
+                    localParticipantManager.cameraTrackSid,
+                    localParticipantManager.isLocalVideoEnabled,
+                    localParticipantManager.cameraFrameRate
+            )
+            val statsRows = statsRowStore.update(
+                    statsReports,
+                    trackOwners,
                     localParticipantManager.localVideoTrackNames,
-                    statsReports
+                    frameTimings
             )
+            val roomStats = RoomStats(statsRows, ++statsSequence)
             sendRoomEvent(StatsUpdate(roomStats))
         }
     }
@@ -143,7 +350,15 @@ class RoomManager(
 
             setupParticipants(room)
 
-            statsScheduler = StatsScheduler(this@RoomManager, room).apply { start() }
+            trackStatsEngine.clear()
+            statsRowStore.clear()
+            qualityAlertEngine.clear()
+            statsScheduler = StatsScheduler(this@RoomManager, room)
+            startCallQualityRecorder(room)
+            startPublishQualityController()
+            updateQualityAlertConsumer()
+            updateStatsPollingMode()
+            statsScheduler?.start()
             this@RoomManager.room = room
         }
 
@@ -156,9 +371,16 @@ class RoomManager(
             sendRoomEvent(Disconnected)
 
             localParticipantManager.localParticipant = null
+            trackOwners.clear()
+            pausedTracks.clear()
+            renderDimensionHints.clear()
 
             statsScheduler?.stop()
             statsScheduler = null
+            updateQualityAlertConsumer()
+            stopCallQualityRecorder()
+            stopPublishQualityController()
+            closeRoomEventDispatcher()
         }
 
         override fun onConnectFailure(room: Room, twilioException: TwilioException) {
@@ -174,6 +396,7 @@ class RoomManager(
             } else {
                 sendRoomEvent(ConnectFailure)
             }
+            closeRoomEventDispatcher()
         }
 
         override fun onParticipantConnected(room: Room, remoteParticipant: RemoteParticipant) {
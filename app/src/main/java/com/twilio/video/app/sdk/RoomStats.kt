@@ -1,10 +1,12 @@
 package com.twilio.video.app.sdk
 
-import com.twilio.video.RemoteParticipant
-import com.twilio.video.StatsReport
+import com.twilio.video.app.model.StatsRow
 
+/**
+ * Stats panel rows of the room. The rows are updated in place, so [sequence] tells consecutive
+ * updates apart.
+ */
 data class RoomStats(
-    val remoteParticipants: List<RemoteParticipant>,
-    val localVideoTrackNames: Map<String, String>,
-    val statsReports: List<StatsReport>? = null
+    val statsRows: List<StatsRow>,
+    val sequence: Long
 )
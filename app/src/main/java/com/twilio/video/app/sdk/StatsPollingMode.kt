@@ -0,0 +1,26 @@
+package com.twilio.video.app.sdk
+
+/** How often [StatsScheduler] requests stats from the room. */
+enum class StatsPollingMode(val intervalMillis: Long) {
+    /** The stats are on screen, or a consumer reacts to them in real time. */
+    FOREGROUND(1_000),
+    /** Only background health collection needs the stats. */
+    BACKGROUND(10_000),
+    /** Nobody consumes the stats. */
+    PAUSED(0);
+
+    companion object {
+        fun from(
+            isStatsEnabled: Boolean,
+            isStatsVisible: Boolean,
+            isInForeground: Boolean,
+            backgroundConsumerCount: Int,
+            foregroundConsumerCount: Int
+        ): StatsPollingMode = when {
+            isInForeground && (isStatsEnabled && isStatsVisible || foregroundConsumerCount > 0) ->
+                FOREGROUND
+            backgroundConsumerCount > 0 -> BACKGROUND
+            else -> PAUSED
+        }
+    }
+}
@@ -17,18 +17,47 @@ package com.twilio.video.app.sdk
 
 import android.os.Handler
 import android.os.HandlerThread
+import android.os.SystemClock
 import com.twilio.video.Room
 import com.twilio.video.StatsListener
+import java.util.concurrent.atomic.AtomicLong
 import timber.log.Timber
 
+/*
+ * A stats request that has not completed after this long is considered lost, so polling does not
+ * stall if the room never invokes the listener.
+ */
+private const val STATS_REQUEST_TIMEOUT_MILLIS = 30_000L
+
+/**
+ * Polls the room stats at the cadence of the current [StatsPollingMode]. A tick is skipped while
+ * the previous stats request has not returned yet.
+ */
 class StatsScheduler(private val roomManager: RoomManager, private val room: Room) {
     private var handlerThread: HandlerThread? = null
     private var handler: Handler? = null
+    private val pendingRequestStartMillis = AtomicLong(NO_PENDING_REQUEST)
     private val statsListener: StatsListener = StatsListener { statsReports ->
+        pendingRequestStartMillis.set(NO_PENDING_REQUEST)
         roomManager.sendStatsUpdate(statsReports)
     }
+    private val statsRunner: Runnable = object : Runnable {
+        override fun run() {
+            requestStats()
+            handler?.postDelayed(this, mode.intervalMillis)
+        }
+    }
     private val isRunning: Boolean
         get() = handlerThread?.isAlive ?: false
+    @Volatile
+    var mode: StatsPollingMode = StatsPollingMode.FOREGROUND
+        set(value) {
+            if (field != value) {
+                Timber.d("Stats polling mode changed from %s to %s", field, value)
+                field = value
+                handler?.post { schedule() }
+            }
+        }
 
     fun start() {
         if (isRunning) {
@@ -39,13 +68,7 @@ class StatsScheduler(private val roomManager: RoomManager, private val room: Roo
         handlerThread.start()
         val handler = Handler(handlerThread.looper)
         this.handler = handler
-        val statsRunner: Runnable = object : Runnable {
-            override fun run() {
-                room.getStats(statsListener)
-                handler.postDelayed(this, 1000)
-            }
-        }
-        handler.post(statsRunner)
+        handler.post { schedule() }
         Timber.d("Stats scheduler thread started")
     }
 
@@ -59,4 +82,26 @@ class StatsScheduler(private val roomManager: RoomManager, private val room: Roo
             }
         }
     }
+
+    private fun schedule() {
+        handler?.let { handler ->
+            handler.removeCallbacks(statsRunner)
+            if (mode != StatsPollingMode.PAUSED) handler.post(statsRunner)
+        }
+    }
+
+    private fun requestStats() {
+        val now = SystemClock.uptimeMillis()
+        val pendingSince = pendingRequestStartMillis.get()
+        if (pendingSince != NO_PENDING_REQUEST && now - pendingSince < STATS_REQUEST_TIMEOUT_MILLIS) {
+            Timber.d("Skipping stats tick, the previous request has not returned yet")
+            return
+        }
+        pendingRequestStartMillis.set(now)
+        room.getStats(statsListener)
+    }
+
+    companion object {
+        private const val NO_PENDING_REQUEST = -1L
+    }
 }
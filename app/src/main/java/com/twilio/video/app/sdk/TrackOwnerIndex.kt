@@ -0,0 +1,28 @@
+package com.twilio.video.app.sdk
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Maps the sids of subscribed remote tracks to the identity of the participant that published
+ * them. The index is maintained from the subscription callbacks of [RemoteParticipantListener]
+ * and read from the stats thread, so lookups never have to walk the SDK participant and
+ * publication lists.
+ */
+class TrackOwnerIndex {
+
+    private val owners = ConcurrentHashMap<String, String>()
+
+    val size: Int get() = owners.size
+
+    operator fun get(trackSid: String): String? = owners[trackSid]
+
+    fun add(trackSid: String, identity: String) {
+        owners[trackSid] = identity
+    }
+
+    fun remove(trackSid: String) {
+        owners.remove(trackSid)
+    }
+
+    fun clear() = owners.clear()
+}
@@ -0,0 +1,173 @@
+package com.twilio.video.app.sdk
+
+import kotlin.math.sqrt
+
+private const val BITS_PER_BYTE = 8
+private const val MILLIS_PER_SECOND = 1_000.0
+
+/**
+ * Per interval stats of a single track, derived from the cumulative counters of consecutive stats
+ * samples. Every interval is appended to preallocated primitive ring buffers that hold the
+ * history of the track, and the window stats are computed over the most recent [windowSize]
+ * intervals of that history, so recording a sample never allocates. Intervals older than
+ * [historyMillis] are dropped, so the history spans the same time however often the stats are
+ * polled. Instances are owned by [TrackStatsEngine] and must only be updated and read on the
+ * stats thread.
+ */
+class TrackStats internal constructor(
+    val trackSid: String,
+    val isLocalTrack: Boolean,
+    private val windowSize: Int,
+    historySize: Int,
+    private val historyMillis: Long = Long.MAX_VALUE
+) {
+
+    private var hasSample = false
+    private var lastTimestampMillis = 0.0
+    private var lastBytes = 0L
+    private var lastPackets = 0
+    private var lastPacketsLost = 0
+
+    /** End of every interval in the history, in milliseconds. */
+    val timestamps = LongRingBuffer(historySize)
+
+    /** Bits per second of every interval in the history. */
+    val bitrateHistory = LongRingBuffer(historySize)
+
+    /** Packet loss of every interval in the history, in hundredths of a percent. */
+    val packetLossHistory = IntRingBuffer(historySize)
+
+    val frameRateHistory = IntRingBuffer(historySize)
+
+    /** Jitter at the end of every interval in the history, in milliseconds. */
+    val jitterHistory = IntRingBuffer(historySize)
+
+    /** Bits per second over the last interval. */
+    var bitrate = 0L
+        private set
+
+    /** Share of the packets expected over the last interval that were lost, from 0 to 100. */
+    var packetLossPercent = 0f
+        private set
+
+    /**
+     * How steady the frame rate was over the window, from 0 to 1. A constant frame rate is 1, and
+     * a frame rate that swings as much as its average is 0.
+     */
+    var frameRateStability = 0f
+        private set
+
+    /** Least squares slope of the jitter over the window, in milliseconds per second. */
+    var jitterTrend = 0f
+        private set
+
+    /** Number of intervals in the window. */
+    val intervalCount: Int get() = minOf(bitrateHistory.size, windowSize)
+
+    internal fun record(
+        timestampMillis: Double,
+        bytes: Long,
+        packets: Int,
+        packetsLost: Int,
+        frameRate: Int,
+        jitter: Int
+    ) {
+        if (hasSample) {
+            val elapsedMillis = timestampMillis - lastTimestampMillis
+            // The same sample can show up in the report of every peer connection
+            if (elapsedMillis <= 0) return
+            if (bytes >= lastBytes && packets >= lastPackets) {
+                recordInterval(elapsedMillis, bytes, packets, packetsLost)
+                timestamps.add(timestampMillis.toLong())
+                frameRateHistory.add(frameRate)
+                jitterHistory.add(jitter)
+                dropExpiredIntervals()
+                frameRateStability = computeFrameRateStability()
+                jitterTrend = computeJitterTrend()
+            } else {
+                // The counters went backwards, so the track was restarted and the history is stale
+                reset()
+            }
+        }
+        hasSample = true
+        lastTimestampMillis = timestampMillis
+        lastBytes = bytes
+        lastPackets = packets
+        lastPacketsLost = packetsLost
+    }
+
+    private fun recordInterval(elapsedMillis: Double, bytes: Long, packets: Int, packetsLost: Int) {
+        val packetsDelta = packets - lastPackets
+        val packetsLostDelta = (packetsLost - lastPacketsLost).coerceAtLeast(0)
+        // Sent packets include the ones the receiver lost, received packets do not
+        val expectedPackets = if (isLocalTrack) packetsDelta else packetsDelta + packetsLostDelta
+        bitrate = ((bytes - lastBytes) * BITS_PER_BYTE * MILLIS_PER_SECOND / elapsedMillis).toLong()
+        packetLossPercent = if (expectedPackets > 0) {
+            (packetsLostDelta * 100f / expectedPackets).coerceAtMost(100f)
+        } else {
+            0f
+        }
+        bitrateHistory.add(bitrate)
+        packetLossHistory.add((packetLossPercent * 100).toInt())
+    }
+
+    private fun dropExpiredIntervals() {
+        val oldestMillis = timestamps.last - historyMillis
+        while (timestamps[0] < oldestMillis) {
+            timestamps.removeOldest()
+            bitrateHistory.removeOldest()
+            packetLossHistory.removeOldest()
+            frameRateHistory.removeOldest()
+            jitterHistory.removeOldest()
+        }
+    }
+
+    private fun computeFrameRateStability(): Float {
+        val count = intervalCount
+        val start = frameRateHistory.size - count
+        var sum = 0L
+        for (index in start until frameRateHistory.size) sum += frameRateHistory[index]
+        val mean = sum.toFloat() / count
+        if (mean <= 0f) return 0f
+        var squaredDeviations = 0f
+        for (index in start until frameRateHistory.size) {
+            val deviation = frameRateHistory[index] - mean
+            squaredDeviations += deviation * deviation
+        }
+        return (1f - sqrt(squaredDeviations / count) / mean).coerceIn(0f, 1f)
+    }
+
+    private fun computeJitterTrend(): Float {
+        val count = intervalCount
+        if (count < 2) return 0f
+        val start = jitterHistory.size - count
+        val startMillis = timestamps[start]
+        var sumX = 0.0
+        var sumY = 0.0
+        var sumXX = 0.0
+        var sumXY = 0.0
+        for (index in start until jitterHistory.size) {
+            val x = (timestamps[index] - startMillis) / MILLIS_PER_SECOND
+            val y = jitterHistory[index].toDouble()
+            sumX += x
+            sumY += y
+            sumXX += x * x
+            sumXY += x * y
+        }
+        val denominator = count * sumXX - sumX * sumX
+        if (denominator == 0.0) return 0f
+        return ((count * sumXY - sumX * sumY) / denominator).toFloat()
+    }
+
+    private fun reset() {
+        timestamps.clear()
+        bitrateHistory.clear()
+        packetLossHistory.clear()
+        frameRateHistory.clear()
+        jitterHistory.clear()
+        bitrate = 0
+        packetLossPercent = 0f
+        frameRateStability = 0f
+        jitterTrend = 0f
+    }
+}
@@ -0,0 +1,102 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.StatsReport
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/** Number of stats intervals the derived per track series are computed over. */
+const val TRACK_STATS_WINDOW_SIZE = 10
+
+/** How far back the per track history goes, whatever the polling interval. */
+const val TRACK_STATS_HISTORY_MINUTES = 5
+
+const val TRACK_STATS_HISTORY_MILLIS = TRACK_STATS_HISTORY_MINUTES * 60_000L
+
+/** Number of intervals the history holds when polling at the shortest interval. */
+val TRACK_STATS_HISTORY_SIZE =
+        (TRACK_STATS_HISTORY_MILLIS / StatsPollingMode.FOREGROUND.intervalMillis).toInt()
+
+/** Number of the most recent bitrates the stats panel sparklines show. */
+const val TRACK_RATES_SPARKLINE_SIZE = 60
+
+/**
+ * Turns the cumulative counters of successive [StatsReport]s into per interval rates and a
+ * bounded history for every track, keyed by track sid. Only the stats thread may use it, except
+ * for [evict], and once a track has been seen updating it does not allocate.
+ */
+class TrackStatsEngine(
+    private val windowSize: Int = TRACK_STATS_WINDOW_SIZE,
+    private val historySize: Int = TRACK_STATS_HISTORY_SIZE,
+    private val historyMillis: Long = TRACK_STATS_HISTORY_MILLIS
+) {
+
+    private val tracks = HashMap<String, TrackStats>()
+    private val evictedTrackSids = ConcurrentLinkedQueue<String>()
+
+    val trackCount: Int get() = tracks.size
+
+    operator fun get(trackSid: String): TrackStats? = tracks[trackSid]
+
+    fun update(statsReports: List<StatsReport>) {
+        var evictedTrackSid = evictedTrackSids.poll()
+        while (evictedTrackSid != null) {
+            tracks.remove(evictedTrackSid)
+            evictedTrackSid = evictedTrackSids.poll()
+        }
+        for (reportIndex in statsReports.indices) {
+            val report = statsReports[reportIndex]
+            // Local tracks are reported by every peer connection, so only take the first report
+            if (reportIndex == 0) {
+                val localAudioTrackStats = report.localAudioTrackStats
+                for (index in localAudioTrackStats.indices) {
+                    val stats = localAudioTrackStats[index]
+                    record(stats.trackSid, true, stats.timestamp, stats.bytesSent,
+                            stats.packetsSent, stats.packetsLost, 0, stats.jitter)
+                }
+                val localVideoTrackStats = report.localVideoTrackStats
+                for (index in localVideoTrackStats.indices) {
+                    val stats = localVideoTrackStats[index]
+                    record(stats.trackSid, true, stats.timestamp, stats.bytesSent,
+                            stats.packetsSent, stats.packetsLost, stats.frameRate, 0)
+                }
+            }
+            val remoteAudioTrackStats = report.remoteAudioTrackStats
+            for (index in remoteAudioTrackStats.indices) {
+                val stats = remoteAudioTrackStats[index]
+                record(stats.trackSid, false, stats.timestamp, stats.bytesReceived,
+                        stats.packetsReceived, stats.packetsLost, 0, stats.jitter)
+            }
+            val remoteVideoTrackStats = report.remoteVideoTrackStats
+            for (index in remoteVideoTrackStats.indices) {
+                val stats = remoteVideoTrackStats[index]
+                record(stats.trackSid, false, stats.timestamp, stats.bytesReceived,
+                        stats.packetsReceived, stats.packetsLost, stats.frameRate, 0)
+            }
+        }
+    }
+
+    fun record(
+        trackSid: String,
+        isLocalTrack: Boolean,
+        timestampMillis: Double,
+        bytes: Long,
+        packets: Int,
+        packetsLost: Int,
+        frameRate: Int,
+        jitter: Int
+    ) {
+        val trackStats = tracks[trackSid]
+                ?: TrackStats(trackSid, isLocalTrack, windowSize, historySize, historyMillis)
+                        .also { tracks[trackSid] = it }
+        trackStats.record(timestampMillis, bytes, packets, packetsLost, frameRate, jitter)
+    }
+
+    /**
+     * Drops the stats of a track that is gone, e.g. unsubscribed, before the next update. Unlike
+     * the rest of the engine it may be called from any thread.
+     */
+    fun evict(trackSid: String) {
+        evictedTrackSids.add(trackSid)
+    }
+
+    fun clear() = tracks.clear()
+}
@@ -5,19 +5,142 @@ import androidx.lifecycle.LiveData
 import androidx.lifecycle.MutableLiveData
 import androidx.recyclerview.widget.DiffUtil
 import androidx.recyclerview.widget.ListAdapter
+import androidx.recyclerview.widget.RecyclerView
+import com.twilio.video.app.ui.room.RoomViewEvent.VisibleParticipantsChanged
+import com.twilio.video.app.model.FrameTimingRegistry
 import com.twilio.video.app.participant.ParticipantViewState
+import timber.log.Timber
 
-internal class ParticipantAdapter : ListAdapter<ParticipantViewState, ParticipantViewHolder>(
-        ParticipantDiffCallback()) {
+/**
+ * Adapter of the thumbnail list. Thumbnails only render their video track while they are within
+ * the viewport of the list, extended by [prefetchMarginPx] so a thumbnail that is about to scroll
+ * in already shows video. Thumbnails that scrolled out, were detached or recycled get no frames.
+ * The participants of the visible thumbnails are reported as [VisibleParticipantsChanged] so the
+ * tracks nobody sees can be deprioritized.
+ *
+ * The same adapter fills the pages of the participant grid, where every thumbnail is stretched
+ * over a cell of the size given to [setCellSize]. Both share their thumbnails through a
+ * [ParticipantViewPool], and every thumbnail they inflate is counted by [viewMetrics].
+ */
+internal class ParticipantAdapter(
+    private val frameTimings: FrameTimingRegistry,
+    private val viewMetrics: ParticipantViewMetrics,
+    private val prefetchMarginPx: Int
+) : ListAdapter<ParticipantViewState, ParticipantViewHolder>(ParticipantDiffCallback()) {
 
     private val mutableViewHolderEvents = MutableLiveData<RoomViewEvent>()
     val viewHolderEvents: LiveData<RoomViewEvent> = mutableViewHolderEvents
+    /** Number of thumbnails that are currently a sink of their video track. */
+    var activeSinkCount = 0
+        private set
+    private val visibleHolders = HashSet<ParticipantViewHolder>()
+    private var visibleParticipantSids = emptySet<String>()
+    private val holderListener = object : ParticipantViewHolder.Listener {
+        override fun onSinkCountChanged(delta: Int) {
+            activeSinkCount += delta
+            Timber.d("Active thumbnail sinks: %d", activeSinkCount)
+        }
+
+        override fun onVisibleParticipantChanged(holder: ParticipantViewHolder) =
+                updateVisibleParticipants(holder)
+    }
+    private val viewportListener = object : RecyclerView.OnScrollListener() {
+        override fun onScrolled(recyclerView: RecyclerView, dx: Int, dy: Int) =
+                updateVisibility(recyclerView)
+    }
+    private var cellWidth = 0
+    private var cellHeight = 0
+    var isRenderTimingOverlayEnabled = false
+        set(value) {
+            if (field != value) {
+                field = value
+                notifyDataSetChanged()
+            }
+        }
 
     override fun onCreateViewHolder(parent: ViewGroup, viewType: Int): ParticipantViewHolder =
-            ParticipantViewHolder(ParticipantThumbView(parent.context))
+            ParticipantViewHolder(
+                    viewMetrics.measureInflation { ParticipantThumbView(parent.context) },
+                    frameTimings,
+                    viewMetrics)
+
+    override fun onBindViewHolder(holder: ParticipantViewHolder, position: Int) {
+        // The thumbnail may come from the other layout through the shared pool
+        if (cellWidth > 0 && cellHeight > 0) {
+            holder.setCellSize(cellWidth, cellHeight)
+        } else {
+            holder.clearCellSize()
+        }
+        holder.bind(getItem(position), isRenderTimingOverlayEnabled, holderListener) {
+            mutableViewHolderEvents.value = it
+        }
+    }
+
+    /** Sizes every thumbnail to a grid cell of the given size, in pixels. */
+    fun setCellSize(width: Int, height: Int) {
+        if (width != cellWidth || height != cellHeight) {
+            cellWidth = width
+            cellHeight = height
+            notifyDataSetChanged()
+        }
+    }
+
+    override fun onAttachedToRecyclerView(recyclerView: RecyclerView) {
+        recyclerView.addOnScrollListener(viewportListener)
+    }
 
-    override fun onBindViewHolder(holder: ParticipantViewHolder, position: Int) =
-            holder.bind(getItem(position)) { mutableViewHolderEvents.value = it }
+    override fun onDetachedFromRecyclerView(recyclerView: RecyclerView) {
+        recyclerView.removeOnScrollListener(viewportListener)
+    }
+
+    // The list only lays out the thumbnails in view, scrolling narrows it down to the viewport
+    override fun onViewAttachedToWindow(holder: ParticipantViewHolder) = holder.setVisible(true)
+
+    override fun onViewDetachedFromWindow(holder: ParticipantViewHolder) = holder.setVisible(false)
+
+    override fun onViewRecycled(holder: ParticipantViewHolder) = holder.setVisible(false)
+
+    private fun updateVisibleParticipants(holder: ParticipantViewHolder) {
+        if (holder.visibleParticipantSid != null) {
+            visibleHolders.add(holder)
+        } else {
+            visibleHolders.remove(holder)
+        }
+        val sids = HashSet<String>()
+        for (visibleHolder in visibleHolders) {
+            visibleHolder.visibleParticipantSid?.let { sids.add(it) }
+        }
+        if (sids != visibleParticipantSids) {
+            visibleParticipantSids = sids
+            mutableViewHolderEvents.value = VisibleParticipantsChanged(sids)
+        }
+    }
+
+    private fun updateVisibility(recyclerView: RecyclerView) {
+        for (index in 0 until recyclerView.childCount) {
+            val child = recyclerView.getChildAt(index)
+            val holder = recyclerView.getChildViewHolder(child) as? ParticipantViewHolder ?: continue
+            holder.setVisible(isWithinViewport(child.left, child.top, child.right, child.bottom,
+                    recyclerView.width, recyclerView.height, prefetchMarginPx))
+        }
+    }
+
+    companion object {
+        /**
+         * Whether a child with the given bounds lies within the viewport of its parent, extended
+         * by [marginPx] on every side.
+         */
+        fun isWithinViewport(
+            left: Int,
+            top: Int,
+            right: Int,
+            bottom: Int,
+            viewportWidth: Int,
+            viewportHeight: Int,
+            marginPx: Int
+        ) = right > -marginPx && left < viewportWidth + marginPx &&
+                bottom > -marginPx && top < viewportHeight + marginPx
+    }
 
     class ParticipantDiffCallback : DiffUtil.ItemCallback<ParticipantViewState>() {
         override fun areItemsTheSame(
@@ -0,0 +1,103 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.app.participant.ParticipantUpdate
+import com.twilio.video.app.sdk.VideoTrackViewState
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.MuteRemoteParticipant
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.NetworkQualityLevelChange
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.ScreenTrackUpdated
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.TrackSwitchOff
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.VideoTrackUpdated
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+
+const val PARTICIPANT_REDUCER_SHARD_COUNT = 4
+
+/*
+ * Below this many events reducing them in place takes less main thread time than handing the
+ * batch to another thread and resuming with the result. ParticipantEventReducerBenchmarkTest
+ * measured about 16 ns per event in place against about 3 us of main thread time per hand-over,
+ * which breaks even at around 200 events.
+ */
+internal const val MIN_SHARDED_EVENT_COUNT = 256
+
+/**
+ * Events that only change properties of an existing participant, as opposed to participants
+ * joining, leaving or being reordered.
+ */
+internal val RoomEvent.isParticipantPropertyEvent: Boolean
+    get() = this is MuteRemoteParticipant ||
+            this is NetworkQualityLevelChange ||
+            this is VideoTrackUpdated ||
+            this is TrackSwitchOff ||
+            this is ScreenTrackUpdated
+
+/**
+ * Reduces participant property events into one [ParticipantUpdate] per participant.
+ *
+ * Events are partitioned into shards by participant sid and every shard is reduced in its own
+ * coroutine, so the events of one participant are always folded in order by a single shard. The
+ * reducer does not touch any participant state, which allows a sharded batch to run off the main
+ * thread while the resulting updates are applied on the main thread in one pass. Smaller batches
+ * are cheaper to reduce in place than to hand over to another thread.
+ */
+internal class ParticipantEventReducer(
+    private val shardCount: Int = PARTICIPANT_REDUCER_SHARD_COUNT
+) {
+
+    init {
+        require(shardCount > 0) { "Shard count must be positive but was $shardCount" }
+    }
+
+    /**
+     * Whether a batch of [eventCount] events is reduced in a coroutine per shard, which is only
+     * worth it off the main thread.
+     */
+    fun isSharded(eventCount: Int): Boolean =
+            shardCount > 1 && eventCount >= MIN_SHARDED_EVENT_COUNT
+
+    suspend fun reduce(propertyEvents: List<RoomEvent>): Collection<ParticipantUpdate> {
+        if (!isSharded(propertyEvents.size)) return reduceShard(propertyEvents)
+
+        val shards = Array(shardCount) { ArrayList<RoomEvent>() }
+        propertyEvents.forEach { shards[shardOf(it.participantSid)].add(it) }
+        return coroutineScope {
+            shards.filter { it.isNotEmpty() }
+                    .map { shard -> async { reduceShard(shard) } }
+                    .awaitAll()
+                    .flatten()
+        }
+    }
+
+    private fun reduceShard(propertyEvents: List<RoomEvent>): Collection<ParticipantUpdate> {
+        val updates = LinkedHashMap<String, ParticipantUpdate>()
+        propertyEvents.forEach { propertyEvent ->
+            val sid = propertyEvent.participantSid
+            val update = updates.getOrPut(sid) { ParticipantUpdate(sid) }
+            when (propertyEvent) {
+                is MuteRemoteParticipant -> update.mute(propertyEvent.mute)
+                is NetworkQualityLevelChange ->
+                    update.updateNetworkQuality(propertyEvent.networkQualityLevel)
+                is VideoTrackUpdated ->
+                    update.updateVideoTrack(propertyEvent.videoTrack?.let { VideoTrackViewState(it) })
+                is TrackSwitchOff -> update.updateVideoTrack(
+                        VideoTrackViewState(propertyEvent.videoTrack, propertyEvent.switchOff))
+                is ScreenTrackUpdated -> update.updateScreenTrack(
+                        propertyEvent.screenTrack?.let { VideoTrackViewState(it) })
+            }
+        }
+        return updates.values
+    }
+
+    private fun shardOf(sid: String) = (sid.hashCode() and Int.MAX_VALUE) % shardCount
+
+    private val RoomEvent.participantSid: String
+        get() = when (this) {
+            is MuteRemoteParticipant -> sid
+            is NetworkQualityLevelChange -> sid
+            is VideoTrackUpdated -> sid
+            is TrackSwitchOff -> sid
+            is ScreenTrackUpdated -> sid
+            else -> throw IllegalArgumentException("$this is not a participant property event")
+        }
+}
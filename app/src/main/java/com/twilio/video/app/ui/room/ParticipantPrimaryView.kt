@@ -35,6 +35,7 @@ internal class ParticipantPrimaryView @JvmOverloads constructor(
         selectedLayout = binding.selectedLayout
         stubImage = binding.stub
         selectedIdentity = binding.selectedIdentity
+        renderTimingsText = binding.renderTimings
         setIdentity(identity)
         setState(state)
         setMirror(mirror)
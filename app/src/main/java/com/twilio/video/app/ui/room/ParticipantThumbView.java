@@ -22,12 +22,15 @@ import android.os.Build;
 import android.util.AttributeSet;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewGroup;
 import androidx.core.content.ContextCompat;
 import com.twilio.video.app.R;
 import com.twilio.video.app.databinding.ParticipantViewBinding;
 
 public class ParticipantThumbView extends ParticipantView {
     private ParticipantViewBinding binding;
+    private int thumbWidth;
+    private int thumbHeight;
 
     public ParticipantThumbView(Context context) {
         super(context);
@@ -62,12 +65,49 @@ public class ParticipantThumbView extends ParticipantView {
         selectedIdentity = binding.selectedIdentity;
         audioToggle = binding.audioToggle;
         pinImage = binding.pin;
+        renderTimingsText = binding.renderTimings;
+        thumbWidth = binding.getRoot().getLayoutParams().width;
+        thumbHeight = binding.getRoot().getLayoutParams().height;
         setIdentity(identity);
         setState(state);
         setMirror(mirror);
         setScaleType(scaleType);
     }
 
+    /** Stretches the thumbnail over a grid cell of the given size instead of its fixed size. */
+    public void setCellSize(int width, int height) {
+        ViewGroup.LayoutParams params = getLayoutParams();
+        if (params == null) {
+            setLayoutParams(new ViewGroup.LayoutParams(width, height));
+        } else if (params.width != width || params.height != height) {
+            params.width = width;
+            params.height = height;
+            setLayoutParams(params);
+        }
+        ViewGroup.LayoutParams backgroundParams = binding.getRoot().getLayoutParams();
+        if (backgroundParams.width != ViewGroup.LayoutParams.MATCH_PARENT) {
+            backgroundParams.width = ViewGroup.LayoutParams.MATCH_PARENT;
+            backgroundParams.height = ViewGroup.LayoutParams.MATCH_PARENT;
+            binding.getRoot().setLayoutParams(backgroundParams);
+        }
+    }
+
+    /** Restores the fixed size of a thumbnail once it moves from a grid cell to the list. */
+    public void clearCellSize() {
+        ViewGroup.LayoutParams params = getLayoutParams();
+        if (params != null && params.width != ViewGroup.LayoutParams.WRAP_CONTENT) {
+            params.width = ViewGroup.LayoutParams.WRAP_CONTENT;
+            params.height = ViewGroup.LayoutParams.WRAP_CONTENT;
+            setLayoutParams(params);
+        }
+        ViewGroup.LayoutParams backgroundParams = binding.getRoot().getLayoutParams();
+        if (backgroundParams.width != thumbWidth) {
+            backgroundParams.width = thumbWidth;
+            backgroundParams.height = thumbHeight;
+            binding.getRoot().setLayoutParams(backgroundParams);
+        }
+    }
+
     @Override
     public void setState(int state) {
         super.setState(state);
@@ -31,18 +31,23 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StyleRes;
 import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.core.view.ViewCompat;
 import com.twilio.video.VideoScaleType;
 import com.twilio.video.VideoTextureView;
 import com.twilio.video.VideoTrack;
 import com.twilio.video.app.R;
+import com.twilio.video.app.model.FrameTimingRecorder;
+import com.twilio.video.app.model.FrameTimingWindow;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.Locale;
 import tvi.webrtc.VideoFrame;
 import tvi.webrtc.VideoSink;
 
 abstract class ParticipantView extends FrameLayout implements VideoSink {
 
     private static final VideoScaleType DEFAULT_VIDEO_SCALE_TYPE = VideoScaleType.ASPECT_FIT;
+    private static final long RENDER_TIMING_OVERLAY_INTERVAL_MS = 1000;
 
     String identity = "";
     int state = State.NO_VIDEO;
@@ -59,6 +64,16 @@ abstract class ParticipantView extends FrameLayout implements VideoSink {
     TextView selectedIdentity;
     @Nullable ImageView audioToggle;
     @Nullable ImageView pinImage;
+    @Nullable TextView renderTimingsText;
+
+    /** Timings of the frames this view received, recorded on the thread that delivers them. */
+    final FrameTimingRecorder frameTimings = new FrameTimingRecorder();
+
+    private final FrameTimingWindow overlayTimings = new FrameTimingWindow();
+    private final Runnable updateRenderTimingOverlay = this::updateRenderTimingOverlay;
+    private boolean renderTimingOverlayEnabled = false;
+    @Nullable private OnRenderSizeChangedListener onRenderSizeChangedListener;
+    @Nullable private volatile Runnable onFirstFrameListener;
 
     public ParticipantView(@NonNull Context context) {
         super(context);
@@ -142,9 +157,70 @@ abstract class ParticipantView extends FrameLayout implements VideoSink {
         if (pinImage != null) pinImage.setVisibility(pinned ? VISIBLE : GONE);
     }
 
+    /** Shows the render timings of this view on top of the video, refreshed every second. */
+    public void setRenderTimingOverlayEnabled(boolean enabled) {
+        if (renderTimingsText == null || renderTimingOverlayEnabled == enabled) return;
+        renderTimingOverlayEnabled = enabled;
+        renderTimingsText.setVisibility(enabled ? VISIBLE : GONE);
+        removeCallbacks(updateRenderTimingOverlay);
+        if (enabled && ViewCompat.isAttachedToWindow(this)) updateRenderTimingOverlay();
+    }
+
+    /**
+     * Reports the pixel size this view renders its video at, e.g. after a rotation or a change of
+     * the multi-window size.
+     */
+    public void setOnRenderSizeChangedListener(@Nullable OnRenderSizeChangedListener listener) {
+        onRenderSizeChangedListener = listener;
+    }
+
+    /** Runs the listener once, on the thread delivering the frames, when the next one arrives. */
+    public void setOnFirstFrameListener(@Nullable Runnable listener) {
+        onFirstFrameListener = listener;
+    }
+
     @Override
     public void onFrame(VideoFrame videoFrame) {
+        frameTimings.onFrame(videoFrame.getTimestampNs(), System.nanoTime());
         videoView.onFrame(videoFrame);
+        Runnable listener = onFirstFrameListener;
+        if (listener != null) {
+            onFirstFrameListener = null;
+            listener.run();
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+        if (onRenderSizeChangedListener != null) {
+            onRenderSizeChangedListener.onRenderSizeChanged(width, height);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (renderTimingOverlayEnabled) updateRenderTimingOverlay();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        removeCallbacks(updateRenderTimingOverlay);
+        super.onDetachedFromWindow();
+    }
+
+    private void updateRenderTimingOverlay() {
+        if (renderTimingsText == null) return;
+        overlayTimings.update(frameTimings, System.nanoTime());
+        renderTimingsText.setText(
+                String.format(
+                        Locale.US,
+                        getContext().getString(R.string.render_timing_overlay),
+                        overlayTimings.getFramesPerSecond(),
+                        Math.round(overlayTimings.getAverageLatencyMillis()),
+                        Math.round(overlayTimings.getJankPercent())));
+        postDelayed(updateRenderTimingOverlay, RENDER_TIMING_OVERLAY_INTERVAL_MS);
     }
 
     void initParams(Context context, AttributeSet attrs) {
@@ -174,6 +250,10 @@ abstract class ParticipantView extends FrameLayout implements VideoSink {
         }
     }
 
+    interface OnRenderSizeChangedListener {
+        void onRenderSizeChanged(int width, int height);
+    }
+
     @IntDef({
         ParticipantView.State.VIDEO,
         ParticipantView.State.NO_VIDEO,
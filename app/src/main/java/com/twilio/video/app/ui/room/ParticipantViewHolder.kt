@@ -10,22 +10,71 @@ import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ONE
 import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_THREE
 import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_TWO
 import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ZERO
+import com.twilio.video.RemoteVideoTrack
 import com.twilio.video.VideoTrack
 import com.twilio.video.app.R
+import com.twilio.video.app.model.FrameTimingRegistry
 import com.twilio.video.app.participant.ParticipantViewState
 import com.twilio.video.app.sdk.VideoTrackViewState
 import com.twilio.video.app.ui.room.RoomViewEvent.PinParticipant
+import com.twilio.video.app.ui.room.RoomViewEvent.RenderSizeChanged
 import timber.log.Timber
 
-internal class ParticipantViewHolder(private val thumb: ParticipantThumbView) :
-        RecyclerView.ViewHolder(thumb) {
+/**
+ * Binds a participant to a thumbnail. The thumbnail only receives the frames of the video track
+ * while the [ParticipantAdapter] reports it as visible, see [setVisible].
+ *
+ * Thumbnails are shared between the adapters through a [ParticipantViewPool], so a thumbnail
+ * reports to the [Listener] of the adapter that bound it last.
+ */
+internal class ParticipantViewHolder(
+    private val thumb: ParticipantThumbView,
+    private val frameTimings: FrameTimingRegistry,
+    private val viewMetrics: ParticipantViewMetrics
+) : RecyclerView.ViewHolder(thumb) {
+
+    interface Listener {
+        fun onSinkCountChanged(delta: Int)
+
+        fun onVisibleParticipantChanged(holder: ParticipantViewHolder)
+    }
 
     private val localParticipantIdentity = thumb.context.getString(R.string.you)
+    private var isVisible = false
+    private var participantSid: String? = null
+    private var sinkTrack: VideoTrack? = null
+    private var remoteParticipantSid: String? = null
+    private var viewEventAction: ((RoomViewEvent) -> Unit)? = null
+    private var listener: Listener? = null
+
+    init {
+        thumb.setOnRenderSizeChangedListener { _, _ -> reportRenderSize() }
+    }
+
+    /** Sid of the participant this thumbnail shows while it is visible, null otherwise. */
+    val visibleParticipantSid: String? get() = if (isVisible) participantSid else null
 
-    fun bind(participantViewState: ParticipantViewState, viewEventAction: (RoomViewEvent) -> Unit) {
+    fun bind(
+        participantViewState: ParticipantViewState,
+        isRenderTimingOverlayEnabled: Boolean,
+        listener: Listener,
+        viewEventAction: (RoomViewEvent) -> Unit
+    ) {
         Timber.d("bind ParticipantViewHolder with data item: %s", participantViewState)
         Timber.d("thumb: %s", thumb)
 
+        this.listener = listener
+        this.viewEventAction = viewEventAction
+        if (participantSid != participantViewState.sid) {
+            participantSid = participantViewState.sid
+            if (isVisible) listener.onVisibleParticipantChanged(this)
+        }
+        val remoteParticipantSid = participantViewState.sid
+                .takeUnless { participantViewState.isLocalParticipant }
+        if (this.remoteParticipantSid != remoteParticipantSid) {
+            this.remoteParticipantSid = remoteParticipantSid
+            reportRenderSize()
+        }
         thumb.run {
             participantViewState.sid?.let { sid ->
                 setOnClickListener {
@@ -37,6 +86,7 @@ internal class ParticipantViewHolder(private val thumb: ParticipantThumbView) :
             setIdentity(identity)
             setMuted(participantViewState.isMuted)
             setPinned(participantViewState.isPinned)
+            setRenderTimingOverlayEnabled(isRenderTimingOverlayEnabled)
 
             updateVideoTrack(participantViewState)
 
@@ -51,16 +101,50 @@ internal class ParticipantViewHolder(private val thumb: ParticipantThumbView) :
             val videoTrackViewState = participantViewState.videoTrack
             val newVideoTrack = videoTrackViewState?.let { it.videoTrack }
             if (videoTrack !== newVideoTrack) {
-                removeRender(videoTrack, this)
                 videoTrack = newVideoTrack
-                videoTrack?.let { videoTrack ->
-                    setVideoState(videoTrackViewState)
-                    if (videoTrack.isEnabled) videoTrack.addSink(this)
-                } ?: setState(ParticipantView.State.NO_VIDEO)
+                videoTrack?.let { setVideoState(videoTrackViewState) }
+                        ?: setState(ParticipantView.State.NO_VIDEO)
             } else {
                 setVideoState(videoTrackViewState)
             }
         }
+        updateSink()
+    }
+
+    /**
+     * Attaches the thumbnail as a sink of its video track while it is within the viewport of the
+     * thumbnail list, and detaches it once it scrolled out or was recycled.
+     */
+    fun setVisible(isVisible: Boolean) {
+        if (this.isVisible != isVisible) {
+            this.isVisible = isVisible
+            updateSink()
+            listener?.onVisibleParticipantChanged(this)
+        }
+    }
+
+    fun setCellSize(width: Int, height: Int) = thumb.setCellSize(width, height)
+
+    fun clearCellSize() = thumb.clearCellSize()
+
+    /** Reports the size of the thumbnail once it is laid out, so its track is sized to match. */
+    private fun reportRenderSize() {
+        val sid = remoteParticipantSid ?: return
+        if (thumb.width > 0 && thumb.height > 0) {
+            viewEventAction?.invoke(RenderSizeChanged(sid, thumb.width, thumb.height))
+        }
+    }
+
+    private fun updateSink() {
+        val videoTrack = thumb.videoTrack
+        val newSinkTrack = if (isVisible && videoTrack?.isEnabled == true) videoTrack else null
+        val oldSinkTrack = sinkTrack
+        if (oldSinkTrack === newSinkTrack) return
+        sinkTrack = newSinkTrack
+        oldSinkTrack?.let { removeRender(it, thumb) }
+        newSinkTrack?.let { addRender(it, thumb) }
+        val delta = (if (newSinkTrack != null) 1 else 0) - (if (oldSinkTrack != null) 1 else 0)
+        if (delta != 0) listener?.onSinkCountChanged(delta)
     }
 
     private fun ParticipantThumbView.setVideoState(videoTrackViewState: VideoTrackViewState?) {
@@ -72,9 +156,20 @@ internal class ParticipantViewHolder(private val thumb: ParticipantThumbView) :
         }
     }
 
+    private fun addRender(videoTrack: VideoTrack, view: ParticipantView) {
+        view.frameTimings.reset()
+        if (videoTrack is RemoteVideoTrack && viewMetrics.isAwaitingFirstFrame) {
+            view.setOnFirstFrameListener { viewMetrics.onFirstFrame() }
+        }
+        videoTrack.addSink(view)
+        (videoTrack as? RemoteVideoTrack)?.let { frameTimings.register(it.sid, view.frameTimings) }
+    }
+
     private fun removeRender(videoTrack: VideoTrack?, view: ParticipantView) {
         if (videoTrack == null || !videoTrack.sinks.contains(view)) return
         videoTrack.removeSink(view)
+        view.setOnFirstFrameListener(null)
+        (videoTrack as? RemoteVideoTrack)?.let { frameTimings.unregister(it.sid, view.frameTimings) }
     }
 
     private fun setNetworkQualityLevelImage(
@@ -0,0 +1,83 @@
+package com.twilio.video.app.ui.room
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counts the participant views inflated for the thumbnail list and the participant grid and how
+ * long they took, and how long after the room started connecting the first remote video reached
+ * a thumbnail. [onFirstFrame] runs on the render thread, everything else on the main thread.
+ */
+internal class ParticipantViewMetrics(private val nanoTime: () -> Long = System::nanoTime) {
+
+    private var inflationCount = 0
+    private var prewarmedCount = 0
+    private var totalInflationNanos = 0L
+    private var maxInflationNanos = 0L
+    @Volatile private var connectingAtNanos = NOT_CONNECTING
+    private val firstFrameNanos = AtomicLong(NO_FRAME)
+
+    /** Number of views inflated so far, prewarmed or not. */
+    val inflations: Int get() = inflationCount
+
+    val isInRoom: Boolean get() = connectingAtNanos != NOT_CONNECTING
+
+    /** Whether a thumbnail should report its first frame through [onFirstFrame]. */
+    val isAwaitingFirstFrame: Boolean get() = isInRoom && firstFrameNanos.get() == NO_FRAME
+
+    val metrics: Metrics
+        get() {
+            val connectingAtNanos = connectingAtNanos
+            val firstFrameNanos = firstFrameNanos.get()
+            return Metrics(
+                    inflationCount,
+                    prewarmedCount,
+                    totalInflationNanos,
+                    maxInflationNanos,
+                    if (connectingAtNanos != NOT_CONNECTING && firstFrameNanos != NO_FRAME)
+                        firstFrameNanos - connectingAtNanos else null)
+        }
+
+    fun <T> measureInflation(inflate: () -> T): T {
+        val startNanos = nanoTime()
+        val view = inflate()
+        val inflationNanos = nanoTime() - startNanos
+        inflationCount++
+        totalInflationNanos += inflationNanos
+        maxInflationNanos = maxOf(maxInflationNanos, inflationNanos)
+        return view
+    }
+
+    /** Marks the last inflated view as inflated ahead of time by the [ParticipantViewPool]. */
+    fun onPrewarmed() {
+        prewarmedCount++
+    }
+
+    /** Starts the clock for the first thumbnail, unless the room is already connecting. */
+    fun onConnecting() {
+        if (isInRoom) return
+        firstFrameNanos.set(NO_FRAME)
+        connectingAtNanos = nanoTime()
+    }
+
+    fun onFirstFrame() {
+        if (isInRoom) firstFrameNanos.compareAndSet(NO_FRAME, nanoTime())
+    }
+
+    fun onLeftRoom() {
+        connectingAtNanos = NOT_CONNECTING
+    }
+
+    data class Metrics(
+        val inflations: Int,
+        val prewarmedInflations: Int,
+        val totalInflationNanos: Long,
+        val maxInflationNanos: Long,
+        /** Time from connecting to the first remote frame in a thumbnail, null until then. */
+        val timeToFirstThumbnailNanos: Long?
+    )
+
+    private companion object {
+        const val NOT_CONNECTING = Long.MIN_VALUE
+        const val NO_FRAME = Long.MIN_VALUE
+    }
+}
@@ -0,0 +1,67 @@
+package com.twilio.video.app.ui.room
+
+import android.os.Looper
+import android.os.MessageQueue
+import androidx.recyclerview.widget.RecyclerView
+
+/**
+ * Recycled thumbnails shared by the thumbnail list and the participant grid, so participants
+ * coming and going or switching between the two layouts rebinds existing views instead of
+ * inflating new ones. It holds up to [capacity] thumbnails, and [prewarm] inflates them ahead of
+ * time while the main thread is idle, so the participants joining along with the room find their
+ * views ready.
+ */
+internal class ParticipantViewPool(
+    private val capacity: Int,
+    private val metrics: ParticipantViewMetrics
+) : RecyclerView.RecycledViewPool() {
+
+    private var prewarmer: MessageQueue.IdleHandler? = null
+
+    init {
+        setMaxRecycledViews(PARTICIPANT_VIEW_TYPE, capacity)
+    }
+
+    /**
+     * Inflates thumbnails through [adapter], one per idle pass of the main thread, until
+     * [capacity] of them exist. Views can only be inflated on the main thread, so this spreads
+     * the inflation over the time spent connecting instead of moving it off the main thread.
+     */
+    fun prewarm(adapter: ParticipantAdapter, parent: RecyclerView) {
+        if (prewarmer != null || metrics.inflations >= capacity) return
+        val idleHandler = MessageQueue.IdleHandler {
+            if (metrics.inflations < capacity) {
+                putRecycledView(adapter.createViewHolder(parent, PARTICIPANT_VIEW_TYPE))
+                metrics.onPrewarmed()
+            }
+            (metrics.inflations < capacity).also { if (!it) prewarmer = null }
+        }
+        prewarmer = idleHandler
+        Looper.myQueue().addIdleHandler(idleHandler)
+    }
+
+    fun cancelPrewarm() {
+        prewarmer?.let { Looper.myQueue().removeIdleHandler(it) }
+        prewarmer = null
+    }
+
+    companion object {
+        const val PARTICIPANT_VIEW_TYPE = 0
+
+        /**
+         * Number of thumbnails the larger of the two layouts shows at once: the thumbnail list
+         * across [viewportWidthPx] plus [prefetchMarginPx] on both sides, with a partly visible
+         * thumbnail at each end, or a full page of a grid of [maxGridColumns]. More participants
+         * than that only ever need as many views, as the rest are scrolled or paged away.
+         */
+        fun capacityFor(
+            viewportWidthPx: Int,
+            thumbnailWidthPx: Int,
+            prefetchMarginPx: Int,
+            maxGridColumns: Int
+        ): Int {
+            val thumbnails = (viewportWidthPx + 2 * prefetchMarginPx) / thumbnailWidthPx + 2
+            return maxOf(thumbnails, maxGridColumns * maxGridColumns)
+        }
+    }
+}
@@ -15,11 +15,14 @@
  */
 package com.twilio.video.app.ui.room
 
+import com.twilio.video.RemoteVideoTrack
 import com.twilio.video.VideoTrack
+import com.twilio.video.app.model.FrameTimingRegistry
 import com.twilio.video.app.sdk.VideoTrackViewState
 
 internal class PrimaryParticipantController(
-    private val primaryView: ParticipantPrimaryView
+    private val primaryView: ParticipantPrimaryView,
+    private val frameTimings: FrameTimingRegistry
 ) {
     private var primaryItem: Item? = null
 
@@ -44,14 +47,27 @@ internal class PrimaryParticipantController(
         primaryView.setMuted(newItem.muted)
         primaryView.setMirror(newItem.mirror)
         newItem.videoTrack?.let { newVideoTrack ->
-            if (newVideoTrack.isEnabled) newVideoTrack.addSink(primaryView)
+            if (newVideoTrack.isEnabled) addRender(newVideoTrack, primaryView)
             primaryView.setState(ParticipantView.State.VIDEO)
         } ?: primaryView.setState(ParticipantView.State.NO_VIDEO)
     }
 
+    /** Stops rendering the primary participant, e.g. while the participants are shown on a grid. */
+    fun release() {
+        primaryItem?.let { removeRender(it.videoTrack, primaryView) }
+        primaryItem = null
+    }
+
+    private fun addRender(videoTrack: VideoTrack, view: ParticipantView) {
+        view.frameTimings.reset()
+        videoTrack.addSink(view)
+        (videoTrack as? RemoteVideoTrack)?.let { frameTimings.register(it.sid, view.frameTimings) }
+    }
+
     private fun removeRender(videoTrack: VideoTrack?, view: ParticipantView) {
         if (videoTrack == null || !videoTrack.sinks.contains(view)) return
         videoTrack.removeSink(view)
+        (videoTrack as? RemoteVideoTrack)?.let { frameTimings.unregister(it.sid, view.frameTimings) }
     }
 
     internal class Item(
@@ -38,8 +38,11 @@ import android.view.MenuItem
 import android.view.View
 import android.view.WindowManager
 import androidx.core.content.ContextCompat
+import androidx.core.view.GravityCompat
 import androidx.core.widget.doOnTextChanged
+import androidx.drawerlayout.widget.DrawerLayout
 import androidx.lifecycle.ViewModelProvider
+import androidx.recyclerview.widget.GridLayoutManager
 import androidx.recyclerview.widget.LinearLayoutManager
 import com.google.android.material.snackbar.BaseTransientBottomBar
 import com.google.android.material.snackbar.Snackbar
@@ -55,7 +58,14 @@ import com.twilio.video.app.data.Preferences
 import com.twilio.video.app.data.api.AuthServiceError
 import com.twilio.video.app.data.api.TokenService
 import com.twilio.video.app.databinding.RoomActivityBinding
+import com.twilio.video.app.participant.ParticipantGridPage
 import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.sdk.CaptureDegradationReason
+import com.twilio.video.app.sdk.QualityAlert
+import com.twilio.video.app.sdk.QualityAlertType.HIGH_PACKET_LOSS
+import com.twilio.video.app.sdk.QualityAlertType.HIGH_RTT
+import com.twilio.video.app.sdk.QualityAlertType.LOW_FRAME_RATE
+import com.twilio.video.app.sdk.QualityAlertType.SILENT_AUDIO
 import com.twilio.video.app.sdk.RoomManager
 import com.twilio.video.app.ui.room.RoomViewConfiguration.Connecting
 import com.twilio.video.app.ui.room.RoomViewConfiguration.Lobby
@@ -73,14 +83,19 @@ import com.twilio.video.app.ui.room.RoomViewEvent.DisableLocalVideo
 import com.twilio.video.app.ui.room.RoomViewEvent.Disconnect
 import com.twilio.video.app.ui.room.RoomViewEvent.EnableLocalAudio
 import com.twilio.video.app.ui.room.RoomViewEvent.EnableLocalVideo
+import com.twilio.video.app.ui.room.RoomViewEvent.GridColumnsChanged
+import com.twilio.video.app.ui.room.RoomViewEvent.GridPageChanged
 import com.twilio.video.app.ui.room.RoomViewEvent.OnPause
 import com.twilio.video.app.ui.room.RoomViewEvent.OnResume
+import com.twilio.video.app.ui.room.RoomViewEvent.RenderSizeChanged
 import com.twilio.video.app.ui.room.RoomViewEvent.SelectAudioDevice
 import com.twilio.video.app.ui.room.RoomViewEvent.StartScreenCapture
+import com.twilio.video.app.ui.room.RoomViewEvent.StatsVisibilityChanged
 import com.twilio.video.app.ui.room.RoomViewEvent.StopScreenCapture
 import com.twilio.video.app.ui.room.RoomViewEvent.SwitchCamera
 import com.twilio.video.app.ui.room.RoomViewEvent.ToggleLocalAudio
 import com.twilio.video.app.ui.room.RoomViewEvent.ToggleLocalVideo
+import com.twilio.video.app.ui.room.RoomViewEvent.VisibleParticipantsChanged
 import com.twilio.video.app.ui.room.RoomViewModel.RoomViewModelFactory
 import com.twilio.video.app.ui.settings.SettingsActivity
 import com.twilio.video.app.util.InputUtils
@@ -102,6 +117,7 @@ class RoomActivity : BaseActivity() {
     private var displayName: String? = null
     private var localParticipantSid = LOCAL_PARTICIPANT_STUB_SID
     private lateinit var statsListAdapter: StatsListAdapter
+    private lateinit var roomViewStateRenderer: RoomViewStateRenderer
 
     @Inject
     lateinit var tokenService: TokenService
@@ -118,6 +134,10 @@ class RoomActivity : BaseActivity() {
     /** Coordinates participant thumbs and primary participant rendering.  */
     private lateinit var primaryParticipantController: PrimaryParticipantController
     private lateinit var participantAdapter: ParticipantAdapter
+    private lateinit var participantGridAdapter: ParticipantAdapter
+    private val participantViewMetrics = ParticipantViewMetrics()
+    private lateinit var participantViewPool: ParticipantViewPool
+    private var participantGridPage: ParticipantGridPage? = null
     private lateinit var roomViewModel: RoomViewModel
     private lateinit var recordingAnimation: ObjectAnimator
 
@@ -141,7 +161,10 @@ class RoomActivity : BaseActivity() {
         window.addFlags(WindowManager.LayoutParams.FLAG_TURN_SCREEN_ON)
 
         // Grab views
+        setupParticipantViewPool()
         setupThumbnailRecyclerView()
+        setupParticipantGrid()
+        setupStatsRecyclerView()
 
         // Setup toolbar
         setSupportActionBar(binding.toolbar)
@@ -150,7 +173,11 @@ class RoomActivity : BaseActivity() {
         savedVolumeControlStream = volumeControlStream
 
         // Setup participant controller
-        primaryParticipantController = PrimaryParticipantController(binding.room.primaryVideo)
+        primaryParticipantController = PrimaryParticipantController(
+                binding.room.primaryVideo, roomManager.frameTimings)
+        binding.room.primaryVideo.setOnRenderSizeChangedListener { width, height ->
+            roomManager.renderDimensionHints.updatePrimary(width, height)
+        }
 
         setupRecordingAnimation()
     }
@@ -158,6 +185,7 @@ class RoomActivity : BaseActivity() {
     override fun onDestroy() {
         super.onDestroy()
         recordingAnimation.cancel()
+        participantViewPool.cancelPrewarm()
     }
 
     override fun onStart() {
@@ -169,11 +197,20 @@ class RoomActivity : BaseActivity() {
         super.onResume()
         displayName = sharedPreferences.getString(Preferences.DISPLAY_NAME, null)
         setTitle(displayName)
+        updateRenderTimingOverlay()
+        updateRoomLayout()
+        // Settings such as stats gathering may have changed while the activity was paused
+        if (::roomViewStateRenderer.isInitialized) roomViewStateRenderer.invalidate()
         roomViewModel.processInput(OnResume)
+        // A restored drawer is open without notifying the drawer listener
+        roomViewModel.processInput(StatsVisibilityChanged(
+                binding.navigationDrawer.isDrawerOpen(GravityCompat.END)))
     }
 
     override fun onPause() {
         super.onPause()
+        // The room manager outlives the activity, so stop polling for a drawer nobody sees
+        roomViewModel.processInput(StatsVisibilityChanged(false))
         roomViewModel.processInput(OnPause)
     }
 
@@ -206,8 +243,16 @@ class RoomActivity : BaseActivity() {
         screenCaptureMenuItem = menu.findItem(R.id.share_screen_menu_item)
         deviceMenuItem = menu.findItem(R.id.device_menu_item)
 
+        // The menu items are new, so every slice has to be rendered again
+        roomViewStateRenderer = RoomViewStateRenderer(
+                ::updateLayout,
+                ::updateLocalMediaControls,
+                ::renderParticipants,
+                ::updateAudioRouting,
+                ::updateStatsUI,
+                ::updateQualityAlerts)
         onStates(roomViewModel) { state ->
-            if (state is RoomViewState) bindRoomViewState(state)
+            if (state is RoomViewState) roomViewStateRenderer.render(state)
         }
         onEvents(roomViewModel) { eventWrapper ->
             eventWrapper.take()?.let { event ->
@@ -305,16 +350,89 @@ class RoomActivity : BaseActivity() {
         return isAppLinkProvided
     }
 
+    private fun updateRenderTimingOverlay() {
+        val isEnabled = sharedPreferences.getBoolean(
+                Preferences.RENDER_TIMING_OVERLAY, Preferences.RENDER_TIMING_OVERLAY_DEFAULT)
+        participantAdapter.isRenderTimingOverlayEnabled = isEnabled
+        participantGridAdapter.isRenderTimingOverlayEnabled = isEnabled
+        binding.room.primaryVideo.setRenderTimingOverlayEnabled(isEnabled)
+    }
+
+    private fun updateRoomLayout() {
+        val columns = sharedPreferences.getString(
+                Preferences.ROOM_LAYOUT, Preferences.ROOM_LAYOUT_DEFAULT)?.toIntOrNull() ?: 0
+        roomViewModel.processInput(GridColumnsChanged(columns))
+    }
+
+    private fun setupParticipantViewPool() {
+        val displayMetrics = resources.displayMetrics
+        val maxGridColumns = resources.getStringArray(R.array.settings_screen_room_layout_values)
+                .maxOf { it.toInt() }
+        // Sized for the wider orientation, so rotating does not inflate another batch
+        participantViewPool = ParticipantViewPool(ParticipantViewPool.capacityFor(
+                maxOf(displayMetrics.widthPixels, displayMetrics.heightPixels),
+                resources.getDimensionPixelSize(R.dimen.thumbnail_slot_width),
+                resources.getDimensionPixelSize(R.dimen.thumbnail_sink_prefetch_margin),
+                maxGridColumns), participantViewMetrics)
+    }
+
     private fun setupThumbnailRecyclerView() {
         val layoutManager = LinearLayoutManager(this, LinearLayoutManager.HORIZONTAL, false)
         binding.room.remoteVideoThumbnails.layoutManager = layoutManager
-        participantAdapter = ParticipantAdapter()
+        binding.room.remoteVideoThumbnails.setRecycledViewPool(participantViewPool)
+        participantAdapter = ParticipantAdapter(roomManager.frameTimings, participantViewMetrics,
+                resources.getDimensionPixelSize(R.dimen.thumbnail_sink_prefetch_margin))
         participantAdapter
                 .viewHolderEvents
                 .observe(this, { viewEvent: RoomViewEvent -> roomViewModel.processInput(viewEvent) })
         binding.room.remoteVideoThumbnails.adapter = participantAdapter
     }
 
+    private fun setupParticipantGrid() {
+        val participantGrid = binding.room.participantGrid
+        participantGrid.layoutManager = GridLayoutManager(this, 1)
+        participantGrid.setRecycledViewPool(participantViewPool)
+        participantGridAdapter =
+                ParticipantAdapter(roomManager.frameTimings, participantViewMetrics, 0)
+        participantGridAdapter.viewHolderEvents.observe(this, { viewEvent: RoomViewEvent ->
+            // Track priorities and render sizes on the grid follow the page, not the thumbnails
+            if (viewEvent !is VisibleParticipantsChanged && viewEvent !is RenderSizeChanged) {
+                roomViewModel.processInput(viewEvent)
+            }
+        })
+        participantGrid.adapter = participantGridAdapter
+        participantGrid.addOnLayoutChangeListener { _, _, _, _, _, _, _, _, _ -> updateGridCellSize() }
+        binding.room.gridPreviousPage.setOnClickListener { changeGridPage(-1) }
+        binding.room.gridNextPage.setOnClickListener { changeGridPage(1) }
+    }
+
+    private fun changeGridPage(delta: Int) {
+        participantGridPage?.let { roomViewModel.processInput(GridPageChanged(it.page + delta)) }
+    }
+
+    private fun updateGridCellSize() {
+        val columns = participantGridPage?.columns ?: return
+        val participantGrid = binding.room.participantGrid
+        participantGridAdapter.setCellSize(
+                participantGrid.width / columns, participantGrid.height / columns)
+    }
+
+    private fun setupStatsRecyclerView() {
+        statsListAdapter = StatsListAdapter(this)
+        binding.statsRecyclerView.layoutManager = LinearLayoutManager(this)
+        binding.statsRecyclerView.adapter = statsListAdapter
+        // Stats are only polled at full rate while the drawer showing them is open
+        binding.navigationDrawer.addDrawerListener(object : DrawerLayout.SimpleDrawerListener() {
+            override fun onDrawerOpened(drawerView: View) {
+                roomViewModel.processInput(StatsVisibilityChanged(true))
+            }
+
+            override fun onDrawerClosed(drawerView: View) {
+                roomViewModel.processInput(StatsVisibilityChanged(false))
+            }
+        })
+    }
+
     private fun roomNameTextChanged(text: CharSequence?) {
         binding.joinRoom.connect.isEnabled = !TextUtils.isEmpty(text)
     }
@@ -354,7 +472,7 @@ class RoomActivity : BaseActivity() {
         }
     }
 
-    private fun updateLayout(roomViewState: RoomViewState) {
+    private fun updateLayout(roomStatus: RoomStatusViewState) {
         var disconnectButtonState = View.GONE
         var joinRoomLayoutState = View.VISIBLE
         var joinStatusLayoutState = View.GONE
@@ -367,7 +485,7 @@ class RoomActivity : BaseActivity() {
         var toolbarTitle = displayName
         var joinStatus = ""
         var recordingWarningVisibility = View.GONE
-        when (roomViewState.configuration) {
+        when (roomStatus.configuration) {
             Connecting -> {
                 disconnectButtonState = View.VISIBLE
                 joinRoomLayoutState = View.GONE
@@ -379,6 +497,9 @@ class RoomActivity : BaseActivity() {
                     roomName = roomEditable.toString()
                 }
                 joinStatus = "Joining..."
+                // Inflate the thumbnails before the participants already in the room show up
+                participantViewMetrics.onConnecting()
+                participantViewPool.prewarm(participantAdapter, binding.room.remoteVideoThumbnails)
             }
             RoomViewConfiguration.Connected -> {
                 disconnectButtonState = View.VISIBLE
@@ -387,30 +508,22 @@ class RoomActivity : BaseActivity() {
                 settingsMenuItemState = false
                 screenCaptureMenuItemState = true
                 connectButtonEnabled = false
-                roomName = roomViewState.title
+                roomName = roomStatus.title
                 toolbarTitle = roomName
                 joinStatus = ""
                 binding.recordingIndicator.visibility =
-                        if (roomViewState.isRecording) View.VISIBLE else View.GONE
+                        if (roomStatus.isRecording) View.VISIBLE else View.GONE
             }
             Lobby -> {
                 connectButtonEnabled = isRoomTextNotEmpty
                 screenCaptureMenuItemState = false
                 binding.recordingIndicator.visibility = View.GONE
+                if (participantViewMetrics.isInRoom) {
+                    Timber.d("Participant view metrics: %s", participantViewMetrics.metrics)
+                    participantViewMetrics.onLeftRoom()
+                }
             }
         }
-        val isMicEnabled = roomViewState.isMicEnabled
-        val isCameraEnabled = roomViewState.isCameraEnabled
-        val isLocalMediaEnabled = isMicEnabled && isCameraEnabled
-        binding.localAudio.isEnabled = isLocalMediaEnabled
-        binding.localVideo.isEnabled = isLocalMediaEnabled
-        val micDrawable = if (roomViewState.isAudioMuted || !isLocalMediaEnabled) R.drawable.ic_mic_off_gray_24px else R.drawable.ic_mic_white_24px
-        val videoDrawable = if (roomViewState.isVideoOff || !isLocalMediaEnabled) R.drawable.ic_videocam_off_gray_24px else R.drawable.ic_videocam_white_24px
-        binding.localAudio.setImageResource(micDrawable)
-        binding.localVideo.setImageResource(videoDrawable)
-        statsListAdapter = StatsListAdapter(this)
-        binding.statsRecyclerView.adapter = statsListAdapter
-        binding.statsRecyclerView.layoutManager = LinearLayoutManager(this)
         binding.disconnect.visibility = disconnectButtonState
         binding.joinRoom.joinRoomLayout.visibility = joinRoomLayoutState
         binding.joinStatusLayout.visibility = joinStatusLayoutState
@@ -419,16 +532,29 @@ class RoomActivity : BaseActivity() {
         binding.joinStatus.text = joinStatus
         binding.joinRoomName.text = roomName
         binding.recordingNotice.visibility = recordingWarningVisibility
-        val pauseAudioTitle = getString(if (roomViewState.isAudioEnabled) R.string.pause_audio else R.string.resume_audio)
-        val pauseVideoTitle = getString(if (roomViewState.isVideoEnabled) R.string.pause_video else R.string.resume_video)
-        pauseAudioMenuItem.title = pauseAudioTitle
-        pauseVideoMenuItem.title = pauseVideoTitle
 
         // TODO: Remove when we use a Service to obtainTokenAndConnect to a room
         settingsMenuItem.isVisible = settingsMenuItemState
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
             screenCaptureMenuItem.isVisible = screenCaptureMenuItemState
-            val screenCaptureResources = if (roomViewState.isScreenCaptureOn) {
+        }
+    }
+
+    private fun updateLocalMediaControls(localMedia: LocalMediaViewState) {
+        val isLocalMediaEnabled = localMedia.isMicEnabled && localMedia.isCameraEnabled
+        binding.localAudio.isEnabled = isLocalMediaEnabled
+        binding.localVideo.isEnabled = isLocalMediaEnabled
+        val micDrawable = if (localMedia.isAudioMuted || !isLocalMediaEnabled) R.drawable.ic_mic_off_gray_24px else R.drawable.ic_mic_white_24px
+        val videoDrawable = if (localMedia.isVideoOff || !isLocalMediaEnabled) R.drawable.ic_videocam_off_gray_24px else R.drawable.ic_videocam_white_24px
+        binding.localAudio.setImageResource(micDrawable)
+        binding.localVideo.setImageResource(videoDrawable)
+        val pauseAudioTitle = getString(if (localMedia.isAudioEnabled) R.string.pause_audio else R.string.resume_audio)
+        val pauseVideoTitle = getString(if (localMedia.isVideoEnabled) R.string.pause_video else R.string.resume_video)
+        pauseAudioMenuItem.title = pauseAudioTitle
+        pauseVideoMenuItem.title = pauseVideoTitle
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            val screenCaptureResources = if (localMedia.isScreenCaptureOn) {
                 R.drawable.ic_stop_screen_share_white_24dp to getString(R.string.stop_screen_share)
             } else {
                 R.drawable.ic_screen_share_white_24dp to getString(R.string.share_screen)
@@ -467,21 +593,18 @@ class RoomActivity : BaseActivity() {
                 mediaProjectionManager.createScreenCaptureIntent(), MEDIA_PROJECTION_REQUEST_CODE)
     }
 
-    private fun updateStatsUI(roomViewState: RoomViewState) {
+    private fun updateStatsUI(statsViewState: StatsViewState) {
         val enableStats = sharedPreferences.getBoolean(
                 Preferences.ENABLE_STATS, Preferences.ENABLE_STATS_DEFAULT)
         if (enableStats) {
-            when (roomViewState.configuration) {
+            when (statsViewState.configuration) {
                 RoomViewConfiguration.Connected -> {
-                    statsListAdapter.updateStatsData(roomViewState.roomStats)
+                    statsListAdapter.updateStatsData(statsViewState.roomStats)
                     binding.statsRecyclerView.visibility = View.VISIBLE
                     binding.statsDisabled.visibility = View.GONE
 
                     // disable stats if there is room but no participants (no media)
-                    val isStreamingMedia = roomViewState.participantThumbnails?.let { thumbnails ->
-                        thumbnails.size > 1
-                    } ?: false
-                    if (!isStreamingMedia) {
+                    if (!statsViewState.isStreamingMedia) {
                         binding.statsDisabledTitle.text = getString(R.string.stats_unavailable)
                         binding.statsDisabledDescription.text = getString(R.string.stats_description_media_not_shared)
                         binding.statsRecyclerView.visibility = View.GONE
@@ -503,19 +626,93 @@ class RoomActivity : BaseActivity() {
         }
     }
 
+    private fun updateQualityAlerts(alerts: QualityAlertsViewState) {
+        val lines = mutableListOf<String>()
+        when (alerts.captureDegradation.reason) {
+            CaptureDegradationReason.THERMAL ->
+                lines += getString(R.string.capture_degradation_thermal)
+            CaptureDegradationReason.BATTERY ->
+                lines += getString(R.string.capture_degradation_battery)
+            CaptureDegradationReason.NONE -> {}
+        }
+        // Local tracks raise the same alert together, so show one line per participant
+        alerts.qualityAlerts
+                .distinctBy { it.type to it.participantIdentity }
+                .mapTo(lines) { qualityAlertText(it) }
+        // A large room can raise an alert per participant, so summarize the lines that do not fit
+        if (lines.size > MAX_QUALITY_ALERT_LINES) {
+            val hiddenLineCount = lines.size - MAX_QUALITY_ALERT_LINES + 1
+            lines.subList(MAX_QUALITY_ALERT_LINES - 1, lines.size).clear()
+            lines += getString(R.string.quality_alert_more, hiddenLineCount)
+        }
+        if (alerts.configuration == RoomViewConfiguration.Connected && lines.isNotEmpty()) {
+            binding.qualityAlertBanner.text = lines.joinToString("\n")
+            binding.qualityAlertBanner.visibility = View.VISIBLE
+        } else {
+            binding.qualityAlertBanner.visibility = View.GONE
+        }
+    }
+
+    private fun qualityAlertText(alert: QualityAlert): String {
+        val identity = alert.participantIdentity
+        val participant = identity ?: getString(R.string.quality_alert_unknown_participant)
+        return when (alert.type) {
+            HIGH_RTT -> getString(R.string.quality_alert_high_rtt, alert.value.toInt())
+            HIGH_PACKET_LOSS -> if (identity == null) {
+                getString(R.string.quality_alert_local_packet_loss, alert.value)
+            } else {
+                getString(R.string.quality_alert_remote_packet_loss, identity, alert.value)
+            }
+            LOW_FRAME_RATE ->
+                getString(R.string.quality_alert_low_frame_rate, participant, alert.value.toInt())
+            SILENT_AUDIO -> getString(R.string.quality_alert_local_silent_audio)
+        }
+    }
+
     private fun toggleAudioDevice(enableAudioDevice: Boolean) {
         setVolumeControl(enableAudioDevice)
         val viewEvent = if (enableAudioDevice) ActivateAudioDevice else DeactivateAudioDevice
         roomViewModel.processInput(viewEvent)
     }
 
-    private fun bindRoomViewState(roomViewState: RoomViewState) {
-        deviceMenuItem.isVisible = roomViewState.availableAudioDevices?.isNotEmpty() ?: false
-        renderPrimaryView(roomViewState.primaryParticipant)
-        renderThumbnails(roomViewState)
-        updateLayout(roomViewState)
-        updateAudioDeviceIcon(roomViewState.selectedDevice)
-        updateStatsUI(roomViewState)
+    private fun renderParticipants(participants: ParticipantsViewState) {
+        val participantGrid = participants.participantGrid
+                .takeIf { participants.configuration is RoomViewConfiguration.Connected }
+        if (participantGrid != null) {
+            primaryParticipantController.release()
+            participantAdapter.submitList(null)
+            renderParticipantGrid(participantGrid)
+        } else {
+            participantGridPage = null
+            participantGridAdapter.submitList(null)
+            binding.room.participantGridLayout.visibility = View.GONE
+            binding.room.primaryVideo.visibility = View.VISIBLE
+            renderPrimaryView(participants.primaryParticipant)
+            renderThumbnails(participants)
+        }
+    }
+
+    private fun renderParticipantGrid(participantGrid: ParticipantGridPage) {
+        binding.room.primaryVideo.visibility = View.GONE
+        binding.room.participantGridLayout.visibility = View.VISIBLE
+        val columnsChanged = participantGrid.columns != participantGridPage?.columns
+        participantGridPage = participantGrid
+        if (columnsChanged) {
+            (binding.room.participantGrid.layoutManager as GridLayoutManager).spanCount =
+                    participantGrid.columns
+            updateGridCellSize()
+        }
+        participantGridAdapter.submitList(participantGrid.participants)
+        participantGrid.run {
+            binding.room.gridPage.text = getString(R.string.grid_page, page + 1, pageCount)
+            binding.room.gridPreviousPage.isEnabled = page > 0
+            binding.room.gridNextPage.isEnabled = page < pageCount - 1
+        }
+    }
+
+    private fun updateAudioRouting(audioRouting: AudioRoutingViewState) {
+        deviceMenuItem.isVisible = audioRouting.availableAudioDevices?.isNotEmpty() ?: false
+        updateAudioDeviceIcon(audioRouting.selectedDevice)
     }
 
     private fun bindRoomViewEffects(roomViewEffect: RoomViewEffect) {
@@ -574,9 +771,9 @@ class RoomActivity : BaseActivity() {
         }
     }
 
-    private fun renderThumbnails(roomViewState: RoomViewState) {
-        val newThumbnails = if (roomViewState.configuration is RoomViewConfiguration.Connected)
-            roomViewState.participantThumbnails else null
+    private fun renderThumbnails(participants: ParticipantsViewState) {
+        val newThumbnails = if (participants.configuration is RoomViewConfiguration.Connected)
+            participants.participantThumbnails else null
         participantAdapter.submitList(newThumbnails)
     }
 
@@ -631,6 +828,7 @@ class RoomActivity : BaseActivity() {
     companion object {
         private const val PERMISSIONS_REQUEST_CODE = 100
         private const val MEDIA_PROJECTION_REQUEST_CODE = 101
+        private const val MAX_QUALITY_ALERT_LINES = 3
 
         // This will be used instead of real local participant sid,
         // because that information is unknown until room connection is fully established
@@ -5,6 +5,8 @@ import com.twilio.video.Participant
 import com.twilio.video.Room
 import com.twilio.video.VideoTrack
 import com.twilio.video.app.data.api.AuthServiceError
+import com.twilio.video.app.sdk.CaptureDegradation
+import com.twilio.video.app.sdk.QualityAlert
 import com.twilio.video.app.sdk.RoomStats
 
 sealed class RoomEvent {
@@ -23,6 +25,9 @@ sealed class RoomEvent {
     data class TokenError(val serviceError: AuthServiceError? = null) : RoomEvent()
     data class DominantSpeakerChanged(val newDominantSpeakerSid: String?) : RoomEvent()
     data class StatsUpdate(val roomStats: RoomStats) : RoomEvent()
+    data class QualityAlertRaised(val alert: QualityAlert) : RoomEvent()
+    data class QualityAlertCleared(val alert: QualityAlert) : RoomEvent()
+    data class CaptureDegradationChanged(val degradation: CaptureDegradation) : RoomEvent()
 
     sealed class RemoteParticipantEvent : RoomEvent() {
 
@@ -0,0 +1,94 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.app.ui.room.RoomEvent.DominantSpeakerChanged
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.MuteRemoteParticipant
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.NetworkQualityLevelChange
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.ScreenTrackUpdated
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.TrackSwitchOff
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.VideoTrackUpdated
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.channelFlow
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.launch
+
+/** Roughly one frame at 60 fps. */
+const val PARTICIPANT_EVENT_WINDOW_MILLIS = 16L
+
+internal val RoomEvent.isParticipantEvent: Boolean
+    get() = this is RemoteParticipantEvent || this is DominantSpeakerChanged
+
+/**
+ * Groups consecutive participant events into batches so they can be applied to the
+ * participant state at once and produce a single view state.
+ *
+ * When a participant event arrives, collection waits for [windowMillis] and then drains every
+ * participant event that was queued in the meantime. A window of zero only drains the events that
+ * are already queued. Any other [RoomEvent] ends the current batch and is emitted on its own, so
+ * the overall event order is preserved. Redundant events within a batch are merged with
+ * [mergeRedundantEvents].
+ */
+internal fun Flow<RoomEvent>.coalesceParticipantEvents(windowMillis: Long): Flow<List<RoomEvent>> =
+        channelFlow {
+            val pendingEvents = Channel<RoomEvent>(Channel.UNLIMITED)
+            launch {
+                this@coalesceParticipantEvents.collect { pendingEvents.send(it) }
+                pendingEvents.close()
+            }
+
+            for (roomEvent in pendingEvents) {
+                if (!roomEvent.isParticipantEvent) {
+                    send(listOf(roomEvent))
+                    continue
+                }
+                if (windowMillis > 0) delay(windowMillis)
+
+                val batch = mutableListOf(roomEvent)
+                var nonParticipantEvent: RoomEvent? = null
+                while (nonParticipantEvent == null) {
+                    val nextEvent = pendingEvents.poll() ?: break
+                    if (nextEvent.isParticipantEvent) batch.add(nextEvent) else nonParticipantEvent = nextEvent
+                }
+                send(mergeRedundantEvents(batch))
+                nonParticipantEvent?.let { send(listOf(it)) }
+            }
+        }
+
+/**
+ * Drops the participant events that are superseded by a later event updating the same
+ * participant property, such as repeated mute toggles, repeated network quality levels or track
+ * switch off and on pairs. The remaining events keep their relative order.
+ *
+ * Dominant speaker changes are never merged since each one also reorders the thumbnails.
+ */
+internal fun mergeRedundantEvents(roomEvents: List<RoomEvent>): List<RoomEvent> {
+    if (roomEvents.size < 2) return roomEvents
+
+    val updatedProperties = HashSet<ParticipantProperty>()
+    val mergedEvents = ArrayList<RoomEvent>(roomEvents.size)
+    for (index in roomEvents.indices.reversed()) {
+        val roomEvent = roomEvents[index]
+        val property = roomEvent.updatedProperty()
+        if (property == null || updatedProperties.add(property)) mergedEvents.add(roomEvent)
+    }
+    mergedEvents.reverse()
+    return mergedEvents
+}
+
+/** The participant property this event sets, null if it is not a property update. */
+internal fun RoomEvent.updatedProperty(): ParticipantProperty? =
+        when (this) {
+            is MuteRemoteParticipant -> ParticipantProperty(sid, ParticipantProperty.Field.MUTE)
+            is NetworkQualityLevelChange ->
+                ParticipantProperty(sid, ParticipantProperty.Field.NETWORK_QUALITY)
+            is VideoTrackUpdated -> ParticipantProperty(sid, ParticipantProperty.Field.VIDEO_TRACK)
+            is TrackSwitchOff -> ParticipantProperty(sid, ParticipantProperty.Field.VIDEO_TRACK)
+            is ScreenTrackUpdated -> ParticipantProperty(sid, ParticipantProperty.Field.SCREEN_TRACK)
+            else -> null
+        }
+
+internal data class ParticipantProperty(val sid: String, val field: Field) {
+    enum class Field { MUTE, NETWORK_QUALITY, VIDEO_TRACK, SCREEN_TRACK }
+}
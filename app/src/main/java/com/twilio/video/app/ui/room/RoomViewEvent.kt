@@ -22,5 +22,10 @@ sealed class RoomViewEvent {
     data class PinParticipant(val sid: String) : RoomViewEvent()
     data class VideoTrackRemoved(val sid: String) : RoomViewEvent()
     data class ScreenTrackRemoved(val sid: String) : RoomViewEvent()
+    data class StatsVisibilityChanged(val isVisible: Boolean) : RoomViewEvent()
+    data class VisibleParticipantsChanged(val sids: Set<String>) : RoomViewEvent()
+    data class GridColumnsChanged(val columns: Int) : RoomViewEvent()
+    data class GridPageChanged(val page: Int) : RoomViewEvent()
+    data class RenderSizeChanged(val sid: String, val width: Int, val height: Int) : RoomViewEvent()
     object Disconnect : RoomViewEvent()
 }
@@ -13,6 +13,7 @@ import com.twilio.video.app.participant.ParticipantManager
 import com.twilio.video.app.participant.buildParticipantViewState
 import com.twilio.video.app.sdk.RoomManager
 import com.twilio.video.app.sdk.VideoTrackViewState
+import com.twilio.video.app.ui.room.RoomEvent.CaptureDegradationChanged
 import com.twilio.video.app.ui.room.RoomEvent.ConnectFailure
 import com.twilio.video.app.ui.room.RoomEvent.Connected
 import com.twilio.video.app.ui.room.RoomEvent.Connecting
@@ -28,16 +29,12 @@ import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.ScreenCaptur
 import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.VideoDisabled
 import com.twilio.video.app.ui.room.RoomEvent.LocalParticipantEvent.VideoEnabled
 import com.twilio.video.app.ui.room.RoomEvent.MaxParticipantFailure
+import com.twilio.video.app.ui.room.RoomEvent.QualityAlertCleared
+import com.twilio.video.app.ui.room.RoomEvent.QualityAlertRaised
 import com.twilio.video.app.ui.room.RoomEvent.RecordingStarted
 import com.twilio.video.app.ui.room.RoomEvent.RecordingStopped
-import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent
-import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.MuteRemoteParticipant
-import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.NetworkQualityLevelChange
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParticipantConnected
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParticipantDisconnected
-import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.ScreenTrackUpdated
-import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.TrackSwitchOff
-import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.VideoTrackUpdated
 import com.twilio.video.app.ui.room.RoomEvent.StatsUpdate
 import com.twilio.video.app.ui.room.RoomEvent.TokenError
 import com.twilio.video.app.ui.room.RoomViewConfiguration.Lobby
@@ -53,35 +50,54 @@ import com.twilio.video.app.ui.room.RoomViewEvent.DisableLocalVideo
 import com.twilio.video.app.ui.room.RoomViewEvent.Disconnect
 import com.twilio.video.app.ui.room.RoomViewEvent.EnableLocalAudio
 import com.twilio.video.app.ui.room.RoomViewEvent.EnableLocalVideo
+import com.twilio.video.app.ui.room.RoomViewEvent.GridColumnsChanged
+import com.twilio.video.app.ui.room.RoomViewEvent.GridPageChanged
 import com.twilio.video.app.ui.room.RoomViewEvent.OnPause
 import com.twilio.video.app.ui.room.RoomViewEvent.OnResume
 import com.twilio.video.app.ui.room.RoomViewEvent.PinParticipant
+import com.twilio.video.app.ui.room.RoomViewEvent.RenderSizeChanged
 import com.twilio.video.app.ui.room.RoomViewEvent.ScreenTrackRemoved
 import com.twilio.video.app.ui.room.RoomViewEvent.SelectAudioDevice
 import com.twilio.video.app.ui.room.RoomViewEvent.StartScreenCapture
+import com.twilio.video.app.ui.room.RoomViewEvent.StatsVisibilityChanged
 import com.twilio.video.app.ui.room.RoomViewEvent.StopScreenCapture
 import com.twilio.video.app.ui.room.RoomViewEvent.SwitchCamera
 import com.twilio.video.app.ui.room.RoomViewEvent.ToggleLocalAudio
 import com.twilio.video.app.ui.room.RoomViewEvent.ToggleLocalVideo
 import com.twilio.video.app.ui.room.RoomViewEvent.VideoTrackRemoved
+import com.twilio.video.app.ui.room.RoomViewEvent.VisibleParticipantsChanged
 import com.twilio.video.app.util.PermissionUtil
 import io.uniflow.androidx.flow.AndroidDataFlow
 import io.uniflow.core.flow.actionOn
 import io.uniflow.core.flow.data.UIState
+import io.uniflow.core.threading.onDefault
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.delay
 import kotlinx.coroutines.flow.collect
 import kotlinx.coroutines.launch
 import timber.log.Timber
 
+/**
+ * How long the visible thumbnails and their render sizes have to stay the same before track
+ * priorities follow them.
+ */
+const val VISIBLE_PARTICIPANTS_DEBOUNCE_MILLIS = 300L
+
 class RoomViewModel(
     private val roomManager: RoomManager,
     private val audioSwitch: AudioSwitch,
     private val permissionUtil: PermissionUtil,
     private val participantManager: ParticipantManager = ParticipantManager(),
-    initialViewState: RoomViewState = RoomViewState(participantManager.primaryParticipant)
+    initialViewState: RoomViewState = RoomViewState(participantManager.primaryParticipant),
+    private val participantEventWindowMillis: Long = 0,
+    private val visibleParticipantsDebounceMillis: Long = 0
 ) : AndroidDataFlow(defaultState = initialViewState) {
 
     private var permissionCheckRetry = false
+    private var visibleParticipantsJob: Job? = null
+    private val pendingRenderSizes = HashMap<String, RenderSizeChanged>()
+    private var renderSizeJob: Job? = null
+    private val participantEventReducer = ParticipantEventReducer()
     @VisibleForTesting(otherwise = PRIVATE)
     internal var roomManagerJob: Job? = null
 
@@ -143,15 +159,57 @@ class RoomViewModel(
                 participantManager.updateParticipantScreenTrack(viewEvent.sid, null)
                 updateParticipantViewState()
             }
+            is StatsVisibilityChanged -> roomManager.setStatsVisible(viewEvent.isVisible)
+            is VisibleParticipantsChanged -> updateVisibleParticipants(viewEvent.sids)
+            is RenderSizeChanged -> updateRenderSize(viewEvent)
+            is GridColumnsChanged -> {
+                participantManager.setGridColumns(viewEvent.columns)
+                updateParticipantViewState()
+            }
+            is GridPageChanged -> {
+                participantManager.changeGridPage(viewEvent.page)
+                updateParticipantViewState()
+            }
             Disconnect -> roomManager.disconnect()
         }
     }
 
+    /*
+     * Track priorities only follow the thumbnails once the list settled, so a fast scroll does
+     * not flip the priority of every track it passes.
+     */
+    private fun updateVisibleParticipants(sids: Set<String>) {
+        visibleParticipantsJob?.cancel()
+        visibleParticipantsJob = viewModelScope.launch {
+            delay(visibleParticipantsDebounceMillis)
+            participantManager.setVisibleParticipants(sids)
+        }
+    }
+
+    /*
+     * A layout pass reports the size of every thumbnail it resizes, so only the last size of each
+     * participant is applied once the layout settled.
+     */
+    private fun updateRenderSize(renderSize: RenderSizeChanged) {
+        pendingRenderSizes[renderSize.sid] = renderSize
+        renderSizeJob?.cancel()
+        renderSizeJob = viewModelScope.launch {
+            delay(visibleParticipantsDebounceMillis)
+            pendingRenderSizes.values.forEach { pendingRenderSize ->
+                val priority = roomManager.renderDimensionHints.updateThumbnail(
+                        pendingRenderSize.sid, pendingRenderSize.width, pendingRenderSize.height)
+                participantManager.setRenderPriority(pendingRenderSize.sid, priority)
+            }
+            pendingRenderSizes.clear()
+        }
+    }
+
     private fun subscribeToRoomEvents() {
         roomManager.roomEvents.let { sharedFlow ->
             roomManagerJob = viewModelScope.launch {
                 Timber.d("Listening for RoomEvents")
-                sharedFlow.collect { observeRoomEvents(it) }
+                sharedFlow.coalesceParticipantEvents(participantEventWindowMillis)
+                        .collect { observeRoomEvents(it) }
             }
         }
     }
@@ -177,8 +235,17 @@ class RoomViewModel(
         }
     }
 
-    private fun observeRoomEvents(roomEvent: RoomEvent) {
-        Timber.d("observeRoomEvents: %s", roomEvent)
+    private suspend fun observeRoomEvents(roomEvents: List<RoomEvent>) {
+        Timber.d("observeRoomEvents: %s", roomEvents)
+        if (roomEvents.all { it.isParticipantEvent }) {
+            handleParticipantEvents(roomEvents)
+            updateParticipantViewState()
+        } else {
+            roomEvents.forEach { observeRoomEvent(it) }
+        }
+    }
+
+    private fun observeRoomEvent(roomEvent: RoomEvent) {
         when (roomEvent) {
             is Connecting -> {
                 showConnectingViewState()
@@ -189,10 +256,6 @@ class RoomViewModel(
                 action { sendEvent { RoomViewEffect.Connected(roomEvent.room) } }
             }
             is Disconnected -> showLobbyViewState()
-            is DominantSpeakerChanged -> {
-                participantManager.changeDominantSpeaker(roomEvent.newDominantSpeakerSid)
-                updateParticipantViewState()
-            }
             is ConnectFailure -> action {
                 sendEvent {
                     showLobbyViewState()
@@ -211,44 +274,60 @@ class RoomViewModel(
             }
             RecordingStarted -> setState { it.copy(isRecording = true) }
             RecordingStopped -> setState { it.copy(isRecording = false) }
-            is RemoteParticipantEvent -> handleRemoteParticipantEvent(roomEvent)
             is LocalParticipantEvent -> handleLocalParticipantEvent(roomEvent)
             is StatsUpdate -> setState { it.copy(roomStats = roomEvent.roomStats) }
+            is QualityAlertRaised ->
+                setState { it.copy(qualityAlerts = it.qualityAlerts + roomEvent.alert) }
+            is QualityAlertCleared ->
+                setState { it.copy(qualityAlerts = it.qualityAlerts - roomEvent.alert) }
+            is CaptureDegradationChanged ->
+                setState { it.copy(captureDegradation = roomEvent.degradation) }
         }
     }
 
-    private fun handleRemoteParticipantEvent(remoteParticipantEvent: RemoteParticipantEvent) {
-        when (remoteParticipantEvent) {
-            is RemoteParticipantConnected -> addParticipant(remoteParticipantEvent.participant)
-            is VideoTrackUpdated -> {
-                participantManager.updateParticipantVideoTrack(remoteParticipantEvent.sid,
-                        remoteParticipantEvent.videoTrack?.let { VideoTrackViewState(it) })
-                updateParticipantViewState()
-            }
-            is TrackSwitchOff -> {
-                participantManager.updateParticipantVideoTrack(remoteParticipantEvent.sid,
-                        VideoTrackViewState(remoteParticipantEvent.videoTrack,
-                                remoteParticipantEvent.switchOff))
-                updateParticipantViewState()
-            }
-            is ScreenTrackUpdated -> {
-                participantManager.updateParticipantScreenTrack(remoteParticipantEvent.sid,
-                        remoteParticipantEvent.screenTrack?.let { VideoTrackViewState(it) })
-                updateParticipantViewState()
-            }
-            is MuteRemoteParticipant -> {
-                participantManager.muteParticipant(remoteParticipantEvent.sid,
-                        remoteParticipantEvent.mute)
-                updateParticipantViewState()
-            }
-            is NetworkQualityLevelChange -> {
-                participantManager.updateNetworkQuality(remoteParticipantEvent.sid,
-                        remoteParticipantEvent.networkQualityLevel)
-                updateParticipantViewState()
+    /*
+     * Applies a batch of participant events to the participant manager only. The caller publishes
+     * the resulting view state once for the whole batch.
+     *
+     * Runs of property events are reduced into one update per participant, off the main thread
+     * once a run is large enough to be sharded. Participants joining, leaving or becoming the
+     * dominant speaker change the thumbnail order, so they are applied in place and end the
+     * current run. Applying the updates stays on the main thread and costs O(k log n) for the k
+     * participants a batch changes out of n, however many events were folded into them.
+     */
+    private suspend fun handleParticipantEvents(participantEvents: List<RoomEvent>) {
+        val propertyEvents = mutableListOf<RoomEvent>()
+        participantEvents.forEach { participantEvent ->
+            if (participantEvent.isParticipantPropertyEvent) {
+                propertyEvents.add(participantEvent)
+            } else {
+                applyPropertyEvents(propertyEvents)
+                propertyEvents.clear()
+                handleMembershipEvent(participantEvent)
             }
+        }
+        applyPropertyEvents(propertyEvents)
+    }
+
+    private suspend fun applyPropertyEvents(propertyEvents: List<RoomEvent>) {
+        if (propertyEvents.isEmpty()) return
+        val updates = if (participantEventReducer.isSharded(propertyEvents.size)) {
+            onDefault { participantEventReducer.reduce(propertyEvents) }
+        } else {
+            participantEventReducer.reduce(propertyEvents)
+        }
+        participantManager.applyUpdates(updates)
+    }
+
+    private fun handleMembershipEvent(participantEvent: RoomEvent) {
+        when (participantEvent) {
+            is DominantSpeakerChanged ->
+                participantManager.changeDominantSpeaker(participantEvent.newDominantSpeakerSid)
+            is RemoteParticipantConnected -> participantManager.addParticipant(
+                    buildParticipantViewState(participantEvent.participant))
             is RemoteParticipantDisconnected -> {
-                participantManager.removeParticipant(remoteParticipantEvent.sid)
-                updateParticipantViewState()
+                participantManager.removeParticipant(participantEvent.sid)
+                roomManager.renderDimensionHints.removeParticipant(participantEvent.sid)
             }
         }
     }
@@ -272,16 +351,10 @@ class RoomViewModel(
         }
     }
 
-    private fun addParticipant(participant: Participant) {
-        val participantViewState = buildParticipantViewState(participant)
-        participantManager.addParticipant(participantViewState)
-        updateParticipantViewState()
-    }
-
     private fun showLobbyViewState() {
         action { sendEvent { RoomViewEffect.Disconnected } }
         setState {
-            it.copy(configuration = Lobby)
+            it.copy(configuration = Lobby, qualityAlerts = emptyList())
         }
         participantManager.clearRemoteParticipants()
         updateParticipantViewState()
@@ -311,11 +384,25 @@ class RoomViewModel(
     }
 
     private fun updateParticipantViewState() {
-        setState {
-            it.copy(
-                    participantThumbnails = participantManager.participantThumbnails,
-                    primaryParticipant = participantManager.primaryParticipant
-            )
+        actionOn<RoomViewState> { currentState ->
+            val participantThumbnails = participantManager.participantThumbnails
+            val primaryParticipant = participantManager.primaryParticipant
+            val participantGrid = participantManager.participantGridPage
+            /*
+             * Participant snapshots are immutable and shared, so an identical reference means the
+             * participant list has not changed since the last emitted view state.
+             */
+            if (participantThumbnails !== currentState.participantThumbnails ||
+                    primaryParticipant !== currentState.primaryParticipant ||
+                    participantGrid !== currentState.participantGrid) {
+                setState {
+                    currentState.copy(
+                            participantThumbnails = participantThumbnails,
+                            primaryParticipant = primaryParticipant,
+                            participantGrid = participantGrid
+                    )
+                }
+            }
         }
     }
 
@@ -337,7 +424,12 @@ class RoomViewModel(
     ) : ViewModelProvider.Factory {
 
         override fun <T : ViewModel> create(modelClass: Class<T>): T {
-            return RoomViewModel(roomManager, audioDeviceSelector, permissionUtil) as T
+            return RoomViewModel(
+                    roomManager,
+                    audioDeviceSelector,
+                    permissionUtil,
+                    participantEventWindowMillis = PARTICIPANT_EVENT_WINDOW_MILLIS,
+                    visibleParticipantsDebounceMillis = VISIBLE_PARTICIPANTS_DEBOUNCE_MILLIS) as T
         }
     }
 }
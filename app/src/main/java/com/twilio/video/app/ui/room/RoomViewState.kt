@@ -1,7 +1,10 @@
 package com.twilio.video.app.ui.room
 
 import com.twilio.audioswitch.AudioDevice
+import com.twilio.video.app.participant.ParticipantGridPage
 import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.sdk.CaptureDegradation
+import com.twilio.video.app.sdk.QualityAlert
 import com.twilio.video.app.sdk.RoomStats
 import com.twilio.video.app.sdk.VideoTrackViewState
 import com.twilio.video.app.ui.room.RoomViewConfiguration.Lobby
@@ -11,6 +14,7 @@ data class RoomViewState(
     val primaryParticipant: ParticipantViewState,
     val title: String? = null,
     val participantThumbnails: List<ParticipantViewState>? = null,
+    val participantGrid: ParticipantGridPage? = null,
     val selectedDevice: AudioDevice? = null,
     val availableAudioDevices: List<AudioDevice>? = null,
     val configuration: RoomViewConfiguration = Lobby,
@@ -23,7 +27,9 @@ data class RoomViewState(
     val isVideoOff: Boolean = false,
     val isScreenCaptureOn: Boolean = false,
     val isRecording: Boolean = false,
-    val roomStats: RoomStats? = null
+    val roomStats: RoomStats? = null,
+    val qualityAlerts: List<QualityAlert> = emptyList(),
+    val captureDegradation: CaptureDegradation = CaptureDegradation.NONE
 ) : UIState()
 
 sealed class RoomViewConfiguration {
@@ -0,0 +1,57 @@
+package com.twilio.video.app.ui.room
+
+/**
+ * Renders a [RoomViewState] slice by slice. Every slice is distinct until changed: its renderer
+ * only runs for the first state and whenever the slice differs from the last rendered one. A
+ * stats update for example only re-renders the stats without touching the participant views.
+ *
+ * Slices are rendered in declaration order, room status first.
+ */
+class RoomViewStateRenderer(
+    renderRoomStatus: (RoomStatusViewState) -> Unit,
+    renderLocalMedia: (LocalMediaViewState) -> Unit,
+    renderParticipants: (ParticipantsViewState) -> Unit,
+    renderAudioRouting: (AudioRoutingViewState) -> Unit,
+    renderStats: (StatsViewState) -> Unit,
+    renderAlerts: (QualityAlertsViewState) -> Unit
+) {
+
+    private val slices = listOf(
+            Slice({ it.roomStatus }, renderRoomStatus),
+            Slice({ it.localMedia }, renderLocalMedia),
+            Slice({ it.participants }, renderParticipants),
+            Slice({ it.audioRouting }, renderAudioRouting),
+            Slice({ it.stats }, renderStats),
+            Slice({ it.alerts }, renderAlerts)
+    )
+
+    fun render(roomViewState: RoomViewState) {
+        slices.forEach { it.render(roomViewState) }
+    }
+
+    /** Renders every slice again with the next state, even if it is unchanged. */
+    fun invalidate() {
+        slices.forEach { it.invalidate() }
+    }
+
+    private class Slice<T>(
+        private val select: (RoomViewState) -> T,
+        private val render: (T) -> Unit
+    ) {
+        private var isRendered = false
+        private var lastSlice: T? = null
+
+        fun render(roomViewState: RoomViewState) {
+            val slice = select(roomViewState)
+            if (!isRendered || slice != lastSlice) {
+                isRendered = true
+                lastSlice = slice
+                render(slice)
+            }
+        }
+
+        fun invalidate() {
+            isRendered = false
+        }
+    }
+}
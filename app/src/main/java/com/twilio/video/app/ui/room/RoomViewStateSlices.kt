@@ -0,0 +1,81 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.audioswitch.AudioDevice
+import com.twilio.video.app.participant.ParticipantGridPage
+import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.sdk.CaptureDegradation
+import com.twilio.video.app.sdk.QualityAlert
+import com.twilio.video.app.sdk.RoomStats
+
+/*
+ * Slices of RoomViewState that are rendered independently of each other. Each slice only holds
+ * the properties its part of the screen depends on, so comparing two slices tells whether that
+ * part of the screen needs to be rendered again.
+ */
+
+data class RoomStatusViewState(
+    val configuration: RoomViewConfiguration,
+    val title: String?,
+    val isRecording: Boolean
+)
+
+data class LocalMediaViewState(
+    val isCameraEnabled: Boolean,
+    val isMicEnabled: Boolean,
+    val isAudioMuted: Boolean,
+    val isAudioEnabled: Boolean,
+    val isVideoEnabled: Boolean,
+    val isVideoOff: Boolean,
+    val isScreenCaptureOn: Boolean
+)
+
+data class ParticipantsViewState(
+    val configuration: RoomViewConfiguration,
+    val primaryParticipant: ParticipantViewState,
+    val participantThumbnails: List<ParticipantViewState>?,
+    val participantGrid: ParticipantGridPage?
+)
+
+data class AudioRoutingViewState(
+    val selectedDevice: AudioDevice?,
+    val availableAudioDevices: List<AudioDevice>?
+)
+
+data class StatsViewState(
+    val configuration: RoomViewConfiguration,
+    val roomStats: RoomStats?,
+    val isStreamingMedia: Boolean
+)
+
+data class QualityAlertsViewState(
+    val configuration: RoomViewConfiguration,
+    val qualityAlerts: List<QualityAlert>,
+    val captureDegradation: CaptureDegradation
+)
+
+val RoomViewState.roomStatus: RoomStatusViewState
+    get() = RoomStatusViewState(configuration, title, isRecording)
+
+val RoomViewState.localMedia: LocalMediaViewState
+    get() = LocalMediaViewState(
+            isCameraEnabled,
+            isMicEnabled,
+            isAudioMuted,
+            isAudioEnabled,
+            isVideoEnabled,
+            isVideoOff,
+            isScreenCaptureOn)
+
+val RoomViewState.participants: ParticipantsViewState
+    get() = ParticipantsViewState(
+            configuration, primaryParticipant, participantThumbnails, participantGrid)
+
+val RoomViewState.audioRouting: AudioRoutingViewState
+    get() = AudioRoutingViewState(selectedDevice, availableAudioDevices)
+
+val RoomViewState.stats: StatsViewState
+    // Stats are only available when there is a remote participant to exchange media with
+    get() = StatsViewState(configuration, roomStats, (participantThumbnails?.size ?: 0) > 1)
+
+val RoomViewState.alerts: QualityAlertsViewState
+    get() = QualityAlertsViewState(configuration, qualityAlerts, captureDegradation)
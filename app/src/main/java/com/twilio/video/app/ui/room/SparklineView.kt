@@ -0,0 +1,64 @@
+package com.twilio.video.app.ui.room
+
+import android.content.Context
+import android.graphics.Canvas
+import android.graphics.Paint
+import android.graphics.Path
+import android.util.AttributeSet
+import android.view.View
+import androidx.core.content.ContextCompat
+import com.twilio.video.app.R
+
+/**
+ * Draws a series of values as a line scaled between its minimum and maximum. The values are copied
+ * into a buffer of the view and the path and paint are reused, so neither updating nor drawing
+ * allocates once the buffer is large enough.
+ */
+class SparklineView @JvmOverloads constructor(
+    context: Context,
+    attrs: AttributeSet? = null,
+    defStyleAttr: Int = 0
+) : View(context, attrs, defStyleAttr) {
+
+    private val paint = Paint(Paint.ANTI_ALIAS_FLAG).apply {
+        style = Paint.Style.STROKE
+        strokeWidth = resources.displayMetrics.density * STROKE_WIDTH_DP
+        color = ContextCompat.getColor(context, R.color.colorFadedRed)
+    }
+    private val path = Path()
+    private var values = LongArray(0)
+    private var count = 0
+
+    /** Shows the first [count] entries of [values]. */
+    fun setValues(values: LongArray, count: Int) {
+        if (this.values.size < count) this.values = LongArray(count)
+        System.arraycopy(values, 0, this.values, 0, count)
+        this.count = count
+        invalidate()
+    }
+
+    override fun onDraw(canvas: Canvas) {
+        if (count < 2) return
+        var min = Long.MAX_VALUE
+        var max = Long.MIN_VALUE
+        for (index in 0 until count) {
+            min = minOf(min, values[index])
+            max = maxOf(max, values[index])
+        }
+        val range = (max - min).coerceAtLeast(1).toFloat()
+        val drawWidth = (width - paddingLeft - paddingRight).toFloat()
+        val drawHeight = (height - paddingTop - paddingBottom).toFloat()
+        val step = drawWidth / (count - 1)
+        path.rewind()
+        for (index in 0 until count) {
+            val x = paddingLeft + index * step
+            val y = paddingTop + drawHeight - (values[index] - min) / range * drawHeight
+            if (index == 0) path.moveTo(x, y) else path.lineTo(x, y)
+        }
+        canvas.drawPath(path, paint)
+    }
+
+    companion object {
+        private const val STROKE_WIDTH_DP = 1.5f
+    }
+}
@@ -1,9 +1,14 @@
 package com.twilio.video.app.ui.settings
 
+import android.content.Intent
 import android.os.Bundle
+import androidx.core.content.FileProvider
+import androidx.lifecycle.lifecycleScope
 import androidx.preference.EditTextPreference
 import androidx.preference.ListPreference
 import androidx.preference.Preference
+import com.google.android.material.snackbar.BaseTransientBottomBar
+import com.google.android.material.snackbar.Snackbar
 import com.twilio.video.AudioCodec
 import com.twilio.video.G722Codec
 import com.twilio.video.H264Codec
@@ -14,11 +19,18 @@ import com.twilio.video.PcmuCodec
 import com.twilio.video.VideoCodec
 import com.twilio.video.Vp8Codec
 import com.twilio.video.Vp9Codec
+import com.twilio.video.app.BuildConfig
 import com.twilio.video.app.R
 import com.twilio.video.app.data.Preferences
 import com.twilio.video.app.data.Preferences.VIDEO_CAPTURE_RESOLUTION
 import com.twilio.video.app.data.Preferences.VIDEO_DIMENSIONS
+import com.twilio.video.app.sdk.CALL_QUALITY_LOG_DIRECTORY
+import com.twilio.video.app.sdk.CallQualityExporter
 import com.twilio.video.app.util.isInternalFlavor
+import java.io.File
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 
 class AdvancedSettingsFragment : BaseSettingsFragment() {
 
@@ -45,6 +57,11 @@ class AdvancedSettingsFragment : BaseSettingsFragment() {
             }
         }
 
+        setNumberPreferenceValue(Preferences.CALL_QUALITY_LOG_BUDGET,
+                Preferences.CALL_QUALITY_LOG_BUDGET_DEFAULT)
+        findPreference<Preference>(Preferences.CALL_QUALITY_EXPORT)?.onPreferenceClickListener =
+                Preference.OnPreferenceClickListener { shareCallQualityLogs(); true }
+
         setupCodecListPreference(
                 VideoCodec::class.java,
                 Preferences.VIDEO_CODEC,
@@ -67,6 +84,35 @@ class AdvancedSettingsFragment : BaseSettingsFragment() {
         }
     }
 
+    /*
+     * Exports the recorded calls off the main thread and shares the CSV and JSON files through
+     * the file provider.
+     */
+    private fun shareCallQualityLogs() {
+        val context = requireContext().applicationContext
+        viewLifecycleOwner.lifecycleScope.launch {
+            val files = withContext(Dispatchers.IO) {
+                CallQualityExporter.exportAll(
+                        File(context.filesDir, CALL_QUALITY_LOG_DIRECTORY),
+                        File(context.cacheDir, CALL_QUALITY_EXPORT_DIRECTORY))
+            }
+            if (files.isEmpty()) {
+                Snackbar.make(requireView(), R.string.settings_screen_call_quality_export_empty,
+                        BaseTransientBottomBar.LENGTH_LONG).show()
+                return@launch
+            }
+            val uris = files.mapTo(ArrayList()) { file ->
+                FileProvider.getUriForFile(context, FILE_PROVIDER_AUTHORITY, file)
+            }
+            val shareIntent = Intent(Intent.ACTION_SEND_MULTIPLE)
+                    .setType("text/plain")
+                    .putParcelableArrayListExtra(Intent.EXTRA_STREAM, uris)
+                    .addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION)
+            startActivity(Intent.createChooser(shareIntent,
+                    getString(R.string.settings_screen_call_quality_export)))
+        }
+    }
+
     private fun setupCodecListPreference(
         codecClass: Class<*>,
         key: String,
@@ -91,4 +137,9 @@ class AdvancedSettingsFragment : BaseSettingsFragment() {
             true
         }
     }
+
+    companion object {
+        private const val CALL_QUALITY_EXPORT_DIRECTORY = "call_quality_export"
+        private const val FILE_PROVIDER_AUTHORITY = "${BuildConfig.APPLICATION_ID}.fileprovider"
+    }
 }
@@ -45,6 +45,11 @@ class CameraCapturerCompat(
         cameraCapturer?.stopCapture() ?: camera2Capturer?.stopCapture()
     }
 
+    override fun changeCaptureFormat(width: Int, height: Int, framerate: Int) {
+        cameraCapturer?.changeCaptureFormat(width, height, framerate)
+                ?: camera2Capturer?.changeCaptureFormat(width, height, framerate)
+    }
+
     override fun isScreencast() = cameraCapturer?.isScreencast ?: camera2Capturer?.isScreencast ?: false
 
     fun switchCamera() {
@@ -0,0 +1,100 @@
+package com.twilio.video.app.adapter
+
+import android.app.Application
+import android.os.Build
+import android.view.View.MeasureSpec
+import android.view.View.MeasureSpec.EXACTLY
+import androidx.appcompat.view.ContextThemeWrapper
+import androidx.recyclerview.widget.LinearLayoutManager
+import androidx.recyclerview.widget.RecyclerView
+import androidx.test.core.app.ApplicationProvider.getApplicationContext
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.R
+import com.twilio.video.app.sdk.RoomManager
+import com.twilio.video.app.ui.room.RoomEvent.StatsUpdate
+import com.twilio.video.app.util.BAD_CALL_DEGRADED_TICKS
+import com.twilio.video.app.util.recordBadCall
+import com.twilio.video.app.util.replayStatsReports
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.test.TestCoroutineDispatcher
+import kotlinx.coroutines.test.TestCoroutineScope
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import org.junit.runner.RunWith
+import org.robolectric.annotation.Config
+
+/*
+ * Replays a recorded call from RoomManager.sendStatsUpdate into the stats panel, to reproduce
+ * what the panel showed during a real call without a room.
+ */
+@ExperimentalCoroutinesApi
+@RunWith(AndroidJUnit4::class)
+@Config(sdk = [Build.VERSION_CODES.P], application = Application::class)
+class StatsListAdapterReplayTest : BaseUnitTest() {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+    private val context = ContextThemeWrapper(getApplicationContext(), R.style.AppTheme)
+    private val testDispatcher = TestCoroutineDispatcher()
+    private val roomManager = RoomManager(context, mock(), mock(), testDispatcher).apply {
+        localParticipantManager = mock {
+            whenever(mock.localVideoTrackNames).thenReturn(HashMap())
+        }
+        room = mock()
+    }
+    private val statsListAdapter = StatsListAdapter(context)
+    private val recyclerView = RecyclerView(context).apply {
+        layoutManager = LinearLayoutManager(context)
+        adapter = statsListAdapter
+    }
+
+    @Test
+    fun `the stats panel should follow a replayed call without inflating rows again`() {
+        val bitrateTexts = mutableListOf<String>()
+        val testScope = TestCoroutineScope(testDispatcher)
+        val collectJob = testScope.launch {
+            roomManager.roomEvents.collect { roomEvent ->
+                if (roomEvent is StatsUpdate) {
+                    statsListAdapter.updateStatsData(roomEvent.roomStats)
+                    layout()
+                    bitrateTexts += remoteVideoBinding().bitrate.text.toString()
+                }
+            }
+        }
+        val ticks = replayStatsReports(recordBadCall(temporaryFolder.newFolder()))
+        roomManager.sendStatsUpdate(ticks.first())
+        val inflationCount = statsListAdapter.inflationCount
+
+        ticks.drop(1).forEach { roomManager.sendStatsUpdate(it) }
+        collectJob.cancel()
+        testScope.cleanupTestCoroutines()
+
+        assertThat(statsListAdapter.inflationCount, equalTo(inflationCount))
+        assertThat(bitrateTexts[10], equalTo("1500"))
+        assertThat(bitrateTexts[BAD_CALL_DEGRADED_TICKS.first + 10], equalTo("300"))
+        assertThat(remoteVideoBinding().dimensions.text.toString(), equalTo("1280x720"))
+    }
+
+    private fun layout() {
+        recyclerView.measure(
+                MeasureSpec.makeMeasureSpec(1080, EXACTLY),
+                MeasureSpec.makeMeasureSpec(10_000, EXACTLY))
+        recyclerView.layout(0, 0, 1080, 10_000)
+    }
+
+    private fun remoteVideoBinding() =
+            (0 until recyclerView.childCount)
+                    .map { index ->
+                        (recyclerView.getChildViewHolder(recyclerView.getChildAt(index))
+                                as StatsListAdapter.ViewHolder).binding
+                    }
+                    .single { it.trackSid.text.toString() == "MTrv" }
+}
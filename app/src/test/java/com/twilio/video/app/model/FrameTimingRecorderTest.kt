@@ -0,0 +1,112 @@
+package com.twilio.video.app.model
+
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.util.measureAllocatedBytes
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class FrameTimingRecorderTest : BaseUnitTest() {
+
+    private val recorder = FrameTimingRecorder()
+    private val window = FrameTimingWindow()
+    private var nowNanos = 0L
+
+    @Test
+    fun `frame intervals should be counted in their histogram buckets`() {
+        window.update(recorder, nowNanos)
+        for (intervalMillis in listOf(0, 15, 33, 33, 50, 90, 150, 300, 1_000)) {
+            frame(intervalMillis)
+        }
+
+        window.update(recorder, nowNanos)
+
+        assertThat(window.intervalHistogram.toList(), equalTo(listOf(1L, 2L, 1L, 1L, 1L, 1L, 1L)))
+    }
+
+    @Test
+    fun `the frame rate should be measured over the window`() {
+        window.update(recorder, nowNanos)
+        repeat(30) { frame(33) }
+        repeat(60) { frame(1) }
+        nowNanos += (1_000 - 30 * 33 - 60) * NANOS_PER_MILLI
+
+        window.update(recorder, nowNanos)
+
+        assertThat(window.framesPerSecond, equalTo(90f))
+    }
+
+    @Test
+    fun `the first window should not report a frame rate`() {
+        repeat(30) { frame(33) }
+
+        window.update(recorder, nowNanos)
+
+        assertThat(window.framesPerSecond, equalTo(0f))
+    }
+
+    @Test
+    fun `the latency should be averaged over the frames of the window`() {
+        frame(33, latencyMillis = 100)
+        window.update(recorder, nowNanos)
+        frame(33, latencyMillis = 10)
+        frame(33, latencyMillis = 20)
+        // Frames from another clock must not skew the average
+        frame(33, latencyMillis = -1_000)
+
+        window.update(recorder, nowNanos)
+
+        assertThat(window.averageLatencyMillis, equalTo(15f))
+    }
+
+    @Test
+    fun `intervals longer than the jank threshold should count as jank`() {
+        window.update(recorder, nowNanos)
+        frame(0)
+        repeat(6) { frame(33) }
+        frame(100)
+        frame(250)
+
+        window.update(recorder, nowNanos)
+
+        assertThat(window.jankPercent, equalTo(25f))
+    }
+
+    @Test
+    fun `a reset should not count the gap to the next frame`() {
+        window.update(recorder, nowNanos)
+        frame(0)
+        recorder.reset()
+        frame(5_000)
+
+        window.update(recorder, nowNanos)
+
+        assertThat(window.intervalHistogram.sum(), equalTo(0L))
+    }
+
+    @Test
+    fun `recording frames and updating a window should allocate close to nothing`() {
+        val frames = 100_000
+        frame(33)
+        window.update(recorder, nowNanos)
+
+        val allocatedBytes = measureAllocatedBytes {
+            for (index in 0 until frames) {
+                frame(33)
+                if (index % 30 == 0) window.update(recorder, nowNanos)
+            }
+        }
+
+        assertTrue("Allocated $allocatedBytes bytes", allocatedBytes < frames)
+    }
+
+    private fun frame(intervalMillis: Int, latencyMillis: Int = 5) {
+        nowNanos += intervalMillis * NANOS_PER_MILLI
+        recorder.onFrame(nowNanos - latencyMillis * NANOS_PER_MILLI, nowNanos)
+    }
+
+    private companion object {
+        const val NANOS_PER_MILLI = 1_000_000L
+    }
+}
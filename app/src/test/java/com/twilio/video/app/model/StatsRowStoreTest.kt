@@ -0,0 +1,232 @@
+package com.twilio.video.app.model
+
+import com.twilio.video.StatsReport
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.model.StatsRow.Companion.ALL_FIELDS
+import com.twilio.video.app.model.StatsRow.Companion.BITRATE
+import com.twilio.video.app.model.StatsRow.Companion.BYTES
+import com.twilio.video.app.model.StatsRow.Companion.RENDER_TIMINGS
+import com.twilio.video.app.model.StatsRow.Companion.TRACK_NAME
+import com.twilio.video.app.sdk.CallQualitySample
+import com.twilio.video.app.sdk.CallQualitySession
+import com.twilio.video.app.sdk.CallQualityTrack
+import com.twilio.video.app.sdk.TRACK_RATES_SPARKLINE_SIZE
+import com.twilio.video.app.sdk.TrackOwnerIndex
+import com.twilio.video.app.sdk.TrackStatsEngine
+import com.twilio.video.app.util.measureAllocatedBytes
+import com.twilio.video.app.util.replayStatsReports
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.not
+import org.hamcrest.CoreMatchers.sameInstance
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+class StatsRowStoreTest : BaseUnitTest() {
+
+    private val trackStatsEngine = TrackStatsEngine()
+    private val statsRowStore = StatsRowStore(
+            trackStatsEngine,
+            "Local Audio Track",
+            "Local Video Track",
+            "Audio Track",
+            "Video Track")
+    private val trackOwners = TrackOwnerIndex()
+    private val frameTimings = FrameTimingRegistry()
+    private val ticks by lazy { replay(3) }
+
+    @Test
+    fun `rows should be created in report order with their track names`() {
+        val rows = tick(0)
+        rows.forEach { it.takeChangedFields() }
+
+        assertThat(rows.map { it.values.trackName }, equalTo(listOf(
+                "Local Audio Track",
+                "Camera",
+                "Participant 1 Audio Track 0",
+                "Participant 1 Video Track 0")))
+    }
+
+    @Test
+    fun `rows should be updated in place across ticks`() {
+        val rows = tick(0)
+        rows.forEach { it.takeChangedFields() }
+
+        val updatedRows = tick(1)
+        updatedRows[0].takeChangedFields()
+
+        assertThat(updatedRows, sameInstance(rows))
+        assertThat(updatedRows[0].values.bytes, equalTo(BYTES_PER_TICK))
+    }
+
+    @Test
+    fun `new rows should have every field changed`() {
+        val rows = tick(0)
+
+        assertThat(rows[0].takeChangedFields(), equalTo(ALL_FIELDS))
+        assertThat(rows[0].takeChangedFields(), equalTo(0))
+    }
+
+    @Test
+    fun `only the fields that changed should be reported`() {
+        tick(0).forEach { it.takeChangedFields() }
+
+        val changedFields = tick(1)[2].takeChangedFields()
+
+        assertThat(changedFields and BYTES, equalTo(BYTES))
+        assertThat(changedFields and BITRATE, equalTo(BITRATE))
+        assertThat(changedFields and TRACK_NAME, equalTo(0))
+    }
+
+    @Test
+    fun `ticks published before a take should report the changes of all of them`() {
+        tick(0).forEach { it.takeChangedFields() }
+        tick(1)
+
+        val row = tick(2, remoteOwner = "Participant 2")[2]
+        val changedFields = row.takeChangedFields()
+
+        assertThat(changedFields and (BYTES or TRACK_NAME), equalTo(BYTES or TRACK_NAME))
+        assertThat(row.values.bytes, equalTo(2 * BYTES_PER_TICK))
+    }
+
+    @Test
+    fun `taken values should not change until the next take`() {
+        val row = tick(0)[0]
+        row.takeChangedFields()
+        val values = row.values
+
+        tick(1)
+        tick(2)
+
+        assertThat(values.bytes, equalTo(0L))
+        row.takeChangedFields()
+        assertThat(row.values.bytes, equalTo(2 * BYTES_PER_TICK))
+    }
+
+    @Test
+    fun `a new track owner should rename the row`() {
+        tick(0)
+
+        val rows = tick(1, remoteOwner = "Participant 2")
+        rows[2].takeChangedFields()
+
+        assertThat(rows[2].values.trackName, equalTo("Participant 2 Audio Track 0"))
+    }
+
+    @Test
+    fun `tracks missing from an update should be removed`() {
+        val rows = tick(0)
+
+        val updatedRows = tick(1, replay(2, includeRemoteTracks = false))
+
+        assertThat(updatedRows, not(sameInstance(rows)))
+        assertThat(updatedRows.map { it.trackSid }, equalTo(listOf("MT0", "MT1")))
+    }
+
+    @Test
+    fun `a track reported twice in one update should only have one row`() {
+        val rows = statsRowStore.update(ticks[1] + ticks[2], trackOwners(), LOCAL_VIDEO_TRACK_NAMES,
+                frameTimings)
+        rows[2].takeChangedFields()
+
+        assertThat(rows.map { it.trackSid }, equalTo(TRACKS.map { it.trackSid }))
+        assertThat(rows[2].values.bytes, equalTo(BYTES_PER_TICK))
+    }
+
+    @Test
+    fun `the sparkline should show the most recent bitrates`() {
+        val ticks = replay(TRACK_RATES_SPARKLINE_SIZE + 2)
+        for (tick in ticks.indices) tick(tick, ticks)
+
+        val row = statsRowStore.rows[3]
+        row.takeChangedFields()
+
+        assertThat(row.values.bitrateHistorySize, equalTo(TRACK_RATES_SPARKLINE_SIZE))
+        assertThat(row.values.bitrateHistory.last(), equalTo(1_000_000L))
+    }
+
+    @Test
+    fun `remote video rows should take the render timings of the view that renders them`() {
+        val recorder = FrameTimingRecorder()
+        frameTimings.register("MT3", recorder)
+        tick(0).forEach { it.takeChangedFields() }
+        for (frame in 1..30) recorder.onFrame(frame * FRAME_NANOS - 5_000_000, frame * FRAME_NANOS)
+
+        val rows = tick(1)
+
+        assertThat(rows[3].takeChangedFields() and RENDER_TIMINGS, equalTo(RENDER_TIMINGS))
+        assertThat(rows[1].takeChangedFields() and RENDER_TIMINGS, equalTo(0))
+        assertThat(rows[3].values.isRendered, equalTo(true))
+        assertThat(rows[3].values.renderFramerate, equalTo(30f))
+        assertThat(rows[3].values.renderLatencyMillis, equalTo(5))
+        assertThat(rows[1].values.isRendered, equalTo(false))
+
+        frameTimings.unregister("MT3", recorder)
+        tick(2)[3].takeChangedFields()
+
+        assertThat(rows[3].values.isRendered, equalTo(false))
+    }
+
+    @Test
+    fun `a stats tick of known tracks should allocate close to nothing`() {
+        frameTimings.register("MT3", FrameTimingRecorder())
+        val warmUpTicks = 1_000
+        val measuredTicks = 10_000
+        val ticks = replay(warmUpTicks + measuredTicks)
+        // Fill the histories and sparklines so they are in steady state
+        for (tick in 0 until warmUpTicks) takeChangedFields(tick(tick, ticks))
+
+        val allocatedBytes = measureAllocatedBytes {
+            for (tick in warmUpTicks until ticks.size) takeChangedFields(tick(tick, ticks))
+        }
+
+        assertTrue("Allocated $allocatedBytes bytes", allocatedBytes < measuredTicks)
+    }
+
+    /* Runs a stats tick through the track stats engine and the store, like the room manager. */
+    private fun tick(
+        tick: Int,
+        ticks: List<List<StatsReport>> = this.ticks,
+        remoteOwner: String = "Participant 1"
+    ): List<StatsRow> {
+        val statsReports = ticks[tick]
+        trackStatsEngine.update(statsReports)
+        return statsRowStore.update(statsReports, trackOwners(remoteOwner),
+                LOCAL_VIDEO_TRACK_NAMES, frameTimings, tick * 1_000_000_000L)
+    }
+
+    /* Takes the published values like the adapter does, without allocating an iterator. */
+    private fun takeChangedFields(rows: List<StatsRow>) {
+        for (index in rows.indices) rows[index].takeChangedFields()
+    }
+
+    private fun trackOwners(remoteOwner: String = "Participant 1") = trackOwners.apply {
+        add("MT2", remoteOwner)
+        add("MT3", remoteOwner)
+    }
+
+    private fun replay(
+        tickCount: Int,
+        includeRemoteTracks: Boolean = true
+    ): List<List<StatsReport>> {
+        val tracks = TRACKS.filter { includeRemoteTracks || it.isLocalTrack }.map { track ->
+            track.copy(samples = (0 until tickCount).map { tick ->
+                CallQualitySample(tick * 1_000L, tick * BYTES_PER_TICK, tick * 100, tick / 100, 40,
+                        tick % 5, 100, 30, 640, 480)
+            })
+        }
+        return replayStatsReports(CallQualitySession("S1", "RM1", 0, tracks))
+    }
+
+    companion object {
+        private const val BYTES_PER_TICK = 125_000L
+        private const val FRAME_NANOS = 1_000_000_000L / 30
+        private val LOCAL_VIDEO_TRACK_NAMES = mapOf("MT1" to "Camera")
+        private val TRACKS = listOf(
+                CallQualityTrack("MT0", true, true, emptyList()),
+                CallQualityTrack("MT1", true, false, emptyList()),
+                CallQualityTrack("MT2", false, true, emptyList()),
+                CallQualityTrack("MT3", false, false, emptyList()))
+    }
+}
@@ -0,0 +1,155 @@
+package com.twilio.video.app.participant
+
+import com.twilio.video.TrackPriority.HIGH
+import com.twilio.video.TrackPriority.LOW
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class ParticipantGridTest : BaseUnitTest() {
+
+    private val participantStore = ParticipantStore().apply {
+        add(ParticipantViewState("0", "Local Participant", isLocalParticipant = true))
+    }
+    private val grid = ParticipantGrid(2).apply { reset(participantStore.snapshot) }
+
+    @Test
+    fun `participants should fill the pages in thumbnail order`() {
+        addRemoteParticipants(5)
+
+        assertThat(grid.pageCount, equalTo(2))
+        assertThat(currentSids(), equalTo(listOf("0", "1", "2", "3")))
+        grid.changePage(1)
+        assertThat(currentSids(), equalTo(listOf("4", "5")))
+    }
+
+    @Test
+    fun `only the current page should get a high priority`() {
+        addRemoteParticipants(9)
+        grid.changePage(1)
+
+        assertThat(grid.priorityOf("4"), equalTo(HIGH))
+        assertThat(grid.priorityOf("7"), equalTo(HIGH))
+        assertThat(grid.priorityOf("3"), equalTo(LOW))
+        assertThat(grid.priorityOf("8"), equalTo(LOW))
+        assertThat(grid.priorityOf(null), equalTo(LOW))
+    }
+
+    @Test
+    fun `changing the page should be clamped to the existing pages`() {
+        addRemoteParticipants(5)
+
+        grid.changePage(5)
+        assertThat(grid.page, equalTo(1))
+        grid.changePage(-1)
+        assertThat(grid.page, equalTo(0))
+    }
+
+    @Test
+    fun `a leaving participant should be replaced by the last one instead of shifting the pages`() {
+        addRemoteParticipants(7)
+
+        removeParticipant("1")
+
+        assertThat(currentSids(), equalTo(listOf("0", "7", "2", "3")))
+        grid.changePage(1)
+        assertThat(currentSids(), equalTo(listOf("4", "5", "6")))
+    }
+
+    @Test
+    fun `the current page should move back when its last participant leaves`() {
+        addRemoteParticipants(4)
+        grid.changePage(1)
+
+        removeParticipant("4")
+
+        assertThat(grid.page, equalTo(0))
+    }
+
+    @Test
+    fun `a dominant speaker on another page should swap into the current page`() {
+        addRemoteParticipants(7)
+
+        setDominantSpeaker("6")
+
+        assertThat(currentSids(), equalTo(listOf("6", "1", "2", "3")))
+        grid.setDominantSpeaker(null)
+        grid.changePage(1)
+        assertThat(currentSids(), equalTo(listOf("4", "5", "0", "7")))
+    }
+
+    @Test
+    fun `a dominant speaker should replace the participant that spoke the longest time ago`() {
+        addRemoteParticipants(7)
+        setDominantSpeaker("6")
+        setDominantSpeaker("1")
+
+        setDominantSpeaker("5")
+
+        assertThat(currentSids(), equalTo(listOf("6", "1", "5", "3")))
+    }
+
+    @Test
+    fun `a dominant speaker should follow the user to another page`() {
+        addRemoteParticipants(7)
+        setDominantSpeaker("2")
+
+        grid.changePage(1)
+
+        assertThat(grid.pageOf("2"), equalTo(1))
+        assertThat(grid.priorityOf("2"), equalTo(HIGH))
+    }
+
+    @Test
+    fun `the thumbnail order moving the dominant speaker up should not reorder the cells`() {
+        addRemoteParticipants(3)
+        val dominantSpeaker = participantStore["3"]!!.copy(isDominantSpeaker = true)
+        participantStore.move("3", 1, dominantSpeaker)
+
+        grid.setDominantSpeaker("3")
+
+        assertThat(currentSids(), equalTo(listOf("0", "1", "2", "3")))
+    }
+
+    @Test
+    fun `the local participant should keep its cell when it gets its sid`() {
+        addRemoteParticipants(1)
+        participantStore[participantStore.localParticipantIndex] =
+                participantStore[0].copy(sid = "local")
+
+        assertThat(currentSids(), equalTo(listOf("local", "1")))
+    }
+
+    @Test
+    fun `resetting the grid should lay the participants out in thumbnail order`() {
+        addRemoteParticipants(5)
+        setDominantSpeaker("5")
+        grid.changePage(1)
+
+        participantStore.removeRemoteParticipants()
+        grid.reset(participantStore.snapshot)
+
+        assertThat(grid.page, equalTo(0))
+        assertThat(grid.pageCount, equalTo(1))
+        assertThat(currentSids(), equalTo(listOf("0")))
+    }
+
+    private fun addRemoteParticipants(count: Int) {
+        for (index in 1..count) {
+            ParticipantViewState("$index", "Participant $index").let {
+                participantStore.add(it)
+                grid.add(it)
+            }
+        }
+    }
+
+    private fun removeParticipant(sid: String) {
+        participantStore.remove(sid)
+        grid.remove(sid)
+    }
+
+    private fun setDominantSpeaker(sid: String) = grid.setDominantSpeaker(sid)
+
+    private fun currentSids() = grid.currentPage(participantStore).participants.map { it.sid }
+}
@@ -0,0 +1,68 @@
+package com.twilio.video.app.participant
+
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_FIVE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ONE
+import junitparams.JUnitParamsRunner
+import junitparams.Parameters
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/*
+ * Microbenchmark for the per event cost of ParticipantManager. It deliberately does not extend
+ * BaseUnitTest so that the Timber test rule does not dominate the measured time. Wall clock
+ * timings are too noisy to gate CI on, so it only runs when Gradle is given -Pbenchmarks.
+ */
+@RunWith(JUnitParamsRunner::class)
+class ParticipantManagerBenchmarkTest {
+
+    @Before
+    fun setUp() {
+        assumeTrue("Benchmarks only run with -Pbenchmarks",
+                java.lang.Boolean.getBoolean("benchmarks"))
+    }
+
+    @Test
+    @Parameters(method = "roomSizes")
+    fun `per event cost should stay flat as the room grows`(roomSize: Int) {
+        val smallRoomCost = measureEventStorm(SMALL_ROOM_SIZE)
+        val largeRoomCost = measureEventStorm(roomSize)
+
+        /*
+         * A linear scan per event grows with the room size, so allow generous headroom for
+         * timing noise while still catching a regression back to O(n) lookups.
+         */
+        assertTrue("Per event cost grew from $smallRoomCost ns to $largeRoomCost ns",
+                largeRoomCost < smallRoomCost * MAX_COST_RATIO)
+    }
+
+    private fun roomSizes() = arrayOf(100, 250, 500)
+
+    private fun measureEventStorm(roomSize: Int): Long {
+        val participantManager = ParticipantManager()
+        for (index in 1..roomSize) {
+            participantManager.addParticipant(ParticipantViewState("$index", "Participant $index"))
+        }
+        val storm = {
+            for (event in 0 until STORM_EVENTS) {
+                val sid = "${roomSize - event % SMALL_ROOM_SIZE}"
+                participantManager.updateNetworkQuality(sid,
+                        if (event % 2 == 0) NETWORK_QUALITY_LEVEL_ONE else NETWORK_QUALITY_LEVEL_FIVE)
+                participantManager.muteParticipant(sid, event % 2 == 0)
+            }
+        }
+        repeat(WARM_UP_ROUNDS) { storm() }
+        val start = System.nanoTime()
+        storm()
+        return maxOf((System.nanoTime() - start) / STORM_EVENTS, 1)
+    }
+
+    companion object {
+        private const val SMALL_ROOM_SIZE = 10
+        private const val STORM_EVENTS = 5_000
+        private const val WARM_UP_ROUNDS = 5
+        private const val MAX_COST_RATIO = 5
+    }
+}
@@ -4,10 +4,14 @@ import com.nhaarman.mockitokotlin2.inOrder
 import com.nhaarman.mockitokotlin2.mock
 import com.nhaarman.mockitokotlin2.times
 import com.nhaarman.mockitokotlin2.verify
+import com.nhaarman.mockitokotlin2.verifyNoMoreInteractions
 import com.nhaarman.mockitokotlin2.verifyZeroInteractions
 import com.twilio.video.LocalVideoTrack
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ONE
 import com.twilio.video.RemoteVideoTrack
 import com.twilio.video.TrackPriority.HIGH
+import com.twilio.video.TrackPriority.LOW
+import com.twilio.video.TrackPriority.STANDARD
 import com.twilio.video.VideoTrack
 import com.twilio.video.app.BaseUnitTest
 import com.twilio.video.app.sdk.VideoTrackViewState
@@ -276,6 +280,59 @@ class ParticipantManagerTest : BaseUnitTest() {
         }
     }
 
+    @Test
+    fun `primary participant VideoTrack priority should only be set once during a network quality and mute storm`() {
+        setupThreeParticipantScenario()
+        val videoTrack = participantManager.getParticipant("2")!!.getRemoteVideoTrack()!!
+
+        repeat(10) {
+            participantManager.updateNetworkQuality("2", NETWORK_QUALITY_LEVEL_ONE)
+            participantManager.muteParticipant("2", it % 2 == 0)
+            participantManager.updateNetworkQuality("3", NETWORK_QUALITY_LEVEL_ONE)
+        }
+
+        verify(videoTrack).priority = HIGH
+        verifyNoMoreInteractions(videoTrack)
+    }
+
+    @Test
+    fun `the old primary participant VideoTrack priority should be reset to null when the new primary participant has no video track`() {
+        val participant3 = setupThreeParticipantScenario()
+        participantManager.addParticipant(ParticipantViewState("4", "Participant 4"))
+
+        participantManager.changePinnedParticipant(participant3.sid!!)
+        participantManager.changePinnedParticipant("4")
+
+        val videoTrack = participant3.videoTrack!!.videoTrack as RemoteVideoTrack
+        inOrder(videoTrack).run {
+            verify(videoTrack).priority = HIGH
+            verify(videoTrack).priority = null
+        }
+    }
+
+    @Test
+    fun `applyUpdates should keep the thumbnail snapshot when no participant changed`() {
+        setupThreeParticipantScenario()
+        val thumbnails = participantManager.participantThumbnails
+
+        participantManager.applyUpdates(listOf(ParticipantUpdate("2").apply { mute(false) }))
+
+        assertThat(participantManager.participantThumbnails === thumbnails, equalTo(true))
+    }
+
+    @Test
+    fun `applyUpdates should only change the properties set on the update`() {
+        val participant3 = setupThreeParticipantScenario()
+
+        participantManager.applyUpdates(listOf(ParticipantUpdate("3").apply {
+            mute(true)
+            updateNetworkQuality(NETWORK_QUALITY_LEVEL_ONE)
+        }))
+
+        assertThat(participantManager.getParticipant("3"), equalTo(participant3.copy(
+                isMuted = true, networkQualityLevel = NETWORK_QUALITY_LEVEL_ONE)))
+    }
+
     private fun setupExistingDominantSpeakerScenario() {
         val participant2 = ParticipantViewState("2", "Participant 2",
                 isDominantSpeaker = true)
@@ -285,6 +342,171 @@ class ParticipantManagerTest : BaseUnitTest() {
         participantManager.addParticipant(dominantSpeaker)
     }
 
+    @Test
+    fun `a VideoTrack whose thumbnail is out of view should get a low priority`() {
+        val participant3 = setupThreeParticipantScenario()
+        val videoTrack = participant3.getRemoteVideoTrack()!!
+
+        participantManager.setVisibleParticipants(setOf("1", "2"))
+        participantManager.setVisibleParticipants(setOf("2"))
+
+        verify(videoTrack).priority = LOW
+        verifyNoMoreInteractions(videoTrack)
+    }
+
+    @Test
+    fun `a VideoTrack whose thumbnail scrolled back into view should have its priority cleared`() {
+        val participant3 = setupThreeParticipantScenario()
+        val videoTrack = participant3.getRemoteVideoTrack()!!
+
+        participantManager.setVisibleParticipants(setOf("2"))
+        participantManager.setVisibleParticipants(setOf("2", "3"))
+
+        inOrder(videoTrack).run {
+            verify(videoTrack).priority = LOW
+            verify(videoTrack).priority = null
+        }
+    }
+
+    @Test
+    fun `the primary participant VideoTrack should not be lowered when its thumbnail is out of view`() {
+        setupThreeParticipantScenario()
+        val videoTrack = participantManager.getParticipant("2")!!.getRemoteVideoTrack()!!
+
+        participantManager.setVisibleParticipants(setOf("3"))
+
+        verify(videoTrack).priority = HIGH
+        verifyNoMoreInteractions(videoTrack)
+    }
+
+    @Test
+    fun `the old primary participant VideoTrack priority should be lowered when its thumbnail is out of view`() {
+        val participant3 = setupThreeParticipantScenario()
+        val videoTrack = participantManager.getParticipant("2")!!.getRemoteVideoTrack()!!
+        participantManager.setVisibleParticipants(setOf("3"))
+
+        participantManager.changePinnedParticipant(participant3.sid!!)
+
+        inOrder(videoTrack).run {
+            verify(videoTrack).priority = HIGH
+            verify(videoTrack).priority = LOW
+        }
+        verifyNoMoreInteractions(videoTrack)
+    }
+
+    @Test
+    fun `a new participant should be lowered until its thumbnail comes into view`() {
+        setupThreeParticipantScenario()
+        participantManager.setVisibleParticipants(setOf("2", "3"))
+        val videoTrack = mock<RemoteVideoTrack>()
+
+        participantManager.addParticipant(ParticipantViewState("4", "Participant 4",
+                videoTrack = VideoTrackViewState(videoTrack)))
+
+        verify(videoTrack).priority = LOW
+    }
+
+    @Test
+    fun `a new VideoTrack of a participant out of view should get a low priority`() {
+        setupThreeParticipantScenario()
+        participantManager.setVisibleParticipants(setOf("2"))
+        val videoTrack = mock<RemoteVideoTrack>()
+
+        participantManager.updateParticipantVideoTrack("3", VideoTrackViewState(videoTrack))
+
+        verify(videoTrack).priority = LOW
+    }
+
+    @Test
+    fun `a VideoTrack should not be written again when another thumbnail changes`() {
+        val participant3 = setupThreeParticipantScenario()
+        val videoTrack = participant3.getRemoteVideoTrack()!!
+        participantManager.setVisibleParticipants(setOf("2"))
+
+        participantManager.setVisibleParticipants(setOf("1", "2"))
+        participantManager.setRenderPriority("1", STANDARD)
+        participantManager.muteParticipant("2", true)
+
+        verify(videoTrack).priority = LOW
+        verifyNoMoreInteractions(videoTrack)
+    }
+
+    @Test
+    fun `a visible VideoTrack should get the priority matching its render size`() {
+        val participant3 = setupThreeParticipantScenario()
+        val videoTrack = participant3.getRemoteVideoTrack()!!
+
+        participantManager.setRenderPriority("3", STANDARD)
+        participantManager.setRenderPriority("3", STANDARD)
+
+        verify(videoTrack).priority = STANDARD
+        verifyNoMoreInteractions(videoTrack)
+    }
+
+    @Test
+    fun `a VideoTrack out of view should stay low regardless of its render size`() {
+        val participant3 = setupThreeParticipantScenario()
+        val videoTrack = participant3.getRemoteVideoTrack()!!
+        participantManager.setVisibleParticipants(setOf("2"))
+
+        participantManager.setRenderPriority("3", STANDARD)
+        participantManager.setVisibleParticipants(setOf("2", "3"))
+
+        inOrder(videoTrack).run {
+            verify(videoTrack).priority = LOW
+            verify(videoTrack).priority = STANDARD
+        }
+        verifyNoMoreInteractions(videoTrack)
+    }
+
+    @Test
+    fun `the primary participant VideoTrack should keep its priority regardless of its render size`() {
+        setupThreeParticipantScenario()
+        val videoTrack = participantManager.getParticipant("2")!!.getRemoteVideoTrack()!!
+
+        participantManager.setRenderPriority("2", STANDARD)
+
+        verify(videoTrack).priority = HIGH
+        verifyNoMoreInteractions(videoTrack)
+    }
+
+    @Test
+    fun `only the VideoTracks on the current grid page should get a high priority`() {
+        val participant3 = setupThreeParticipantScenario()
+        val primaryVideoTrack = participantManager.getParticipant("2")!!.getRemoteVideoTrack()!!
+        val videoTrack = participant3.getRemoteVideoTrack()!!
+
+        participantManager.setGridColumns(1)
+        participantManager.changeGridPage(2)
+
+        inOrder(primaryVideoTrack).run {
+            verify(primaryVideoTrack).priority = HIGH
+            verify(primaryVideoTrack).priority = LOW
+        }
+        inOrder(videoTrack).run {
+            verify(videoTrack).priority = LOW
+            verify(videoTrack).priority = HIGH
+        }
+        verifyNoMoreInteractions(primaryVideoTrack, videoTrack)
+        assertThat(participantManager.participantGridPage!!.participants, equalTo(listOf(participant3)))
+    }
+
+    @Test
+    fun `leaving the grid should give the primary participant VideoTrack a high priority again`() {
+        setupThreeParticipantScenario()
+        val videoTrack = participantManager.getParticipant("2")!!.getRemoteVideoTrack()!!
+        participantManager.setGridColumns(1)
+
+        participantManager.setGridColumns(0)
+
+        inOrder(videoTrack).run {
+            verify(videoTrack).priority = HIGH
+            verify(videoTrack).priority = LOW
+            verify(videoTrack).priority = HIGH
+        }
+        assertThat(participantManager.participantGridPage, nullValue())
+    }
+
     private fun setupThreeParticipantScenario(): ParticipantViewState {
         val participant2 = ParticipantViewState("2", "Participant 2",
                 videoTrack = VideoTrackViewState(mock<RemoteVideoTrack>()))
@@ -0,0 +1,77 @@
+package com.twilio.video.app.participant
+
+import com.twilio.video.app.BaseUnitTest
+import java.util.Random
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class ParticipantSnapshotTest : BaseUnitTest() {
+
+    @Test
+    fun `a modified snapshot should leave the previous snapshot untouched`() {
+        val original = ParticipantSnapshot.EMPTY
+                .appended(participant(1))
+                .appended(participant(2))
+
+        val modified = original.replaced(1, participant(3))
+
+        assertThat(original.map { it.sid }, equalTo(listOf("1", "2")))
+        assertThat(modified.map { it.sid }, equalTo(listOf("1", "3")))
+    }
+
+    @Test
+    fun `every modification should increment the version`() {
+        val first = ParticipantSnapshot.EMPTY.appended(participant(1))
+        val second = first.inserted(0, participant(2))
+        val third = second.removed(1)
+
+        assertThat(first.version, equalTo(1L))
+        assertThat(second.version, equalTo(2L))
+        assertThat(third.version, equalTo(3L))
+    }
+
+    @Test
+    fun `snapshots should be equal to lists with the same participants`() {
+        val snapshot = ParticipantSnapshot.EMPTY
+                .appended(participant(1))
+                .appended(participant(2))
+
+        assertThat(snapshot, equalTo(listOf(participant(1), participant(2))))
+        assertThat(listOf(participant(1), participant(2)), equalTo<List<ParticipantViewState>>(snapshot))
+    }
+
+    @Test
+    fun `random modifications should match the behavior of a mutable list`() {
+        val random = Random(42)
+        val expected = mutableListOf<ParticipantViewState>()
+        var snapshot = ParticipantSnapshot.EMPTY
+
+        repeat(5_000) { operation ->
+            val value = participant(operation)
+            when {
+                expected.isEmpty() || random.nextInt(3) == 0 -> {
+                    val index = random.nextInt(expected.size + 1)
+                    expected.add(index, value)
+                    snapshot = snapshot.inserted(index, value)
+                }
+                random.nextBoolean() -> {
+                    val index = random.nextInt(expected.size)
+                    expected[index] = value
+                    snapshot = snapshot.replaced(index, value)
+                }
+                else -> {
+                    val index = random.nextInt(expected.size)
+                    expected.removeAt(index)
+                    snapshot = snapshot.removed(index)
+                }
+            }
+        }
+
+        assertThat(snapshot, equalTo<List<ParticipantViewState>>(expected))
+        assertThat(snapshot.filtered { it.sid!!.toInt() % 2 == 0 },
+                equalTo(expected.filter { it.sid!!.toInt() % 2 == 0 }))
+    }
+
+    private fun participant(index: Int) = ParticipantViewState("$index", "Participant $index")
+}
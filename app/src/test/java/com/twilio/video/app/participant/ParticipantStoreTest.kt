@@ -0,0 +1,99 @@
+package com.twilio.video.app.participant
+
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class ParticipantStoreTest : BaseUnitTest() {
+
+    private val participantStore = ParticipantStore().apply {
+        add(ParticipantViewState("0", "Local Participant", isLocalParticipant = true))
+    }
+
+    @Test
+    fun `get should return the participant stored with the given sid`() {
+        addRemoteParticipants(3)
+
+        assertThat(participantStore["2"]!!.identity, equalTo("Participant 2"))
+        assertThat(participantStore.indexOf("2"), equalTo(2))
+    }
+
+    @Test
+    fun `add should replace an existing participant with the same sid instead of duplicating it`() {
+        addRemoteParticipants(2)
+
+        participantStore.add(ParticipantViewState("1", "Renamed"))
+
+        assertThat(participantStore.size, equalTo(3))
+        assertThat(participantStore["1"]!!.identity, equalTo("Renamed"))
+    }
+
+    @Test
+    fun `remove should reindex the slots of the following participants`() {
+        addRemoteParticipants(4)
+
+        participantStore.remove("2")
+
+        assertThat(participantStore["2"], nullValue())
+        assertThat(participantStore.indexOf("3"), equalTo(2))
+        assertThat(participantStore.indexOf("4"), equalTo(3))
+        assertThat(participantStore[3].sid, equalTo("4"))
+    }
+
+    @Test
+    fun `move should reindex only the shifted participants`() {
+        addRemoteParticipants(4)
+        val dominantSpeaker = participantStore["4"]!!.copy(isDominantSpeaker = true)
+
+        participantStore.move("4", 1, dominantSpeaker)
+
+        assertThat(participantStore.snapshot.map { it.sid }, equalTo(listOf("0", "4", "1", "2", "3")))
+        assertThat(participantStore.indexOf("4"), equalTo(1))
+        assertThat(participantStore.indexOf("3"), equalTo(4))
+        assertThat(participantStore.dominantSpeaker, equalTo(dominantSpeaker))
+    }
+
+    @Test
+    fun `candidate slots should follow participant updates`() {
+        addRemoteParticipants(3)
+
+        participantStore[participantStore.indexOf("2")] =
+                participantStore["2"]!!.copy(isPinned = true)
+        assertThat(participantStore.pinnedParticipant!!.sid, equalTo("2"))
+
+        participantStore[participantStore.indexOf("2")] =
+                participantStore["2"]!!.copy(isPinned = false)
+        assertThat(participantStore.pinnedParticipant, nullValue())
+    }
+
+    @Test
+    fun `candidate slots should resolve to the first flagged participant in thumbnail order`() {
+        addRemoteParticipants(3)
+
+        participantStore[3] = participantStore[3].copy(isDominantSpeaker = true)
+        participantStore[1] = participantStore[1].copy(isDominantSpeaker = true)
+
+        assertThat(participantStore.dominantSpeaker!!.sid, equalTo("1"))
+    }
+
+    @Test
+    fun `first remote participant should be null when only the local participant is stored`() {
+        assertThat(participantStore.firstRemoteParticipant, nullValue())
+
+        addRemoteParticipants(2)
+        assertThat(participantStore.firstRemoteParticipant!!.sid, equalTo("1"))
+
+        participantStore.removeRemoteParticipants()
+        assertThat(participantStore.firstRemoteParticipant, nullValue())
+        assertThat(participantStore.size, equalTo(1))
+        assertThat(participantStore["1"], nullValue())
+    }
+
+    private fun addRemoteParticipants(count: Int) {
+        for (index in 1..count) {
+            participantStore.add(ParticipantViewState("$index", "Participant $index"))
+        }
+    }
+}
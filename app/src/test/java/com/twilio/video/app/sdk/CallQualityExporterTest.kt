@@ -0,0 +1,106 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.BaseUnitTest
+import java.io.File
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class CallQualityExporterTest : BaseUnitTest() {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+    private val summary = CallQualitySummary.of(CallQualitySession("0000000000001-RM1", "RM1", 1,
+            listOf(
+                    CallQualityTrack("MT1", true, true, listOf(
+                            sample(1_000, 0, 0, 0, 40),
+                            sample(2_000, 4_000, 50, 0, 60))),
+                    CallQualityTrack("MT2", false, false, listOf(
+                            sample(1_000, 0, 0, 0, 0, 30),
+                            sample(2_000, 125_000, 90, 10, 0, 24))))))
+
+    @Test
+    fun `csv should have a row of percentiles per track`() {
+        val csv = StringBuilder().also { CallQualityExporter.writeCsv(summary, it) }.lines()
+
+        assertThat(csv[0].split(',').size, equalTo(27))
+        assertThat(csv[1], equalTo("0000000000001-RM1,RM1,MT1,true,audio,1,1000," +
+                "32000,32000,32000,32000,32000," +
+                "0.00,0.00,0.00,0.00,0.00," +
+                "40,40,40,60,60," +
+                ",,,,"))
+        assertThat(csv[2], equalTo("0000000000001-RM1,RM1,MT2,false,video,1,1000," +
+                "1000000,1000000,1000000,1000000,1000000," +
+                "10.00,10.00,10.00,10.00,10.00," +
+                ",,,,," +
+                "24,24,24,24,24"))
+    }
+
+    @Test
+    fun `json should leave out the metrics a track does not report`() {
+        val json = StringBuilder().also { CallQualityExporter.writeJson(summary, it) }.toString()
+
+        assertTrue(json, json.startsWith(
+                "{\"sessionId\":\"0000000000001-RM1\",\"roomSid\":\"RM1\",\"startMillis\":1"))
+        assertTrue(json, json.contains("\"trackSid\":\"MT1\",\"local\":true,\"kind\":\"audio\"," +
+                "\"intervals\":1,\"durationMillis\":1000,\"bitrate_bps\":{\"min\":32000,\"p10\":32000," +
+                "\"p50\":32000,\"p90\":32000,\"max\":32000}"))
+        assertTrue(json, json.contains("\"rtt_ms\":{\"min\":40,\"p10\":40,\"p50\":40,\"p90\":60," +
+                "\"max\":60},\"frame_rate_fps\":null}"))
+        assertTrue(json, json.contains("\"packet_loss_percent\":{\"min\":10.00,"))
+    }
+
+    @Test
+    fun `export should write a csv and a json file per session`() {
+        val directory = temporaryFolder.newFolder()
+
+        val files = CallQualityExporter.export(summary, directory)
+
+        assertThat(files.map { it.name }, equalTo(listOf(
+                "0000000000001-RM1.csv", "0000000000001-RM1.json")))
+        files.forEach { assertTrue(it.length() > 0) }
+    }
+
+    @Test
+    fun `export all should replace a previous export with every recorded session`() {
+        val logDirectory = temporaryFolder.newFolder()
+        val directory = temporaryFolder.newFolder()
+        File(directory, "stale.csv").writeText("")
+        listOf("RM1", "RM2").forEachIndexed { index, roomSid ->
+            val recorder = CallQualityRecorder(logDirectory, 1024 * 1024L)
+            recorder.start(roomSid, index + 1L)
+            recorder.recordSample("MT1", true, true, 1_000, 1_000, 10, 0, 40, 0, 100, 0, 0, 0)
+            recorder.stop()
+            assertTrue(recorder.awaitStopped(5_000))
+        }
+
+        val files = CallQualityExporter.exportAll(logDirectory, directory)
+
+        assertThat(files.map { it.name }, equalTo(listOf(
+                "0000000000001-RM1.csv", "0000000000001-RM1.json",
+                "0000000000002-RM2.csv", "0000000000002-RM2.json")))
+        assertThat(directory.list()!!.sorted(), equalTo(files.map { it.name }))
+    }
+
+    @Test
+    fun `export all should write nothing when no session was recorded`() {
+        val directory = temporaryFolder.newFolder()
+
+        val files = CallQualityExporter.exportAll(temporaryFolder.newFolder(), directory)
+
+        assertThat(files, equalTo(emptyList<File>()))
+    }
+
+    private fun sample(
+        timestampMillis: Long,
+        bytes: Long,
+        packets: Int,
+        packetsLost: Int,
+        rtt: Long,
+        frameRate: Int = 0
+    ) = CallQualitySample(timestampMillis, bytes, packets, packetsLost, rtt, 0, 0, frameRate,
+            640, 480)
+}
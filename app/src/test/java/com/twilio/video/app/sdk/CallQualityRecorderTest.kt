@@ -0,0 +1,166 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.sdk.CallQualityLog.HEADER_SIZE
+import com.twilio.video.app.sdk.CallQualityLog.RECORD_SIZE
+import java.io.File
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class CallQualityRecorderTest : BaseUnitTest() {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+    private val directory: File by lazy { temporaryFolder.newFolder() }
+    private val reader by lazy { CallQualityLogReader(directory) }
+
+    @Test
+    fun `recorded samples should be read back as a time series per track`() {
+        val recorder = CallQualityRecorder(directory, BUDGET)
+        recorder.start("RM1", START_MILLIS)
+
+        for (tick in 1..3) {
+            recordAudio(recorder, "MT1", tick)
+            recordVideo(recorder, "MT2", tick)
+            flush(recorder)
+        }
+        stop(recorder)
+
+        val session = reader.read(reader.sessionIds().single())!!
+        assertThat(session.roomSid, equalTo("RM1"))
+        assertThat(session.startMillis, equalTo(START_MILLIS))
+        assertThat(session.tracks.map { it.trackSid }, equalTo(listOf("MT1", "MT2")))
+        val audioTrack = session.tracks[0]
+        assertThat(audioTrack.isLocalTrack, equalTo(true))
+        assertThat(audioTrack.isAudioTrack, equalTo(true))
+        assertThat(audioTrack.samples.map { it.timestampMillis }, equalTo(listOf(1_000L, 2_000L, 3_000L)))
+        assertThat(audioTrack.samples.last(), equalTo(CallQualitySample(
+                3_000, 3_000, 30, 3, 30, 3, 300, 0, 0, 0)))
+        val videoTrack = session.tracks[1]
+        assertThat(videoTrack.isLocalTrack, equalTo(false))
+        assertThat(videoTrack.isAudioTrack, equalTo(false))
+        assertThat(videoTrack.samples.last(), equalTo(CallQualitySample(
+                3_000, 30_000, 300, 0, 0, 0, 0, 30, 1280, 720)))
+    }
+
+    @Test
+    fun `a session should be rotated into segments that are each readable`() {
+        val segmentBytes = HEADER_SIZE + 10L * RECORD_SIZE
+        val recorder = CallQualityRecorder(directory, BUDGET, segmentBytes)
+        recorder.start("RM1", START_MILLIS)
+
+        for (tick in 1..50) {
+            recordAudio(recorder, "MT1", tick)
+            recordVideo(recorder, "MT2", tick)
+            flush(recorder)
+        }
+        stop(recorder)
+
+        val segments = directory.listFiles()!!
+        assertTrue(segments.size > 1)
+        segments.forEach { assertTrue(it.length() <= segmentBytes) }
+        val session = reader.read(reader.sessionIds().single())!!
+        session.tracks.forEach { track ->
+            assertThat(track.samples.map { it.timestampMillis }, equalTo((1..50L).map { it * 1_000 }))
+        }
+    }
+
+    @Test
+    fun `the oldest segments should be deleted to stay within the disk budget`() {
+        val segmentBytes = HEADER_SIZE + 20L * RECORD_SIZE
+        val budget = 4 * segmentBytes
+        val oldRecorder = CallQualityRecorder(directory, budget, segmentBytes)
+        oldRecorder.start("RM1", START_MILLIS)
+        recordAudio(oldRecorder, "MT1", 1)
+        flush(oldRecorder)
+        stop(oldRecorder)
+        val recorder = CallQualityRecorder(directory, budget, segmentBytes)
+        recorder.start("RM2", START_MILLIS + 1)
+
+        for (tick in 1..500) {
+            recordAudio(recorder, "MT1", tick)
+            flush(recorder)
+        }
+        stop(recorder)
+
+        assertTrue(directory.listFiles()!!.sumOf { it.length() } <= budget)
+        assertThat(reader.sessionIds().size, equalTo(1))
+        assertThat(reader.read(CallQualityLog.sessionId("RM1", START_MILLIS)), nullValue())
+        val samples = reader.read(reader.sessionIds().single())!!.tracks.single().samples
+        assertThat(samples.last().timestampMillis, equalTo(500_000L))
+    }
+
+    @Test
+    fun `samples should be dropped instead of blocking when the writer falls behind`() {
+        // Without a started writer no buffer is ever drained
+        val recorder = CallQualityRecorder(directory, BUDGET)
+
+        for (tick in 1..10_000) {
+            recordAudio(recorder, "MT1", tick)
+        }
+
+        assertTrue(recorder.droppedSamples > 0)
+    }
+
+    @Test
+    fun `stopping should write the samples recorded since the last flush`() {
+        val recorder = CallQualityRecorder(directory, BUDGET)
+        recorder.start("RM1", START_MILLIS)
+        recordAudio(recorder, "MT1", 1)
+        flush(recorder)
+        recordAudio(recorder, "MT1", 2)
+
+        stop(recorder)
+
+        val session = reader.read(reader.sessionIds().single())!!
+        assertThat(session.tracks.single().samples.map { it.timestampMillis },
+                equalTo(listOf(1_000L, 2_000L)))
+    }
+
+    @Test
+    fun `samples recorded after stopping should be ignored`() {
+        val recorder = CallQualityRecorder(directory, BUDGET)
+        recorder.start("RM1", START_MILLIS)
+        recordAudio(recorder, "MT1", 1)
+        stop(recorder)
+
+        recordAudio(recorder, "MT1", 2)
+        recorder.flush()
+        recorder.stop()
+
+        val session = reader.read(reader.sessionIds().single())!!
+        assertThat(session.tracks.single().samples.size, equalTo(1))
+        assertThat(recorder.droppedSamples, equalTo(0L))
+    }
+
+    private fun recordAudio(recorder: CallQualityRecorder, trackSid: String, tick: Int) {
+        recorder.recordSample(trackSid, true, true, tick * 1_000L, tick * 1_000L, tick * 10,
+                tick, tick * 10L, tick, tick * 100, 0, 0, 0)
+    }
+
+    private fun recordVideo(recorder: CallQualityRecorder, trackSid: String, tick: Int) {
+        recorder.recordSample(trackSid, false, false, tick * 1_000L, tick * 10_000L, tick * 100,
+                0, 0, 0, 0, 30, 1280, 720)
+    }
+
+    /* Flushes like a stats tick and waits for the writer, which a real tick a second never outruns. */
+    private fun flush(recorder: CallQualityRecorder) {
+        recorder.flush()
+        assertTrue(recorder.awaitWritten(5_000))
+    }
+
+    private fun stop(recorder: CallQualityRecorder) {
+        recorder.stop()
+        assertTrue(recorder.awaitStopped(5_000))
+    }
+
+    companion object {
+        private const val BUDGET = 1024 * 1024L
+        private const val START_MILLIS = 1_600_000_000_000L
+    }
+}
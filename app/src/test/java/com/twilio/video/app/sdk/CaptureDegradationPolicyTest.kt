@@ -0,0 +1,139 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.sdk.CaptureDegradationReason.BATTERY
+import com.twilio.video.app.sdk.CaptureDegradationReason.THERMAL
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+private const val THERMAL_STATUS_NONE = 0
+private const val THERMAL_STATUS_LIGHT = 1
+private const val THERMAL_STATUS_MODERATE = 2
+private const val THERMAL_STATUS_SEVERE = 3
+private const val THERMAL_STATUS_CRITICAL = 4
+
+class CaptureDegradationPolicyTest : BaseUnitTest() {
+
+    private val degradationChanges = mutableListOf<CaptureDegradation>()
+    private val policy = CaptureDegradationPolicy { degradationChanges += it }
+    private var nowMillis = 0L
+    private var thermalStatus = THERMAL_STATUS_NONE
+    private var batteryPercent = 80
+    private var isCharging = false
+
+    @Test
+    fun `a cool device with a charged battery should not be degraded`() {
+        update()
+        thermalStatus = THERMAL_STATUS_LIGHT
+        update()
+
+        assertThat(policy.degradation, equalTo(CaptureDegradation.NONE))
+        assertThat(degradationChanges.isEmpty(), equalTo(true))
+    }
+
+    @Test
+    fun `a rising thermal status should lower the capture format at once`() {
+        thermalStatus = THERMAL_STATUS_MODERATE
+        update()
+        thermalStatus = THERMAL_STATUS_SEVERE
+        update()
+        thermalStatus = THERMAL_STATUS_CRITICAL
+        update()
+
+        assertThat(degradationChanges, equalTo(listOf(
+                CaptureDegradation(1, THERMAL),
+                CaptureDegradation(2, THERMAL),
+                CaptureDegradation(3, THERMAL))))
+    }
+
+    @Test
+    fun `the capture format should only be restored once the device stayed cool`() {
+        thermalStatus = THERMAL_STATUS_SEVERE
+        update()
+        thermalStatus = THERMAL_STATUS_NONE
+
+        assertThat(update(), equalTo(30_000L))
+
+        nowMillis += 20_000
+
+        assertThat(update(), equalTo(10_000L))
+        assertThat(policy.degradation, equalTo(CaptureDegradation(2, THERMAL)))
+
+        nowMillis += 10_000
+
+        assertThat(update(), equalTo(0L))
+        assertThat(policy.degradation, equalTo(CaptureDegradation.NONE))
+    }
+
+    @Test
+    fun `heating up again during the restore delay should keep the capture format lowered`() {
+        thermalStatus = THERMAL_STATUS_MODERATE
+        update()
+        thermalStatus = THERMAL_STATUS_NONE
+        update()
+        nowMillis += 20_000
+        thermalStatus = THERMAL_STATUS_MODERATE
+        update()
+        nowMillis += 20_000
+        thermalStatus = THERMAL_STATUS_NONE
+
+        assertThat(update(), equalTo(30_000L))
+        assertThat(degradationChanges, equalTo(listOf(CaptureDegradation(1, THERMAL))))
+    }
+
+    @Test
+    fun `a low battery should lower the capture format while not charging`() {
+        batteryPercent = 20
+        update()
+        batteryPercent = 10
+        update()
+
+        assertThat(degradationChanges, equalTo(listOf(
+                CaptureDegradation(1, BATTERY),
+                CaptureDegradation(2, BATTERY))))
+
+        isCharging = true
+        update()
+        nowMillis += 30_000
+        update()
+
+        assertThat(policy.degradation, equalTo(CaptureDegradation.NONE))
+    }
+
+    @Test
+    fun `a battery level hovering around the threshold should not restore the capture format`() {
+        batteryPercent = 20
+        update()
+        for (percent in listOf(21, 20, 22, 19, 25)) {
+            batteryPercent = percent
+            nowMillis += 60_000
+            update()
+        }
+
+        assertThat(degradationChanges, equalTo(listOf(CaptureDegradation(1, BATTERY))))
+
+        batteryPercent = 26
+        update()
+        nowMillis += 30_000
+        update()
+
+        assertThat(policy.degradation, equalTo(CaptureDegradation.NONE))
+    }
+
+    @Test
+    fun `the larger of the thermal and battery degradation should win`() {
+        batteryPercent = 10
+        thermalStatus = THERMAL_STATUS_MODERATE
+        update()
+
+        assertThat(policy.degradation, equalTo(CaptureDegradation(2, BATTERY)))
+
+        thermalStatus = THERMAL_STATUS_CRITICAL
+        update()
+
+        assertThat(policy.degradation, equalTo(CaptureDegradation(3, THERMAL)))
+    }
+
+    private fun update() = policy.update(thermalStatus, batteryPercent, isCharging, nowMillis)
+}
@@ -0,0 +1,159 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class PublishQualityControllerTest : BaseUnitTest() {
+
+    private val ladder = PublishQualityLevel.ladder(1280, 720, 30, 0)
+    private val levelChanges = mutableListOf<PublishQualityLevel>()
+    private val publishQualityController = PublishQualityController(ladder) { levelChanges += it }
+    private var timestampMillis = 0L
+
+    @Test
+    fun `the ladder should start with the capture format from the settings`() {
+        assertThat(ladder, equalTo(listOf(
+                PublishQualityLevel(1280, 720, 30, 0),
+                PublishQualityLevel(960, 540, 30, 1_000_000),
+                PublishQualityLevel(640, 480, 24, 600_000),
+                PublishQualityLevel(352, 288, 15, 250_000),
+                PublishQualityLevel(352, 288, 10, 150_000))))
+    }
+
+    @Test
+    fun `the ladder should only step down from the capture format and bitrate cap`() {
+        val ladder = PublishQualityLevel.ladder(640, 480, 30, 400_000)
+
+        assertThat(ladder, equalTo(listOf(
+                PublishQualityLevel(640, 480, 30, 400_000),
+                PublishQualityLevel(640, 480, 24, 400_000),
+                PublishQualityLevel(352, 288, 15, 250_000),
+                PublishQualityLevel(352, 288, 10, 150_000))))
+    }
+
+    @Test
+    fun `a level should keep its step when the settings rebuild the ladder`() {
+        val ladder = PublishQualityLevel.ladder(640, 480, 30, 400_000)
+
+        assertThat(PublishQualityLevel(640, 480, 24, 600_000).indexIn(ladder), equalTo(1))
+        assertThat(PublishQualityLevel(352, 288, 15, 250_000).indexIn(ladder), equalTo(2))
+        assertThat(PublishQualityLevel(176, 144, 5, 0).indexIn(ladder), equalTo(3))
+    }
+
+    @Test
+    fun `sustained congestion should step the quality down`() {
+        repeat(3) { tick(rtt = 500) }
+
+        assertThat(levelChanges.isEmpty(), equalTo(true))
+
+        tick(rtt = 500)
+
+        assertThat(levelChanges, equalTo(listOf(ladder[1])))
+    }
+
+    @Test
+    fun `the encoder should settle before the next step down`() {
+        repeat(4) { tick(packetLossPercent = 10f) }
+        repeat(4) { tick(packetLossPercent = 10f) }
+
+        assertThat(publishQualityController.levelIndex, equalTo(1))
+
+        repeat(3) { tick(packetLossPercent = 10f) }
+
+        assertThat(publishQualityController.levelIndex, equalTo(2))
+    }
+
+    @Test
+    fun `a link between the thresholds should keep the current level`() {
+        repeat(4) { tick(rtt = 500) }
+        repeat(60) { tick(rtt = if (it % 2 == 0) 300 else 350) }
+
+        assertThat(levelChanges, equalTo(listOf(ladder[1])))
+    }
+
+    @Test
+    fun `sustained health should step the quality back up`() {
+        repeat(4) { tick(rtt = 500) }
+        repeat(13) { tick() }
+
+        assertThat(publishQualityController.levelIndex, equalTo(1))
+
+        tick()
+
+        assertThat(levelChanges, equalTo(listOf(ladder[1], ladder[0])))
+    }
+
+    @Test
+    fun `a failed upgrade should double the time to the next upgrade`() {
+        repeat(4) { tick(rtt = 500) }
+        repeat(15) { tick() }
+        assertThat(publishQualityController.levelIndex, equalTo(0))
+        repeat(7) { tick(rtt = 500) }
+        assertThat(publishQualityController.levelIndex, equalTo(1))
+
+        repeat(22) { tick() }
+
+        assertThat(publishQualityController.levelIndex, equalTo(1))
+
+        tick()
+
+        assertThat(publishQualityController.levelIndex, equalTo(0))
+    }
+
+    @Test
+    fun `a frame rate far below the level should step the quality down`() {
+        repeat(4) { tick(frameRate = 12) }
+
+        assertThat(publishQualityController.levelIndex, equalTo(1))
+    }
+
+    @Test
+    fun `a frame rate lowered by the device should not step the quality down`() {
+        repeat(10) { tick(frameRate = 15, captureFrameRate = 15) }
+
+        assertThat(levelChanges.isEmpty(), equalTo(true))
+    }
+
+    @Test
+    fun `a poor network quality level should step the quality down`() {
+        publishQualityController.networkQualityLevel = 1
+        repeat(4) { tick() }
+
+        assertThat(publishQualityController.levelIndex, equalTo(1))
+
+        publishQualityController.networkQualityLevel = 3
+        repeat(30) { tick() }
+
+        assertThat(publishQualityController.levelIndex, equalTo(1))
+    }
+
+    @Test
+    fun `the quality should not step below the last level`() {
+        repeat(100) { tick(rtt = 1_000) }
+
+        assertThat(publishQualityController.level, equalTo(ladder.last()))
+        assertThat(levelChanges.size, equalTo(ladder.lastIndex))
+    }
+
+    @Test
+    fun `disabling the camera should restart the congestion window`() {
+        repeat(3) { tick(frameRate = 0) }
+        publishQualityController.update(emptyList(), TrackStatsEngine(), "MTlv", false, 30)
+        repeat(3) { tick(frameRate = 0) }
+
+        assertThat(levelChanges.isEmpty(), equalTo(true))
+    }
+
+    private fun tick(
+        rtt: Long = 100,
+        packetLossPercent: Float = 0f,
+        frameRate: Int = 30,
+        captureFrameRate: Int = publishQualityController.level.frameRate
+    ) {
+        publishQualityController.updateSample(timestampMillis, rtt, packetLossPercent,
+                minOf(frameRate, captureFrameRate), captureFrameRate)
+        timestampMillis += 1_000
+    }
+}
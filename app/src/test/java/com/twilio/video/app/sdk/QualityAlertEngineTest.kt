@@ -0,0 +1,163 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.sdk.QualityAlertType.HIGH_PACKET_LOSS
+import com.twilio.video.app.sdk.QualityAlertType.HIGH_RTT
+import com.twilio.video.app.sdk.QualityAlertType.LOW_FRAME_RATE
+import com.twilio.video.app.sdk.QualityAlertType.SILENT_AUDIO
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class QualityAlertEngineTest : BaseUnitTest() {
+
+    private val activeAlerts = mutableListOf<QualityAlert>()
+    private var changeCount = 0
+    private val qualityAlertEngine = QualityAlertEngine { alert, isRaised ->
+        changeCount++
+        if (isRaised) activeAlerts += alert else activeAlerts -= alert
+    }
+    private var timestampMillis = 0L
+
+    @Test
+    fun `high rtt should only be raised once it lasted for three seconds`() {
+        repeat(3) { tickLocalVideo(rtt = 500) }
+
+        assertThat(activeAlerts.isEmpty(), equalTo(true))
+
+        tickLocalVideo(rtt = 500)
+
+        assertThat(activeAlerts.single().type, equalTo(HIGH_RTT))
+        assertThat(activeAlerts.single().value, equalTo(500f))
+    }
+
+    @Test
+    fun `a short spike should not raise an alert`() {
+        repeat(3) { tickLocalVideo(rtt = 500) }
+        tickLocalVideo(rtt = 100)
+        repeat(3) { tickLocalVideo(rtt = 500) }
+
+        assertThat(changeCount, equalTo(0))
+    }
+
+    @Test
+    fun `a metric between both thresholds should neither raise nor clear the alert`() {
+        repeat(4) { tickLocalVideo(rtt = 500) }
+        repeat(30) { tickLocalVideo(rtt = if (it % 2 == 0) 300 else 450) }
+
+        assertThat(activeAlerts.single().type, equalTo(HIGH_RTT))
+        assertThat(changeCount, equalTo(1))
+    }
+
+    @Test
+    fun `an alert should only be cleared once the metric recovered for five seconds`() {
+        repeat(4) { tickLocalVideo(rtt = 500) }
+        repeat(5) { tickLocalVideo(rtt = 100) }
+
+        assertThat(activeAlerts.size, equalTo(1))
+
+        tickLocalVideo(rtt = 100)
+
+        assertThat(activeAlerts.isEmpty(), equalTo(true))
+        assertThat(changeCount, equalTo(2))
+    }
+
+    @Test
+    fun `unknown packet loss should not affect the packet loss alert`() {
+        repeat(4) { tickRemoteVideo(packetLossPercent = 10f) }
+        repeat(10) { tickRemoteVideo(packetLossPercent = Float.NaN) }
+
+        assertThat(activeAlerts.single().type, equalTo(HIGH_PACKET_LOSS))
+    }
+
+    @Test
+    fun `low frame rate of remote video should name the participant`() {
+        repeat(4) { tickRemoteVideo(frameRate = 5) }
+
+        assertThat(activeAlerts.single(), equalTo(
+                QualityAlert("MTrv", "Participant 1", LOW_FRAME_RATE, 5f)))
+    }
+
+    @Test
+    fun `pausing a remote video track should clear its frame rate alert`() {
+        repeat(4) { tickRemoteVideo(frameRate = 5) }
+        repeat(10) { tickRemoteVideo(frameRate = 0, isPaused = true) }
+
+        assertThat(activeAlerts.isEmpty(), equalTo(true))
+        assertThat(changeCount, equalTo(2))
+    }
+
+    @Test
+    fun `muted local audio should not raise a silent audio alert`() {
+        repeat(10) { tickLocalAudio(audioLevel = 0, isPaused = true) }
+
+        assertThat(changeCount, equalTo(0))
+
+        repeat(6) { tickLocalAudio(audioLevel = 0) }
+
+        assertThat(activeAlerts.single().type, equalTo(SILENT_AUDIO))
+    }
+
+    @Test
+    fun `alerts of tracks that are no longer reported should be cleared`() {
+        repeat(4) { tickRemoteVideo(frameRate = 5) }
+
+        qualityAlertEngine.beginUpdate()
+        qualityAlertEngine.endUpdate()
+
+        assertThat(activeAlerts.isEmpty(), equalTo(true))
+    }
+
+    @Test
+    fun `silent remote audio should not raise an alert`() {
+        repeat(10) { tick(remoteAudioLevel = 0) }
+
+        assertThat(changeCount, equalTo(0))
+    }
+
+    @Test
+    fun `alerts should need more than two samples at the background polling interval`() {
+        repeat(2) { tickLocalVideo(rtt = 500, intervalMillis = 10_000) }
+
+        assertThat(activeAlerts.isEmpty(), equalTo(true))
+
+        repeat(2) { tickLocalVideo(rtt = 500, intervalMillis = 10_000) }
+
+        assertThat(activeAlerts.single().type, equalTo(HIGH_RTT))
+    }
+
+    private fun tickLocalVideo(rtt: Long, intervalMillis: Long = 1_000) =
+            tick(rtt = rtt, intervalMillis = intervalMillis)
+
+    private fun tickRemoteVideo(
+        frameRate: Int = 30,
+        packetLossPercent: Float = 0f,
+        isPaused: Boolean = false
+    ) = tick(frameRate = frameRate, packetLossPercent = packetLossPercent, isPaused = isPaused)
+
+    private fun tickLocalAudio(audioLevel: Int, isPaused: Boolean = false) =
+            tick(audioLevel = audioLevel, isLocalAudioPaused = isPaused)
+
+    private fun tick(
+        rtt: Long = 100,
+        frameRate: Int = 30,
+        packetLossPercent: Float = 0f,
+        isPaused: Boolean = false,
+        audioLevel: Int = 1_000,
+        isLocalAudioPaused: Boolean = false,
+        remoteAudioLevel: Int = 1_000,
+        intervalMillis: Long = 1_000
+    ) {
+        qualityAlertEngine.beginUpdate()
+        qualityAlertEngine.updateTrack("MTla", null, true, true, timestampMillis, 100, 0f, 0,
+                audioLevel, isLocalAudioPaused)
+        qualityAlertEngine.updateTrack("MTlv", null, true, false, timestampMillis, rtt, 0f,
+                30, 0, false)
+        qualityAlertEngine.updateTrack("MTrv", "Participant 1", false, false, timestampMillis, 0,
+                packetLossPercent, frameRate, 0, isPaused)
+        qualityAlertEngine.updateTrack("MTra", "Participant 1", false, true, timestampMillis, 0,
+                0f, 0, remoteAudioLevel, false)
+        qualityAlertEngine.endUpdate()
+        timestampMillis += intervalMillis
+    }
+}
@@ -0,0 +1,113 @@
+package com.twilio.video.app.sdk
+
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.RemoteAudioTrack
+import com.twilio.video.RemoteAudioTrackPublication
+import com.twilio.video.RemoteParticipant
+import com.twilio.video.RemoteVideoTrack
+import com.twilio.video.RemoteVideoTrackPublication
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class RemoteParticipantListenerTest : BaseUnitTest() {
+
+    private val trackOwners = TrackOwnerIndex()
+    private val trackStatsEngine = TrackStatsEngine()
+    private val pausedTracks = PausedTrackIndex()
+    private val roomManager = mock<RoomManager> {
+        whenever(mock.trackOwners).thenReturn(trackOwners)
+        whenever(mock.trackStatsEngine).thenReturn(trackStatsEngine)
+        whenever(mock.pausedTracks).thenReturn(pausedTracks)
+    }
+    private val remoteParticipantListener = RemoteParticipantListener(roomManager)
+    private val remoteParticipant = mock<RemoteParticipant> {
+        whenever(mock.sid).thenReturn("PA1")
+        whenever(mock.identity).thenReturn("Participant 1")
+    }
+    private val videoTrack = mock<RemoteVideoTrack> {
+        whenever(mock.sid).thenReturn("MT1")
+        whenever(mock.name).thenReturn(CAMERA_TRACK_NAME)
+    }
+    private val audioTrack = mock<RemoteAudioTrack> {
+        whenever(mock.sid).thenReturn("MT2")
+    }
+    private val audioTrackPublication = mock<RemoteAudioTrackPublication> {
+        whenever(mock.trackSid).thenReturn("MT2")
+    }
+    private val videoTrackPublication = mock<RemoteVideoTrackPublication> {
+        whenever(mock.trackSid).thenReturn("MT1")
+    }
+
+    @Test
+    fun `subscribed tracks should be indexed by their sid`() {
+        remoteParticipantListener.onVideoTrackSubscribed(remoteParticipant, mock(), videoTrack)
+        remoteParticipantListener.onAudioTrackSubscribed(remoteParticipant, mock(), audioTrack)
+
+        assertThat(trackOwners["MT1"], equalTo("Participant 1"))
+        assertThat(trackOwners["MT2"], equalTo("Participant 1"))
+    }
+
+    @Test
+    fun `unsubscribed tracks should be removed from the index`() {
+        remoteParticipantListener.onVideoTrackSubscribed(remoteParticipant, mock(), videoTrack)
+        remoteParticipantListener.onAudioTrackSubscribed(remoteParticipant, mock(), audioTrack)
+
+        remoteParticipantListener.onVideoTrackUnsubscribed(remoteParticipant, mock(), videoTrack)
+        remoteParticipantListener.onAudioTrackUnsubscribed(remoteParticipant, mock(), audioTrack)
+
+        assertThat(trackOwners["MT1"], nullValue())
+        assertThat(trackOwners.size, equalTo(0))
+    }
+
+    @Test
+    fun `unsubscribed tracks should be evicted from the stats history`() {
+        remoteParticipantListener.onVideoTrackSubscribed(remoteParticipant, mock(), videoTrack)
+        trackStatsEngine.record("MT1", false, 1_000.0, 0, 0, 0, 30, 0)
+        trackStatsEngine.record("MT1", false, 2_000.0, 125_000, 100, 0, 30, 0)
+
+        remoteParticipantListener.onVideoTrackUnsubscribed(remoteParticipant, mock(), videoTrack)
+        trackStatsEngine.update(emptyList())
+
+        assertThat(trackStatsEngine["MT1"], nullValue())
+    }
+
+    @Test
+    fun `tracks subscribed while disabled should start out paused`() {
+        whenever(audioTrack.isEnabled).thenReturn(false)
+        whenever(videoTrack.isEnabled).thenReturn(true)
+
+        remoteParticipantListener.onAudioTrackSubscribed(remoteParticipant, mock(), audioTrack)
+        remoteParticipantListener.onVideoTrackSubscribed(remoteParticipant, mock(), videoTrack)
+
+        assertThat(pausedTracks.isPaused("MT2"), equalTo(true))
+        assertThat(pausedTracks.isPaused("MT1"), equalTo(false))
+    }
+
+    @Test
+    fun `disabled audio tracks should be paused until they are enabled again`() {
+        remoteParticipantListener.onAudioTrackSubscribed(remoteParticipant, mock(), audioTrack)
+
+        remoteParticipantListener.onAudioTrackDisabled(remoteParticipant, audioTrackPublication)
+        assertThat(pausedTracks.isPaused("MT2"), equalTo(true))
+
+        remoteParticipantListener.onAudioTrackEnabled(remoteParticipant, audioTrackPublication)
+        assertThat(pausedTracks.isPaused("MT2"), equalTo(false))
+    }
+
+    @Test
+    fun `video tracks should stay paused while they are disabled or switched off`() {
+        remoteParticipantListener.onVideoTrackSubscribed(remoteParticipant, mock(), videoTrack)
+        remoteParticipantListener.onVideoTrackDisabled(remoteParticipant, videoTrackPublication)
+        remoteParticipantListener.onVideoTrackSwitchedOff(remoteParticipant, videoTrack)
+
+        remoteParticipantListener.onVideoTrackEnabled(remoteParticipant, videoTrackPublication)
+        assertThat(pausedTracks.isPaused("MT1"), equalTo(true))
+
+        remoteParticipantListener.onVideoTrackSwitchedOn(remoteParticipant, videoTrack)
+        assertThat(pausedTracks.isPaused("MT1"), equalTo(false))
+    }
+}
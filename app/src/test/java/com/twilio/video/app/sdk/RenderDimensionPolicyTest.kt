@@ -0,0 +1,85 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.TrackPriority.HIGH
+import com.twilio.video.TrackPriority.LOW
+import com.twilio.video.TrackPriority.STANDARD
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class RenderDimensionPolicyTest : BaseUnitTest() {
+
+    private val policy = RenderDimensionPolicy()
+    private val tiers = mapOf(
+            LOW to RenderDimensions(320, 180),
+            STANDARD to RenderDimensions(480, 270),
+            HIGH to RenderDimensions(1280, 720))
+
+    @Test
+    fun `a view should be quantized to the smallest rung that covers it`() {
+        assertThat(policy.quantize(252, 252), equalTo(RenderDimensions(480, 270)))
+        assertThat(policy.quantize(1080, 1600), equalTo(RenderDimensions(1920, 1080)))
+        assertThat(policy.quantize(300, 170), equalTo(RenderDimensions(320, 180)))
+    }
+
+    @Test
+    fun `a rotated view should be quantized like the landscape one`() {
+        assertThat(policy.quantize(360, 640), equalTo(policy.quantize(640, 360)))
+    }
+
+    @Test
+    fun `a view larger than the ladder should be quantized to the top rung`() {
+        assertThat(policy.quantize(3840, 2160), equalTo(RenderDimensions(1920, 1080)))
+    }
+
+    @Test
+    fun `a growing view should step up at once`() {
+        val current = policy.quantize(300, 170)
+
+        assertThat(policy.quantize(330, 180, current), equalTo(RenderDimensions(480, 270)))
+    }
+
+    @Test
+    fun `a view hovering around a rung should not flap`() {
+        var current = policy.quantize(330, 185)
+
+        current = policy.quantize(315, 177, current)
+        assertThat(current, equalTo(RenderDimensions(480, 270)))
+        current = policy.quantize(330, 185, current)
+        assertThat(current, equalTo(RenderDimensions(480, 270)))
+    }
+
+    @Test
+    fun `a view that shrank well below its rung should step down`() {
+        val current = policy.quantize(1280, 720)
+
+        assertThat(policy.quantize(250, 140, current), equalTo(RenderDimensions(320, 180)))
+    }
+
+    @Test
+    fun `a view that shrank to just below its rung should only step down part of the way`() {
+        val current = policy.quantize(1280, 720)
+
+        assertThat(policy.quantize(600, 340, current), equalTo(RenderDimensions(960, 540)))
+    }
+
+    @Test
+    fun `a thumbnail covered by the standard tier should get standard priority`() {
+        assertThat(policy.priorityFor(RenderDimensions(320, 180), tiers), equalTo(STANDARD))
+        assertThat(policy.priorityFor(RenderDimensions(480, 270), tiers), equalTo(STANDARD))
+    }
+
+    @Test
+    fun `a view larger than the standard tier should get high priority`() {
+        assertThat(policy.priorityFor(RenderDimensions(640, 360), tiers), equalTo(HIGH))
+        assertThat(policy.priorityFor(RenderDimensions(1920, 1080), tiers), equalTo(HIGH))
+    }
+
+    @Test
+    fun `no priority should be derived without a standard tier`() {
+        assertThat(policy.priorityFor(RenderDimensions(320, 180), emptyMap()), nullValue())
+        assertThat(policy.priorityFor(RenderDimensions(320, 180), tiers - STANDARD), nullValue())
+    }
+}
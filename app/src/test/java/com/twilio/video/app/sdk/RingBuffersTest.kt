@@ -0,0 +1,109 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class RingBuffersTest : BaseUnitTest() {
+
+    private val longRingBuffer = LongRingBuffer(5)
+    private val intRingBuffer = IntRingBuffer(5)
+
+    @Test
+    fun `values should be indexed from the oldest one`() {
+        (1L..3L).forEach { longRingBuffer.add(it) }
+
+        assertThat(longRingBuffer.size, equalTo(3))
+        assertThat(longRingBuffer[0], equalTo(1L))
+        assertThat(longRingBuffer.last, equalTo(3L))
+    }
+
+    @Test
+    fun `a full buffer should overwrite its oldest values`() {
+        (1L..7L).forEach { longRingBuffer.add(it) }
+
+        assertThat(longRingBuffer.size, equalTo(5))
+        assertThat(longRingBuffer[0], equalTo(3L))
+        assertThat(longRingBuffer.last, equalTo(7L))
+    }
+
+    @Test(expected = IndexOutOfBoundsException::class)
+    fun `reading past the size should fail`() {
+        longRingBuffer.add(1)
+
+        longRingBuffer[1]
+    }
+
+    @Test
+    fun `clear should empty the buffer`() {
+        (1L..7L).forEach { longRingBuffer.add(it) }
+
+        longRingBuffer.clear()
+        longRingBuffer.add(8)
+
+        assertThat(longRingBuffer.size, equalTo(1))
+        assertThat(longRingBuffer[0], equalTo(8L))
+    }
+
+    @Test
+    fun `min and max should only look at the window`() {
+        listOf(1L, 9L, 4L, 6L, 5L).forEach { longRingBuffer.add(it) }
+
+        assertThat(longRingBuffer.min(), equalTo(1L))
+        assertThat(longRingBuffer.max(), equalTo(9L))
+        assertThat(longRingBuffer.min(window = 3), equalTo(4L))
+        assertThat(longRingBuffer.max(window = 3), equalTo(6L))
+    }
+
+    @Test
+    fun `percentile should use the nearest rank`() {
+        listOf(15, 20, 35, 40, 50).shuffled().forEach { intRingBuffer.add(it) }
+
+        assertThat(intRingBuffer.percentile(0), equalTo(15))
+        assertThat(intRingBuffer.percentile(30), equalTo(20))
+        assertThat(intRingBuffer.percentile(40), equalTo(20))
+        assertThat(intRingBuffer.percentile(50), equalTo(35))
+        assertThat(intRingBuffer.percentile(100), equalTo(50))
+    }
+
+    @Test
+    fun `percentile should not reorder the buffer`() {
+        listOf(5L, 4L, 3L, 2L, 1L).forEach { longRingBuffer.add(it) }
+
+        assertThat(longRingBuffer.percentile(50, window = 4), equalTo(2L))
+        assertThat(longRingBuffer[0], equalTo(5L))
+        assertThat(longRingBuffer.last, equalTo(1L))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun `a window larger than the size should fail`() {
+        longRingBuffer.add(1)
+
+        longRingBuffer.min(window = 2)
+    }
+
+    @Test
+    fun `copyInto should copy the most recent values`() {
+        (1L..7L).forEach { longRingBuffer.add(it) }
+        val values = LongArray(3)
+
+        val count = longRingBuffer.copyInto(values)
+
+        assertThat(count, equalTo(3))
+        assertThat(values.toList(), equalTo(listOf(5L, 6L, 7L)))
+    }
+
+    @Test
+    fun `removeOldest should keep the newer values in order`() {
+        (1L..7L).forEach { longRingBuffer.add(it) }
+
+        longRingBuffer.removeOldest()
+        longRingBuffer.removeOldest()
+        longRingBuffer.add(8)
+
+        assertThat(longRingBuffer.size, equalTo(4))
+        assertThat(longRingBuffer[0], equalTo(5L))
+        assertThat(longRingBuffer.last, equalTo(8L))
+    }
+}
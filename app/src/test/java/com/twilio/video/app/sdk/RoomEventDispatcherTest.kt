@@ -0,0 +1,183 @@
+package com.twilio.video.app.sdk
+
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_FIVE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ONE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_THREE
+import com.twilio.video.Participant
+import com.twilio.video.VideoTrack
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.ui.room.RoomEvent
+import com.twilio.video.app.ui.room.RoomEvent.Disconnected
+import com.twilio.video.app.ui.room.RoomEvent.DominantSpeakerChanged
+import com.twilio.video.app.ui.room.RoomEvent.RecordingStarted
+import com.twilio.video.app.ui.room.RoomEvent.RecordingStopped
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.MuteRemoteParticipant
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.NetworkQualityLevelChange
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParticipantConnected
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParticipantDisconnected
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.VideoTrackUpdated
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.test.TestCoroutineScope
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+@ExperimentalCoroutinesApi
+class RoomEventDispatcherTest : BaseUnitTest() {
+
+    private val testScope = TestCoroutineScope()
+    private val handledEvents = mutableListOf<RoomEvent>()
+    private var now = 0L
+
+    @Test
+    fun `events should be handled in dispatch order`() {
+        val dispatcher = RoomEventDispatcher(testScope) { handledEvents.add(it) }
+        val roomEvents = (1..100).map { MuteRemoteParticipant("1", it % 2 == 0) }
+
+        roomEvents.forEach { dispatcher.dispatch(it) }
+
+        assertThat(handledEvents, equalTo<List<RoomEvent>>(roomEvents))
+        assertThat(dispatcher.metrics.handledEvents, equalTo(100L))
+        assertThat(dispatcher.metrics.queueDepth, equalTo(0))
+    }
+
+    @Test
+    fun `lifecycle and membership events should never be dropped when the queue is full`() {
+        testScope.pauseDispatcher()
+        val dispatcher = RoomEventDispatcher(testScope, capacity = 2) { handledEvents.add(it) }
+        val roomEvents = listOf(
+                RecordingStarted,
+                RemoteParticipantDisconnected("1"),
+                DominantSpeakerChanged("2"),
+                RemoteParticipantDisconnected("2"),
+                Disconnected)
+
+        roomEvents.forEach { dispatcher.dispatch(it) }
+        testScope.resumeDispatcher()
+
+        assertThat(handledEvents, equalTo(roomEvents))
+        assertThat(dispatcher.metrics.coalescedEvents, equalTo(0L))
+    }
+
+    @Test
+    fun `property events should be coalesced in place when the queue is full`() {
+        testScope.pauseDispatcher()
+        val dispatcher = RoomEventDispatcher(testScope, capacity = 2) { handledEvents.add(it) }
+
+        dispatcher.dispatch(RecordingStarted)
+        dispatcher.dispatch(RecordingStopped)
+        dispatcher.dispatch(MuteRemoteParticipant("1", true))
+        dispatcher.dispatch(RemoteParticipantDisconnected("2"))
+        dispatcher.dispatch(MuteRemoteParticipant("1", false))
+        dispatcher.dispatch(MuteRemoteParticipant("3", true))
+        testScope.resumeDispatcher()
+
+        assertThat(handledEvents, equalTo(listOf(
+                RecordingStarted,
+                RecordingStopped,
+                MuteRemoteParticipant("1", false),
+                RemoteParticipantDisconnected("2"),
+                MuteRemoteParticipant("3", true))))
+        assertThat(dispatcher.metrics.coalescedEvents, equalTo(1L))
+    }
+
+    @Test
+    fun `a property with a pending slot should keep using it below capacity`() {
+        testScope.pauseDispatcher()
+        lateinit var dispatcher: RoomEventDispatcher
+        dispatcher = RoomEventDispatcher(testScope, capacity = 2) { roomEvent ->
+            handledEvents.add(roomEvent)
+            if (roomEvent == RecordingStopped) {
+                // Only the placeholder is left, so the queue is below capacity again
+                dispatcher.dispatch(NetworkQualityLevelChange("1", NETWORK_QUALITY_LEVEL_THREE))
+                dispatcher.dispatch(RecordingStarted)
+                dispatcher.dispatch(NetworkQualityLevelChange("1", NETWORK_QUALITY_LEVEL_FIVE))
+            }
+        }
+
+        dispatcher.dispatch(RecordingStarted)
+        dispatcher.dispatch(RecordingStopped)
+        dispatcher.dispatch(NetworkQualityLevelChange("1", NETWORK_QUALITY_LEVEL_ONE))
+        testScope.resumeDispatcher()
+
+        assertThat(handledEvents, equalTo(listOf(
+                RecordingStarted,
+                RecordingStopped,
+                NetworkQualityLevelChange("1", NETWORK_QUALITY_LEVEL_FIVE),
+                RecordingStarted)))
+    }
+
+    @Test
+    fun `a property should not be delivered ahead of a rejoin that preceded it`() {
+        testScope.pauseDispatcher()
+        val dispatcher = RoomEventDispatcher(testScope, capacity = 2) { handledEvents.add(it) }
+        val participant = mock<Participant> { whenever(mock.sid).thenReturn("A") }
+        val firstTrack = mock<VideoTrack>()
+        val secondTrack = mock<VideoTrack>()
+
+        dispatcher.dispatch(RecordingStarted)
+        dispatcher.dispatch(RecordingStopped)
+        dispatcher.dispatch(VideoTrackUpdated("A", firstTrack))
+        dispatcher.dispatch(RemoteParticipantDisconnected("A"))
+        dispatcher.dispatch(RemoteParticipantConnected(participant))
+        dispatcher.dispatch(VideoTrackUpdated("A", secondTrack))
+        testScope.resumeDispatcher()
+
+        assertThat(handledEvents, equalTo(listOf(
+                RecordingStarted,
+                RecordingStopped,
+                VideoTrackUpdated("A", firstTrack),
+                RemoteParticipantDisconnected("A"),
+                RemoteParticipantConnected(participant),
+                VideoTrackUpdated("A", secondTrack))))
+        assertThat(dispatcher.metrics.coalescedEvents, equalTo(0L))
+    }
+
+    @Test
+    fun `a closed dispatcher should reject new events`() {
+        val dispatcher = RoomEventDispatcher(testScope) { handledEvents.add(it) }
+
+        dispatcher.close()
+
+        assertThat(dispatcher.dispatch(RecordingStarted), equalTo(false))
+        assertThat(dispatcher.metrics.queueDepth, equalTo(0))
+    }
+
+    @Test
+    fun `a replacing dispatcher should wait until the closed one is drained`() {
+        testScope.pauseDispatcher()
+        val closed = RoomEventDispatcher(testScope) { handledEvents.add(it) }
+        closed.dispatch(Disconnected)
+        val dispatcher = RoomEventDispatcher(testScope, previous = closed) {
+            handledEvents.add(it)
+        }
+        closed.close()
+
+        dispatcher.dispatch(RecordingStarted)
+        testScope.resumeDispatcher()
+
+        assertThat(handledEvents, equalTo(listOf(Disconnected, RecordingStarted)))
+    }
+
+    @Test
+    fun `latency should be measured from dispatch until handling starts`() {
+        testScope.pauseDispatcher()
+        val dispatcher = RoomEventDispatcher(testScope, nanoTime = { now }) {
+            handledEvents.add(it)
+        }
+
+        dispatcher.dispatch(RecordingStarted)
+        now = 10
+        dispatcher.dispatch(RecordingStopped)
+        now = 40
+        testScope.resumeDispatcher()
+
+        val metrics = dispatcher.metrics
+        assertThat(metrics.maxLatencyNanos, equalTo(40L))
+        assertThat(metrics.lastLatencyNanos, equalTo(30L))
+        assertThat(metrics.averageLatencyNanos, equalTo(35L))
+        assertThat(metrics.maxQueueDepth, equalTo(2))
+    }
+}
@@ -0,0 +1,60 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.sdk.StatsPollingMode.BACKGROUND
+import com.twilio.video.app.sdk.StatsPollingMode.FOREGROUND
+import com.twilio.video.app.sdk.StatsPollingMode.PAUSED
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class StatsPollingModeTest : BaseUnitTest() {
+
+    @Test
+    fun `visible stats in the foreground should be polled every second`() {
+        assertThat(mode(isStatsVisible = true), equalTo(FOREGROUND))
+        assertThat(FOREGROUND.intervalMillis, equalTo(1_000L))
+    }
+
+    @Test
+    fun `hidden stats without consumers should not be polled`() {
+        assertThat(mode(isStatsVisible = false), equalTo(PAUSED))
+    }
+
+    @Test
+    fun `visible stats should not be polled while the app is in the background`() {
+        assertThat(mode(isStatsVisible = true, isInForeground = false), equalTo(PAUSED))
+    }
+
+    @Test
+    fun `background consumers should keep a slow polling cadence`() {
+        assertThat(mode(isStatsVisible = false, backgroundConsumerCount = 1), equalTo(BACKGROUND))
+        assertThat(mode(isInForeground = false, backgroundConsumerCount = 2), equalTo(BACKGROUND))
+        assertThat(BACKGROUND.intervalMillis, equalTo(10_000L))
+    }
+
+    @Test
+    fun `disabled stats should only be polled for background consumers`() {
+        assertThat(mode(isStatsEnabled = false, isStatsVisible = true), equalTo(PAUSED))
+        assertThat(mode(isStatsEnabled = false, isStatsVisible = true, backgroundConsumerCount = 1),
+                equalTo(BACKGROUND))
+    }
+
+    @Test
+    fun `foreground consumers should be polled every second while the app is in the foreground`() {
+        assertThat(mode(isStatsEnabled = false, isStatsVisible = false, foregroundConsumerCount = 1),
+                equalTo(FOREGROUND))
+        assertThat(mode(isInForeground = false, foregroundConsumerCount = 1), equalTo(PAUSED))
+        assertThat(mode(isInForeground = false, backgroundConsumerCount = 1,
+                foregroundConsumerCount = 1), equalTo(BACKGROUND))
+    }
+
+    private fun mode(
+        isStatsEnabled: Boolean = true,
+        isStatsVisible: Boolean = true,
+        isInForeground: Boolean = true,
+        backgroundConsumerCount: Int = 0,
+        foregroundConsumerCount: Int = 0
+    ) = StatsPollingMode.from(isStatsEnabled, isStatsVisible, isInForeground,
+            backgroundConsumerCount, foregroundConsumerCount)
+}
@@ -0,0 +1,130 @@
+package com.twilio.video.app.sdk
+
+import android.content.Context
+import com.nhaarman.mockitokotlin2.any
+import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.whenever
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.model.StatsRow
+import com.twilio.video.app.ui.room.RoomEvent.StatsUpdate
+import com.twilio.video.app.util.BAD_CALL_DEGRADED_TICKS
+import com.twilio.video.app.util.BAD_CALL_TICKS
+import com.twilio.video.app.util.recordBadCall
+import com.twilio.video.app.util.replayStatsReports
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.test.TestCoroutineDispatcher
+import kotlinx.coroutines.test.TestCoroutineScope
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+/*
+ * Replays a recorded call through RoomManager.sendStatsUpdate, as the stats thread would, and
+ * checks what the stats panel is handed along the way.
+ */
+@ExperimentalCoroutinesApi
+class StatsReplayTest : BaseUnitTest() {
+
+    @get:Rule
+    val temporaryFolder = TemporaryFolder()
+    private val testDispatcher = TestCoroutineDispatcher()
+    private val testScope = TestCoroutineScope(testDispatcher)
+    private val context = mock<Context> {
+        whenever(mock.getString(any())).thenReturn("Track")
+    }
+    private val roomManager = RoomManager(context, mock(), mock(), testDispatcher).apply {
+        localParticipantManager = mock {
+            whenever(mock.localVideoTrackNames).thenReturn(HashMap())
+        }
+        room = mock()
+    }
+    private val session by lazy { recordBadCall(temporaryFolder.newFolder()) }
+    private var collectJob: Job? = null
+
+    @After
+    fun tearDown() {
+        collectJob?.cancel()
+        testScope.cleanupTestCoroutines()
+    }
+
+    @Test
+    fun `every recorded tick should be replayed as a stats update`() {
+        val ticks = replayStatsReports(session)
+        val sequences = mutableListOf<Long>()
+        collectStatsUpdates { statsUpdate -> sequences += statsUpdate.roomStats.sequence }
+
+        ticks.forEach { roomManager.sendStatsUpdate(it) }
+
+        assertThat(ticks.size, equalTo(BAD_CALL_TICKS))
+        assertThat(sequences, equalTo((1..BAD_CALL_TICKS.toLong()).toList()))
+    }
+
+    @Test
+    fun `the stats panel should show the degradation while it lasts`() {
+        val bitrates = mutableListOf<Long>()
+        val packetLoss = mutableListOf<Float>()
+        val dimensions = mutableListOf<String>()
+        collectStatsUpdates { statsUpdate ->
+            val row = statsUpdate.roomStats.statsRows.remoteVideoRow()
+            row.takeChangedFields()
+            val values = row.values
+            bitrates += values.bitrate
+            packetLoss += values.packetLossPercent
+            dimensions += "${values.width}x${values.height}"
+        }
+
+        replayStatsReports(session).forEach { roomManager.sendStatsUpdate(it) }
+
+        val degradedTick = BAD_CALL_DEGRADED_TICKS.first + 10
+        assertThat(bitrates[10], equalTo(1_500_000L))
+        assertThat(bitrates[degradedTick], equalTo(300_000L))
+        assertThat(bitrates.last(), equalTo(1_500_000L))
+        assertEquals(0f, packetLoss[10], 0.01f)
+        assertEquals(10f, packetLoss[degradedTick], 0.01f)
+        assertThat(dimensions[degradedTick], equalTo("640x360"))
+    }
+
+    @Test
+    fun `the summary should match the replayed intervals`() {
+        val summary = CallQualitySummary.of(session)
+
+        val remoteVideo = summary.tracks.single { it.trackSid == "MTrv" }
+        assertThat(remoteVideo.intervalCount, equalTo(BAD_CALL_TICKS - 1))
+        assertThat(remoteVideo.bitrate, equalTo(
+                CallQualityPercentiles(300_000, 300_000, 1_500_000, 1_500_000, 1_500_000)))
+        assertThat(remoteVideo.packetLoss, equalTo(CallQualityPercentiles(0, 0, 0, 1_000, 1_000)))
+        assertThat(remoteVideo.frameRate, equalTo(CallQualityPercentiles(12, 12, 30, 30, 30)))
+        val localAudio = summary.tracks.single { it.trackSid == "MTla" }
+        assertThat(localAudio.rtt, equalTo(CallQualityPercentiles(50, 50, 50, 400, 400)))
+        assertThat(localAudio.frameRate, equalTo(null as CallQualityPercentiles?))
+    }
+
+    @Test
+    fun `replaying a recorded call again should track the same tracks`() {
+        val ticks = replayStatsReports(session)
+        collectStatsUpdates { }
+        ticks.forEach { roomManager.sendStatsUpdate(it) }
+        roomManager.trackStatsEngine.clear()
+
+        ticks.forEach { roomManager.sendStatsUpdate(it) }
+
+        assertThat(roomManager.trackStatsEngine.trackCount, equalTo(session.tracks.size))
+    }
+
+    private fun collectStatsUpdates(onStatsUpdate: (StatsUpdate) -> Unit) {
+        collectJob = testScope.launch {
+            roomManager.roomEvents.collect { roomEvent ->
+                if (roomEvent is StatsUpdate) onStatsUpdate(roomEvent)
+            }
+        }
+    }
+
+    private fun List<StatsRow>.remoteVideoRow() = single { it.trackSid == "MTrv" }
+}
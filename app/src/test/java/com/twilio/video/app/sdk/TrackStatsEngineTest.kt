@@ -0,0 +1,159 @@
+package com.twilio.video.app.sdk
+
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+class TrackStatsEngineTest : BaseUnitTest() {
+
+    private val trackStatsEngine = TrackStatsEngine()
+    private var timestampMillis = 0.0
+    private var bytes = 0L
+    private var packets = 0
+    private var packetsLost = 0
+
+    @Test
+    fun `the first sample should not produce any rates`() {
+        tick(bytesDelta = 125_000)
+
+        assertThat(trackStats().intervalCount, equalTo(0))
+        assertThat(trackStats().bitrate, equalTo(0L))
+    }
+
+    @Test
+    fun `bitrate should be computed from the bytes of the last interval`() {
+        tick(bytesDelta = 0)
+        tick(bytesDelta = 125_000)
+        tick(bytesDelta = 250_000, elapsedMillis = 2_000.0)
+
+        assertThat(trackStats().bitrate, equalTo(1_000_000L))
+    }
+
+    @Test
+    fun `packet loss of a remote track should be relative to the received and lost packets`() {
+        tick()
+        tick(packetsDelta = 90, packetsLostDelta = 10)
+
+        assertEquals(10.0, trackStats().packetLossPercent.toDouble(), 0.001)
+    }
+
+    @Test
+    fun `packet loss of a local track should be relative to the sent packets`() {
+        tick(isLocalTrack = true)
+        tick(packetsDelta = 100, packetsLostDelta = 10, isLocalTrack = true)
+
+        assertEquals(10.0, trackStats().packetLossPercent.toDouble(), 0.001)
+    }
+
+    @Test
+    fun `counters going backwards should restart the window`() {
+        repeat(5) { tick(bytesDelta = 125_000) }
+        bytes = 0
+        packets = 0
+
+        tick()
+
+        assertThat(trackStats().intervalCount, equalTo(0))
+        assertThat(trackStats().bitrate, equalTo(0L))
+    }
+
+    @Test
+    fun `a repeated sample should be ignored`() {
+        tick()
+        tick(bytesDelta = 125_000)
+
+        tick(bytesDelta = 0, elapsedMillis = 0.0)
+
+        assertThat(trackStats().intervalCount, equalTo(1))
+        assertThat(trackStats().bitrate, equalTo(1_000_000L))
+    }
+
+    @Test
+    fun `a constant frame rate should be perfectly stable`() {
+        repeat(5) { tick(frameRate = 30) }
+
+        assertThat(trackStats().frameRateStability, equalTo(1f))
+    }
+
+    @Test
+    fun `a fluctuating frame rate should be less stable`() {
+        repeat(TRACK_STATS_WINDOW_SIZE + 1) { tick(frameRate = if (it % 2 == 0) 30 else 10) }
+
+        assertEquals(0.5, trackStats().frameRateStability.toDouble(), 0.001)
+    }
+
+    @Test
+    fun `rising jitter should have a positive trend in milliseconds per second`() {
+        repeat(TRACK_STATS_WINDOW_SIZE + 1) { tick(jitter = it * 2) }
+
+        assertEquals(2.0, trackStats().jitterTrend.toDouble(), 0.001)
+    }
+
+    @Test
+    fun `the window should only cover the latest intervals`() {
+        repeat(TRACK_STATS_WINDOW_SIZE) { tick(jitter = 100) }
+        repeat(TRACK_STATS_WINDOW_SIZE + 1) { tick(jitter = 10) }
+
+        assertThat(trackStats().intervalCount, equalTo(TRACK_STATS_WINDOW_SIZE))
+        assertThat(trackStats().jitterTrend, equalTo(0f))
+    }
+
+    @Test
+    fun `the history should span the same time at a longer polling interval`() {
+        val intervalMillis = StatsPollingMode.BACKGROUND.intervalMillis
+        repeat(TRACK_STATS_HISTORY_SIZE) { tick(elapsedMillis = intervalMillis.toDouble()) }
+
+        val timestamps = trackStats().timestamps
+        val intervalCount = (TRACK_STATS_HISTORY_MILLIS / intervalMillis).toInt() + 1
+        assertThat(timestamps.size, equalTo(intervalCount))
+        assertThat(timestamps.last - timestamps[0], equalTo(TRACK_STATS_HISTORY_MILLIS))
+        assertThat(trackStats().bitrateHistory.size, equalTo(timestamps.size))
+    }
+
+    @Test
+    fun `the history should keep the latest intervals beyond the window`() {
+        repeat(TRACK_STATS_HISTORY_SIZE + 11) { tick(bytesDelta = it * 1_000L) }
+
+        val bitrateHistory = trackStats().bitrateHistory
+        assertThat(bitrateHistory.size, equalTo(TRACK_STATS_HISTORY_SIZE))
+        assertThat(bitrateHistory.last, equalTo((TRACK_STATS_HISTORY_SIZE + 10) * 8_000L))
+        assertThat(bitrateHistory.min(), equalTo(11 * 8_000L))
+        assertThat(trackStats().packetLossHistory.max(), equalTo(0))
+    }
+
+    @Test
+    fun `evicted tracks should be dropped on the next update`() {
+        tick()
+
+        trackStatsEngine.evict(TRACK_SID)
+        trackStatsEngine.update(emptyList())
+
+        assertThat(trackStatsEngine[TRACK_SID], nullValue())
+    }
+
+    private fun tick(
+        bytesDelta: Long = 125_000,
+        packetsDelta: Int = 100,
+        packetsLostDelta: Int = 0,
+        frameRate: Int = 30,
+        jitter: Int = 10,
+        elapsedMillis: Double = 1_000.0,
+        isLocalTrack: Boolean = false
+    ) {
+        timestampMillis += elapsedMillis
+        bytes += bytesDelta
+        packets += packetsDelta
+        packetsLost += packetsLostDelta
+        trackStatsEngine.record(TRACK_SID, isLocalTrack, timestampMillis, bytes, packets,
+                packetsLost, frameRate, jitter)
+    }
+
+    private fun trackStats() = trackStatsEngine[TRACK_SID]!!
+
+    companion object {
+        private const val TRACK_SID = "MT1"
+    }
+}
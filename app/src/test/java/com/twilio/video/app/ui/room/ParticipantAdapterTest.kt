@@ -0,0 +1,29 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.ui.room.ParticipantAdapter.Companion.isWithinViewport
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class ParticipantAdapterTest : BaseUnitTest() {
+
+    @Test
+    fun `a thumbnail partly in view should be within the viewport`() {
+        assertThat(isWithinViewport(-50, 0, 50, 148, 400, 148, 0), equalTo(true))
+        assertThat(isWithinViewport(350, 0, 450, 148, 400, 148, 0), equalTo(true))
+    }
+
+    @Test
+    fun `a thumbnail within the prefetch margin should be within the viewport`() {
+        assertThat(isWithinViewport(450, 0, 550, 148, 400, 148, 104), equalTo(true))
+        assertThat(isWithinViewport(-150, 0, -50, 148, 400, 148, 104), equalTo(true))
+    }
+
+    @Test
+    fun `a thumbnail beyond the prefetch margin should not be within the viewport`() {
+        assertThat(isWithinViewport(504, 0, 604, 148, 400, 148, 104), equalTo(false))
+        assertThat(isWithinViewport(-204, 0, -104, 148, 400, 148, 104), equalTo(false))
+        assertThat(isWithinViewport(0, 300, 100, 448, 400, 148, 104), equalTo(false))
+    }
+}
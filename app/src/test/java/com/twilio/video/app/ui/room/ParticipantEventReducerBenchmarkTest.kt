@@ -0,0 +1,95 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_FIVE
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.MuteRemoteParticipant
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.NetworkQualityLevelChange
+import java.lang.management.ManagementFactory
+import java.util.concurrent.Executors
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.asCoroutineDispatcher
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withContext
+import org.junit.After
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+
+/*
+ * Measures the main thread time of reducing a batch of participant events in place against
+ * handing it to Dispatchers.Default, which is what MIN_SHARDED_EVENT_COUNT is derived from. A
+ * single thread executor stands in for the main thread, and only the CPU time of that thread is
+ * counted. Like ParticipantManagerBenchmarkTest it only runs when Gradle is given -Pbenchmarks.
+ */
+class ParticipantEventReducerBenchmarkTest {
+
+    private val mainExecutor = Executors.newSingleThreadExecutor()
+    private val mainDispatcher = mainExecutor.asCoroutineDispatcher()
+    private val threadMXBean = ManagementFactory.getThreadMXBean()
+
+    @Before
+    fun setUp() {
+        assumeTrue("Benchmarks only run with -Pbenchmarks",
+                java.lang.Boolean.getBoolean("benchmarks"))
+        assumeTrue(threadMXBean.isCurrentThreadCpuTimeSupported)
+    }
+
+    @After
+    fun tearDown() {
+        mainExecutor.shutdown()
+    }
+
+    @Test
+    fun `small batches should take less main thread time in place`() {
+        val events = buildEvents(MIN_SHARDED_EVENT_COUNT / 4)
+
+        val inPlaceCost = measureInPlace(events)
+        val handOverCost = measureHandOver(events)
+
+        assertTrue("Reducing in place took $inPlaceCost ns, handing over $handOverCost ns",
+                inPlaceCost < handOverCost)
+    }
+
+    @Test
+    fun `large batches should take less main thread time off the main thread`() {
+        val events = buildEvents(MIN_SHARDED_EVENT_COUNT * 4)
+
+        val inPlaceCost = measureInPlace(events)
+        val handOverCost = measureHandOver(events)
+
+        assertTrue("Reducing in place took $inPlaceCost ns, handing over $handOverCost ns",
+                handOverCost < inPlaceCost)
+    }
+
+    private fun measureInPlace(events: List<RoomEvent>): Long {
+        val participantEventReducer = ParticipantEventReducer(1)
+        return measureMainThreadTime { participantEventReducer.reduce(events) }
+    }
+
+    private fun measureHandOver(events: List<RoomEvent>): Long {
+        val participantEventReducer = ParticipantEventReducer()
+        return measureMainThreadTime {
+            withContext(Dispatchers.Default) { participantEventReducer.reduce(events) }
+        }
+    }
+
+    private fun measureMainThreadTime(reduce: suspend () -> Unit): Long =
+            runBlocking(mainDispatcher) {
+                repeat(WARM_UP_ROUNDS) { reduce() }
+                val start = threadMXBean.currentThreadCpuTime
+                repeat(MEASURED_ROUNDS) { reduce() }
+                (threadMXBean.currentThreadCpuTime - start) / MEASURED_ROUNDS
+            }
+
+    // One mute and one network quality event per participant, as left by the event coalescer
+    private fun buildEvents(count: Int): List<RoomEvent> = (0 until count).map { index ->
+        val sid = "${index / 2}"
+        if (index % 2 == 0) MuteRemoteParticipant(sid, true)
+        else NetworkQualityLevelChange(sid, NETWORK_QUALITY_LEVEL_FIVE)
+    }
+
+    companion object {
+        private const val WARM_UP_ROUNDS = 5_000
+        private const val MEASURED_ROUNDS = 20_000
+    }
+}
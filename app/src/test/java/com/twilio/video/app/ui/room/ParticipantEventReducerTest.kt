@@ -0,0 +1,85 @@
+package com.twilio.video.app.ui.room
+
+import com.nhaarman.mockitokotlin2.mock
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_FIVE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ONE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_THREE
+import com.twilio.video.VideoTrack
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.participant.ParticipantUpdate
+import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.sdk.VideoTrackViewState
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.MuteRemoteParticipant
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.NetworkQualityLevelChange
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.ScreenTrackUpdated
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.TrackSwitchOff
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.VideoTrackUpdated
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.test.runBlockingTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+@ExperimentalCoroutinesApi
+class ParticipantEventReducerTest : BaseUnitTest() {
+
+    private val videoTrack = mock<VideoTrack>()
+    private val screenTrack = mock<VideoTrack>()
+
+    @Test
+    fun `events should be folded into one update per participant`() = runBlockingTest {
+        val updates = ParticipantEventReducer().reduce(listOf(
+                MuteRemoteParticipant("1", true),
+                NetworkQualityLevelChange("2", NETWORK_QUALITY_LEVEL_ONE),
+                VideoTrackUpdated("1", videoTrack),
+                TrackSwitchOff("1", videoTrack, true),
+                MuteRemoteParticipant("1", false),
+                ScreenTrackUpdated("2", screenTrack)))
+
+        assertThat(updates.map { it.sid }, equalTo(listOf("1", "2")))
+        assertThat(updates.first().applyTo(ParticipantViewState("1", isMuted = true)),
+                equalTo(ParticipantViewState("1",
+                        videoTrack = VideoTrackViewState(videoTrack, true))))
+        assertThat(updates.last().applyTo(ParticipantViewState("2")),
+                equalTo(ParticipantViewState("2",
+                        screenTrack = VideoTrackViewState(screenTrack),
+                        networkQualityLevel = NETWORK_QUALITY_LEVEL_ONE)))
+    }
+
+    @Test
+    fun `a removed track should be cleared instead of being left untouched`() = runBlockingTest {
+        val updates = ParticipantEventReducer().reduce(listOf(VideoTrackUpdated("1", null)))
+
+        assertThat(updates.single().applyTo(ParticipantViewState("1",
+                videoTrack = VideoTrackViewState(videoTrack))), equalTo(ParticipantViewState("1")))
+    }
+
+    @Test
+    fun `sharded reduction should match reducing every event on a single shard`() = runBlockingTest {
+        val events = (1..1_000).map { index ->
+            val sid = "${index % 37}"
+            when (index % 3) {
+                0 -> MuteRemoteParticipant(sid, index % 2 == 0)
+                1 -> NetworkQualityLevelChange(sid,
+                        if (index % 2 == 0) NETWORK_QUALITY_LEVEL_THREE else NETWORK_QUALITY_LEVEL_FIVE)
+                else -> TrackSwitchOff(sid, videoTrack, index % 2 == 0)
+            }
+        }
+
+        val sharded = ParticipantEventReducer(8).reduce(events).map { it.sid to it.applied() }
+        val unsharded = ParticipantEventReducer(1).reduce(events).map { it.sid to it.applied() }
+
+        assertThat(sharded.size, equalTo(37))
+        assertThat(sharded.toMap(), equalTo(unsharded.toMap()))
+    }
+
+    @Test
+    fun `only large batches should be sharded`() {
+        assertThat(ParticipantEventReducer().isSharded(MIN_SHARDED_EVENT_COUNT - 1), equalTo(false))
+        assertThat(ParticipantEventReducer().isSharded(MIN_SHARDED_EVENT_COUNT), equalTo(true))
+        assertThat(ParticipantEventReducer(1).isSharded(1_000), equalTo(false))
+    }
+
+    private fun ParticipantUpdate.applied() =
+            applyTo(ParticipantViewState(sid))
+}
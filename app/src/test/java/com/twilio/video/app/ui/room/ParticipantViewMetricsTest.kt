@@ -0,0 +1,75 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.app.BaseUnitTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.CoreMatchers.nullValue
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class ParticipantViewMetricsTest : BaseUnitTest() {
+
+    private var now = 0L
+    private val viewMetrics = ParticipantViewMetrics { now }
+
+    @Test
+    fun `every inflation should be counted and timed`() {
+        inflate(3_000_000)
+        inflate(5_000_000)
+        viewMetrics.onPrewarmed()
+
+        val metrics = viewMetrics.metrics
+        assertThat(metrics.inflations, equalTo(2))
+        assertThat(metrics.prewarmedInflations, equalTo(1))
+        assertThat(metrics.totalInflationNanos, equalTo(8_000_000L))
+        assertThat(metrics.maxInflationNanos, equalTo(5_000_000L))
+    }
+
+    @Test
+    fun `the first frame should be timed from connecting`() {
+        now = 1_000
+        viewMetrics.onConnecting()
+        now = 501_000
+        viewMetrics.onFirstFrame()
+        now = 900_000
+        viewMetrics.onFirstFrame()
+
+        assertThat(viewMetrics.metrics.timeToFirstThumbnailNanos, equalTo(500_000L))
+        assertThat(viewMetrics.isAwaitingFirstFrame, equalTo(false))
+    }
+
+    @Test
+    fun `no first frame should be awaited outside of a room`() {
+        viewMetrics.onFirstFrame()
+
+        assertThat(viewMetrics.isAwaitingFirstFrame, equalTo(false))
+        assertThat(viewMetrics.metrics.timeToFirstThumbnailNanos, nullValue())
+    }
+
+    @Test
+    fun `connecting again while in the room should not restart the clock`() {
+        viewMetrics.onConnecting()
+        now = 1_000
+        viewMetrics.onConnecting()
+        now = 3_000
+        viewMetrics.onFirstFrame()
+
+        assertThat(viewMetrics.metrics.timeToFirstThumbnailNanos, equalTo(3_000L))
+    }
+
+    @Test
+    fun `joining another room should await its first frame`() {
+        viewMetrics.onConnecting()
+        viewMetrics.onFirstFrame()
+        viewMetrics.onLeftRoom()
+
+        now = 10_000
+        viewMetrics.onConnecting()
+
+        assertThat(viewMetrics.isAwaitingFirstFrame, equalTo(true))
+        assertThat(viewMetrics.metrics.timeToFirstThumbnailNanos, nullValue())
+    }
+
+    private fun inflate(durationNanos: Long) {
+        viewMetrics.measureInflation { now += durationNanos }
+    }
+}
@@ -0,0 +1,20 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.ui.room.ParticipantViewPool.Companion.capacityFor
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class ParticipantViewPoolTest : BaseUnitTest() {
+
+    @Test
+    fun `the pool should hold the thumbnails in and around the thumbnail list`() {
+        assertThat(capacityFor(1920, 104, 104, 2), equalTo(22))
+    }
+
+    @Test
+    fun `the pool should hold a full page of the largest grid`() {
+        assertThat(capacityFor(400, 104, 0, 3), equalTo(9))
+    }
+}
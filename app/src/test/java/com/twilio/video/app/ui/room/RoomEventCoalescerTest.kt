@@ -0,0 +1,105 @@
+package com.twilio.video.app.ui.room
+
+import com.nhaarman.mockitokotlin2.mock
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_FIVE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_ONE
+import com.twilio.video.NetworkQualityLevel.NETWORK_QUALITY_LEVEL_THREE
+import com.twilio.video.Participant
+import com.twilio.video.VideoTrack
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.ui.room.RoomEvent.DominantSpeakerChanged
+import com.twilio.video.app.ui.room.RoomEvent.RecordingStarted
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.MuteRemoteParticipant
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.NetworkQualityLevelChange
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.RemoteParticipantConnected
+import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.TrackSwitchOff
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.test.runBlockingTest
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+@ExperimentalCoroutinesApi
+class RoomEventCoalescerTest : BaseUnitTest() {
+
+    @Test
+    fun `merge should keep only the last mute and network quality event of each participant`() {
+        val roomEvents = listOf(
+                MuteRemoteParticipant("1", true),
+                NetworkQualityLevelChange("1", NETWORK_QUALITY_LEVEL_ONE),
+                MuteRemoteParticipant("2", true),
+                MuteRemoteParticipant("1", false),
+                NetworkQualityLevelChange("1", NETWORK_QUALITY_LEVEL_FIVE))
+
+        assertThat(mergeRedundantEvents(roomEvents), equalTo(listOf<RoomEvent>(
+                MuteRemoteParticipant("2", true),
+                MuteRemoteParticipant("1", false),
+                NetworkQualityLevelChange("1", NETWORK_QUALITY_LEVEL_FIVE))))
+    }
+
+    @Test
+    fun `merge should keep only the last switch off event of a video track`() {
+        val videoTrack = mock<VideoTrack>()
+        val roomEvents = listOf(
+                TrackSwitchOff("1", videoTrack, true),
+                TrackSwitchOff("1", videoTrack, false))
+
+        assertThat(mergeRedundantEvents(roomEvents),
+                equalTo(listOf<RoomEvent>(TrackSwitchOff("1", videoTrack, false))))
+    }
+
+    @Test
+    fun `merge should never drop dominant speaker changes`() {
+        val roomEvents = listOf(DominantSpeakerChanged("1"), DominantSpeakerChanged("2"))
+
+        assertThat(mergeRedundantEvents(roomEvents), equalTo(roomEvents))
+    }
+
+    @Test
+    fun `non participant events should end the current batch and keep their order`() = runBlockingTest {
+        val batches = flowOf(
+                MuteRemoteParticipant("1", true),
+                MuteRemoteParticipant("1", false),
+                RecordingStarted,
+                MuteRemoteParticipant("2", true)
+        ).coalesceParticipantEvents(0).toList()
+
+        assertThat(batches, equalTo(listOf(
+                listOf(MuteRemoteParticipant("1", false)),
+                listOf(RecordingStarted),
+                listOf(MuteRemoteParticipant("2", true)))))
+    }
+
+    @Test
+    fun `a participant join storm should produce an order of magnitude fewer batches`() = runBlockingTest {
+        val roomEvents = joinStorm(50)
+        val batches = flow {
+            roomEvents.forEach {
+                emit(it)
+                delay(1)
+            }
+        }.coalesceParticipantEvents(PARTICIPANT_EVENT_WINDOW_MILLIS).toList()
+
+        assertTrue(batches.size * 10 <= roomEvents.size)
+        assertThat(batches.flatten().filterIsInstance<RemoteParticipantConnected>().size, equalTo(50))
+    }
+
+    private fun joinStorm(participantCount: Int): List<RoomEvent> =
+            (1..participantCount).flatMap { index ->
+                val sid = "$index"
+                val videoTrack = mock<VideoTrack>()
+                listOf(
+                        RemoteParticipantConnected(mock<Participant>()),
+                        MuteRemoteParticipant(sid, true),
+                        NetworkQualityLevelChange(sid, NETWORK_QUALITY_LEVEL_ONE),
+                        TrackSwitchOff(sid, videoTrack, true),
+                        MuteRemoteParticipant(sid, false),
+                        NetworkQualityLevelChange(sid, NETWORK_QUALITY_LEVEL_THREE),
+                        TrackSwitchOff(sid, videoTrack, false))
+            }
+}
@@ -3,17 +3,27 @@ package com.twilio.video.app.ui.room
 import android.Manifest
 import androidx.arch.core.executor.testing.InstantTaskExecutorRule
 import com.nhaarman.mockitokotlin2.mock
+import com.nhaarman.mockitokotlin2.never
 import com.nhaarman.mockitokotlin2.verify
 import com.nhaarman.mockitokotlin2.whenever
 import com.twilio.video.RemoteVideoTrack
+import com.twilio.video.TrackPriority.LOW
 import com.twilio.video.app.BaseUnitTest
 import com.twilio.video.app.participant.ParticipantManager
 import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.sdk.CaptureDegradation
+import com.twilio.video.app.sdk.CaptureDegradationReason
 import com.twilio.video.app.sdk.LocalParticipantManager
+import com.twilio.video.app.sdk.QualityAlert
+import com.twilio.video.app.sdk.QualityAlertType.LOW_FRAME_RATE
+import com.twilio.video.app.sdk.RenderDimensionPolicy
 import com.twilio.video.app.sdk.RoomManager
 import com.twilio.video.app.sdk.VideoTrackViewState
+import com.twilio.video.app.ui.room.RoomEvent.CaptureDegradationChanged
 import com.twilio.video.app.ui.room.RoomEvent.ConnectFailure
 import com.twilio.video.app.ui.room.RoomEvent.MaxParticipantFailure
+import com.twilio.video.app.ui.room.RoomEvent.QualityAlertCleared
+import com.twilio.video.app.ui.room.RoomEvent.QualityAlertRaised
 import com.twilio.video.app.ui.room.RoomEvent.RecordingStarted
 import com.twilio.video.app.ui.room.RoomEvent.RecordingStopped
 import com.twilio.video.app.ui.room.RoomEvent.RemoteParticipantEvent.TrackSwitchOff
@@ -24,6 +34,8 @@ import com.twilio.video.app.ui.room.RoomViewEffect.ShowConnectFailureDialog
 import com.twilio.video.app.ui.room.RoomViewEffect.ShowMaxParticipantFailureDialog
 import com.twilio.video.app.ui.room.RoomViewEvent.Connect
 import com.twilio.video.app.ui.room.RoomViewEvent.OnResume
+import com.twilio.video.app.ui.room.RoomViewEvent.RenderSizeChanged
+import com.twilio.video.app.ui.room.RoomViewEvent.VisibleParticipantsChanged
 import com.twilio.video.app.util.PermissionUtil
 import io.uniflow.android.test.TestViewObserver
 import io.uniflow.android.test.createTestObserver
@@ -231,6 +243,78 @@ class RoomViewModelTest : BaseUnitTest() {
                         isRecording = false))
     }
 
+    @Test
+    fun `Quality alert events should add and remove the alert from the view state`() {
+        val alert = QualityAlert("MT1", "Test Participant", LOW_FRAME_RATE, 5f)
+        connect()
+        roomManager.sendRoomEvent(QualityAlertRaised(alert))
+        roomManager.sendRoomEvent(QualityAlertCleared(alert))
+
+        testObserver.verifySequence(
+                initialRoomViewState,
+                initialRoomViewState.copy(configuration = RoomViewConfiguration.Connecting),
+                initialRoomViewState.copy(configuration = RoomViewConfiguration.Connecting,
+                        qualityAlerts = listOf(alert)),
+                initialRoomViewState.copy(configuration = RoomViewConfiguration.Connecting))
+    }
+
+    @Test
+    fun `The CaptureDegradationChanged event should set the captureDegradation property`() {
+        val degradation = CaptureDegradation(2, CaptureDegradationReason.THERMAL)
+        roomManager.sendRoomEvent(CaptureDegradationChanged(degradation))
+
+        testObserver.verifySequence(
+                initialRoomViewState,
+                initialRoomViewState.copy(captureDegradation = degradation))
+    }
+
+    @Test
+    fun `track priorities should only follow the visible participants once they settled`() {
+        val videoTrack = mock<RemoteVideoTrack>()
+        participantManager.addParticipant(ParticipantViewState("456", "Second Participant",
+                videoTrack = VideoTrackViewState(videoTrack)))
+        viewModel = RoomViewModel(
+                roomManager,
+                mock(),
+                permissionUtil,
+                participantManager,
+                visibleParticipantsDebounceMillis = 300)
+
+        viewModel.processInput(VisibleParticipantsChanged(setOf(PARTICIPANT_SID)))
+        testDispatcher.advanceTimeBy(200)
+        viewModel.processInput(VisibleParticipantsChanged(setOf(PARTICIPANT_SID, "456")))
+        viewModel.processInput(VisibleParticipantsChanged(setOf(PARTICIPANT_SID)))
+        testDispatcher.advanceTimeBy(299)
+
+        verify(videoTrack, never()).priority = LOW
+
+        testDispatcher.advanceTimeBy(1)
+
+        verify(videoTrack).priority = LOW
+    }
+
+    @Test
+    fun `render sizes should only be applied once the layout settled`() {
+        viewModel = RoomViewModel(
+                roomManager,
+                mock(),
+                permissionUtil,
+                participantManager,
+                visibleParticipantsDebounceMillis = 300)
+
+        viewModel.processInput(RenderSizeChanged(PARTICIPANT_SID, 160, 90))
+        testDispatcher.advanceTimeBy(200)
+        viewModel.processInput(RenderSizeChanged(PARTICIPANT_SID, 320, 180))
+        testDispatcher.advanceTimeBy(299)
+
+        assertThat(roomManager.renderDimensionHints.thumbnailDimensions, `is`(nullValue()))
+
+        testDispatcher.advanceTimeBy(1)
+
+        assertThat(roomManager.renderDimensionHints.thumbnailDimensions,
+                equalTo(RenderDimensionPolicy().quantize(320, 180)))
+    }
+
     @Test
     fun `OnCleared should cancel room manager job`() {
         assertThat(viewModel.roomManagerJob!!.isActive, equalTo(true))
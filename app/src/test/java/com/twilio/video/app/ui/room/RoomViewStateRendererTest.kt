@@ -0,0 +1,106 @@
+package com.twilio.video.app.ui.room
+
+import com.twilio.video.app.BaseUnitTest
+import com.twilio.video.app.participant.ParticipantViewState
+import com.twilio.video.app.sdk.QualityAlert
+import com.twilio.video.app.sdk.QualityAlertType
+import com.twilio.video.app.sdk.RoomStats
+import org.hamcrest.CoreMatchers.equalTo
+import org.hamcrest.MatcherAssert.assertThat
+import org.junit.Test
+
+class RoomViewStateRendererTest : BaseUnitTest() {
+
+    private val localParticipant = ParticipantViewState("0", isLocalParticipant = true)
+    private val remoteParticipant = ParticipantViewState("1", "Participant 1")
+    private val connectedViewState = RoomViewState(
+            remoteParticipant,
+            title = "Test Room",
+            participantThumbnails = listOf(localParticipant, remoteParticipant),
+            configuration = RoomViewConfiguration.Connected)
+    private val renderCounts = mutableMapOf<String, Int>()
+    private var statsSequence = 0L
+    private val roomViewStateRenderer = RoomViewStateRenderer(
+            { count("roomStatus") },
+            { count("localMedia") },
+            { count("participants") },
+            { count("audioRouting") },
+            { count("stats") },
+            { count("alerts") })
+
+    @Test
+    fun `every slice should be rendered for the first view state`() {
+        roomViewStateRenderer.render(connectedViewState)
+
+        assertThat(renderCounts.keys, equalTo(setOf(
+                "roomStatus", "localMedia", "participants", "audioRouting", "stats",
+                "alerts")))
+    }
+
+    @Test
+    fun `a stats update should only render the stats slice`() {
+        roomViewStateRenderer.render(connectedViewState)
+        renderCounts.clear()
+
+        roomViewStateRenderer.render(connectedViewState.copy(roomStats = roomStats()))
+
+        assertThat(renderCounts, equalTo(mapOf("stats" to 1)))
+    }
+
+    @Test
+    fun `a quality alert should only render the alerts slice`() {
+        roomViewStateRenderer.render(connectedViewState)
+        renderCounts.clear()
+
+        roomViewStateRenderer.render(connectedViewState.copy(qualityAlerts = listOf(
+                QualityAlert("MT1", "Participant 1", QualityAlertType.LOW_FRAME_RATE, 8f))))
+
+        assertThat(renderCounts, equalTo(mapOf("alerts" to 1)))
+    }
+
+    @Test
+    fun `a mute change should only render the local media slice`() {
+        roomViewStateRenderer.render(connectedViewState)
+        renderCounts.clear()
+
+        roomViewStateRenderer.render(connectedViewState.copy(isAudioMuted = true))
+
+        assertThat(renderCounts, equalTo(mapOf("localMedia" to 1)))
+    }
+
+    @Test
+    fun `invalidate should render every slice again with the next view state`() {
+        roomViewStateRenderer.render(connectedViewState)
+        renderCounts.clear()
+
+        roomViewStateRenderer.invalidate()
+        roomViewStateRenderer.render(connectedViewState)
+
+        assertThat(renderCounts.values.sum(), equalTo(6))
+    }
+
+    @Test
+    fun `a minute of connected call should render participants only when they change`() {
+        val seconds = 60
+        var viewState = connectedViewState
+        roomViewStateRenderer.render(viewState)
+        for (second in 1..seconds) {
+            viewState = viewState.copy(roomStats = roomStats())
+            if (second % 20 == 0) {
+                viewState = viewState.copy(primaryParticipant = remoteParticipant.copy(
+                        isMuted = !viewState.primaryParticipant.isMuted))
+            }
+            roomViewStateRenderer.render(viewState)
+        }
+
+        assertThat(renderCounts["participants"], equalTo(4))
+        assertThat(renderCounts["stats"], equalTo(seconds + 1))
+        assertThat(renderCounts["roomStatus"], equalTo(1))
+    }
+
+    private fun roomStats() = RoomStats(emptyList(), ++statsSequence)
+
+    private fun count(slice: String) {
+        renderCounts[slice] = (renderCounts[slice] ?: 0) + 1
+    }
+}
@@ -0,0 +1,23 @@
+package com.twilio.video.app.util
+
+import java.lang.management.ManagementFactory
+import org.junit.Assume.assumeTrue
+
+private val threadMXBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+
+/*
+ * Bytes allocated by the current thread, or null on a JVM that does not count them. Reading the
+ * counter allocates a little itself, so callers should only assert against a bound that scales
+ * with their workload.
+ */
+fun currentThreadAllocatedBytes(): Long? = threadMXBean
+        ?.takeIf { it.isThreadAllocatedMemorySupported && it.isThreadAllocatedMemoryEnabled }
+        ?.getThreadAllocatedBytes(Thread.currentThread().id)
+
+/** Skips the calling test on a JVM that does not count the bytes allocated by a thread. */
+inline fun measureAllocatedBytes(block: () -> Unit): Long {
+    val start = currentThreadAllocatedBytes()
+    assumeTrue("Thread allocation counting is not supported by this JVM", start != null)
+    block()
+    return currentThreadAllocatedBytes()!! - start!!
+}
@@ -0,0 +1,144 @@
+package com.twilio.video.app.util
+
+import com.nhaarman.mockitokotlin2.mock
+import com.twilio.video.LocalAudioTrackStats
+import com.twilio.video.LocalVideoTrackStats
+import com.twilio.video.RemoteAudioTrackStats
+import com.twilio.video.RemoteVideoTrackStats
+import com.twilio.video.StatsReport
+import com.twilio.video.VideoDimensions
+import com.twilio.video.app.sdk.CallQualityLogReader
+import com.twilio.video.app.sdk.CallQualityRecorder
+import com.twilio.video.app.sdk.CallQualitySample
+import com.twilio.video.app.sdk.CallQualitySession
+import com.twilio.video.app.sdk.CallQualityTrack
+import java.io.File
+
+/*
+ * Rebuilds the stats reports of a recorded session, one list of reports per stats tick, so that
+ * a real call can be fed through the stats pipeline without a room. The SDK only creates its stats
+ * natively, so the track stats are mocked and their public fields set reflectively, while the
+ * reports are created and filled through their package private constructor and adders. Unlike a
+ * mocked getter, the getters of a real report do not allocate, so the pipeline can be allocation
+ * tested with them. A tick ends when a track shows up again, since every tick samples each track
+ * once.
+ */
+fun replayStatsReports(session: CallQualitySession): List<List<StatsReport>> {
+    val samples = session.tracks
+            .flatMap { track -> track.samples.map { sample -> track to sample } }
+            .sortedBy { (_, sample) -> sample.timestampMillis }
+    val ticks = mutableListOf<List<StatsReport>>()
+    val tickSamples = mutableListOf<Pair<CallQualityTrack, CallQualitySample>>()
+    samples.forEach { trackSample ->
+        if (tickSamples.any { (track, _) -> track === trackSample.first }) {
+            ticks += listOf(statsReport(tickSamples))
+            tickSamples.clear()
+        }
+        tickSamples += trackSample
+    }
+    if (tickSamples.isNotEmpty()) ticks += listOf(statsReport(tickSamples))
+    return ticks
+}
+
+private fun statsReport(samples: List<Pair<CallQualityTrack, CallQualitySample>>): StatsReport {
+    val constructor = StatsReport::class.java.declaredConstructors.single()
+    constructor.isAccessible = true
+    val arguments = constructor.parameterTypes.map { if (it == String::class.java) "PC" else null }
+    val statsReport = constructor.newInstance(*arguments.toTypedArray()) as StatsReport
+    samples.forEach { (track, sample) ->
+        when {
+            track.isLocalTrack && track.isAudioTrack ->
+                statsReport.add<LocalAudioTrackStats>(trackStats(track, sample))
+            track.isLocalTrack -> statsReport.add<LocalVideoTrackStats>(trackStats(track, sample))
+            track.isAudioTrack -> statsReport.add<RemoteAudioTrackStats>(trackStats(track, sample))
+            else -> statsReport.add<RemoteVideoTrackStats>(trackStats(track, sample))
+        }
+    }
+    return statsReport
+}
+
+private inline fun <reified T : Any> StatsReport.add(trackStats: T) {
+    val adder = StatsReport::class.java.declaredMethods
+            .single { it.parameterTypes.singleOrNull() == T::class.java }
+    adder.isAccessible = true
+    adder.invoke(this, trackStats)
+}
+
+private inline fun <reified T : Any> trackStats(track: CallQualityTrack, sample: CallQualitySample): T =
+        mock<T>().apply {
+            setField("trackSid", track.trackSid)
+            setField("codec", if (track.isAudioTrack) "opus" else "VP8")
+            setField("timestamp", sample.timestampMillis.toDouble())
+            setField("packetsLost", sample.packetsLost)
+            if (track.isLocalTrack) {
+                setField("bytesSent", sample.bytes)
+                setField("packetsSent", sample.packets)
+                setField("roundTripTime", sample.rtt)
+            } else {
+                setField("bytesReceived", sample.bytes)
+                setField("packetsReceived", sample.packets)
+            }
+            if (track.isAudioTrack) {
+                setField("jitter", sample.jitter)
+                setField("audioLevel", sample.audioLevel)
+            } else {
+                setField("frameRate", sample.frameRate)
+                setField("dimensions", VideoDimensions(sample.width, sample.height))
+            }
+        }
+
+private fun Any.setField(name: String, value: Any) {
+    var type: Class<*>? = javaClass
+    while (type != null) {
+        val field = type.declaredFields.find { it.name == name }
+        if (field != null) {
+            field.isAccessible = true
+            field.set(this, value)
+            return
+        }
+        type = type.superclass
+    }
+    throw IllegalArgumentException("${javaClass.name} has no field $name")
+}
+
+const val BAD_CALL_TICKS = 120
+val BAD_CALL_DEGRADED_TICKS = 40 until 80
+
+/*
+ * Records a two minute call whose network degrades for the middle 40 seconds: the remote video
+ * drops from 1.5 Mbps at 30 fps to 300 kbps at 12 fps with 10% packet loss, and the round trip
+ * time of the local tracks climbs from 50 ms to 400 ms.
+ */
+fun recordBadCall(directory: File): CallQualitySession {
+    val recorder = CallQualityRecorder(directory, 1024 * 1024L)
+    recorder.start("RM1", 1_600_000_000_000L)
+    var remoteVideoBytes = 0L
+    var remoteVideoPackets = 0
+    var remoteVideoPacketsLost = 0
+    for (tick in 0 until BAD_CALL_TICKS) {
+        val isDegraded = tick in BAD_CALL_DEGRADED_TICKS
+        val timestampMillis = tick * 1_000L
+        val rtt = if (isDegraded) 400L else 50L
+        recorder.recordSample("MTla", true, true, timestampMillis, tick * 4_000L, tick * 50, 0,
+                rtt, 2, 1_000, 0, 0, 0)
+        recorder.recordSample("MTlv", true, false, timestampMillis, tick * 100_000L, tick * 100, 0,
+                rtt, 0, 0, 30, 1280, 720)
+        recorder.recordSample("MTra", false, true, timestampMillis, tick * 4_000L, tick * 50, 0,
+                0, if (isDegraded) 30 else 2, 1_000, 0, 0, 0)
+        recorder.recordSample("MTrv", false, false, timestampMillis, remoteVideoBytes,
+                remoteVideoPackets, remoteVideoPacketsLost, 0, 0, 0,
+                if (isDegraded) 12 else 30, if (isDegraded) 640 else 1280,
+                if (isDegraded) 360 else 720)
+        // The counters of the next sample cover the interval ending with it
+        val isNextDegraded = tick + 1 in BAD_CALL_DEGRADED_TICKS
+        remoteVideoBytes += if (isNextDegraded) 37_500 else 187_500
+        remoteVideoPackets += if (isNextDegraded) 90 else 100
+        remoteVideoPacketsLost += if (isNextDegraded) 10 else 0
+        recorder.flush()
+        recorder.awaitWritten(5_000)
+    }
+    recorder.stop()
+    recorder.awaitStopped(5_000)
+    val reader = CallQualityLogReader(directory)
+    return reader.read(reader.sessionIds().single())!!
+}